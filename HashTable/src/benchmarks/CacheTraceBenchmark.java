@@ -0,0 +1,108 @@
+package benchmarks;
+
+import interfaces.IMap;
+import structures.LruMap;
+import structures.TinyLfuMap;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * Replays recorded key sequences through LruMap and TinyLfuMap and reports
+ * the hit rate of each. A request that misses adds its key, as a cache in
+ * front of a slower store would. Without trace files a synthetic trace is
+ * used, where popular keys drawn from a Zipf distribution are interleaved
+ * with scans of keys that are requested only once.
+ *
+ * Run with the cache size and any number of trace files holding one key
+ * per line, e.g.
+ * java benchmarks.CacheTraceBenchmark 10000 [trace ...]
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class CacheTraceBenchmark
+{
+    private static final int DEFAULT_CACHE_SIZE = 10_000;
+    private static final int SYNTHETIC_KEYS = 1_000_000;
+    private static final int SYNTHETIC_REQUESTS = 5_000_000;
+    private static final double ZIPF_EXPONENT = 0.9;
+    //one request in this many starts a scan of one-hit wonders
+    private static final int SCAN_INTERVAL = 10_000;
+    private static final int SCAN_LENGTH = 2000;
+
+    /**
+     * Replays each trace file given on the command line, or the synthetic
+     * trace when none are given.
+     * @param args the cache size followed by optional trace files
+     * @throws IOException if a trace file cannot be read
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int cacheSize = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CACHE_SIZE;
+
+        System.out.printf("%-24s %12s %10s %10s%n", "trace", "requests", "lru", "tinylfu");
+        if(args.length < 2) {
+            report("synthetic", syntheticTrace(), cacheSize);
+        }
+        for(int i = 1; i < args.length; i++) {
+            List<String> lines = Files.readAllLines(Paths.get(args[i]), StandardCharsets.UTF_8);
+            report(Paths.get(args[i]).getFileName().toString(), lines.toArray(new String[0]), cacheSize);
+        }
+    }
+
+    private static void report(String name, String[] trace, int cacheSize)
+    {
+        double lru = replay(trace, LruMap::new, cacheSize);
+        double tinyLfu = replay(trace, TinyLfuMap::new, cacheSize);
+        System.out.printf("%-24s %12d %9.2f%% %9.2f%%%n", name, trace.length, lru * 100, tinyLfu * 100);
+    }
+
+    //returns the share of requests that were hits
+    private static double replay(String[] trace, IntFunction<IMap<String, String>> cacheFactory, int cacheSize)
+    {
+        IMap<String, String> cache = cacheFactory.apply(cacheSize);
+        long hits = 0;
+        for(String key : trace) {
+            if(cache.get(key) != null) {
+                hits++;
+            }
+            else {
+                cache.add(key, key);
+            }
+        }
+        return trace.length == 0 ? 0 : (double) hits / trace.length;
+    }
+
+    private static String[] syntheticTrace()
+    {
+        //the cumulative distribution of the Zipf popularity of each key
+        double[] cumulative = new double[SYNTHETIC_KEYS];
+        double total = 0;
+        for(int i = 0; i < SYNTHETIC_KEYS; i++) {
+            total += 1 / Math.pow(i + 1, ZIPF_EXPONENT);
+            cumulative[i] = total;
+        }
+
+        Random random = new Random(42);
+        String[] trace = new String[SYNTHETIC_REQUESTS];
+        int scanned = 0;
+        for(int i = 0; i < SYNTHETIC_REQUESTS; ) {
+            if(random.nextInt(SCAN_INTERVAL) == 0) {
+                for(int j = 0; j < SCAN_LENGTH && i < SYNTHETIC_REQUESTS; j++) {
+                    trace[i++] = "scan-" + scanned++;
+                }
+                continue;
+            }
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            trace[i++] = "key-" + (index < 0 ? -index - 1 : index);
+        }
+        return trace;
+    }
+}
@@ -0,0 +1,110 @@
+package benchmarks;
+
+import hashtable.HashStrategy;
+import structures.Set;
+
+import java.util.Random;
+
+/**
+ * Measures what the collision resistant strategies cost: the average latency
+ * of Set.contains(element) on random strings for the default strategy, a
+ * seeded one and a SipHash one, at each string length. The seeded mix costs
+ * about the same as the default one, while SipHash reads every character of
+ * the string, so its cost grows with the length.
+ *
+ * java benchmarks.HashStrategyBenchmark [length ...]
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class HashStrategyBenchmark
+{
+    private static final int[] DEFAULT_LENGTHS = {8, 32, 128};
+    private static final int SIZE = 100_000;
+    private static final int LOOKUPS = 1_000_000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    /**
+     * Runs the benchmark for each string length given on the command line,
+     * or for the default lengths when none are given.
+     * @param args optional string lengths to measure
+     */
+    public static void main(String[] args)
+    {
+        int[] lengths = DEFAULT_LENGTHS;
+        if(args.length > 0) {
+            lengths = new int[args.length];
+            for(int i = 0; i < args.length; i++) {
+                lengths[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.printf("%8s %15s %15s %15s%n", "length", "default ns/op", "seeded ns/op", "sipHash ns/op");
+        for(int length : lengths) {
+            String[] elements = randomStrings(SIZE, length, new Random(length));
+            System.out.printf("%8d %15.1f %15.1f %15.1f%n", length,
+                    measure(HashStrategy.defaultStrategy(), elements),
+                    measure(HashStrategy.seeded(), elements),
+                    measure(HashStrategy.sipHash(), elements));
+        }
+    }
+
+    //fill a set with the elements and time random lookups against it
+    private static double measure(HashStrategy<String> strategy, String[] elements)
+    {
+        Set<String> set = new Set<>(strategy);
+        for(String element : elements) {
+            set.add(element);
+        }
+
+        //copy the looked up strings so their cached hashCode() is not the only work timed
+        Random random = new Random(elements.length);
+        String[] keys = new String[LOOKUPS];
+        for(int i = 0; i < LOOKUPS; i++) {
+            keys[i] = new String(elements[random.nextInt(elements.length)]);
+        }
+
+        //warm up the JIT before measuring
+        long checksum = 0;
+        for(int round = 0; round < WARMUP_ROUNDS; round++) {
+            checksum += lookupAll(set, keys);
+        }
+
+        long start = System.nanoTime();
+        for(int round = 0; round < MEASURED_ROUNDS; round++) {
+            checksum += lookupAll(set, keys);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        //use the checksum so the lookups cannot be optimized away
+        if(checksum == 42) {
+            System.out.println();
+        }
+        return (double)elapsed / ((long)LOOKUPS * MEASURED_ROUNDS);
+    }
+
+    private static long lookupAll(Set<String> set, String[] keys)
+    {
+        long found = 0;
+        for(String key : keys) {
+            if(set.contains(key)) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private static String[] randomStrings(int count, int length, Random random)
+    {
+        String[] strings = new String[count];
+        char[] chars = new char[length];
+        for(int i = 0; i < count; i++) {
+            for(int j = 0; j < length; j++) {
+                chars[j] = (char) ('a' + random.nextInt(26));
+            }
+            strings[i] = new String(chars);
+        }
+        return strings;
+    }
+}
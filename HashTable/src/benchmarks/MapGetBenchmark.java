@@ -0,0 +1,88 @@
+package benchmarks;
+
+import structures.Map;
+
+import java.util.Random;
+
+/**
+ * Measures the average latency of Map.get(key) as the map grows from
+ * one thousand to ten million entries. With hashed lookups the reported
+ * nanoseconds per get should stay roughly flat across every size.
+ *
+ * Run with a large heap for the biggest sizes, e.g.
+ * java -Xmx4g benchmarks.MapGetBenchmark [size ...]
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class MapGetBenchmark
+{
+    private static final int[] DEFAULT_SIZES = {1_000, 10_000, 100_000, 1_000_000, 10_000_000};
+    private static final int LOOKUPS = 1_000_000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    /**
+     * Runs the benchmark for each size given on the command line, or for
+     * the default sizes when none are given.
+     * @param args optional map sizes to measure
+     */
+    public static void main(String[] args)
+    {
+        int[] sizes = DEFAULT_SIZES;
+        if(args.length > 0) {
+            sizes = new int[args.length];
+            for(int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.printf("%12s %15s%n", "entries", "ns/get");
+        for(int size : sizes) {
+            System.out.printf("%12d %15.1f%n", size, measure(size));
+        }
+    }
+
+    //fill a map with the given number of entries and time random lookups against it
+    private static double measure(int size)
+    {
+        Map<Integer, Integer> map = new Map<>();
+        for(int i = 0; i < size; i++) {
+            map.add(i, i);
+        }
+
+        //pick the keys up front so the random number generator is not timed
+        Random random = new Random(size);
+        Integer[] keys = new Integer[LOOKUPS];
+        for(int i = 0; i < LOOKUPS; i++) {
+            keys[i] = random.nextInt(size);
+        }
+
+        //warm up the JIT before measuring
+        long checksum = 0;
+        for(int round = 0; round < WARMUP_ROUNDS; round++) {
+            checksum += lookupAll(map, keys);
+        }
+
+        long start = System.nanoTime();
+        for(int round = 0; round < MEASURED_ROUNDS; round++) {
+            checksum += lookupAll(map, keys);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        //use the checksum so the lookups cannot be optimized away
+        if(checksum == 42) {
+            System.out.println();
+        }
+        return (double)elapsed / ((long)LOOKUPS * MEASURED_ROUNDS);
+    }
+
+    private static long lookupAll(Map<Integer, Integer> map, Integer[] keys)
+    {
+        long sum = 0;
+        for(Integer key : keys) {
+            sum += map.get(key);
+        }
+        return sum;
+    }
+}
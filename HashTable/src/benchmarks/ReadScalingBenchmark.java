@@ -0,0 +1,189 @@
+package benchmarks;
+
+import hashtable.ConcurrentHashTable;
+import hashtable.HashTable;
+import hashtable.ReadMostlyHashTable;
+import interfaces.IHashTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the throughput of a read-mostly workload (98% contains, 1% add,
+ * 1% remove) as the number of threads grows from 1 to 64, comparing a
+ * HashTable behind one global lock, the lock striped ConcurrentHashTable
+ * and the optimistic ReadMostlyHashTable. The global lock should stay flat
+ * or drop as threads are added while the other two scale with the number
+ * of cores.
+ *
+ * Run with e.g. java benchmarks.ReadScalingBenchmark [threads ...]
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class ReadScalingBenchmark
+{
+    private static final int[] DEFAULT_THREADS = {1, 2, 4, 8, 16, 32, 64};
+    private static final int SIZE = 100_000;
+    private static final int WARMUP_MILLIS = 1_000;
+    private static final int MEASURED_MILLIS = 2_000;
+
+    /**
+     * Runs the benchmark for each thread count given on the command line,
+     * or for 1 to 64 threads when none are given.
+     * @param args optional thread counts to measure
+     */
+    public static void main(String[] args) throws InterruptedException
+    {
+        int[] threadCounts = DEFAULT_THREADS;
+        if(args.length > 0) {
+            threadCounts = new int[args.length];
+            for(int i = 0; i < args.length; i++) {
+                threadCounts[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.printf("%8s %15s %15s %15s   (million ops/s)%n", "threads", "global lock", "striped", "read-mostly");
+        for(int threads : threadCounts) {
+            double global = measure(new SynchronizedTable(new HashTable<>(SIZE)), threads);
+            double striped = measure(new ConcurrentHashTable<>(SIZE, 64), threads);
+            double readMostly = measure(new ReadMostlyHashTable<>(SIZE), threads);
+            System.out.printf("%8d %15.1f %15.1f %15.1f%n", threads, global, striped, readMostly);
+        }
+    }
+
+    //fill the table, warm up and then count the operations done in the measured window
+    private static double measure(Table table, int threads) throws InterruptedException
+    {
+        for(int i = 0; i < SIZE; i++) {
+            table.add(i * 2);
+        }
+
+        run(table, threads, WARMUP_MILLIS);
+        long operations = run(table, threads, MEASURED_MILLIS);
+        return operations / (MEASURED_MILLIS * 1000.0);
+    }
+
+    private static double measure(IHashTable<Integer> table, int threads) throws InterruptedException
+    {
+        return measure(new Table()
+        {
+            @Override
+            public boolean contains(Integer element)
+            {
+                return table.contains(element);
+            }
+
+            @Override
+            public void add(Integer element)
+            {
+                table.add(element);
+            }
+
+            @Override
+            public void remove(Integer element)
+            {
+                table.removeIfPresent(element);
+            }
+        }, threads);
+    }
+
+    private static long run(Table table, int threads, int millis) throws InterruptedException
+    {
+        LongAdder operations = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean stop = new AtomicBoolean();
+        List<Thread> workers = new ArrayList<>();
+
+        for(int t = 0; t < threads; t++) {
+            SplittableRandom random = new SplittableRandom(t);
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                }
+                catch(InterruptedException ex) {
+                    return;
+                }
+
+                long count = 0;
+                long checksum = 0;
+                //check the stop flag every batch so the check is not timed on each operation
+                while(!stop.get()) {
+                    for(int i = 0; i < 1_000; i++) {
+                        int element = random.nextInt(SIZE * 2);
+                        int operation = random.nextInt(100);
+                        if(operation == 0) {
+                            table.add(element);
+                        }
+                        else if(operation == 1) {
+                            table.remove(element);
+                        }
+                        else if(table.contains(element)) {
+                            checksum++;
+                        }
+                    }
+                    count += 1_000;
+                }
+                operations.add(count);
+
+                //use the checksum so the lookups cannot be optimized away
+                if(checksum == 42) {
+                    System.out.println();
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+
+        start.countDown();
+        Thread.sleep(millis);
+        stop.set(true);
+        for(Thread worker : workers) {
+            worker.join();
+        }
+        return operations.sum();
+    }
+
+    //the operations the workload uses, so each table can be driven the same way
+    private interface Table
+    {
+        boolean contains(Integer element);
+
+        void add(Integer element);
+
+        void remove(Integer element);
+    }
+
+    //a HashTable behind a single lock, the baseline every thread contends on
+    private static class SynchronizedTable implements Table
+    {
+        private final HashTable<Integer> table;
+
+        public SynchronizedTable(HashTable<Integer> table)
+        {
+            this.table = table;
+        }
+
+        @Override
+        public synchronized boolean contains(Integer element)
+        {
+            return table.contains(element);
+        }
+
+        @Override
+        public synchronized void add(Integer element)
+        {
+            table.add(element);
+        }
+
+        @Override
+        public synchronized void remove(Integer element)
+        {
+            table.removeIfPresent(element);
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package hashtable;
+
+import helpers.KeyValuePair;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Turns values into bytes and back so they can be stored outside of the
+ * Java heap. Two values that are equal must be written as the same bytes,
+ * since stored keys are compared byte for byte.
+ *
+ * @param <T> the type of value converted
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public interface Codec<T>
+{
+    /**
+     * Returns the number of bytes write will produce for the value.
+     * @param value the value to measure
+     * @return the number of bytes
+     */
+    int sizeOf(T value);
+
+    /**
+     * Writes the value at the buffer's position, advancing it by exactly
+     * sizeOf(value) bytes.
+     * @param value the value to write
+     * @param target the buffer to write into
+     */
+    void write(T value, ByteBuffer target);
+
+    /**
+     * Reads a value from all of the bytes remaining in the buffer.
+     * @param source the bytes written for one value
+     * @return the value
+     */
+    T read(ByteBuffer source);
+
+    /**
+     * Returns a codec that stores longs in 8 bytes.
+     * @return the long codec
+     */
+    static Codec<Long> longs()
+    {
+        return new Codec<Long>()
+        {
+            @Override
+            public int sizeOf(Long value)
+            {
+                return Long.BYTES;
+            }
+
+            @Override
+            public void write(Long value, ByteBuffer target)
+            {
+                target.putLong(value);
+            }
+
+            @Override
+            public Long read(ByteBuffer source)
+            {
+                return source.getLong();
+            }
+        };
+    }
+
+    /**
+     * Returns a codec that stores ints in 4 bytes.
+     * @return the int codec
+     */
+    static Codec<Integer> integers()
+    {
+        return new Codec<Integer>()
+        {
+            @Override
+            public int sizeOf(Integer value)
+            {
+                return Integer.BYTES;
+            }
+
+            @Override
+            public void write(Integer value, ByteBuffer target)
+            {
+                target.putInt(value);
+            }
+
+            @Override
+            public Integer read(ByteBuffer source)
+            {
+                return source.getInt();
+            }
+        };
+    }
+
+    /**
+     * Returns a codec that stores strings as UTF-8. An unpaired surrogate,
+     * which UTF-8 has no encoding for, is written as three bytes like any
+     * other char instead of being replaced, so every string reads back as
+     * it was written and different strings never share their bytes.
+     * @return the string codec
+     */
+    static Codec<String> strings()
+    {
+        return new Codec<String>()
+        {
+            @Override
+            public int sizeOf(String value)
+            {
+                //count the bytes write produces without encoding the string
+                int size = 0;
+                for(int i = 0; i < value.length(); i++) {
+                    char c = value.charAt(i);
+                    if(c < 0x80) {
+                        size += 1;
+                    }
+                    else if(c < 0x800) {
+                        size += 2;
+                    }
+                    else if(isPair(value, i)) {
+                        size += 4;
+                        i++;
+                    }
+                    else {
+                        size += 3;
+                    }
+                }
+                return size;
+            }
+
+            @Override
+            public void write(String value, ByteBuffer target)
+            {
+                //encode by hand, since String.getBytes replaces unpaired surrogates with '?'
+                for(int i = 0; i < value.length(); i++) {
+                    char c = value.charAt(i);
+                    if(c < 0x80) {
+                        target.put((byte) c);
+                    }
+                    else if(c < 0x800) {
+                        target.put((byte) (0xC0 | c >>> 6));
+                        target.put((byte) (0x80 | c & 0x3F));
+                    }
+                    else if(isPair(value, i)) {
+                        int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                        target.put((byte) (0xF0 | codePoint >>> 18));
+                        target.put((byte) (0x80 | codePoint >>> 12 & 0x3F));
+                        target.put((byte) (0x80 | codePoint >>> 6 & 0x3F));
+                        target.put((byte) (0x80 | codePoint & 0x3F));
+                    }
+                    else {
+                        target.put((byte) (0xE0 | c >>> 12));
+                        target.put((byte) (0x80 | c >>> 6 & 0x3F));
+                        target.put((byte) (0x80 | c & 0x3F));
+                    }
+                }
+            }
+
+            @Override
+            public String read(ByteBuffer source)
+            {
+                //decode by hand so the unpaired surrogates write let through come back
+                //a four byte sequence cut short still produces two chars, hence the extra one
+                char[] chars = new char[source.remaining() + 1];
+                int length = 0;
+                while(source.hasRemaining()) {
+                    int lead = source.get() & 0xFF;
+                    if(lead < 0x80) {
+                        chars[length++] = (char) lead;
+                    }
+                    else if(lead < 0xE0) {
+                        chars[length++] = (char) ((lead & 0x1F) << 6 | continuation(source));
+                    }
+                    else if(lead < 0xF0) {
+                        int high = continuation(source);
+                        chars[length++] = (char) ((lead & 0x0F) << 12 | high << 6 | continuation(source));
+                    }
+                    else {
+                        int codePoint = (lead & 0x07) << 18 | continuation(source) << 12;
+                        codePoint |= continuation(source) << 6;
+                        codePoint |= continuation(source);
+                        chars[length++] = Character.highSurrogate(codePoint);
+                        chars[length++] = Character.lowSurrogate(codePoint);
+                    }
+                }
+                return new String(chars, 0, length);
+            }
+
+            //whether the char at the index starts a valid surrogate pair
+            private boolean isPair(String value, int index)
+            {
+                return Character.isHighSurrogate(value.charAt(index)) && index + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(index + 1));
+            }
+
+            //the low six bits of the next byte, or zero if the bytes were cut short
+            private int continuation(ByteBuffer source)
+            {
+                return source.hasRemaining() ? source.get() & 0x3F : 0;
+            }
+        };
+    }
+
+    /**
+     * Returns a codec that stores key/value pairs as the length of the key,
+     * the length of the value (-1 for a null value), the key and the value.
+     * @param keyCodec converts the keys
+     * @param valueCodec converts the values
+     * @param <K> the type of key
+     * @param <V> the type of value
+     * @return the pair codec
+     */
+    static <K, V> Codec<KeyValuePair<K, V>> pairs(Codec<K> keyCodec, Codec<V> valueCodec)
+    {
+        return new Codec<KeyValuePair<K, V>>()
+        {
+            @Override
+            public int sizeOf(KeyValuePair<K, V> pair)
+            {
+                int size = 2 * Integer.BYTES + keyCodec.sizeOf(pair.getKey());
+                return pair.getValue() == null ? size : size + valueCodec.sizeOf(pair.getValue());
+            }
+
+            @Override
+            public void write(KeyValuePair<K, V> pair, ByteBuffer target)
+            {
+                target.putInt(keyCodec.sizeOf(pair.getKey()));
+                target.putInt(pair.getValue() == null ? -1 : valueCodec.sizeOf(pair.getValue()));
+                keyCodec.write(pair.getKey(), target);
+                if(pair.getValue() != null) {
+                    valueCodec.write(pair.getValue(), target);
+                }
+            }
+
+            @Override
+            public KeyValuePair<K, V> read(ByteBuffer source)
+            {
+                int keyLength = source.getInt();
+                int valueLength = source.getInt();
+                ByteBuffer keyBytes = source.duplicate();
+                keyBytes.limit(source.position() + keyLength);
+                K key = keyCodec.read(keyBytes);
+                if(valueLength < 0) {
+                    return new KeyValuePair<>(key, null);
+                }
+                ByteBuffer valueBytes = source.duplicate();
+                valueBytes.position(source.position() + keyLength).limit(source.position() + keyLength + valueLength);
+                return new KeyValuePair<>(key, valueCodec.read(valueBytes));
+            }
+        };
+    }
+
+    /**
+     * Returns a codec that stores byte arrays as they are.
+     * @return the byte array codec
+     */
+    static Codec<byte[]> bytes()
+    {
+        return new Codec<byte[]>()
+        {
+            @Override
+            public int sizeOf(byte[] value)
+            {
+                return value.length;
+            }
+
+            @Override
+            public void write(byte[] value, ByteBuffer target)
+            {
+                target.put(value);
+            }
+
+            @Override
+            public byte[] read(ByteBuffer source)
+            {
+                byte[] bytes = new byte[source.remaining()];
+                source.get(bytes);
+                return bytes;
+            }
+        };
+    }
+}
@@ -0,0 +1,468 @@
+package hashtable;
+
+import interfaces.IHashTable;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A thread safe hash table made of independently locked segments. The top
+ * bits of an element's hash pick its segment, a HashTable guarded by its own
+ * read/write lock, so threads working on different segments never wait on
+ * each other and any number of readers can share a segment. The lower bits
+ * still pick the bucket inside the segment.
+ *
+ * Iteration is weakly consistent and never throws a
+ * ConcurrentModificationException. The iterator walks each segment with
+ * that segment's own weakly consistent iterator, started when it reaches
+ * the segment and stepped a few elements at a time under the segment's read
+ * lock, so writers to a segment wait for at most one small batch rather
+ * than a copy of the whole segment.
+ *
+ * @param <T> Accepts any Object
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class ConcurrentHashTable<T> implements IHashTable<T>, Iterable<T>
+{
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+    private static final int MAXIMUM_SEGMENTS = 1 << 16;
+    //the most elements an iterator copies under one hold of a segment's lock
+    private static final int ITERATOR_BATCH_SIZE = 64;
+    private final HashStrategy<? super T> strategy;
+    private final HashTable<T>[] segments;
+    private final ReentrantReadWriteLock[] locks;
+    private final int segmentShift;
+
+    /**
+     * Creates an empty table with 16 segments.
+     */
+    public ConcurrentHashTable()
+    {
+        this(0, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Creates an empty table with 16 segments that places elements using
+     * the given hash strategy.
+     * @param strategy computes the hash of each element
+     */
+    public ConcurrentHashTable(HashStrategy<? super T> strategy)
+    {
+        this(0, DEFAULT_CONCURRENCY_LEVEL, HashTableConfig.defaults(), strategy);
+    }
+
+    /**
+     * Creates an empty table sized up front for the expected number of
+     * elements and split into enough segments for the expected number of
+     * writing threads.
+     * @param expectedSize the number of elements the table is expected to hold
+     * @param concurrencyLevel the number of threads expected to write at
+     *                         once, rounded up to a power of two segments
+     */
+    public ConcurrentHashTable(int expectedSize, int concurrencyLevel)
+    {
+        this(expectedSize, concurrencyLevel, HashTableConfig.defaults(), HashStrategy.defaultStrategy());
+    }
+
+    /**
+     * Creates an empty table sized up front for the expected number of
+     * elements, split into enough segments for the expected number of
+     * writing threads, whose segments grow and shrink as the given config
+     * describes and place elements using the given hash strategy.
+     * @param expectedSize the number of elements the table is expected to hold
+     * @param concurrencyLevel the number of threads expected to write at
+     *                         once, rounded up to a power of two segments
+     * @param config the load factor, growth and capacity settings of each segment
+     * @param strategy computes the hash of each element
+     */
+    public ConcurrentHashTable(int expectedSize, int concurrencyLevel, HashTableConfig config,
+                               HashStrategy<? super T> strategy)
+    {
+        if(expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative: " + expectedSize);
+        }
+        if(concurrencyLevel < 1) {
+            throw new IllegalArgumentException("Concurrency level must be positive: " + concurrencyLevel);
+        }
+
+        int count = 1;
+        while(count < concurrencyLevel && count < MAXIMUM_SEGMENTS) {
+            count *= 2;
+        }
+
+        this.strategy = strategy;
+        this.segmentShift = 32 - Integer.numberOfTrailingZeros(count);
+        //java cannot create an array of a generic type, so the cast is unchecked
+        @SuppressWarnings("unchecked")
+        HashTable<T>[] segments = (HashTable<T>[]) new HashTable<?>[count];
+        this.segments = segments;
+        this.locks = new ReentrantReadWriteLock[count];
+        for(int i = 0; i < count; i++) {
+            segments[i] = new HashTable<>(segmentSize(expectedSize), config, strategy);
+            locks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    //the top bits pick the segment so they do not overlap the bucket bits
+    private int segmentFor(T element)
+    {
+        //a shift of 32 is a shift of 0 in java, so a single segment is special
+        return segments.length == 1 ? 0 : strategy.hash(element) >>> segmentShift;
+    }
+
+    //the share of the expected elements that lands in each segment
+    private int segmentSize(int expectedSize)
+    {
+        return (int) Math.min((long) expectedSize * 5 / 4 / segments.length + 1, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void add(T element)
+    {
+        int index = segmentFor(element);
+        Lock lock = locks[index].writeLock();
+        lock.lock();
+        try {
+            segments[index].add(element);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T put(T element)
+    {
+        int index = segmentFor(element);
+        Lock lock = locks[index].writeLock();
+        lock.lock();
+        try {
+            return segments[index].put(element);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The lookup and the add happen under the segment's write lock, so the
+     * factory runs at most once for a probe and must not write to this table.
+     */
+    @Override
+    public T computeIfAbsent(T probe, Function<? super T, ? extends T> factory)
+    {
+        int index = segmentFor(probe);
+        Lock lock = locks[index].writeLock();
+        lock.lock();
+        try {
+            return segments[index].computeIfAbsent(probe, factory);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The remapping runs under the segment's write lock, so concurrent merges
+     * of the same element (e.g. counters) never lose an update. It must not
+     * write to this table.
+     */
+    @Override
+    public T merge(T element, BinaryOperator<T> remapping)
+    {
+        int index = segmentFor(element);
+        Lock lock = locks[index].writeLock();
+        lock.lock();
+        try {
+            return segments[index].merge(element, remapping);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(T element)
+    {
+        if(!removeIfPresent(element)) {
+            //throw an exception when trying to remove an element that does not exist
+            throw new NoSuchElementException("No element " + element + " found");
+        }
+    }
+
+    @Override
+    public boolean removeIfPresent(T element)
+    {
+        //the check and the removal happen under one lock so another thread
+        //cannot remove the element in between
+        int index = segmentFor(element);
+        Lock lock = locks[index].writeLock();
+        lock.lock();
+        try {
+            return segments[index].removeIfPresent(element);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super T> filter)
+    {
+        boolean removed = false;
+        for(int i = 0; i < segments.length; i++) {
+            Lock lock = locks[i].writeLock();
+            lock.lock();
+            try {
+                removed |= segments[i].removeIf(filter);
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean contains(T element)
+    {
+        return find(element) != null;
+    }
+
+    @Override
+    public T find(T element)
+    {
+        int index = segmentFor(element);
+        Lock lock = locks[index].readLock();
+        lock.lock();
+        try {
+            return segments[index].find(element);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T get(T element)
+    {
+        return find(element);
+    }
+
+    /**
+     * Returns the number of elements in the table. Each segment is counted
+     * under its own lock, so with concurrent writes the total may not match
+     * the table at any single moment.
+     * @return the number of elements
+     */
+    @Override
+    public int size()
+    {
+        long size = 0;
+        for(int i = 0; i < segments.length; i++) {
+            Lock lock = locks[i].readLock();
+            lock.lock();
+            try {
+                size += segments[i].size();
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        for(int i = 0; i < segments.length; i++) {
+            Lock lock = locks[i].readLock();
+            lock.lock();
+            try {
+                if(!segments[i].isEmpty()) {
+                    return false;
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void clear()
+    {
+        for(int i = 0; i < segments.length; i++) {
+            Lock lock = locks[i].writeLock();
+            lock.lock();
+            try {
+                segments[i].clear();
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void ensureCapacity(int expectedSize)
+    {
+        int segmentSize = segmentSize(expectedSize);
+        for(int i = 0; i < segments.length; i++) {
+            Lock lock = locks[i].writeLock();
+            lock.lock();
+            try {
+                segments[i].ensureCapacity(segmentSize);
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void trimToSize()
+    {
+        for(int i = 0; i < segments.length; i++) {
+            Lock lock = locks[i].writeLock();
+            lock.lock();
+            try {
+                segments[i].trimToSize();
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of segments the table is split into.
+     * @return the number of independently locked segments
+     */
+    public int segments()
+    {
+        return segments.length;
+    }
+
+    /**
+     * Writes a binary snapshot of the table to the channel, which is left
+     * open. See Snapshot for the format. The elements are copied while the
+     * read lock of every segment is held, so the snapshot is the whole table
+     * at one moment, and the locks are released before anything is written.
+     * @param channel where to write the snapshot
+     * @param codec converts each element to bytes
+     * @throws IOException if the channel cannot be written
+     */
+    public void writeTo(WritableByteChannel channel, Codec<? super T> codec) throws IOException
+    {
+        List<T> copy = new ArrayList<>();
+        int locked = 0;
+        try {
+            //every segment is locked in order, so two snapshots never deadlock
+            for(; locked < segments.length; locked++) {
+                locks[locked].readLock().lock();
+            }
+            for(HashTable<T> segment : segments) {
+                for(T element : segment) {
+                    copy.add(element);
+                }
+            }
+        }
+        finally {
+            while(locked > 0) {
+                locks[--locked].readLock().unlock();
+            }
+        }
+        Snapshot.write(channel, copy, copy.size(), copy.size(), codec);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The table's own iterator is already weakly consistent.
+     */
+    @Override
+    public Iterator<T> weaklyConsistentIterator()
+    {
+        return iterator();
+    }
+
+    @Override
+    public Iterator<T> iterator()
+    {
+        return new SegmentIterator();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ConcurrentHashTable{size=" + size() + ", segments=" + segments.length + '}';
+    }
+
+    private class SegmentIterator implements Iterator<T>
+    {
+        private int segment = -1;
+        //the weakly consistent iterator of the current segment, or null once
+        //it has run out
+        private Iterator<T> segmentIterator;
+        private final List<T> current = new ArrayList<>(ITERATOR_BATCH_SIZE);
+        private int currentIndex;
+
+        private void copyNextBatch()
+        {
+            //step each segment's own iterator a few elements at a time under the
+            //segment's read lock, so writers only ever wait for one small batch
+            while(currentIndex == current.size() && (segmentIterator != null || segment + 1 < segments.length)) {
+                if(segmentIterator == null) {
+                    segment++;
+                }
+                current.clear();
+                currentIndex = 0;
+                Lock lock = locks[segment].readLock();
+                lock.lock();
+                try {
+                    if(segmentIterator == null) {
+                        segmentIterator = segments[segment].weaklyConsistentIterator();
+                    }
+                    while(current.size() < ITERATOR_BATCH_SIZE && segmentIterator.hasNext()) {
+                        current.add(segmentIterator.next());
+                    }
+                    if(!segmentIterator.hasNext()) {
+                        segmentIterator = null;
+                    }
+                }
+                finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            copyNextBatch();
+            return currentIndex < current.size();
+        }
+
+        @Override
+        public T next()
+        {
+            if(!hasNext()) {
+                throw new NoSuchElementException("No elements left in the table");
+            }
+            return current.get(currentIndex++);
+        }
+    }
+}
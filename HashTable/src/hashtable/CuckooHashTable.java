@@ -0,0 +1,622 @@
+package hashtable;
+
+import helpers.KeyValuePair;
+import interfaces.IHashTable;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * Cuckoo hashing HashTable Collection Object. Every element is stored in one
+ * of two buckets of four slots, chosen by two hash functions, or in a small
+ * stash of eight slots for the rare element that fits in neither. A lookup
+ * therefore compares against at most sixteen slots, instead of walking a
+ * chain or a probe run of unbounded length, unless many elements share both
+ * of their hashes as described below.
+ *
+ * An element whose buckets are both full moves one of their elements to
+ * that element's other bucket, which may move another in turn, for a
+ * bounded number of moves before it falls back to the stash. When the stash
+ * is full the table is rebuilt with new random seeds for its hash functions,
+ * and grown if that does not help. The seeds are random per table, so keys
+ * chosen to collide under one table's functions do not collide under
+ * another's. An element that no rebuild can place goes to an overflow list.
+ *
+ * Unless both strategies are given, the second hash does not come from
+ * hashCode(): strings and boxed primitives, alone or as the keys of map
+ * pairs, are hashed by their whole contents with SipHash under a random
+ * key, so strings or longs chosen to share a hashCode still get different
+ * second buckets. Any other element falls back to a seeded mix of its
+ * hashCode(), and elements whose two hashes are both equal share both
+ * buckets. Past the sixteen such elements that fit in the buckets and the
+ * stash, the rest are kept in the overflow list, which every lookup that
+ * misses the buckets and the stash scans in full. Keys that are not
+ * trusted should therefore be strings or numbers, or come with a second
+ * strategy computed independently of hashCode().
+ * @param <T> Accepts any Object
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class CuckooHashTable<T> implements IHashTable<T>, Iterable<T>
+{
+    private static final int SLOTS_PER_BUCKET = 4;
+    private static final int STASH_SIZE = 8;
+    private static final int INITIAL_BUCKETS = 4;
+    private static final int MAXIMUM_BUCKETS = 1 << 28;
+    private static final double LOAD_FACTOR = 0.9;
+    private static final double SHRINK_THRESHOLD = 0.125;
+    private static final int MAXIMUM_MOVES = 500;
+    private static final int REBUILDS_PER_SIZE = 4;
+    //the most a single add may double the table before giving up
+    private static final int MAXIMUM_FORCED_GROWTH = 3;
+    private final HashStrategy<? super T> first;
+    private final HashStrategy<? super T> second;
+    //the buckets followed by the stash
+    private Object[] slots;
+    private int bucketMask;
+    private int firstSeed;
+    private int secondSeed;
+    private int random;
+    //elements that no table could place, scanned after the stash
+    private List<Object> overflow;
+    private int size;
+    private int modCount;
+
+    /**
+     * Default constructor for CuckooHashTable class
+     * instantiates the slot array
+     */
+    public CuckooHashTable()
+    {
+        this(HashStrategy.defaultStrategy());
+    }
+
+    /**
+     * Constructor for CuckooHashTable class that picks each element's first
+     * bucket using the given hash strategy, and its second bucket from the
+     * contents of strings and numbers as described above.
+     * @param strategy computes the hash for the first bucket
+     */
+    public CuckooHashTable(HashStrategy<? super T> strategy)
+    {
+        this(0, strategy, contentStrategy());
+    }
+
+    /**
+     * Constructor for CuckooHashTable class that sizes the slot array up
+     * front so the expected number of elements can be added without any
+     * resize.
+     * @param expectedSize the number of elements the table is expected to hold
+     */
+    public CuckooHashTable(int expectedSize)
+    {
+        this(expectedSize, HashStrategy.defaultStrategy(), contentStrategy());
+    }
+
+    /**
+     * Constructor for CuckooHashTable class that sizes the slot array up
+     * front and picks each element's second bucket from a separately
+     * computed hash, so elements whose first hashes collide are still spread
+     * out.
+     * @param expectedSize the number of elements the table is expected to hold
+     * @param first computes the hash for the first bucket
+     * @param second computes the hash for the second bucket
+     */
+    public CuckooHashTable(int expectedSize, HashStrategy<? super T> first, HashStrategy<? super T> second)
+    {
+        if(expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative: " + expectedSize);
+        }
+        this.first = first;
+        this.second = second;
+        reseed();
+        allocate(bucketsFor(expectedSize));
+    }
+
+    //hashes strings and numbers, and the keys of map pairs, by their
+    //contents, so the second bucket does not follow from hashCode()
+    private static HashStrategy<Object> contentStrategy()
+    {
+        HashStrategy<Object> sipHash = HashStrategy.sipHash();
+        return element -> {
+            Object key = element instanceof KeyValuePair ? ((KeyValuePair<?, ?>) element).getKey() : element;
+            return key == null ? 0 : sipHash.hash(key);
+        };
+    }
+
+    //the smallest power of two number of buckets that holds the expected
+    //number of elements without going over the load factor
+    private static int bucketsFor(int expectedSize)
+    {
+        long needed = (long) Math.ceil(expectedSize / (LOAD_FACTOR * SLOTS_PER_BUCKET));
+        int buckets = INITIAL_BUCKETS;
+        while(buckets < needed && buckets < MAXIMUM_BUCKETS) {
+            buckets *= 2;
+        }
+        return buckets;
+    }
+
+    @Override
+    public void add(T element)
+    {
+        if(locate(element) < 0) {
+            insert(element);
+        }
+    }
+
+    @Override
+    public T put(T element)
+    {
+        int index = locate(element);
+        if(index < 0) {
+            insert(element);
+            return null;
+        }
+
+        //swap the stored element in place
+        T previous = elementAt(index);
+        replace(index, element);
+        return previous;
+    }
+
+    @Override
+    public T computeIfAbsent(T probe, Function<? super T, ? extends T> factory)
+    {
+        int index = locate(probe);
+        if(index >= 0) {
+            return elementAt(index);
+        }
+
+        T created = factory.apply(probe);
+        if(created == null) {
+            return null;
+        }
+        insert(created);
+        return created;
+    }
+
+    @Override
+    public T merge(T element, BinaryOperator<T> remapping)
+    {
+        int index = locate(element);
+        if(index < 0) {
+            insert(element);
+            return element;
+        }
+
+        T merged = remapping.apply(elementAt(index), element);
+        if(merged == null) {
+            remove(element);
+            return null;
+        }
+        replace(index, merged);
+        return merged;
+    }
+
+    @Override
+    public void remove(T element)
+    {
+        int index = locate(element);
+
+        //throw an exception when trying to remove an element that does not exist
+        if(index < 0) {
+            throw new NoSuchElementException("No element " + element + " found");
+        }
+
+        //no other element depends on the slot, so it is simply emptied
+        if(index < slots.length) {
+            slots[index] = null;
+        }
+        else {
+            overflow.remove(index - slots.length);
+        }
+        size--;
+        modCount++;
+        shrinkIfNeeded();
+    }
+
+    //once fewer than one slot in eight is used, shrink to a table that
+    //leaves room for the elements to double before it has to grow again
+    private void shrinkIfNeeded()
+    {
+        int buckets = bucketMask + 1;
+        if(buckets > INITIAL_BUCKETS && size < buckets * SLOTS_PER_BUCKET * SHRINK_THRESHOLD) {
+            shrink(bucketsFor(size * 2));
+        }
+    }
+
+    @Override
+    public void trimToSize()
+    {
+        int buckets = bucketsFor(size);
+        if(buckets < bucketMask + 1) {
+            shrink(buckets);
+        }
+    }
+
+    //elements that share a hash may not fit in a smaller table, in which
+    //case it keeps its size
+    private void shrink(int buckets)
+    {
+        rebuild(buckets, null, bucketMask + 1);
+    }
+
+    @Override
+    public void ensureCapacity(int expectedSize)
+    {
+        int buckets = bucketsFor(expectedSize);
+        if(buckets > bucketMask + 1) {
+            rebuild(buckets, null, forcedGrowthLimit(buckets));
+        }
+    }
+
+    @Override
+    public boolean contains(T element)
+    {
+        return locate(element) >= 0;
+    }
+
+    @Override
+    public T find(T element)
+    {
+        int index = locate(element);
+        return index < 0 ? null : elementAt(index);
+    }
+
+    @Override
+    public T get(T element)
+    {
+        return find(element);
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the number of slots in the table, including the stash.
+     * @return the length of the slot array
+     */
+    public int capacity()
+    {
+        return slots.length;
+    }
+
+    /**
+     * Returns the number of elements kept in the stash because neither of
+     * their buckets had room.
+     * @return the number of stashed elements
+     */
+    public int stashSize()
+    {
+        int count = 0;
+        for(int i = slots.length - STASH_SIZE; i < slots.length; i++) {
+            if(slots[i] != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of elements kept in the overflow list because no
+     * rebuild of the table could place them.
+     * @return the number of overflowing elements
+     */
+    public int overflowSize()
+    {
+        return overflow.size();
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    @Override
+    public void clear()
+    {
+        allocate(INITIAL_BUCKETS);
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Iterator<T> iterator()
+    {
+        return new SlotIterator(false);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Adding may move elements between slots, so the iterator walks a copy
+     * of the slot array and the overflow taken when it is created and
+     * returns exactly the elements the table held at that moment.
+     */
+    @Override
+    public Iterator<T> weaklyConsistentIterator()
+    {
+        return new SlotIterator(true);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CuckooHashTable{" +
+                "elements=" + Arrays.toString(slots) +
+                ", overflow=" + overflow +
+                ", size=" + size +
+                '}';
+    }
+
+    //create a new empty slot array with the given power of two number of
+    //buckets, and an empty overflow
+    private void allocate(int buckets)
+    {
+        slots = new Object[buckets * SLOTS_PER_BUCKET + STASH_SIZE];
+        bucketMask = buckets - 1;
+        overflow = new ArrayList<>();
+    }
+
+    private void reseed()
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        firstSeed = random.nextInt();
+        secondSeed = random.nextInt();
+        this.random = random.nextInt() | 1;
+    }
+
+    //the first slot of each of the element's buckets
+    private int firstBucket(Object element)
+    {
+        @SuppressWarnings("unchecked")
+        int hash = first.hash((T) element);
+        return (mix(hash ^ firstSeed) & bucketMask) * SLOTS_PER_BUCKET;
+    }
+
+    private int secondBucket(Object element)
+    {
+        @SuppressWarnings("unchecked")
+        int hash = second.hash((T) element);
+        return (mix(hash ^ secondSeed) & bucketMask) * SLOTS_PER_BUCKET;
+    }
+
+    //the finalizer of MurmurHash3, so the seed changes every bit of the bucket
+    private static int mix(int hash)
+    {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        return hash ^ (hash >>> 16);
+    }
+
+    //returns the slot holding the element, or -1, looking at the two
+    //buckets, the stash and then the overflow, whose elements are numbered
+    //after the slots
+    private int locate(Object element)
+    {
+        int index = findIn(firstBucket(element), SLOTS_PER_BUCKET, element);
+        if(index < 0) {
+            index = findIn(secondBucket(element), SLOTS_PER_BUCKET, element);
+        }
+        if(index < 0) {
+            index = findIn(slots.length - STASH_SIZE, STASH_SIZE, element);
+        }
+        for(int i = 0; index < 0 && i < overflow.size(); i++) {
+            if(overflow.get(i).equals(element)) {
+                index = slots.length + i;
+            }
+        }
+        return index;
+    }
+
+    private int findIn(int start, int length, Object element)
+    {
+        for(int i = start; i < start + length; i++) {
+            if(slots[i] != null && slots[i].equals(element)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T elementAt(int index)
+    {
+        return (T) (index < slots.length ? slots[index] : overflow.get(index - slots.length));
+    }
+
+    private void replace(int index, T element)
+    {
+        if(index < slots.length) {
+            slots[index] = element;
+        }
+        else {
+            overflow.set(index - slots.length, element);
+        }
+    }
+
+    //add an element that is not in the table yet
+    private void insert(T element)
+    {
+        if(size + 1 > (bucketMask + 1) * SLOTS_PER_BUCKET * LOAD_FACTOR && bucketMask + 1 < MAXIMUM_BUCKETS) {
+            rebuild((bucketMask + 1) * 2, null, forcedGrowthLimit((bucketMask + 1) * 2));
+        }
+        Object homeless = place(element);
+        //once some elements overflow, rebuilding for more of them would only
+        //repeat the failed rebuilds, so they join the overflow directly
+        if(homeless != null && (!overflow.isEmpty()
+                || !rebuild(bucketMask + 1, homeless, forcedGrowthLimit(bucketMask + 1)))) {
+            overflow.add(homeless);
+        }
+        size++;
+        modCount++;
+    }
+
+    //put the element in one of its buckets, moving other elements to their
+    //other bucket to make room, then in the stash, and return whichever
+    //element is left without a slot, or null
+    private Object place(Object element)
+    {
+        Object current = element;
+        for(int move = 0; move < MAXIMUM_MOVES; move++) {
+            int firstStart = firstBucket(current);
+            int secondStart = secondBucket(current);
+            if(placeIn(firstStart, SLOTS_PER_BUCKET, current) || placeIn(secondStart, SLOTS_PER_BUCKET, current)) {
+                return null;
+            }
+
+            //evict a random element of either bucket, it tries its own other bucket next
+            random ^= random << 13;
+            random ^= random >>> 17;
+            random ^= random << 5;
+            int victim = ((random & 1) == 0 ? firstStart : secondStart) + ((random >>> 1) & (SLOTS_PER_BUCKET - 1));
+            Object evicted = slots[victim];
+            slots[victim] = current;
+            current = evicted;
+        }
+        return placeIn(slots.length - STASH_SIZE, STASH_SIZE, current) ? null : current;
+    }
+
+    private boolean placeIn(int start, int length, Object element)
+    {
+        for(int i = start; i < start + length; i++) {
+            if(slots[i] == null) {
+                slots[i] = element;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int forcedGrowthLimit(int buckets)
+    {
+        return (int) Math.min(MAXIMUM_BUCKETS, (long) buckets << MAXIMUM_FORCED_GROWTH);
+    }
+
+    //move every element (and the extra one, if any) into a new table with
+    //new seeds, growing it up to the limit whenever a few sets of seeds in a
+    //row fail, and put everything back as it was if it cannot be built at
+    //all. A table succeeds if it overflows no more elements than the old one
+    private boolean rebuild(int buckets, Object extra, int limit)
+    {
+        Object[] old = slots;
+        List<Object> oldOverflow = overflow;
+        int oldMask = bucketMask;
+        int oldFirstSeed = firstSeed;
+        int oldSecondSeed = secondSeed;
+
+        for(int attempt = 1; ; attempt++) {
+            reseed();
+            allocate(buckets);
+            if(placeAll(old, oldOverflow, extra)) {
+                modCount++;
+                return true;
+            }
+            if(attempt % REBUILDS_PER_SIZE == 0) {
+                if(buckets >= limit) {
+                    break;
+                }
+                buckets *= 2;
+            }
+        }
+
+        slots = old;
+        overflow = oldOverflow;
+        bucketMask = oldMask;
+        firstSeed = oldFirstSeed;
+        secondSeed = oldSecondSeed;
+        return false;
+    }
+
+    //place the elements of the old table, stopping as soon as more of them
+    //overflow than did before
+    private boolean placeAll(Object[] old, List<Object> oldOverflow, Object extra)
+    {
+        for(Object element : old) {
+            if(element != null && !placeOrOverflow(element, oldOverflow.size())) {
+                return false;
+            }
+        }
+        for(Object element : oldOverflow) {
+            if(!placeOrOverflow(element, oldOverflow.size())) {
+                return false;
+            }
+        }
+        return extra == null || placeOrOverflow(extra, oldOverflow.size());
+    }
+
+    private boolean placeOrOverflow(Object element, int allowed)
+    {
+        Object homeless = place(element);
+        if(homeless == null) {
+            return true;
+        }
+        overflow.add(homeless);
+        return overflow.size() <= allowed;
+    }
+
+    private class SlotIterator implements Iterator<T>
+    {
+        private final boolean weaklyConsistent;
+        private final Object[] slots;
+        private final Object[] overflow;
+        private int currentModCount = modCount;
+        private int currentIndex = -1;
+
+        public SlotIterator(boolean weaklyConsistent)
+        {
+            this.weaklyConsistent = weaklyConsistent;
+            slots = weaklyConsistent ? CuckooHashTable.this.slots.clone() : CuckooHashTable.this.slots;
+            //any change ends a fail fast iteration, so either kind may copy the overflow
+            overflow = CuckooHashTable.this.overflow.toArray();
+            findNextIndex();
+        }
+
+        //advance to the next occupied slot, then through the overflow
+        private void findNextIndex()
+        {
+            do {
+                currentIndex++;
+            }
+            while(currentIndex < slots.length && slots[currentIndex] == null);
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if(!weaklyConsistent && currentModCount != modCount) {
+                throw new ConcurrentModificationException("Cannot modify table while iterating");
+            }
+
+            return currentIndex < slots.length + overflow.length;
+        }
+
+        @Override
+        public T next()
+        {
+            if(!hasNext()) {
+                throw new NoSuchElementException("No elements left in the table");
+            }
+
+            @SuppressWarnings("unchecked")
+            T element = (T) (currentIndex < slots.length ? slots[currentIndex] : overflow[currentIndex - slots.length]);
+            findNextIndex();
+            return element;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "SlotIterator{" +
+                    "currentIndex=" + currentIndex +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package hashtable;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A block of memory outside of the Java heap addressed by a long offset. A
+ * single ByteBuffer is limited to 2GB, so the memory is split into chunks
+ * of equal power of two size and an address picks the chunk with its high
+ * bits. Longs and ints are read and written at their natural alignment so
+ * they never straddle two chunks, and bulk reads and writes must stay
+ * within one chunk.
+ *
+ * The garbage collector sees only the chunk objects, never the bytes in
+ * them, however much is stored.
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class DirectMemory
+{
+    /**
+     * The largest chunk, 1GB.
+     */
+    public static final int MAXIMUM_CHUNK_BITS = 30;
+
+    private ByteBuffer[] chunks;
+    private int chunkBits;
+    private long chunkMask;
+
+    /**
+     * Allocates zeroed direct memory of at least the given capacity.
+     * @param capacity the number of bytes needed
+     */
+    public DirectMemory(long capacity)
+    {
+        if(capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative: " + capacity);
+        }
+        int bits = chunkBitsFor(capacity);
+        ByteBuffer[] allocated = new ByteBuffer[chunkCount(capacity, bits)];
+        for(int i = 0; i < allocated.length; i++) {
+            allocated[i] = ByteBuffer.allocateDirect(1 << bits);
+        }
+        setChunks(allocated, bits);
+    }
+
+    /**
+     * Wraps buffers that were already allocated or mapped, each exactly
+     * 1 &lt;&lt; chunkBits bytes long.
+     * @param chunks the buffers in address order
+     * @param chunkBits the log2 of the size of each buffer
+     */
+    DirectMemory(ByteBuffer[] chunks, int chunkBits)
+    {
+        setChunks(chunks, chunkBits);
+    }
+
+    ByteBuffer[] chunks()
+    {
+        return chunks;
+    }
+
+    void setChunks(ByteBuffer[] chunks, int chunkBits)
+    {
+        this.chunks = chunks;
+        this.chunkBits = chunkBits;
+        this.chunkMask = (1L << chunkBits) - 1;
+    }
+
+    /**
+     * Returns the log2 of the chunk size used for the given capacity, which
+     * is the capacity rounded up to a power of two until it reaches 1GB.
+     * @param capacity the number of bytes needed
+     * @return the log2 of the chunk size
+     */
+    static int chunkBitsFor(long capacity)
+    {
+        int bits = 3;
+        while(bits < MAXIMUM_CHUNK_BITS && (1L << bits) < capacity) {
+            bits++;
+        }
+        return bits;
+    }
+
+    /**
+     * Returns the number of chunks needed to hold the given capacity.
+     * @param capacity the number of bytes needed
+     * @param chunkBits the log2 of the chunk size
+     * @return the number of chunks
+     */
+    static int chunkCount(long capacity, int chunkBits)
+    {
+        long count = Math.max(1, (capacity + (1L << chunkBits) - 1) >>> chunkBits);
+        if(count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Capacity too large: " + capacity);
+        }
+        return (int) count;
+    }
+
+    /**
+     * Returns the number of bytes that can be addressed.
+     * @return the capacity in bytes
+     */
+    public long capacity()
+    {
+        return (long) chunks.length << chunkBits;
+    }
+
+    /**
+     * Returns the size of each chunk, which bulk reads and writes may not
+     * cross.
+     * @return the chunk size in bytes
+     */
+    public int chunkSize()
+    {
+        return 1 << chunkBits;
+    }
+
+    /**
+     * Returns the address where the chunk holding the given address ends.
+     * @param address an address in the memory
+     * @return the first address of the next chunk
+     */
+    public long chunkEnd(long address)
+    {
+        return (address | chunkMask) + 1;
+    }
+
+    /**
+     * Grows the memory to at least the given capacity, keeping its contents.
+     * Small memory is copied into one larger chunk, and memory whose chunks
+     * are already at the largest size gains chunks without any copying.
+     * @param minimumCapacity the number of bytes needed
+     */
+    public void grow(long minimumCapacity)
+    {
+        if(minimumCapacity <= capacity()) {
+            return;
+        }
+        //double so repeated growth costs amortized constant time per byte
+        long target = Math.max(minimumCapacity, capacity() * 2);
+        int bits = chunkBitsFor(target);
+        if(bits == chunkBits) {
+            ByteBuffer[] grown = Arrays.copyOf(chunks, chunkCount(target, bits));
+            for(int i = chunks.length; i < grown.length; i++) {
+                grown[i] = ByteBuffer.allocateDirect(1 << bits);
+            }
+            setChunks(grown, bits);
+            return;
+        }
+        DirectMemory grown = new DirectMemory(target);
+        for(int i = 0; i < chunks.length; i++) {
+            ByteBuffer source = chunks[i].duplicate();
+            source.clear();
+            grown.slice((long) i << chunkBits, 1 << chunkBits).put(source);
+        }
+        setChunks(grown.chunks, grown.chunkBits);
+    }
+
+    private ByteBuffer chunk(long address)
+    {
+        return chunks[(int) (address >>> chunkBits)];
+    }
+
+    private int offset(long address)
+    {
+        return (int) (address & chunkMask);
+    }
+
+    /**
+     * Reads the long at an address that is a multiple of 8.
+     * @param address the address
+     * @return the long stored there
+     */
+    public long getLong(long address)
+    {
+        return chunk(address).getLong(offset(address));
+    }
+
+    /**
+     * Writes a long at an address that is a multiple of 8.
+     * @param address the address
+     * @param value the long to store
+     */
+    public void putLong(long address, long value)
+    {
+        chunk(address).putLong(offset(address), value);
+    }
+
+    /**
+     * Reads the int at an address that is a multiple of 4.
+     * @param address the address
+     * @return the int stored there
+     */
+    public int getInt(long address)
+    {
+        return chunk(address).getInt(offset(address));
+    }
+
+    /**
+     * Writes an int at an address that is a multiple of 4.
+     * @param address the address
+     * @param value the int to store
+     */
+    public void putInt(long address, int value)
+    {
+        chunk(address).putInt(offset(address), value);
+    }
+
+    /**
+     * Returns a buffer over a range of the memory, positioned at its start
+     * and limited to its end. Reading or writing through the buffer reads
+     * or writes the memory directly.
+     * @param address the start of the range
+     * @param length the number of bytes, which must stay within one chunk
+     * @return a buffer over the range
+     */
+    public ByteBuffer slice(long address, int length)
+    {
+        int offset = offset(address);
+        if(length < 0 || offset + (long) length > (1L << chunkBits)) {
+            throw new IndexOutOfBoundsException("Range crosses a chunk: " + address + "+" + length);
+        }
+        ByteBuffer view = chunk(address).duplicate();
+        view.limit(offset + length).position(offset);
+        return view;
+    }
+
+    /**
+     * Copies bytes from a buffer into the memory, starting at the buffer's
+     * position.
+     * @param address where to write the bytes
+     * @param source the buffer holding the bytes, which is not changed
+     * @param length the number of bytes, which must stay within one chunk
+     */
+    public void write(long address, ByteBuffer source, int length)
+    {
+        ByteBuffer bytes = source.duplicate();
+        bytes.limit(bytes.position() + length);
+        slice(address, length).put(bytes);
+    }
+
+    /**
+     * Returns true if the memory at the address holds the same bytes as the
+     * start of the buffer, ignoring its position.
+     * @param address where the stored bytes start
+     * @param bytes the buffer holding the bytes to compare, which is not changed
+     * @param length the number of bytes, which must stay within one chunk
+     * @return true if every byte matches
+     */
+    public boolean contentEquals(long address, ByteBuffer bytes, int length)
+    {
+        ByteBuffer chunk = chunk(address);
+        int offset = offset(address);
+        int i = 0;
+        //compare a long at a time, then whatever is left over
+        for(; i + Long.BYTES <= length; i += Long.BYTES) {
+            if(chunk.getLong(offset + i) != bytes.getLong(i)) {
+                return false;
+            }
+        }
+        for(; i < length; i++) {
+            if(chunk.get(offset + i) != bytes.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
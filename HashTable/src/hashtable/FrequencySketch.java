@@ -0,0 +1,122 @@
+package hashtable;
+
+import java.util.Arrays;
+
+/**
+ * A count-min sketch that estimates how often each hash code has been seen
+ * recently, in four bits per counter. Each hash code increments four
+ * counters and its estimate is the smallest of them, which can only be too
+ * high when every one of them is shared with other hash codes. Counters stop
+ * at 15, and once ten times the expected number of distinct hash codes have
+ * been counted every counter is halved, so the estimates follow recent
+ * traffic instead of all traffic.
+ *
+ * Sixteen counters are packed into each long, with about one long per
+ * expected hash code, so the sketch takes about eight bytes per element of
+ * the cache it serves.
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public final class FrequencySketch
+{
+    private static final long[] SEEDS = {0x97CB3127L, 0xB86C1F0DL, 0xD3B2F4F5L, 0xF1357AEDL};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+    private final long[] table;
+    private final int mask;
+    private final int sampleSize;
+    private int size;
+
+    /**
+     * Creates a sketch for about the given number of distinct hash codes.
+     * @param expectedSize the number of elements the cache holds
+     */
+    public FrequencySketch(int expectedSize)
+    {
+        if(expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative: " + expectedSize);
+        }
+        int capacity = Math.max(8, Integer.highestOneBit(Math.max(1, Math.min(expectedSize, 1 << 30) - 1)) << 1);
+        table = new long[capacity];
+        mask = capacity - 1;
+        sampleSize = (int) Math.min(10L * Math.max(expectedSize, 1), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Counts one more occurrence of the hash code.
+     * @param hash the hash code
+     */
+    public void increment(int hash)
+    {
+        boolean added = false;
+        for(int i = 0; i < SEEDS.length; i++) {
+            long index = indexOf(hash, i);
+            int slot = (int) (index >>> 32);
+            int shift = (int) index;
+            if(((table[slot] >>> shift) & 0xF) != 0xF) {
+                table[slot] += 1L << shift;
+                added = true;
+            }
+        }
+        if(added && ++size == sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Returns the estimated number of recent occurrences of the hash code,
+     * at most 15.
+     * @param hash the hash code
+     * @return the estimated frequency
+     */
+    public int frequency(int hash)
+    {
+        int frequency = 0xF;
+        for(int i = 0; i < SEEDS.length; i++) {
+            long index = indexOf(hash, i);
+            int count = (int) ((table[(int) (index >>> 32)] >>> (int) index) & 0xF);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    //returns the long to use in the upper half and the shift of the
+    //counter within it in the lower half
+    private long indexOf(int hash, int row)
+    {
+        long mixed = (hash + SEEDS[row]) * 0x9E3779B97F4A7C15L;
+        mixed ^= mixed >>> 29;
+        int slot = (int) (mixed >>> 32) & mask;
+        int shift = (int) (mixed & 0xF) << 2;
+        return (long) slot << 32 | shift;
+    }
+
+    //halve every counter so old occurrences count for less
+    private void reset()
+    {
+        int odd = 0;
+        for(int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        //each increment touched four counters, so every four odd counters
+        //lost about one increment to rounding
+        size = (size - (odd >>> 2)) >>> 1;
+    }
+
+    /**
+     * Sets every counter back to zero.
+     */
+    public void clear()
+    {
+        Arrays.fill(table, 0);
+        size = 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "FrequencySketch{counters=" + table.length * 16L + ", sampleSize=" + sampleSize + '}';
+    }
+}
@@ -0,0 +1,133 @@
+package hashtable;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Computes the hash a table uses to place an element. Tables index their
+ * power of two arrays with the low bits of this hash, so a strategy should
+ * spread the information of the element over all 32 bits.
+ * @param <T> the type of element hashed
+ * @author Brandon Skar
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface HashStrategy<T>
+{
+    /**
+     * Returns the hash of the element.
+     * @param element the element to hash, never null
+     * @return the hash used to place the element in a table
+     */
+    int hash(T element);
+
+    /**
+     * Returns the strategy used when none is given, which runs the element's
+     * hashCode() through the murmur3 finalizer so that sequential or
+     * otherwise poorly distributed hash codes still fill every bucket.
+     * @param <T> the type of element hashed
+     * @return the default strategy
+     */
+    static <T> HashStrategy<T> defaultStrategy()
+    {
+        return element -> mix(element.hashCode());
+    }
+
+    /**
+     * Returns a strategy that mixes the element's hashCode() with a random
+     * seed chosen when it is created, so passing a new one to each table
+     * places the same elements differently in every table and process. This
+     * defeats keys picked to collide in the low bits a table indexes by, at
+     * almost no cost, but elements with equal hashCode() values still
+     * collide; use sipHash() for untrusted strings.
+     * @param <T> the type of element hashed
+     * @return a strategy with its own random seed
+     */
+    static <T> HashStrategy<T> seeded()
+    {
+        long seed = ThreadLocalRandom.current().nextLong();
+        return element -> mix(element.hashCode(), seed);
+    }
+
+    /**
+     * Returns a strategy that hashes Strings, other CharSequences, byte
+     * arrays and the boxed primitives with SipHash under a random key chosen
+     * when it is created, and any other element like seeded(). Since the
+     * hash depends on the contents rather than hashCode(), keys chosen
+     * offline to collide, such as Strings with equal hash codes or Longs
+     * whose halves are equal, are spread out like any others. It costs a
+     * pass over every character of each key hashed.
+     * @param <T> the type of element hashed
+     * @return a strategy with its own random key
+     */
+    static <T> HashStrategy<T> sipHash()
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        SipHash sipHash = new SipHash(random.nextLong(), random.nextLong());
+        long seed = random.nextLong();
+        return element -> {
+            if(element instanceof CharSequence) {
+                long hash = sipHash.hash((CharSequence) element);
+                return (int) (hash ^ (hash >>> 32));
+            }
+            if(element instanceof byte[]) {
+                long hash = sipHash.hash((byte[]) element);
+                return (int) (hash ^ (hash >>> 32));
+            }
+            //hashCode() folds a long into 32 bits, so the whole value is hashed
+            long value;
+            if(element instanceof Long || element instanceof Integer || element instanceof Short
+                    || element instanceof Byte) {
+                value = ((Number) element).longValue();
+            }
+            else if(element instanceof Double) {
+                value = Double.doubleToLongBits((Double) element);
+            }
+            else if(element instanceof Float) {
+                value = Float.floatToIntBits((Float) element);
+            }
+            else if(element instanceof Character) {
+                value = (Character) element;
+            }
+            else {
+                return mix(element.hashCode(), seed);
+            }
+            long hash = sipHash.hash(value);
+            return (int) (hash ^ (hash >>> 32));
+        };
+    }
+
+    /**
+     * Mixes a hash code with a seed using the 64 bit murmur3 finalizer, so
+     * every bit of the seed affects every bit of the result.
+     * @param hashCode the hash code to mix
+     * @param seed the seed
+     * @return the mixed hash
+     */
+    static int mix(int hashCode, long seed)
+    {
+        long hash = hashCode ^ seed;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (int) hash;
+    }
+
+    /**
+     * Mixes the bits of a hash code with the murmur3 32 bit finalizer so that
+     * every input bit affects the low bits of the result.
+     * @param hashCode the hash code to mix
+     * @return the mixed hash
+     */
+    static int mix(int hashCode)
+    {
+        int hash = hashCode;
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
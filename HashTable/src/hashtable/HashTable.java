@@ -1,168 +1,668 @@
 package hashtable;
-import interfaces.ICollection;
+import helpers.KeyValuePair;
+import interfaces.IHashTable;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.*;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * HashTable Collection Object
+ *
+ * A bucket whose chain grows to the config's treeify threshold, which only
+ * happens when many hashes collide (e.g. Strings chosen to share a
+ * hashCode), is turned into a red-black tree ordered by hash and then by
+ * compareTo for Comparable elements (or the Comparable keys of
+ * KeyValuePairs), so every operation on it takes O(log n) instead of O(n).
+ * It is turned back into a chain once removals bring it two nodes under
+ * the threshold.
  * @param <T> Accepts any Object
  * @author Brandon Skar
  * @version 1.0
  */
-public class HashTable<T> implements ICollection<T>, Iterable<T>
+public class HashTable<T> implements IHashTable<T>, Iterable<T>
 {
-    private static final int INITIAL_TABLE_SIZE = 10;
-    private static final double LOAD_FACTOR = 2.5;
-    private static final double RESIZE_RATIO = 1.5;
-    private Node[] elements;
+    private static final int MIGRATED_BUCKETS_PER_WRITE = 4;
+    //returned by findUnlocked when the element's bucket is a tree, which must
+    //be searched under a lock instead
+    static final Object TREE_BUCKET = new Object();
+    private final HashStrategy<? super T> strategy;
+    private final HashTableConfig config;
+    //chains this long become trees, trees this small become chains again
+    private final int treeifyThreshold;
+    private final int untreeifyThreshold;
+    private Node<T>[] elements;
     private int size;
     private int modCount;
 
+    //the sizes that make the table grow or shrink at the current array length
+    private int growThreshold;
+    private int shrinkThreshold;
+
+    //while an incremental resize is in progress the buckets that have not been
+    //moved yet are kept in the old array, starting at the migrate index
+    private Node<T>[] oldElements;
+    private int migrateIndex;
+
     /**
      * Default constructor for HashTable class
      * instantiates a Node array
      */
     public HashTable()
     {
-        elements = new Node[INITIAL_TABLE_SIZE];
+        this(HashStrategy.defaultStrategy(), false);
+    }
+
+    /**
+     * Constructor for HashTable class that places elements using the given
+     * hash strategy instead of the default mixing of hashCode(), e.g. for
+     * keys whose hashCode() is poorly distributed.
+     * @param strategy computes the hash of each element
+     */
+    public HashTable(HashStrategy<? super T> strategy)
+    {
+        this(strategy, false);
+    }
+
+    /**
+     * Constructor for HashTable class that chooses how the table grows.
+     * An incremental resize keeps the old and new Node arrays and moves a
+     * few buckets on every write, so no single write pays for rehashing
+     * the whole table.
+     * @param incrementalResize true to resize incrementally, false to
+     *                          rehash everything on the write that grows the table
+     */
+    public HashTable(boolean incrementalResize)
+    {
+        this(HashStrategy.defaultStrategy(), incrementalResize);
+    }
+
+    /**
+     * Constructor for HashTable class with both a hash strategy and a choice
+     * of how the table grows.
+     * @param strategy computes the hash of each element
+     * @param incrementalResize true to resize incrementally, false to
+     *                          rehash everything on the write that grows the table
+     */
+    public HashTable(HashStrategy<? super T> strategy, boolean incrementalResize)
+    {
+        this(0, strategy, incrementalResize);
+    }
+
+    /**
+     * Constructor for HashTable class that sizes the Node array up front so
+     * the expected number of elements can be added without any resize.
+     * @param expectedSize the number of elements the table is expected to hold
+     */
+    public HashTable(int expectedSize)
+    {
+        this(expectedSize, HashStrategy.defaultStrategy(), false);
+    }
+
+    /**
+     * Constructor for HashTable class that sizes the Node array up front and
+     * chooses the hash strategy and how the table grows past that size.
+     * @param expectedSize the number of elements the table is expected to hold
+     * @param strategy computes the hash of each element
+     * @param incrementalResize true to resize incrementally, false to
+     *                          rehash everything on the write that grows the table
+     */
+    public HashTable(int expectedSize, HashStrategy<? super T> strategy, boolean incrementalResize)
+    {
+        this(expectedSize, HashTableConfig.defaults().withIncrementalResize(incrementalResize), strategy);
+    }
+
+    /**
+     * Constructor for HashTable class that grows and shrinks as the given
+     * config describes.
+     * @param config the load factor, growth and capacity settings
+     */
+    public HashTable(HashTableConfig config)
+    {
+        this(0, config, HashStrategy.defaultStrategy());
+    }
+
+    /**
+     * Constructor for HashTable class that grows and shrinks as the given
+     * config describes and places elements using the given hash strategy.
+     * @param config the load factor, growth and capacity settings
+     * @param strategy computes the hash of each element
+     */
+    public HashTable(HashTableConfig config, HashStrategy<? super T> strategy)
+    {
+        this(0, config, strategy);
+    }
+
+    /**
+     * Constructor for HashTable class that sizes the Node array up front for
+     * the expected number of elements, grows and shrinks as the given config
+     * describes and places elements using the given hash strategy.
+     * @param expectedSize the number of elements the table is expected to hold
+     * @param config the load factor, growth and capacity settings
+     * @param strategy computes the hash of each element
+     */
+    public HashTable(int expectedSize, HashTableConfig config, HashStrategy<? super T> strategy)
+    {
+        if(expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative: " + expectedSize);
+        }
+        this.strategy = strategy;
+        this.config = config;
+        this.treeifyThreshold = config.treeifyThreshold();
+        this.untreeifyThreshold = treeifyThreshold - 2;
+        setElements(newTable(config.capacityFor(expectedSize)));
+    }
+
+    //java cannot create an array of a generic type, so every Node array is made here
+    @SuppressWarnings("unchecked")
+    private Node<T>[] newTable(int length)
+    {
+        return (Node<T>[]) new HashTable<?>.Node<?>[length];
+    }
+
+    //replace the Node array, moving the grow and shrink thresholds to match its length
+    private void setElements(Node<T>[] elements)
+    {
+        this.elements = elements;
+        growThreshold = config.growThreshold(elements.length);
+        shrinkThreshold = config.shrinkThreshold(elements.length);
     }
 
     @Override
     public void add(T element)
     {
-        //check for duplicate
-        if(contains(element)) {
-            return;
+        prepareForWrite();
+        addWithoutResize(element);
+    }
+
+    @Override
+    public T put(T element)
+    {
+        prepareForWrite();
+
+        int hash = strategy.hash(element);
+        Node<T> node = findNode(element, hash);
+
+        //swap the stored element in place when it already exists
+        if(node != null) {
+            T previous = node.data;
+            node.data = element;
+            return previous;
+        }
+
+        insertNode(element, hash);
+        return null;
+    }
+
+    @Override
+    public T computeIfAbsent(T probe, Function<? super T, ? extends T> factory)
+    {
+        prepareForWrite();
+
+        int hash = strategy.hash(probe);
+        Node<T> node = findNode(probe, hash);
+        if(node != null) {
+            return node.data;
         }
 
-        //if the amount of elements reaches over %250 of the array length, then
-        //resize the array
-        if((double)((size) / elements.length) > LOAD_FACTOR) {
-            resize();
+        T created = factory.apply(probe);
+        if(created == null) {
+            return null;
         }
+        insertNode(created, hash);
+        return created;
+    }
 
-        //Get the hash code of the element and mod it by the array length
-        //to get the array index to put it in
-        int hashCode = Math.abs(element.hashCode());
-        int index = hashCode % elements.length;
+    @Override
+    public T merge(T element, BinaryOperator<T> remapping)
+    {
+        prepareForWrite();
 
-        //if empty index of the array
-        if(elements[index] == null) {
-            elements[index] = new Node<>(element, null);
+        int hash = strategy.hash(element);
+        Node<T> node = findNode(element, hash);
+        if(node != null) {
+            T merged = remapping.apply(node.data, element);
+            if(merged == null) {
+                remove(element);
+                return null;
+            }
+            node.data = merged;
+            return merged;
         }
-        //begin traversing the nodes of the arrays index
-        else {
-            Node<T> pointer = elements[index];
 
-            //begin traversing the nodes
-            while(pointer.next != null) {
+        insertNode(element, hash);
+        return element;
+    }
 
-                //go to the next node
-                pointer = pointer.next;
+    //the array lengths are powers of two, so masking the hash with the length
+    //minus one gives the array index without a division and is never negative
+    private static int indexFor(int hash, int length)
+    {
+        return hash & (length - 1);
+    }
+
+    //scan the nodes of the element's bucket for the element, looking in the
+    //old array as well if its bucket has not been migrated yet
+    private Node<T> findNode(T element, int hash)
+    {
+        Node<T> node = findNode(element, hash, elements[indexFor(hash, elements.length)]);
+        if(node == null && oldElements != null) {
+            node = findNode(element, hash, oldElements[indexFor(hash, oldElements.length)]);
+        }
+        return node;
+    }
+
+    //scan the nodes of the bucket starting at the pointer for the element,
+    //comparing the stored hashes first so equals() is only called on likely matches
+    private Node<T> findNode(T element, int hash, Node<T> pointer)
+    {
+        if(pointer instanceof TreeBin) {
+            return ((TreeBin<T>) pointer).find(element, hash);
+        }
+        while(pointer != null) {
+            if(pointer.hash == hash && pointer.data.equals(element)) {
+                return pointer;
             }
-            //if it reaches the end of the list. add the new node
-            //pointing to a null node
-            pointer.next = new Node<>(element, null);
+            pointer = pointer.next;
         }
+        return null;
+    }
+
+    //look the element up for a reader that holds no lock and throws the result
+    //away if a write overlapped it. A torn view of a chain can only end the walk
+    //early or throw, since chain links only ever point to older nodes, but
+    //writers rotate trees in place and a torn view of one can cycle, so a tree
+    //bucket is reported with TREE_BUCKET instead of being searched
+    Object findUnlocked(T element)
+    {
+        int hash = strategy.hash(element);
+        Object found = findUnlocked(element, hash, elements[indexFor(hash, elements.length)]);
+        Node<T>[] old = oldElements;
+        if(found == null && old != null) {
+            found = findUnlocked(element, hash, old[indexFor(hash, old.length)]);
+        }
+        return found;
+    }
+
+    private Object findUnlocked(T element, int hash, Node<T> pointer)
+    {
+        if(pointer instanceof TreeBin) {
+            return TREE_BUCKET;
+        }
+        while(pointer != null) {
+            if(pointer.hash == hash && pointer.data.equals(element)) {
+                return pointer.data;
+            }
+            pointer = pointer.next;
+        }
+        return null;
+    }
+
+    private void insertNode(T element, int hash)
+    {
+        link(element, hash);
 
         //increment size and modCount
         size++;
         modCount++;
     }
 
-    //resize the table when there are more than %250 of elements in the table
-    private void resize()
+    //link a new node to the front of the bucket so the chain is not walked
+    //again, turning the chain into a tree once it gets too long
+    private void link(T element, int hash)
     {
-        //make size 0 to begin adding elements to the new array
-        size = 0;
+        int index = indexFor(hash, elements.length);
+        Node<T> head = elements[index];
+        if(head instanceof TreeBin) {
+            ((TreeBin<T>) head).insert(element, hash);
+            return;
+        }
+        elements[index] = new Node<>(element, hash, head);
 
-        //add elements from the table to a list
-        List<T> list = new ArrayList<>();
-        for(Node<T> element : elements) {
-            if(element != null) {
-                while(element.next != null) {
-                    list.add(element.data);
-                    element = element.next;
-                }
-                list.add(element.data);
+        int length = 1;
+        for(Node<T> pointer = head; pointer != null && length < treeifyThreshold; pointer = pointer.next) {
+            length++;
+        }
+        if(length == treeifyThreshold) {
+            elements[index] = new TreeBin<>(elements[index]);
+        }
+    }
+
+    //every write moves a few buckets of an incremental resize along and then
+    //checks whether the table needs to grow before the element is placed
+    private void prepareForWrite()
+    {
+        if(oldElements != null) {
+            migrateBuckets(MIGRATED_BUCKETS_PER_WRITE);
+        }
+        resizeIfNeeded();
+    }
+
+    //if adding one more element would put the average number of elements
+    //per bucket over the load factor, then grow the array
+    private void resizeIfNeeded()
+    {
+        if(size >= growThreshold) {
+            resize(config.grownCapacity(elements.length), config.isIncrementalResize());
+        }
+    }
+
+    //if removing an element put the average number of elements per bucket
+    //under the shrink threshold, then shrink the array. The new array leaves
+    //room for the elements to double, so a table hovering around the threshold
+    //does not keep shrinking and growing again
+    private void shrinkIfNeeded()
+    {
+        if(size < shrinkThreshold) {
+            int length = config.capacityFor((int) Math.min(size * 2L, Integer.MAX_VALUE));
+            if(length < elements.length) {
+                resize(length, config.isIncrementalResize());
             }
         }
+    }
 
-        //create a new elements table with a new size of %150 of the old table
-        elements = new Node[(int)(elements.length * RESIZE_RATIO)];
+    @Override
+    public void trimToSize()
+    {
+        //finish any incremental resize so the old array is released too
+        if(oldElements != null) {
+            migrateBuckets(oldElements.length);
+        }
 
-        //begin adding each element to the table from the list
-        for(T element : list) {
-            add(element);
+        int length = config.capacityFor(size);
+        if(length < elements.length) {
+            resize(length, false);
+        }
+    }
+
+    //resize the table to the given array length
+    private void resize(int length, boolean incremental)
+    {
+        //a resize that is still in progress has to finish before the next one starts
+        if(oldElements != null) {
+            migrateBuckets(oldElements.length);
+        }
+
+        oldElements = elements;
+        migrateIndex = 0;
+        setElements(newTable(length));
+        modCount++;
+
+        //move every bucket now unless the buckets are moved a few at a time by later writes
+        if(!incremental) {
+            migrateBuckets(oldElements.length);
         }
     }
 
     @Override
-    public void remove(T element)
+    public void ensureCapacity(int expectedSize)
     {
-        //Get the hash code of the element and mod it by the array length
-        //to get the array index to put it in
-        int hashCode = Math.abs(element.hashCode());
-        int index = hashCode % elements.length;
-        Node<T> pointer = elements[index];
+        //finish any incremental resize so bulk inserts only look in one array
+        if(oldElements != null) {
+            migrateBuckets(oldElements.length);
+        }
 
-        //throw an exception when trying to remove an element that does not exist
-        if(pointer == null) {
-            throw new NoSuchElementException("No element " + element + " found");
+        int length = config.capacityFor(expectedSize);
+        if(length > elements.length) {
+            resize(length, false);
         }
-        else {
-            //if the element is the first one found
-            if(pointer.data.equals(element)) {
-                elements[index] = pointer.next;
-                size--;
-                modCount++;
+    }
+
+    @Override
+    public void addAll(Iterable<? extends T> source)
+    {
+        int count = IHashTable.sizeOf(source);
+
+        //without a known size the elements are added one at a time
+        if(count < 0) {
+            for(T element : source) {
+                add(element);
             }
-            //scan for the element
-            else {
-                while (pointer.next != null) {
-                    if (pointer.next.data.equals(element)) {
-                        pointer.next = pointer.next.next;
-                        size--;
-                        modCount++;
-                        return;
-                    }
-                    pointer = pointer.next;
-                }
+            return;
+        }
+
+        //size the table once, then insert without checking for a resize
+        ensureCapacity(size + count);
+        for(T element : source) {
+            addWithoutResize(element);
+        }
+    }
+
+    @Override
+    public void addAll(T[] source)
+    {
+        ensureCapacity(size + source.length);
+        for(T element : source) {
+            addWithoutResize(element);
+        }
+    }
+
+    //walk the bucket once, only adding the element if it is not a duplicate
+    private void addWithoutResize(T element)
+    {
+        int hash = strategy.hash(element);
+        if(findNode(element, hash) == null) {
+            insertNode(element, hash);
+        }
+    }
+
+    //link an element known not to be in the table, e.g. one read back from a
+    //snapshot, after the table has been sized for it
+    void addUnique(T element)
+    {
+        insertNode(element, strategy.hash(element));
+    }
+
+    /**
+     * Writes a binary snapshot of the table to the stream, which is left
+     * open. See Snapshot for the format.
+     * @param out where to write the snapshot
+     * @param codec converts each element to bytes
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeTo(OutputStream out, Codec<? super T> codec) throws IOException
+    {
+        writeTo(Channels.newChannel(out), codec);
+    }
+
+    /**
+     * Writes a binary snapshot of the table to the channel, which is left
+     * open. See Snapshot for the format.
+     * @param channel where to write the snapshot
+     * @param codec converts each element to bytes
+     * @throws IOException if the channel cannot be written
+     */
+    public void writeTo(WritableByteChannel channel, Codec<? super T> codec) throws IOException
+    {
+        Snapshot.write(channel, this, size, elements.length, codec);
+    }
+
+    /**
+     * Reads a table from a binary snapshot. The table is sized once from
+     * the header and the elements are linked in without duplicate checks.
+     * @param in where to read the snapshot from
+     * @param codec converts the bytes of each element back
+     * @param <T> the type of element read
+     * @return a table holding the elements of the snapshot
+     * @throws IOException if the stream cannot be read or does not hold a snapshot
+     */
+    public static <T> HashTable<T> readFrom(InputStream in, Codec<T> codec) throws IOException
+    {
+        return readFrom(Channels.newChannel(in), codec);
+    }
+
+    /**
+     * Reads a table from a binary snapshot. The table is sized once from
+     * the header and the elements are linked in without duplicate checks.
+     * @param channel where to read the snapshot from
+     * @param codec converts the bytes of each element back
+     * @param <T> the type of element read
+     * @return a table holding the elements of the snapshot
+     * @throws IOException if the channel cannot be read or does not hold a snapshot
+     */
+    public static <T> HashTable<T> readFrom(ReadableByteChannel channel, Codec<T> codec) throws IOException
+    {
+        return Snapshot.read(channel, codec, HashStrategy.defaultStrategy());
+    }
+
+    //move up to the given number of buckets from the old array into the new one,
+    //no duplicate checks are needed since the elements are already unique
+    private void migrateBuckets(int buckets)
+    {
+        int end = Math.min(migrateIndex + buckets, oldElements.length);
+        for(; migrateIndex < end; migrateIndex++) {
+            Node<T> pointer = oldElements[migrateIndex];
+            oldElements[migrateIndex] = null;
+            if(pointer instanceof TreeBin) {
+                pointer = ((TreeBin<T>) pointer).first;
+            }
+
+            //the stored hashes are reused so no element is hashed again
+            while(pointer != null) {
+                link(pointer.data, pointer.hash);
+                pointer = pointer.next;
             }
         }
 
+        //drop the old array once every bucket has been moved
+        if(migrateIndex == oldElements.length) {
+            oldElements = null;
+        }
+        modCount++;
     }
 
     @Override
-    public boolean contains(T element)
+    public void remove(T element)
+    {
+        if(oldElements != null) {
+            migrateBuckets(MIGRATED_BUCKETS_PER_WRITE);
+        }
+
+        //the element is either in the new array or in a bucket that has not been migrated
+        int hash = strategy.hash(element);
+        if(!removeNode(element, hash, elements)
+                && (oldElements == null || !removeNode(element, hash, oldElements))) {
+            //throw an exception when trying to remove an element that does not exist
+            throw new NoSuchElementException("No element " + element + " found");
+        }
+        size--;
+        modCount++;
+        shrinkIfNeeded();
+    }
+
+    //unlink the node holding the element from its bucket in the given array
+    private boolean removeNode(T element, int hash, Node<T>[] table)
     {
-        //Get the hash code of the element and mod it by the array length
-        //to get the array index to put it in
-        int hashCode = Math.abs(element.hashCode());
-        int index = hashCode % elements.length;
-        Node<T> pointer = elements[index];
+        int index = indexFor(hash, table.length);
+        Node<T> pointer = table[index];
 
-        //if first node is null then element is not in the table
         if(pointer == null) {
             return false;
         }
-        //scan the elements
-        else {
-            //if the element is the first one found
-            if(pointer.data.equals(element)) {
+
+        if(pointer instanceof TreeBin) {
+            TreeBin<T> bin = (TreeBin<T>) pointer;
+            TreeNode<T> node = bin.find(element, hash);
+            if(node == null) {
+                return false;
+            }
+            bin.remove(node);
+            if(bin.count <= untreeifyThreshold) {
+                table[index] = bin.untreeify();
+            }
+            return true;
+        }
+
+        //if the element is the first one found
+        if(pointer.hash == hash && pointer.data.equals(element)) {
+            table[index] = pointer.next;
+            return true;
+        }
+
+        //scan for the element
+        while(pointer.next != null) {
+            if(pointer.next.hash == hash && pointer.next.data.equals(element)) {
+                pointer.next = pointer.next.next;
                 return true;
             }
-            else {
-                //scan for the element
-                while (pointer.next != null) {
-                    if (pointer.next.data.equals(element)) {
-                        return true;
+            pointer = pointer.next;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super T> filter)
+    {
+        //finish any incremental resize so a single pass sees every element
+        if(oldElements != null) {
+            migrateBuckets(oldElements.length);
+        }
+
+        //unlink the matching nodes bucket by bucket without hashing anything again
+        int removed = 0;
+        for(int i = 0; i < elements.length; i++) {
+            if(elements[i] instanceof TreeBin) {
+                TreeBin<T> bin = (TreeBin<T>) elements[i];
+                //removed nodes keep their next link, so the walk carries on past them
+                for(Node<T> pointer = bin.first; pointer != null; pointer = pointer.next) {
+                    if(filter.test(pointer.data)) {
+                        bin.remove((TreeNode<T>) pointer);
+                        removed++;
                     }
-                    pointer = pointer.next;
+                }
+                if(bin.count <= untreeifyThreshold) {
+                    elements[i] = bin.untreeify();
+                }
+                continue;
+            }
+
+            Node<T> previous = null;
+            for(Node<T> pointer = elements[i]; pointer != null; pointer = pointer.next) {
+                if(!filter.test(pointer.data)) {
+                    previous = pointer;
+                }
+                else if(previous == null) {
+                    elements[i] = pointer.next;
+                    removed++;
+                }
+                else {
+                    previous.next = pointer.next;
+                    removed++;
                 }
             }
         }
-        return false;
+
+        if(removed == 0) {
+            return false;
+        }
+        size -= removed;
+        modCount++;
+        shrinkIfNeeded();
+        return true;
+    }
+
+    @Override
+    public boolean contains(T element)
+    {
+        //the element is in the table if a probe of its bucket finds it
+        return find(element) != null;
+    }
+
+    @Override
+    public T find(T element)
+    {
+        Node<T> node = findNode(element, strategy.hash(element));
+        if(node == null) {
+            return null;
+        }
+        return node.data;
     }
 
     @Override
@@ -171,6 +671,18 @@ public class HashTable<T> implements ICollection<T>, Iterable<T>
         return size;
     }
 
+    /**
+     * Returns the number of buckets in the table. Removals shrink the table
+     * once it drops under the configured shrink threshold, so the number of
+     * buckets (and the cost of iterating over them) follows the number of
+     * elements rather than the most the table ever held.
+     * @return the length of the Node array
+     */
+    public int capacity()
+    {
+        return elements.length;
+    }
+
     @Override
     public boolean isEmpty() {
         return size == 0;
@@ -179,7 +691,8 @@ public class HashTable<T> implements ICollection<T>, Iterable<T>
     @Override
     public void clear()
     {
-        elements = new Node[INITIAL_TABLE_SIZE];
+        setElements(newTable(config.getMinCapacity()));
+        oldElements = null;
         size = 0;
         modCount++;
     }
@@ -187,18 +700,27 @@ public class HashTable<T> implements ICollection<T>, Iterable<T>
     @Override
     public T get(T element)
     {
-        //if the table contains the element, return it, otherwise return null
-        //contains method uses .equals() method to compare elements
-        if(contains(element)) {
-            return element;
-        }
-        return null;
+        //return the element stored in the table, or null if it is not found
+        //find method uses .equals() method to compare elements
+        return find(element);
     }
 
+    /**
+     * Returns an iterator over the elements of the table. Unless the config
+     * asks for weakly consistent iteration, the iterator is fail-fast and
+     * throws a ConcurrentModificationException once the table is changed.
+     * @return an iterator over the elements
+     */
     @Override
     public Iterator<T> iterator()
     {
-        return new TableIterator();
+        return new TableIterator(config.isWeaklyConsistentIteration());
+    }
+
+    @Override
+    public Iterator<T> weaklyConsistentIterator()
+    {
+        return new TableIterator(true);
     }
 
     @Override
@@ -212,12 +734,15 @@ public class HashTable<T> implements ICollection<T>, Iterable<T>
 
     private class Node<T>
     {
-        private T data;
-        private Node next;
+        //not private so the tree nodes that extend Node can reach them
+        T data;
+        final int hash;
+        Node<T> next;
 
-        public Node(T data, Node next)
+        public Node(T data, int hash, Node<T> next)
         {
             this.data = data;
+            this.hash = hash;
             this.next = next;
         }
 
@@ -231,43 +756,566 @@ public class HashTable<T> implements ICollection<T>, Iterable<T>
         }
     }
 
+    private class TreeNode<T> extends Node<T>
+    {
+        private TreeNode<T> parent;
+        private TreeNode<T> left;
+        private TreeNode<T> right;
+        //the node before this one in the bin's list, next is the one after
+        private TreeNode<T> previous;
+        private boolean red;
+
+        public TreeNode(T data, int hash, Node<T> next)
+        {
+            super(data, hash, next);
+        }
+    }
+
+    //the head of a bucket that was turned into a red-black tree. Its nodes
+    //are also linked into a list through next, which iterators and resizes
+    //walk. New nodes go at the front of the list, rotations only change the
+    //tree links and removed nodes keep their next link, so an iterator over
+    //a copy of the bucket array can walk the list while the tree changes
+    private class TreeBin<T> extends Node<T>
+    {
+        private TreeNode<T> root;
+        private TreeNode<T> first;
+        private int count;
+
+        //copy the nodes of the chain into a tree, leaving the chain itself
+        //untouched for any iterator still walking it
+        public TreeBin(Node<T> chain)
+        {
+            super(null, 0, null);
+            for(Node<T> pointer = chain; pointer != null; pointer = pointer.next) {
+                insert(pointer.data, pointer.hash);
+            }
+        }
+
+        //copy the nodes back into a plain chain
+        private Node<T> untreeify()
+        {
+            Node<T> chain = null;
+            for(Node<T> pointer = first; pointer != null; pointer = pointer.next) {
+                chain = new Node<>(pointer.data, pointer.hash, chain);
+            }
+            return chain;
+        }
+
+        //descend by hash and then by compareTo, searching both subtrees
+        //only where neither tells the elements apart
+        private TreeNode<T> find(T element, int hash)
+        {
+            return find(root, element, hash);
+        }
+
+        private TreeNode<T> find(TreeNode<T> pointer, T element, int hash)
+        {
+            while(pointer != null) {
+                if(pointer.hash > hash) {
+                    pointer = pointer.left;
+                }
+                else if(pointer.hash < hash) {
+                    pointer = pointer.right;
+                }
+                else if(pointer.data.equals(element)) {
+                    return pointer;
+                }
+                else if(pointer.left == null) {
+                    pointer = pointer.right;
+                }
+                else if(pointer.right == null) {
+                    pointer = pointer.left;
+                }
+                else {
+                    int direction = compareKeys(element, pointer.data);
+                    if(direction != 0) {
+                        pointer = direction < 0 ? pointer.left : pointer.right;
+                    }
+                    else {
+                        TreeNode<T> found = find(pointer.right, element, hash);
+                        if(found != null) {
+                            return found;
+                        }
+                        pointer = pointer.left;
+                    }
+                }
+            }
+            return null;
+        }
+
+        //add an element known not to be in the tree
+        private void insert(T element, int hash)
+        {
+            TreeNode<T> node = new TreeNode<>(element, hash, first);
+            if(first != null) {
+                first.previous = node;
+            }
+            first = node;
+            count++;
+
+            if(root == null) {
+                root = node;
+                return;
+            }
+            TreeNode<T> pointer = root;
+            while(true) {
+                int direction;
+                if(pointer.hash != hash) {
+                    direction = pointer.hash > hash ? -1 : 1;
+                }
+                else {
+                    direction = compareKeys(element, pointer.data);
+                    if(direction == 0) {
+                        direction = tieBreakOrder(element, pointer.data);
+                    }
+                }
+
+                TreeNode<T> child = direction < 0 ? pointer.left : pointer.right;
+                if(child == null) {
+                    node.parent = pointer;
+                    if(direction < 0) {
+                        pointer.left = node;
+                    }
+                    else {
+                        pointer.right = node;
+                    }
+                    balanceInsertion(node);
+                    return;
+                }
+                pointer = child;
+            }
+        }
+
+        private void remove(TreeNode<T> node)
+        {
+            //unlink from the list but keep node.next for iterators standing on it
+            TreeNode<T> successor = (TreeNode<T>) node.next;
+            TreeNode<T> predecessor = node.previous;
+            if(predecessor == null) {
+                first = successor;
+            }
+            else {
+                predecessor.next = successor;
+            }
+            if(successor != null) {
+                successor.previous = predecessor;
+            }
+            count--;
+
+            //a node with two children trades places (not elements) with the
+            //smallest node of its right subtree, so every node keeps its element
+            TreeNode<T> replacement;
+            TreeNode<T> left = node.left;
+            TreeNode<T> right = node.right;
+            if(left != null && right != null) {
+                TreeNode<T> smallest = right;
+                while(smallest.left != null) {
+                    smallest = smallest.left;
+                }
+                boolean color = smallest.red;
+                smallest.red = node.red;
+                node.red = color;
+
+                TreeNode<T> smallestRight = smallest.right;
+                TreeNode<T> parent = node.parent;
+                if(smallest == right) {
+                    node.parent = smallest;
+                    smallest.right = node;
+                }
+                else {
+                    TreeNode<T> smallestParent = smallest.parent;
+                    node.parent = smallestParent;
+                    if(smallest == smallestParent.left) {
+                        smallestParent.left = node;
+                    }
+                    else {
+                        smallestParent.right = node;
+                    }
+                    smallest.right = right;
+                    right.parent = smallest;
+                }
+                node.left = null;
+                node.right = smallestRight;
+                if(smallestRight != null) {
+                    smallestRight.parent = node;
+                }
+                smallest.left = left;
+                left.parent = smallest;
+                smallest.parent = parent;
+                if(parent == null) {
+                    root = smallest;
+                }
+                else if(node == parent.left) {
+                    parent.left = smallest;
+                }
+                else {
+                    parent.right = smallest;
+                }
+                replacement = smallestRight != null ? smallestRight : node;
+            }
+            else if(left != null) {
+                replacement = left;
+            }
+            else if(right != null) {
+                replacement = right;
+            }
+            else {
+                replacement = node;
+            }
+
+            if(replacement != node) {
+                TreeNode<T> parent = node.parent;
+                replacement.parent = parent;
+                if(parent == null) {
+                    root = replacement;
+                    replacement.red = false;
+                }
+                else if(node == parent.left) {
+                    parent.left = replacement;
+                }
+                else {
+                    parent.right = replacement;
+                }
+                node.left = null;
+                node.right = null;
+                node.parent = null;
+            }
+
+            if(!node.red) {
+                balanceDeletion(replacement);
+            }
+
+            //a leaf is only detached after the rebalancing that used it
+            if(replacement == node) {
+                TreeNode<T> parent = node.parent;
+                node.parent = null;
+                if(parent == null) {
+                    root = null;
+                }
+                else if(node == parent.left) {
+                    parent.left = null;
+                }
+                else if(node == parent.right) {
+                    parent.right = null;
+                }
+            }
+        }
+
+        private void rotateLeft(TreeNode<T> node)
+        {
+            TreeNode<T> right = node.right;
+            node.right = right.left;
+            if(right.left != null) {
+                right.left.parent = node;
+            }
+            right.parent = node.parent;
+            if(node.parent == null) {
+                root = right;
+                right.red = false;
+            }
+            else if(node.parent.left == node) {
+                node.parent.left = right;
+            }
+            else {
+                node.parent.right = right;
+            }
+            right.left = node;
+            node.parent = right;
+        }
+
+        private void rotateRight(TreeNode<T> node)
+        {
+            TreeNode<T> left = node.left;
+            node.left = left.right;
+            if(left.right != null) {
+                left.right.parent = node;
+            }
+            left.parent = node.parent;
+            if(node.parent == null) {
+                root = left;
+                left.red = false;
+            }
+            else if(node.parent.right == node) {
+                node.parent.right = left;
+            }
+            else {
+                node.parent.left = left;
+            }
+            left.right = node;
+            node.parent = left;
+        }
+
+        private void balanceInsertion(TreeNode<T> node)
+        {
+            node.red = true;
+            while(true) {
+                TreeNode<T> parent = node.parent;
+                if(parent == null) {
+                    node.red = false;
+                    return;
+                }
+                TreeNode<T> grandparent = parent.parent;
+                if(!parent.red || grandparent == null) {
+                    return;
+                }
+
+                if(parent == grandparent.left) {
+                    TreeNode<T> uncle = grandparent.right;
+                    if(uncle != null && uncle.red) {
+                        uncle.red = false;
+                        parent.red = false;
+                        grandparent.red = true;
+                        node = grandparent;
+                        continue;
+                    }
+                    if(node == parent.right) {
+                        rotateLeft(parent);
+                        node = parent;
+                        parent = node.parent;
+                    }
+                    parent.red = false;
+                    grandparent.red = true;
+                    rotateRight(grandparent);
+                }
+                else {
+                    TreeNode<T> uncle = grandparent.left;
+                    if(uncle != null && uncle.red) {
+                        uncle.red = false;
+                        parent.red = false;
+                        grandparent.red = true;
+                        node = grandparent;
+                        continue;
+                    }
+                    if(node == parent.left) {
+                        rotateRight(parent);
+                        node = parent;
+                        parent = node.parent;
+                    }
+                    parent.red = false;
+                    grandparent.red = true;
+                    rotateLeft(grandparent);
+                }
+            }
+        }
+
+        private void balanceDeletion(TreeNode<T> node)
+        {
+            while(node != null && node != root) {
+                TreeNode<T> parent = node.parent;
+                if(node.red) {
+                    node.red = false;
+                    return;
+                }
+
+                if(node == parent.left) {
+                    TreeNode<T> sibling = parent.right;
+                    if(sibling != null && sibling.red) {
+                        sibling.red = false;
+                        parent.red = true;
+                        rotateLeft(parent);
+                        sibling = parent.right;
+                    }
+                    if(sibling == null) {
+                        node = parent;
+                        continue;
+                    }
+                    TreeNode<T> nearChild = sibling.left;
+                    TreeNode<T> farChild = sibling.right;
+                    if(!isRed(nearChild) && !isRed(farChild)) {
+                        sibling.red = true;
+                        node = parent;
+                        continue;
+                    }
+                    if(!isRed(farChild)) {
+                        nearChild.red = false;
+                        sibling.red = true;
+                        rotateRight(sibling);
+                        sibling = parent.right;
+                    }
+                    sibling.red = parent.red;
+                    if(sibling.right != null) {
+                        sibling.right.red = false;
+                    }
+                    parent.red = false;
+                    rotateLeft(parent);
+                    node = root;
+                }
+                else {
+                    TreeNode<T> sibling = parent.left;
+                    if(sibling != null && sibling.red) {
+                        sibling.red = false;
+                        parent.red = true;
+                        rotateRight(parent);
+                        sibling = parent.left;
+                    }
+                    if(sibling == null) {
+                        node = parent;
+                        continue;
+                    }
+                    TreeNode<T> nearChild = sibling.right;
+                    TreeNode<T> farChild = sibling.left;
+                    if(!isRed(nearChild) && !isRed(farChild)) {
+                        sibling.red = true;
+                        node = parent;
+                        continue;
+                    }
+                    if(!isRed(farChild)) {
+                        nearChild.red = false;
+                        sibling.red = true;
+                        rotateLeft(sibling);
+                        sibling = parent.left;
+                    }
+                    sibling.red = parent.red;
+                    if(sibling.left != null) {
+                        sibling.left.red = false;
+                    }
+                    parent.red = false;
+                    rotateRight(parent);
+                    node = root;
+                }
+            }
+            if(node != null) {
+                node.red = false;
+            }
+        }
+
+        private boolean isRed(TreeNode<T> node)
+        {
+            return node != null && node.red;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "TreeBin{" +
+                    "count=" + count +
+                    ", first=" + first +
+                    '}';
+        }
+    }
+
+    //the element itself if it is Comparable, or the key of a KeyValuePair
+    //if that is, so a map's pairs are ordered by key
+    private static Object comparableKey(Object element)
+    {
+        if(element instanceof KeyValuePair) {
+            element = ((KeyValuePair<?, ?>) element).getKey();
+        }
+        return element instanceof Comparable ? element : null;
+    }
+
+    //order two elements of the same hash by compareTo when they are both
+    //Comparable and of the same class, otherwise 0
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareKeys(Object first, Object second)
+    {
+        Object firstKey = comparableKey(first);
+        Object secondKey = comparableKey(second);
+        if(firstKey == null || secondKey == null || firstKey.getClass() != secondKey.getClass()) {
+            return 0;
+        }
+        return Integer.signum(((Comparable) firstKey).compareTo(secondKey));
+    }
+
+    //an arbitrary but consistent order for elements compareTo cannot tell
+    //apart, only used to choose where an insert goes
+    private static int tieBreakOrder(Object first, Object second)
+    {
+        int order = first.getClass().getName().compareTo(second.getClass().getName());
+        if(order == 0) {
+            order = System.identityHashCode(first) <= System.identityHashCode(second) ? -1 : 1;
+        }
+        return order;
+    }
+
     private class TableIterator implements Iterator<T>
     {
+        private final boolean weaklyConsistent;
         private int currentModCount;
         private int currentIndex = -1;
         private Node<T> currentNode;
 
-        public TableIterator()
+        //the buckets still in the old array are visited before the new array,
+        //migrated buckets are empty in the old array so nothing is seen twice
+        private Node<T>[] currentTable;
+        private Node<T>[] nextTable;
+
+        public TableIterator(boolean weaklyConsistent)
         {
-            //find the next index
+            this.weaklyConsistent = weaklyConsistent;
             currentModCount = modCount;
+            currentTable = oldElements != null ? oldElements : elements;
+            nextTable = oldElements != null ? elements : null;
+
+            //a weakly consistent iterator walks copies of the bucket arrays. Writes
+            //only put new nodes in front of the live chains, resizes copy nodes into
+            //a new array and removals only unlink nodes, so the chains reachable
+            //from the copies hold exactly the nodes of the moment the copy was taken,
+            //less those removed since. Tree buckets are copied as their list, since
+            //the bin itself gains nodes that a resize may have moved in. nothing here
+            //is volatile or locked, so this only holds for writes made by the
+            //iterating thread or under a lock the iterator is also stepped under
+            if(weaklyConsistent) {
+                currentTable = frozenCopy(currentTable);
+                nextTable = nextTable != null ? frozenCopy(nextTable) : null;
+            }
+
+            //find the next index
             findNextIndex();
         }
 
-        //get the next index of the node array
-        private void findNextIndex()
+        private Node<T>[] frozenCopy(Node<T>[] table)
         {
-            if(currentModCount != modCount) {
+            Node<T>[] copy = table.clone();
+            for(int i = 0; i < copy.length; i++) {
+                copy[i] = firstNode(copy[i]);
+            }
+            return copy;
+        }
+
+        private void checkForComodification()
+        {
+            if(!weaklyConsistent && currentModCount != modCount) {
                 throw new ConcurrentModificationException("Cannot modify table while iterating");
             }
+        }
+
+        //get the next index of the node array
+        private void findNextIndex()
+        {
+            checkForComodification();
 
             //get next index while currentIndex is less than the length of the array
             //and the index is not null
             do {
                 currentIndex++;
             }
-            while(currentIndex < elements.length && elements[currentIndex] == null);
+            while(currentIndex < currentTable.length && firstNode(currentTable[currentIndex]) == null);
+
+            //move on to the new array when the old one has been scanned
+            if(currentIndex == currentTable.length && nextTable != null) {
+                currentTable = nextTable;
+                nextTable = null;
+                currentIndex = -1;
+                findNextIndex();
+                return;
+            }
 
             //if the currentIndex is out of bounds make currentIndex -1 so does not search for next
-            if(currentIndex == elements.length) {
+            if(currentIndex == currentTable.length) {
                 currentIndex = -1;
                 return;
             }
 
             //if the index is not null make currentNode equal the node at the currentIndex
-            if(elements[currentIndex] != null) {
-                currentNode = elements[currentIndex];
-            }
+            currentNode = firstNode(currentTable[currentIndex]);
+        }
+
+        //a tree bucket is walked through the list that links its nodes
+        private Node<T> firstNode(Node<T> head)
+        {
+            return head instanceof TreeBin ? ((TreeBin<T>) head).first : head;
         }
 
         //when it is in the index, keep searching for the next node until next is null
@@ -281,18 +1329,16 @@ public class HashTable<T> implements ICollection<T>, Iterable<T>
         @Override
         public boolean hasNext()
         {
-            if(currentModCount != modCount) {
-                throw new ConcurrentModificationException("Cannot modify table while iterating");
-            }
-
+            checkForComodification();
             return currentIndex != -1;
         }
 
         @Override
         public T next()
         {
-            if(currentModCount != modCount) {
-                throw new ConcurrentModificationException("Cannot modify table while iterating");
+            checkForComodification();
+            if(currentIndex == -1) {
+                throw new NoSuchElementException("No elements left in the table");
             }
 
             T element = currentNode.data;
@@ -0,0 +1,358 @@
+package hashtable;
+
+/**
+ * Settings that control how a HashTable trades memory for speed: how full
+ * the buckets may get before the table grows, how much it grows by, the
+ * range of array lengths it may use and when it shrinks again. Configs are
+ * immutable, each with method returns a copy with one setting changed.
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public final class HashTableConfig
+{
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    private static final int MINIMUM_TREEIFY_THRESHOLD = 8;
+    private static final int MAXIMUM_TREEIFY_THRESHOLD = 1 << 10;
+    //the share of buckets expected to reach the treeify threshold by chance
+    private static final double TREEIFY_PROBABILITY = 1e-7;
+
+    private static final HashTableConfig DEFAULT =
+            new HashTableConfig(2.5, 2.0, 16, MAXIMUM_CAPACITY, 0.25, false, false);
+
+    private final double loadFactor;
+    private final double growthFactor;
+    private final int minCapacity;
+    private final int maxCapacity;
+    private final double shrinkThreshold;
+    private final boolean incrementalResize;
+    private final boolean weaklyConsistentIteration;
+
+    /**
+     * Creates a config, rounding the capacities to powers of two.
+     * @param loadFactor the average number of elements per bucket the table
+     *                   may reach before it grows
+     * @param growthFactor how many times larger the array becomes when the
+     *                     table grows, rounded up to a power of two
+     * @param minCapacity the smallest array length the table uses
+     * @param maxCapacity the largest array length the table grows to
+     * @param shrinkThreshold the average number of elements per bucket below
+     *                        which a removal shrinks the table, 0 never shrinks
+     * @param incrementalResize true to move buckets to a resized array a few
+     *                          at a time, false to move them all at once
+     * @throws IllegalArgumentException if a setting is out of range, or the
+     * shrink threshold is so close to the load factor that a table would
+     * shrink again right after growing
+     */
+    public HashTableConfig(double loadFactor, double growthFactor, int minCapacity, int maxCapacity,
+                           double shrinkThreshold, boolean incrementalResize)
+    {
+        this(loadFactor, growthFactor, minCapacity, maxCapacity, shrinkThreshold, incrementalResize, false);
+    }
+
+    /**
+     * Creates a config, rounding the capacities to powers of two and choosing
+     * how the table's iterator reacts to writes made while it is in use.
+     * @param loadFactor the average number of elements per bucket the table
+     *                   may reach before it grows
+     * @param growthFactor how many times larger the array becomes when the
+     *                     table grows, rounded up to a power of two
+     * @param minCapacity the smallest array length the table uses
+     * @param maxCapacity the largest array length the table grows to
+     * @param shrinkThreshold the average number of elements per bucket below
+     *                        which a removal shrinks the table, 0 never shrinks
+     * @param incrementalResize true to move buckets to a resized array a few
+     *                          at a time, false to move them all at once
+     * @param weaklyConsistentIteration true for iterators that keep going
+     *                                  through writes, false for fail-fast ones
+     * @throws IllegalArgumentException if a setting is out of range, or the
+     * shrink threshold is so close to the load factor that a table would
+     * shrink again right after growing
+     */
+    public HashTableConfig(double loadFactor, double growthFactor, int minCapacity, int maxCapacity,
+                           double shrinkThreshold, boolean incrementalResize, boolean weaklyConsistentIteration)
+    {
+        if(!(loadFactor > 0) || Double.isInfinite(loadFactor)) {
+            throw new IllegalArgumentException("Load factor must be positive: " + loadFactor);
+        }
+        if(!(growthFactor > 1) || Double.isInfinite(growthFactor)) {
+            throw new IllegalArgumentException("Growth factor must be greater than 1: " + growthFactor);
+        }
+        if(minCapacity < 1 || maxCapacity > MAXIMUM_CAPACITY || minCapacity > maxCapacity) {
+            throw new IllegalArgumentException("Capacities must satisfy 1 <= min <= max <= " +
+                    MAXIMUM_CAPACITY + ": min " + minCapacity + ", max " + maxCapacity);
+        }
+        if(shrinkThreshold < 0 || shrinkThreshold * growthMultiple(growthFactor) >= loadFactor) {
+            throw new IllegalArgumentException("Shrink threshold " + shrinkThreshold +
+                    " must leave room below the load after growing (" +
+                    loadFactor / growthMultiple(growthFactor) + ")");
+        }
+
+        this.loadFactor = loadFactor;
+        this.growthFactor = growthFactor;
+        this.minCapacity = roundUpToPowerOfTwo(minCapacity);
+        this.maxCapacity = Integer.highestOneBit(maxCapacity);
+        this.shrinkThreshold = shrinkThreshold;
+        this.incrementalResize = incrementalResize;
+        this.weaklyConsistentIteration = weaklyConsistentIteration;
+    }
+
+    /**
+     * Returns the config tables use when none is given: a load factor of
+     * 2.5, doubling on growth, between 16 and 2^30 buckets, shrinking once
+     * there is less than one element for every four buckets, resizing
+     * all at once and with fail-fast iterators.
+     * @return the default config
+     */
+    public static HashTableConfig defaults()
+    {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns a copy of this config with a different load factor. The shrink
+     * threshold is scaled by the same ratio so the gap between growing and
+     * shrinking is kept.
+     * @param loadFactor the new load factor
+     * @return the new config
+     */
+    public HashTableConfig withLoadFactor(double loadFactor)
+    {
+        return new HashTableConfig(loadFactor, growthFactor, minCapacity, maxCapacity,
+                shrinkThreshold * loadFactor / this.loadFactor, incrementalResize, weaklyConsistentIteration);
+    }
+
+    /**
+     * Returns a copy of this config with a different growth factor.
+     * @param growthFactor the new growth factor
+     * @return the new config
+     */
+    public HashTableConfig withGrowthFactor(double growthFactor)
+    {
+        return new HashTableConfig(loadFactor, growthFactor, minCapacity, maxCapacity,
+                shrinkThreshold, incrementalResize, weaklyConsistentIteration);
+    }
+
+    /**
+     * Returns a copy of this config with a different range of capacities.
+     * @param minCapacity the new smallest array length
+     * @param maxCapacity the new largest array length
+     * @return the new config
+     */
+    public HashTableConfig withCapacities(int minCapacity, int maxCapacity)
+    {
+        return new HashTableConfig(loadFactor, growthFactor, minCapacity, maxCapacity,
+                shrinkThreshold, incrementalResize, weaklyConsistentIteration);
+    }
+
+    /**
+     * Returns a copy of this config with a different shrink threshold.
+     * @param shrinkThreshold the new shrink threshold, 0 to never shrink
+     * @return the new config
+     */
+    public HashTableConfig withShrinkThreshold(double shrinkThreshold)
+    {
+        return new HashTableConfig(loadFactor, growthFactor, minCapacity, maxCapacity,
+                shrinkThreshold, incrementalResize, weaklyConsistentIteration);
+    }
+
+    /**
+     * Returns a copy of this config that resizes incrementally or all at once.
+     * @param incrementalResize true to resize incrementally
+     * @return the new config
+     */
+    public HashTableConfig withIncrementalResize(boolean incrementalResize)
+    {
+        return new HashTableConfig(loadFactor, growthFactor, minCapacity, maxCapacity,
+                shrinkThreshold, incrementalResize, weaklyConsistentIteration);
+    }
+
+    /**
+     * Returns a copy of this config whose tables iterate weakly consistently
+     * or fail-fast. A weakly consistent iterator walks a copy of the bucket
+     * array taken when it is created, so it never throws a
+     * ConcurrentModificationException. It returns every element that stays
+     * in the table while it runs exactly once, and may or may not return
+     * elements added or removed meanwhile. The writes must come
+     * from the iterating thread, since the table's nodes are not safely
+     * published to other threads; scans that run alongside writers on other
+     * threads need a ConcurrentHashTable.
+     * @param weaklyConsistentIteration true for weakly consistent iterators
+     * @return the new config
+     */
+    public HashTableConfig withWeaklyConsistentIteration(boolean weaklyConsistentIteration)
+    {
+        return new HashTableConfig(loadFactor, growthFactor, minCapacity, maxCapacity,
+                shrinkThreshold, incrementalResize, weaklyConsistentIteration);
+    }
+
+    /**
+     * Returns the average number of elements per bucket the table may
+     * reach before it grows.
+     * @return the load factor
+     */
+    public double getLoadFactor()
+    {
+        return loadFactor;
+    }
+
+    /**
+     * Returns how many times larger the array becomes when the table grows.
+     * @return the growth factor
+     */
+    public double getGrowthFactor()
+    {
+        return growthFactor;
+    }
+
+    /**
+     * Returns the smallest array length the table uses.
+     * @return the minimum capacity
+     */
+    public int getMinCapacity()
+    {
+        return minCapacity;
+    }
+
+    /**
+     * Returns the largest array length the table grows to.
+     * @return the maximum capacity
+     */
+    public int getMaxCapacity()
+    {
+        return maxCapacity;
+    }
+
+    /**
+     * Returns the average number of elements per bucket below which a
+     * removal shrinks the table.
+     * @return the shrink threshold, 0 if the table never shrinks
+     */
+    public double getShrinkThreshold()
+    {
+        return shrinkThreshold;
+    }
+
+    /**
+     * Reports whether the table moves buckets to a resized array a few at
+     * a time.
+     * @return true if resizing is incremental
+     */
+    public boolean isIncrementalResize()
+    {
+        return incrementalResize;
+    }
+
+    /**
+     * Reports whether the table's iterator keeps going through writes made
+     * while it is in use instead of failing fast.
+     * @return true if iteration is weakly consistent
+     */
+    public boolean isWeaklyConsistentIteration()
+    {
+        return weaklyConsistentIteration;
+    }
+
+    /**
+     * Returns the smallest array length within the capacity range that holds
+     * the given number of elements without going over the load factor.
+     * @param expectedSize the number of elements
+     * @return the array length
+     */
+    public int capacityFor(int expectedSize)
+    {
+        double buckets = Math.ceil(expectedSize / loadFactor);
+        int length = minCapacity;
+        while(length < buckets && length < maxCapacity) {
+            length *= 2;
+        }
+        return length;
+    }
+
+    /**
+     * Returns the array length a table of the given length grows to.
+     * @param length the current array length
+     * @return the grown array length, never more than the maximum capacity
+     */
+    public int grownCapacity(int length)
+    {
+        return (int) Math.min((long) length * growthMultiple(growthFactor), maxCapacity);
+    }
+
+    /**
+     * Returns the length at which a chain is turned into a tree: the
+     * shortest length (but at least 8) that a bucket of a table filled to
+     * the load factor reaches in fewer than one bucket in ten million when
+     * hashes are random, so in practice only colliding hashes reach it.
+     * That is 15 for the default load factor of 2.5.
+     * @return the treeify threshold
+     */
+    public int treeifyThreshold()
+    {
+        //add up the Poisson probabilities of each chain length until the
+        //chance of a longer chain is small enough
+        double probability = Math.exp(-loadFactor);
+        double shorter = probability;
+        int length = 0;
+        while((length < MINIMUM_TREEIFY_THRESHOLD - 1 || 1 - shorter >= TREEIFY_PROBABILITY)
+                && length < MAXIMUM_TREEIFY_THRESHOLD - 1) {
+            length++;
+            probability *= loadFactor / length;
+            shorter += probability;
+        }
+        return length + 1;
+    }
+
+    /**
+     * Returns the number of elements a table of the given length may hold
+     * before it grows.
+     * @param length the array length
+     * @return the number of elements that triggers growth
+     */
+    public int growThreshold(int length)
+    {
+        if(length >= maxCapacity) {
+            return Integer.MAX_VALUE;
+        }
+        return (int) Math.min(length * loadFactor, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the number of elements below which a table of the given
+     * length shrinks.
+     * @param length the array length
+     * @return the number of elements that triggers shrinking, 0 if it never shrinks
+     */
+    public int shrinkThreshold(int length)
+    {
+        if(length <= minCapacity) {
+            return 0;
+        }
+        return (int) (length * shrinkThreshold);
+    }
+
+    //the growth factor rounded up to the power of two the array length is multiplied by
+    private static int growthMultiple(double growthFactor)
+    {
+        return roundUpToPowerOfTwo((int) Math.min(Math.ceil(growthFactor), MAXIMUM_CAPACITY));
+    }
+
+    private static int roundUpToPowerOfTwo(int value)
+    {
+        int power = Integer.highestOneBit(value);
+        return power == value ? value : power << 1;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "HashTableConfig{" +
+                "loadFactor=" + loadFactor +
+                ", growthFactor=" + growthFactor +
+                ", minCapacity=" + minCapacity +
+                ", maxCapacity=" + maxCapacity +
+                ", shrinkThreshold=" + shrinkThreshold +
+                ", incrementalResize=" + incrementalResize +
+                ", weaklyConsistentIteration=" + weaklyConsistentIteration +
+                '}';
+    }
+}
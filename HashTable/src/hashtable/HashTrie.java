@@ -0,0 +1,497 @@
+package hashtable;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable hash array mapped trie. Each level of the trie uses the next
+ * five bits of an element's hash to pick one of 32 slots, and only the slots
+ * in use are stored, packed in an array indexed through a bitmap. Adding or
+ * removing an element copies just the nodes on the path to it, at most seven
+ * levels for 32 bit hashes, and the new trie shares every other node with
+ * the old one, so keeping many versions costs little more than keeping one.
+ *
+ * Elements whose whole hashes are equal share a collision node at the bottom
+ * of the trie.
+ *
+ * @param <T> Accepts any Object
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public final class HashTrie<T> implements Iterable<T>
+{
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    //seven levels cover a 32 bit hash, the collision node sits one below them
+    private static final int MAXIMUM_DEPTH = 8;
+    private static final BitmapNode EMPTY_ROOT = new BitmapNode(0, new Object[0]);
+
+    private final HashStrategy<? super T> strategy;
+    private final Node root;
+    private final int size;
+
+    private HashTrie(HashStrategy<? super T> strategy, Node root, int size)
+    {
+        this.strategy = strategy;
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Returns an empty trie.
+     * @param <T> the type of element stored
+     * @return an empty trie
+     */
+    public static <T> HashTrie<T> empty()
+    {
+        return new HashTrie<>(HashStrategy.defaultStrategy(), EMPTY_ROOT, 0);
+    }
+
+    /**
+     * Returns an empty trie that places elements using the given hash strategy.
+     * @param strategy computes the hash of each element
+     * @param <T> the type of element stored
+     * @return an empty trie
+     */
+    public static <T> HashTrie<T> empty(HashStrategy<? super T> strategy)
+    {
+        return new HashTrie<>(strategy, EMPTY_ROOT, 0);
+    }
+
+    /**
+     * Returns the element stored in the trie that is equal to the input parameter.
+     * @param element the element to search for
+     * @return the matching stored element, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public T find(T element)
+    {
+        return (T) root.find(element, strategy.hash(element), 0);
+    }
+
+    /**
+     * Reports whether the trie holds an element equal to the input parameter.
+     * @param element the element to search for
+     * @return true if the element is found, otherwise false
+     */
+    public boolean contains(T element)
+    {
+        return find(element) != null;
+    }
+
+    /**
+     * Returns a trie that also holds the element. This trie is returned
+     * unchanged when it already holds an equal element.
+     * @param element the element to add
+     * @return the trie with the element
+     */
+    public HashTrie<T> with(T element)
+    {
+        return insert(element, false);
+    }
+
+    /**
+     * Returns a trie that holds the element in place of any equal element,
+     * e.g. a KeyValuePair with a new value for an existing key.
+     * @param element the element to add or replace with
+     * @return the trie with the element
+     */
+    public HashTrie<T> put(T element)
+    {
+        return insert(element, true);
+    }
+
+    private HashTrie<T> insert(T element, boolean replace)
+    {
+        boolean[] added = new boolean[1];
+        Node newRoot = root.with(element, strategy.hash(element), 0, replace, strategy, added);
+        if(newRoot == root) {
+            return this;
+        }
+        return new HashTrie<>(strategy, newRoot, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Returns a trie without the element. This trie is returned unchanged
+     * when it does not hold the element.
+     * @param element the element to remove
+     * @return the trie without the element
+     */
+    public HashTrie<T> without(T element)
+    {
+        Object result = root.without(element, strategy.hash(element), 0);
+        if(result == root) {
+            return this;
+        }
+
+        //the root stays a bitmap node even when a single element is left
+        Node newRoot;
+        if(result == null) {
+            newRoot = EMPTY_ROOT;
+        }
+        else if(result instanceof Node) {
+            newRoot = (Node) result;
+        }
+        else {
+            @SuppressWarnings("unchecked")
+            T remaining = (T) result;
+            newRoot = new BitmapNode(1 << (strategy.hash(remaining) & MASK), new Object[] {remaining});
+        }
+        return new HashTrie<>(strategy, newRoot, size - 1);
+    }
+
+    /**
+     * Returns an empty trie that hashes elements the same way as this one.
+     * @return an empty trie
+     */
+    public HashTrie<T> cleared()
+    {
+        return size == 0 ? this : new HashTrie<>(strategy, EMPTY_ROOT, 0);
+    }
+
+    /**
+     * Returns the number of elements in the trie.
+     * @return the number of elements
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Reports whether the trie is empty or not.
+     * @return true if the trie is empty, otherwise false
+     */
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * Returns an iterator over the elements. The trie never changes, so the
+     * iterator is unaffected by versions made from it afterwards.
+     * @return an iterator over the elements
+     */
+    @Override
+    public Iterator<T> iterator()
+    {
+        return new TrieIterator();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "HashTrie{size=" + size + '}';
+    }
+
+    //the 5 bit slot index of the hash at the given level
+    private static int fragment(int hash, int shift)
+    {
+        return (hash >>> shift) & MASK;
+    }
+
+    //build the smallest subtrie holding two distinct elements
+    private static Node pair(Object first, int firstHash, Object second, int secondHash, int shift)
+    {
+        if(firstHash == secondHash) {
+            return new CollisionNode(firstHash, new Object[] {first, second});
+        }
+
+        int firstFragment = fragment(firstHash, shift);
+        int secondFragment = fragment(secondHash, shift);
+        if(firstFragment == secondFragment) {
+            return new BitmapNode(1 << firstFragment,
+                    new Object[] {pair(first, firstHash, second, secondHash, shift + BITS)});
+        }
+
+        //entries are kept in slot order
+        Object[] entries = firstFragment < secondFragment
+                ? new Object[] {first, second} : new Object[] {second, first};
+        return new BitmapNode((1 << firstFragment) | (1 << secondFragment), entries);
+    }
+
+    private abstract static class Node
+    {
+        //returns the stored element equal to the given one, or null
+        abstract Object find(Object element, int hash, int shift);
+
+        //returns this node when nothing changed, otherwise a copy with the element
+        abstract <T> Node with(T element, int hash, int shift, boolean replace,
+                               HashStrategy<? super T> strategy, boolean[] added);
+
+        //returns this node when nothing changed, null when the node is empty, a
+        //single element the parent should hold directly, or a copy without the element
+        abstract Object without(Object element, int hash, int shift);
+
+        //the elements and child nodes of this node, for iteration
+        abstract Object[] entries();
+    }
+
+    private static final class BitmapNode extends Node
+    {
+        private final int bitmap;
+        private final Object[] entries;
+
+        BitmapNode(int bitmap, Object[] entries)
+        {
+            this.bitmap = bitmap;
+            this.entries = entries;
+        }
+
+        //the position of the slot's entry in the packed array
+        private int index(int bit)
+        {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object find(Object element, int hash, int shift)
+        {
+            int bit = 1 << fragment(hash, shift);
+            if((bitmap & bit) == 0) {
+                return null;
+            }
+
+            Object entry = entries[index(bit)];
+            if(entry instanceof Node) {
+                return ((Node) entry).find(element, hash, shift + BITS);
+            }
+            return entry.equals(element) ? entry : null;
+        }
+
+        @Override
+        <T> Node with(T element, int hash, int shift, boolean replace,
+                      HashStrategy<? super T> strategy, boolean[] added)
+        {
+            int bit = 1 << fragment(hash, shift);
+            int index = index(bit);
+
+            //an empty slot takes the element directly
+            if((bitmap & bit) == 0) {
+                Object[] copy = new Object[entries.length + 1];
+                System.arraycopy(entries, 0, copy, 0, index);
+                copy[index] = element;
+                System.arraycopy(entries, index, copy, index + 1, entries.length - index);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, copy);
+            }
+
+            Object entry = entries[index];
+            if(entry instanceof Node) {
+                Node child = (Node) entry;
+                Node newChild = child.with(element, hash, shift + BITS, replace, strategy, added);
+                return newChild == child ? this : replaceEntry(index, newChild);
+            }
+            if(entry.equals(element)) {
+                return replace && entry != element ? replaceEntry(index, element) : this;
+            }
+
+            //a different element already holds the slot, so both move down a level
+            @SuppressWarnings("unchecked")
+            T existing = (T) entry;
+            added[0] = true;
+            return replaceEntry(index, pair(existing, strategy.hash(existing), element, hash, shift + BITS));
+        }
+
+        @Override
+        Object without(Object element, int hash, int shift)
+        {
+            int bit = 1 << fragment(hash, shift);
+            if((bitmap & bit) == 0) {
+                return this;
+            }
+
+            int index = index(bit);
+            Object entry = entries[index];
+            if(entry instanceof Node) {
+                Object result = ((Node) entry).without(element, hash, shift + BITS);
+                if(result == entry) {
+                    return this;
+                }
+                if(result == null) {
+                    return removeEntry(bit, index);
+                }
+
+                //a child left holding one element is replaced by the element itself
+                if(!(result instanceof Node) && entries.length == 1) {
+                    return result;
+                }
+                return replaceEntry(index, result);
+            }
+
+            if(!entry.equals(element)) {
+                return this;
+            }
+            return removeEntry(bit, index);
+        }
+
+        private Object removeEntry(int bit, int index)
+        {
+            if(entries.length == 1) {
+                return null;
+            }
+
+            //a lone remaining element moves up into the parent
+            if(entries.length == 2 && !(entries[1 - index] instanceof Node)) {
+                return entries[1 - index];
+            }
+
+            Object[] copy = new Object[entries.length - 1];
+            System.arraycopy(entries, 0, copy, 0, index);
+            System.arraycopy(entries, index + 1, copy, index, entries.length - index - 1);
+            return new BitmapNode(bitmap ^ bit, copy);
+        }
+
+        private BitmapNode replaceEntry(int index, Object entry)
+        {
+            Object[] copy = entries.clone();
+            copy[index] = entry;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        @Override
+        Object[] entries()
+        {
+            return entries;
+        }
+    }
+
+    private static final class CollisionNode extends Node
+    {
+        private final int hash;
+        private final Object[] elements;
+
+        CollisionNode(int hash, Object[] elements)
+        {
+            this.hash = hash;
+            this.elements = elements;
+        }
+
+        private int indexOf(Object element)
+        {
+            for(int i = 0; i < elements.length; i++) {
+                if(elements[i].equals(element)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object find(Object element, int hash, int shift)
+        {
+            if(hash != this.hash) {
+                return null;
+            }
+            int index = indexOf(element);
+            return index < 0 ? null : elements[index];
+        }
+
+        @Override
+        <T> Node with(T element, int hash, int shift, boolean replace,
+                      HashStrategy<? super T> strategy, boolean[] added)
+        {
+            //an element with a different hash splits off above this node
+            if(hash != this.hash) {
+                BitmapNode parent = new BitmapNode(1 << fragment(this.hash, shift), new Object[] {this});
+                return parent.with(element, hash, shift, replace, strategy, added);
+            }
+
+            int index = indexOf(element);
+            if(index >= 0) {
+                if(!replace || elements[index] == element) {
+                    return this;
+                }
+                Object[] copy = elements.clone();
+                copy[index] = element;
+                return new CollisionNode(hash, copy);
+            }
+
+            Object[] copy = new Object[elements.length + 1];
+            System.arraycopy(elements, 0, copy, 0, elements.length);
+            copy[elements.length] = element;
+            added[0] = true;
+            return new CollisionNode(hash, copy);
+        }
+
+        @Override
+        Object without(Object element, int hash, int shift)
+        {
+            int index = hash == this.hash ? indexOf(element) : -1;
+            if(index < 0) {
+                return this;
+            }
+            if(elements.length == 2) {
+                return elements[1 - index];
+            }
+
+            Object[] copy = new Object[elements.length - 1];
+            System.arraycopy(elements, 0, copy, 0, index);
+            System.arraycopy(elements, index + 1, copy, index, elements.length - index - 1);
+            return new CollisionNode(hash, copy);
+        }
+
+        @Override
+        Object[] entries()
+        {
+            return elements;
+        }
+    }
+
+    //walks the trie depth first with an explicit stack of entry arrays
+    private class TrieIterator implements Iterator<T>
+    {
+        private final Object[][] stack = new Object[MAXIMUM_DEPTH + 1][];
+        private final int[] positions = new int[MAXIMUM_DEPTH + 1];
+        private int depth;
+        private Object nextElement;
+
+        public TrieIterator()
+        {
+            stack[0] = root.entries();
+            findNextElement();
+        }
+
+        private void findNextElement()
+        {
+            nextElement = null;
+            while(depth >= 0) {
+                if(positions[depth] == stack[depth].length) {
+                    depth--;
+                    continue;
+                }
+
+                Object entry = stack[depth][positions[depth]++];
+                if(entry instanceof Node) {
+                    depth++;
+                    stack[depth] = ((Node) entry).entries();
+                    positions[depth] = 0;
+                }
+                else {
+                    nextElement = entry;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return nextElement != null;
+        }
+
+        @Override
+        public T next()
+        {
+            if(nextElement == null) {
+                throw new NoSuchElementException("No elements left in the trie");
+            }
+
+            @SuppressWarnings("unchecked")
+            T element = (T) nextElement;
+            findNextElement();
+            return element;
+        }
+    }
+}
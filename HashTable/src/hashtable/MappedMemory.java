@@ -0,0 +1,76 @@
+package hashtable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * DirectMemory backed by a memory mapped file. Whatever is written lands in
+ * the operating system's page cache and reaches the file without any
+ * serialization, and mapping an existing file gives back its contents
+ * without reading them up front. Growing the memory extends the file and
+ * maps it again, so nothing is ever copied.
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class MappedMemory extends DirectMemory
+{
+    private final FileChannel channel;
+
+    /**
+     * Maps a file opened for reading and writing, extending it to the given
+     * capacity if it is shorter. Bytes added to the file read as zero.
+     * @param channel the file
+     * @param minimumCapacity the number of bytes needed
+     * @throws IOException if the file cannot be mapped
+     */
+    public MappedMemory(FileChannel channel, long minimumCapacity) throws IOException
+    {
+        this(channel, Math.max(channel.size(), minimumCapacity), chunkBitsFor(Math.max(channel.size(), minimumCapacity)));
+    }
+
+    private MappedMemory(FileChannel channel, long capacity, int chunkBits) throws IOException
+    {
+        super(map(channel, capacity, chunkBits), chunkBits);
+        this.channel = channel;
+    }
+
+    private static ByteBuffer[] map(FileChannel channel, long capacity, int chunkBits) throws IOException
+    {
+        //mapping past the end of the file extends it
+        ByteBuffer[] chunks = new ByteBuffer[chunkCount(capacity, chunkBits)];
+        for(int i = 0; i < chunks.length; i++) {
+            chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, (long) i << chunkBits, 1L << chunkBits);
+        }
+        return chunks;
+    }
+
+    @Override
+    public void grow(long minimumCapacity)
+    {
+        if(minimumCapacity <= capacity()) {
+            return;
+        }
+        long target = Math.max(minimumCapacity, capacity() * 2);
+        int bits = chunkBitsFor(target);
+        try {
+            setChunks(map(channel, target, bits), bits);
+        }
+        catch(IOException e) {
+            throw new UncheckedIOException("Cannot grow mapped file", e);
+        }
+    }
+
+    /**
+     * Writes every change made through the memory out to the file.
+     */
+    public void force()
+    {
+        for(ByteBuffer chunk : chunks()) {
+            ((MappedByteBuffer) chunk).force();
+        }
+    }
+}
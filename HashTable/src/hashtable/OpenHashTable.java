@@ -0,0 +1,441 @@
+package hashtable;
+
+import interfaces.IHashTable;
+
+import java.util.*;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * Open addressing HashTable Collection Object. Elements are stored directly
+ * in a flat array and collisions are resolved with linear probing, so a
+ * lookup usually touches one or two cache lines and each element costs a
+ * single array slot instead of a Node. Removal uses backward-shift deletion,
+ * so no tombstones are left behind.
+ * @param <T> Accepts any Object
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class OpenHashTable<T> implements IHashTable<T>, Iterable<T>
+{
+    private static final int INITIAL_TABLE_SIZE = 16;
+    private static final double LOAD_FACTOR = 0.5;
+    private static final double SHRINK_THRESHOLD = 0.125;
+    private static final int MAXIMUM_TABLE_SIZE = 1 << 30;
+    private final HashStrategy<? super T> strategy;
+    private Object[] elements;
+    private int mask;
+    private int size;
+    private int modCount;
+
+    /**
+     * Default constructor for OpenHashTable class
+     * instantiates the slot array
+     */
+    public OpenHashTable()
+    {
+        this(HashStrategy.defaultStrategy());
+    }
+
+    /**
+     * Constructor for OpenHashTable class that places elements using the
+     * given hash strategy instead of the default mixing of hashCode().
+     * @param strategy computes the hash of each element
+     */
+    public OpenHashTable(HashStrategy<? super T> strategy)
+    {
+        this(0, strategy);
+    }
+
+    /**
+     * Constructor for OpenHashTable class that sizes the slot array up front
+     * so the expected number of elements can be added without any resize.
+     * @param expectedSize the number of elements the table is expected to hold
+     */
+    public OpenHashTable(int expectedSize)
+    {
+        this(expectedSize, HashStrategy.defaultStrategy());
+    }
+
+    /**
+     * Constructor for OpenHashTable class that sizes the slot array up front
+     * and places elements using the given hash strategy.
+     * @param expectedSize the number of elements the table is expected to hold
+     * @param strategy computes the hash of each element
+     */
+    public OpenHashTable(int expectedSize, HashStrategy<? super T> strategy)
+    {
+        if(expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative: " + expectedSize);
+        }
+        this.strategy = strategy;
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    //the smallest power of two slot array that holds the expected number
+    //of elements without going over the load factor
+    private static int tableSizeFor(int expectedSize)
+    {
+        long slots = (long) Math.ceil(expectedSize / LOAD_FACTOR);
+        int length = INITIAL_TABLE_SIZE;
+        while(length < slots && length < MAXIMUM_TABLE_SIZE) {
+            length *= 2;
+        }
+        return length;
+    }
+
+    @Override
+    public void add(T element)
+    {
+        resizeIfNeeded();
+        addWithoutResize(element);
+    }
+
+    @Override
+    public T put(T element)
+    {
+        resizeIfNeeded();
+
+        int index = probe(element);
+        if(elements[index] == null) {
+            insertAt(element, index);
+            return null;
+        }
+
+        //swap the stored element in place
+        T previous = elementAt(index);
+        elements[index] = element;
+        return previous;
+    }
+
+    @Override
+    public T computeIfAbsent(T probe, Function<? super T, ? extends T> factory)
+    {
+        resizeIfNeeded();
+
+        int index = probe(probe);
+        if(elements[index] != null) {
+            return elementAt(index);
+        }
+
+        T created = factory.apply(probe);
+        if(created == null) {
+            return null;
+        }
+        insertAt(created, index);
+        return created;
+    }
+
+    @Override
+    public T merge(T element, BinaryOperator<T> remapping)
+    {
+        resizeIfNeeded();
+
+        int index = probe(element);
+        if(elements[index] == null) {
+            insertAt(element, index);
+            return element;
+        }
+
+        T merged = remapping.apply(elementAt(index), element);
+        if(merged == null) {
+            remove(element);
+            return null;
+        }
+        elements[index] = merged;
+        return merged;
+    }
+
+    @Override
+    public void remove(T element)
+    {
+        int index = probe(element);
+
+        //throw an exception when trying to remove an element that does not exist
+        if(elements[index] == null) {
+            throw new NoSuchElementException("No element " + element + " found");
+        }
+
+        //shift the following elements of the run back so that every element
+        //is still reachable from its home slot without leaving a tombstone
+        int next = (index + 1) & mask;
+        while(elements[next] != null) {
+            int home = homeSlot(elementAt(next));
+
+            //the element can move into the hole if the hole is not before its home slot
+            if(((next - home) & mask) >= ((next - index) & mask)) {
+                elements[index] = elements[next];
+                index = next;
+            }
+            next = (next + 1) & mask;
+        }
+        elements[index] = null;
+
+        size--;
+        modCount++;
+        shrinkIfNeeded();
+    }
+
+    //once fewer than one slot in eight is used, shrink to a slot array that
+    //leaves room for the elements to double before it has to grow again
+    private void shrinkIfNeeded()
+    {
+        if(elements.length > INITIAL_TABLE_SIZE && size < elements.length * SHRINK_THRESHOLD) {
+            resize(tableSizeFor(size * 2));
+        }
+    }
+
+    @Override
+    public void trimToSize()
+    {
+        int length = tableSizeFor(size);
+        if(length < elements.length) {
+            resize(length);
+        }
+    }
+
+    @Override
+    public boolean contains(T element)
+    {
+        return elements[probe(element)] != null;
+    }
+
+    @Override
+    public T find(T element)
+    {
+        //an empty slot means the element is not stored
+        return elementAt(probe(element));
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the number of slots in the table.
+     * @return the length of the slot array
+     */
+    public int capacity()
+    {
+        return elements.length;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    @Override
+    public void clear()
+    {
+        allocate(INITIAL_TABLE_SIZE);
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public T get(T element)
+    {
+        return find(element);
+    }
+
+    @Override
+    public Iterator<T> iterator()
+    {
+        return new SlotIterator(false);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Removals shift elements between slots, so the iterator walks a copy
+     * of the slot array taken when it is created and returns exactly the
+     * elements the table held at that moment.
+     */
+    @Override
+    public Iterator<T> weaklyConsistentIterator()
+    {
+        return new SlotIterator(true);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "OpenHashTable{" +
+                "elements=" + Arrays.toString(elements) +
+                ", size=" + size +
+                '}';
+    }
+
+    //create a new empty slot array with the given power of two length
+    private void allocate(int length)
+    {
+        elements = new Object[length];
+        mask = length - 1;
+    }
+
+    //the strategy spreads the hash over all of its bits, so masking it with
+    //the power of two length keeps sequential hash codes from forming long runs
+    private int homeSlot(T element)
+    {
+        return strategy.hash(element) & mask;
+    }
+
+    //returns the slot holding the element, or the empty slot that ends its run
+    private int probe(T element)
+    {
+        int index = homeSlot(element);
+        while(elements[index] != null && !elements[index].equals(element)) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T elementAt(int index)
+    {
+        return (T) elements[index];
+    }
+
+    private void insertAt(T element, int index)
+    {
+        elements[index] = element;
+        size++;
+        modCount++;
+    }
+
+    //double the slot array when the elements fill more than half of it
+    private void resizeIfNeeded()
+    {
+        if(size + 1 > elements.length * LOAD_FACTOR) {
+            if(elements.length == MAXIMUM_TABLE_SIZE) {
+                throw new IllegalStateException("OpenHashTable cannot grow past " + MAXIMUM_TABLE_SIZE + " slots");
+            }
+            resize(elements.length * 2);
+        }
+    }
+
+    @Override
+    public void ensureCapacity(int expectedSize)
+    {
+        int length = tableSizeFor(expectedSize);
+        if(length > elements.length) {
+            resize(length);
+        }
+    }
+
+    @Override
+    public void addAll(Iterable<? extends T> source)
+    {
+        int count = IHashTable.sizeOf(source);
+
+        //without a known size the elements are added one at a time
+        if(count < 0) {
+            for(T element : source) {
+                add(element);
+            }
+            return;
+        }
+
+        //size the table once, then insert without checking for a resize
+        ensureCapacity(size + count);
+        for(T element : source) {
+            addWithoutResize(element);
+        }
+    }
+
+    @Override
+    public void addAll(T[] source)
+    {
+        ensureCapacity(size + source.length);
+        for(T element : source) {
+            addWithoutResize(element);
+        }
+    }
+
+    //probe until the element or an empty slot is found
+    private void addWithoutResize(T element)
+    {
+        int index = probe(element);
+        if(elements[index] == null) {
+            insertAt(element, index);
+        }
+    }
+
+    //move every element into a new slot array of the given length, no
+    //duplicate checks are needed since the elements are already unique
+    private void resize(int length)
+    {
+        Object[] old = elements;
+        allocate(length);
+        for(Object slot : old) {
+            if(slot != null) {
+                @SuppressWarnings("unchecked")
+                T element = (T) slot;
+                int index = homeSlot(element);
+                while(elements[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                elements[index] = element;
+            }
+        }
+        modCount++;
+    }
+
+    private class SlotIterator implements Iterator<T>
+    {
+        private final boolean weaklyConsistent;
+        private final Object[] slots;
+        private int currentModCount = modCount;
+        private int currentIndex = -1;
+
+        public SlotIterator(boolean weaklyConsistent)
+        {
+            this.weaklyConsistent = weaklyConsistent;
+            slots = weaklyConsistent ? elements.clone() : elements;
+            findNextIndex();
+        }
+
+        //advance to the next occupied slot, or past the end of the array
+        private void findNextIndex()
+        {
+            do {
+                currentIndex++;
+            }
+            while(currentIndex < slots.length && slots[currentIndex] == null);
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if(!weaklyConsistent && currentModCount != modCount) {
+                throw new ConcurrentModificationException("Cannot modify table while iterating");
+            }
+
+            return currentIndex < slots.length;
+        }
+
+        @Override
+        public T next()
+        {
+            if(!hasNext()) {
+                throw new NoSuchElementException("No elements left in the table");
+            }
+
+            @SuppressWarnings("unchecked")
+            T element = (T) slots[currentIndex];
+            findNextIndex();
+            return element;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "SlotIterator{" +
+                    "currentIndex=" + currentIndex +
+                    '}';
+        }
+    }
+}
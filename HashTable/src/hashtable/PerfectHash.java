@@ -0,0 +1,239 @@
+package hashtable;
+
+import java.util.Arrays;
+
+/**
+ * A minimal perfect hash function over a fixed set of distinct hash codes:
+ * it maps each of the n hash codes it was built from to its own index in
+ * [0, n) with a single computation and no probing. Hash codes it was not
+ * built from map to an arbitrary index, so callers compare what they find
+ * there.
+ *
+ * The hash codes are spread over buckets of about three, skewed so that a
+ * minority of the buckets get most of the hash codes, and each bucket is
+ * given the smallest pilot value that sends all of its hash codes to free
+ * slots of a table 1% larger than n, filling the largest buckets first
+ * while the table is emptiest. A hash code's slot is then computed
+ * from its bucket's pilot. The few slots past n that end up used are
+ * remapped to the free slots below n, which makes the function minimal.
+ * Pilots almost always fit in a byte, so the function takes about three
+ * bits per hash code.
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public final class PerfectHash
+{
+    private static final int HASHES_PER_BUCKET = 3;
+    private static final double LOAD_FACTOR = 0.99;
+    //60% of the hash codes go to the first 30% of the buckets
+    private static final long DENSE_THRESHOLD = (long) (0.6 * (1L << 32));
+    private static final double DENSE_BUCKETS = 0.3;
+    private static final int ESCAPE = 0xFF;
+    private static final int MAXIMUM_PILOT = 1 << 24;
+    private final int size;
+    private final int slots;
+    private final int buckets;
+    private final int denseBuckets;
+    private final byte[] pilots;
+    //pilots that do not fit in a byte, looked up by bucket
+    private final int[] largeBuckets;
+    private final int[] largePilots;
+    private final int[] remap;
+
+    /**
+     * Builds a minimal perfect hash function for the given hash codes.
+     * @param hashes the hash codes, which must all be different
+     * @throws IllegalArgumentException if a hash code appears twice
+     */
+    public PerfectHash(int[] hashes)
+    {
+        size = hashes.length;
+        slots = Math.max(size, (int) Math.ceil(size / LOAD_FACTOR));
+        buckets = Math.max(1, (size + HASHES_PER_BUCKET - 1) / HASHES_PER_BUCKET);
+        denseBuckets = Math.max(1, (int) (buckets * DENSE_BUCKETS));
+        pilots = new byte[buckets];
+
+        //group the hash codes by bucket
+        long[] mixed = new long[size];
+        int[] bucketStarts = new int[buckets + 1];
+        for(int i = 0; i < size; i++) {
+            mixed[i] = mix(hashes[i]);
+            bucketStarts[bucketOf(mixed[i]) + 1]++;
+        }
+        int largestBucket = 0;
+        for(int i = 0; i < buckets; i++) {
+            largestBucket = Math.max(largestBucket, bucketStarts[i + 1]);
+            bucketStarts[i + 1] += bucketStarts[i];
+        }
+        long[] grouped = new long[size];
+        int[] next = Arrays.copyOf(bucketStarts, buckets);
+        for(long hash : mixed) {
+            grouped[next[bucketOf(hash)]++] = hash;
+        }
+
+        //order the buckets largest first with a counting sort on their sizes
+        int[] sizeStarts = new int[largestBucket + 2];
+        for(int bucket = 0; bucket < buckets; bucket++) {
+            sizeStarts[largestBucket - (bucketStarts[bucket + 1] - bucketStarts[bucket]) + 1]++;
+        }
+        for(int i = 0; i <= largestBucket; i++) {
+            sizeStarts[i + 1] += sizeStarts[i];
+        }
+        int[] order = new int[buckets];
+        for(int bucket = 0; bucket < buckets; bucket++) {
+            order[sizeStarts[largestBucket - (bucketStarts[bucket + 1] - bucketStarts[bucket])]++] = bucket;
+        }
+
+        long[] taken = new long[(slots + 63) / 64];
+        int[] placed = new int[Math.max(1, largestBucket)];
+        int[] escapedBuckets = new int[0];
+        int[] escapedPilots = new int[0];
+        int escaped = 0;
+        for(int bucket : order) {
+            int start = bucketStarts[bucket];
+            int count = bucketStarts[bucket + 1] - start;
+            if(count == 0) {
+                break;
+            }
+            int pilot = findPilot(grouped, start, count, taken, placed);
+            if(pilot >= ESCAPE) {
+                if(escaped == escapedBuckets.length) {
+                    escapedBuckets = Arrays.copyOf(escapedBuckets, escaped * 2 + 1);
+                    escapedPilots = Arrays.copyOf(escapedPilots, escaped * 2 + 1);
+                }
+                escapedBuckets[escaped] = bucket;
+                escapedPilots[escaped++] = pilot;
+                pilot = ESCAPE;
+            }
+            pilots[bucket] = (byte) pilot;
+        }
+
+        //sort the escaped pilots by bucket for binary search
+        long[] escapes = new long[escaped];
+        for(int i = 0; i < escaped; i++) {
+            escapes[i] = (long) escapedBuckets[i] << 32 | escapedPilots[i];
+        }
+        Arrays.sort(escapes);
+        largeBuckets = new int[escaped];
+        largePilots = new int[escaped];
+        for(int i = 0; i < escaped; i++) {
+            largeBuckets[i] = (int) (escapes[i] >>> 32);
+            largePilots[i] = (int) escapes[i];
+        }
+
+        //point each used slot past the end at a free slot below it
+        remap = new int[slots - size];
+        int free = 0;
+        for(int slot = size; slot < slots; slot++) {
+            if(isTaken(taken, slot)) {
+                while(isTaken(taken, free)) {
+                    free++;
+                }
+                remap[slot - size] = free++;
+            }
+        }
+    }
+
+    //try pilots in order until every hash code of the bucket lands on its
+    //own free slot, then mark those slots taken
+    private int findPilot(long[] grouped, int start, int count, long[] taken, int[] placed)
+    {
+        for(int pilot = 0; pilot < MAXIMUM_PILOT; pilot++) {
+            int placedCount = 0;
+            for(int i = 0; i < count; i++) {
+                int slot = slotOf(grouped[start + i], pilot);
+                if(isTaken(taken, slot)) {
+                    break;
+                }
+                //mark as we go so two hash codes of the bucket cannot share a slot
+                taken[slot >>> 6] |= 1L << slot;
+                placed[placedCount++] = slot;
+            }
+            if(placedCount == count) {
+                return pilot;
+            }
+            for(int i = 0; i < placedCount; i++) {
+                taken[placed[i] >>> 6] &= ~(1L << placed[i]);
+            }
+        }
+        throw new IllegalArgumentException("Hash codes must be distinct to build a perfect hash");
+    }
+
+    private static boolean isTaken(long[] taken, int slot)
+    {
+        return (taken[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    //spread the 32 bit hash code over 64 bits so the bucket and the slot
+    //are taken from independent bits
+    private static long mix(long hash)
+    {
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+
+    private int bucketOf(long hash)
+    {
+        //skew the buckets so the large ones are placed while the table is
+        //emptiest and the ones placed last are small
+        long select = hash >>> 32;
+        long position = hash & 0xFFFFFFFFL;
+        if(select < DENSE_THRESHOLD || denseBuckets == buckets) {
+            return (int) ((position * denseBuckets) >>> 32);
+        }
+        return denseBuckets + (int) ((position * (buckets - denseBuckets)) >>> 32);
+    }
+
+    private int slotOf(long hash, int pilot)
+    {
+        return (int) (((mix(hash ^ (pilot * 0x9E3779B97F4A7C15L)) >>> 32) * slots) >>> 32);
+    }
+
+    /**
+     * Returns the index of a hash code the function was built from. Any
+     * other hash code gives some index in range, or 0 for an empty function.
+     * @param hash the hash code
+     * @return the index in [0, size)
+     */
+    public int indexOf(int hash)
+    {
+        if(size == 0) {
+            return 0;
+        }
+        long mixed = mix(hash);
+        int bucket = bucketOf(mixed);
+        int pilot = pilots[bucket] & 0xFF;
+        if(pilot == ESCAPE) {
+            pilot = largePilots[Arrays.binarySearch(largeBuckets, bucket)];
+        }
+        int slot = slotOf(mixed, pilot);
+        return slot < size ? slot : remap[slot - size];
+    }
+
+    /**
+     * Returns the number of hash codes the function was built from.
+     * @return the size of the function
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the average number of bits the function stores per hash code.
+     * @return the bits per hash code
+     */
+    public double bitsPerKey()
+    {
+        long bits = 8L * pilots.length + 64L * largeBuckets.length + 32L * remap.length;
+        return size == 0 ? 0 : (double) bits / size;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PerfectHash{size=" + size + ", bitsPerKey=" + String.format("%.2f", bitsPerKey()) + '}';
+    }
+}
@@ -0,0 +1,325 @@
+package hashtable;
+
+import interfaces.IHashTable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A thread safe HashTable for workloads that are almost all lookups. Readers
+ * take no lock at all: they search the table optimistically and then check
+ * that no write started or finished while they were reading, only falling
+ * back to a shared read lock when one did. Writers take an exclusive lock,
+ * so each write is a little slower than in a ConcurrentHashTable, but reads
+ * never write to shared memory and so scale with the number of cores.
+ * Lookups in a bucket that has been turned into a tree, which only happens
+ * when many elements share a hash, take the shared read lock instead, since
+ * writers restructure trees in place.
+ *
+ * Iteration copies the table under the read lock, so the iterator never
+ * throws a ConcurrentModificationException.
+ *
+ * @param <T> Accepts any Object
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class ReadMostlyHashTable<T> implements IHashTable<T>, Iterable<T>
+{
+    private final HashTable<T> table;
+    private final StampedLock lock = new StampedLock();
+
+    /**
+     * Creates an empty table.
+     */
+    public ReadMostlyHashTable()
+    {
+        this(0, HashTableConfig.defaults(), HashStrategy.defaultStrategy());
+    }
+
+    /**
+     * Creates an empty table that places elements using the given hash strategy.
+     * @param strategy computes the hash of each element
+     */
+    public ReadMostlyHashTable(HashStrategy<? super T> strategy)
+    {
+        this(0, HashTableConfig.defaults(), strategy);
+    }
+
+    /**
+     * Creates an empty table sized up front so the expected number of
+     * elements can be added without any resize.
+     * @param expectedSize the number of elements the table is expected to hold
+     */
+    public ReadMostlyHashTable(int expectedSize)
+    {
+        this(expectedSize, HashTableConfig.defaults(), HashStrategy.defaultStrategy());
+    }
+
+    /**
+     * Creates an empty table sized up front for the expected number of
+     * elements that grows and shrinks as the given config describes and
+     * places elements using the given hash strategy.
+     * @param expectedSize the number of elements the table is expected to hold
+     * @param config the load factor, growth and capacity settings
+     * @param strategy computes the hash of each element
+     */
+    public ReadMostlyHashTable(int expectedSize, HashTableConfig config, HashStrategy<? super T> strategy)
+    {
+        table = new HashTable<>(expectedSize, config, strategy);
+    }
+
+    //run the reader without locking and keep its result if no write overlapped it.
+    //a reader that overlaps a write may see the table half changed and throw, e.g.
+    //from a node whose fields are not visible yet, which is handled the same way.
+    //the reader must not walk anything a writer restructures in place, since a
+    //torn view of that can loop forever before validate gets a chance to run
+    private <R> R read(Supplier<R> reader)
+    {
+        long stamp = lock.tryOptimisticRead();
+        if(stamp != 0) {
+            try {
+                R result = reader.get();
+                if(lock.validate(stamp)) {
+                    return result;
+                }
+            }
+            catch(RuntimeException ex) {
+                //the read overlapped a write, retry under the read lock below
+            }
+        }
+        return readLocked(reader);
+    }
+
+    private <R> R readLocked(Supplier<R> reader)
+    {
+        long stamp = lock.readLock();
+        try {
+            return reader.get();
+        }
+        finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private <R> R write(Supplier<R> writer)
+    {
+        long stamp = lock.writeLock();
+        try {
+            return writer.get();
+        }
+        finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void add(T element)
+    {
+        write(() -> {
+            table.add(element);
+            return null;
+        });
+    }
+
+    @Override
+    public T put(T element)
+    {
+        return write(() -> table.put(element));
+    }
+
+    /**
+     * {@inheritDoc}
+     * The element is looked up without locking first, so the write lock is
+     * only taken when the probe is missing. The factory runs under the write
+     * lock, which is not reentrant, so it must not use this table.
+     */
+    @Override
+    public T computeIfAbsent(T probe, Function<? super T, ? extends T> factory)
+    {
+        T found = find(probe);
+        if(found != null) {
+            return found;
+        }
+        return write(() -> table.computeIfAbsent(probe, factory));
+    }
+
+    /**
+     * {@inheritDoc}
+     * The remapping runs under the write lock, which is not reentrant, so it
+     * must not use this table.
+     */
+    @Override
+    public T merge(T element, BinaryOperator<T> remapping)
+    {
+        return write(() -> table.merge(element, remapping));
+    }
+
+    @Override
+    public void remove(T element)
+    {
+        write(() -> {
+            table.remove(element);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean removeIfPresent(T element)
+    {
+        return write(() -> table.removeIfPresent(element));
+    }
+
+    /**
+     * {@inheritDoc}
+     * The filter is tested against a copy of the table without holding the
+     * lock, so it may look up elements of this table, and the matches are
+     * then removed under a single write lock.
+     */
+    @Override
+    public boolean removeIf(Predicate<? super T> filter)
+    {
+        List<T> matches = new ArrayList<>();
+        for(T element : this) {
+            if(filter.test(element)) {
+                matches.add(element);
+            }
+        }
+        if(matches.isEmpty()) {
+            return false;
+        }
+
+        return write(() -> {
+            boolean removed = false;
+            for(T element : matches) {
+                removed |= table.removeIfPresent(element);
+            }
+            return removed;
+        });
+    }
+
+    @Override
+    public boolean contains(T element)
+    {
+        return find(element) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * A lookup whose bucket has been turned into a tree, which writers
+     * rotate in place, is made under the shared read lock instead of
+     * optimistically.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T find(T element)
+    {
+        Object found = read(() -> table.findUnlocked(element));
+        if(found == HashTable.TREE_BUCKET) {
+            return readLocked(() -> table.find(element));
+        }
+        return (T) found;
+    }
+
+    @Override
+    public T get(T element)
+    {
+        return find(element);
+    }
+
+    @Override
+    public int size()
+    {
+        return read(table::size);
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return read(table::isEmpty);
+    }
+
+    @Override
+    public void clear()
+    {
+        write(() -> {
+            table.clear();
+            return null;
+        });
+    }
+
+    @Override
+    public void ensureCapacity(int expectedSize)
+    {
+        write(() -> {
+            table.ensureCapacity(expectedSize);
+            return null;
+        });
+    }
+
+    @Override
+    public void trimToSize()
+    {
+        write(() -> {
+            table.trimToSize();
+            return null;
+        });
+    }
+
+    @Override
+    public void addAll(Iterable<? extends T> source)
+    {
+        write(() -> {
+            table.addAll(source);
+            return null;
+        });
+    }
+
+    @Override
+    public void addAll(T[] source)
+    {
+        write(() -> {
+            table.addAll(source);
+            return null;
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * The table's own iterator is already weakly consistent.
+     */
+    @Override
+    public Iterator<T> weaklyConsistentIterator()
+    {
+        return iterator();
+    }
+
+    @Override
+    public Iterator<T> iterator()
+    {
+        //iterate over a copy so writers are never blocked by a slow iteration
+        long stamp = lock.readLock();
+        try {
+            List<T> copy = new ArrayList<>(table.size());
+            for(T element : table) {
+                copy.add(element);
+            }
+            return Collections.unmodifiableList(copy).iterator();
+        }
+        finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ReadMostlyHashTable{size=" + size() + '}';
+    }
+}
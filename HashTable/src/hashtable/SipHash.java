@@ -0,0 +1,160 @@
+package hashtable;
+
+/**
+ * SipHash-2-4, a keyed hash function: without the 128 bit key an attacker
+ * cannot compute which inputs collide, so keys chosen offline to collide in
+ * one table (as is trivial with String.hashCode()) are spread out in every
+ * other. Bytes are read little endian as in the reference implementation,
+ * and a string is hashed as its UTF-16LE encoding without encoding it.
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public final class SipHash
+{
+    private final long key0;
+    private final long key1;
+
+    /**
+     * Creates a hash function with the given 128 bit key.
+     * @param key0 the low 64 bits of the key
+     * @param key1 the high 64 bits of the key
+     */
+    public SipHash(long key0, long key1)
+    {
+        this.key0 = key0;
+        this.key1 = key1;
+    }
+
+    /**
+     * Returns the 64 bit hash of the bytes.
+     * @param data the bytes to hash
+     * @return the hash
+     */
+    public long hash(byte[] data)
+    {
+        State state = new State(key0, key1);
+        int length = data.length;
+        int end = length & ~7;
+        for(int i = 0; i < end; i += 8) {
+            long word = (data[i] & 0xFFL)
+                    | (data[i + 1] & 0xFFL) << 8
+                    | (data[i + 2] & 0xFFL) << 16
+                    | (data[i + 3] & 0xFFL) << 24
+                    | (data[i + 4] & 0xFFL) << 32
+                    | (data[i + 5] & 0xFFL) << 40
+                    | (data[i + 6] & 0xFFL) << 48
+                    | (data[i + 7] & 0xFFL) << 56;
+            state.compress(word);
+        }
+
+        //the last word holds the remaining bytes and the length in its top byte
+        long last = (long) length << 56;
+        for(int i = end; i < length; i++) {
+            last |= (data[i] & 0xFFL) << ((i - end) << 3);
+        }
+        state.compress(last);
+        return state.finish();
+    }
+
+    /**
+     * Returns the 64 bit hash of the value, the same as the hash of its
+     * eight little endian bytes.
+     * @param value the value to hash
+     * @return the hash
+     */
+    public long hash(long value)
+    {
+        State state = new State(key0, key1);
+        state.compress(value);
+        state.compress((long) Long.BYTES << 56);
+        return state.finish();
+    }
+
+    /**
+     * Returns the 64 bit hash of the characters, the same as the hash of
+     * their UTF-16LE bytes.
+     * @param text the characters to hash
+     * @return the hash
+     */
+    public long hash(CharSequence text)
+    {
+        State state = new State(key0, key1);
+        int length = text.length();
+        int end = length & ~3;
+        for(int i = 0; i < end; i += 4) {
+            long word = text.charAt(i)
+                    | (long) text.charAt(i + 1) << 16
+                    | (long) text.charAt(i + 2) << 32
+                    | (long) text.charAt(i + 3) << 48;
+            state.compress(word);
+        }
+
+        long last = (long) (length << 1) << 56;
+        for(int i = end; i < length; i++) {
+            last |= (long) text.charAt(i) << ((i - end) << 4);
+        }
+        state.compress(last);
+        return state.finish();
+    }
+
+    @Override
+    public String toString()
+    {
+        //the key is the secret, so it is not shown
+        return "SipHash{rounds=2-4}";
+    }
+
+    //the four words of internal state, updated by the SipRound function
+    private static final class State
+    {
+        private long v0;
+        private long v1;
+        private long v2;
+        private long v3;
+
+        private State(long key0, long key1)
+        {
+            v0 = key0 ^ 0x736F6D6570736575L;
+            v1 = key1 ^ 0x646F72616E646F6DL;
+            v2 = key0 ^ 0x6C7967656E657261L;
+            v3 = key1 ^ 0x7465646279746573L;
+        }
+
+        private void compress(long word)
+        {
+            v3 ^= word;
+            round();
+            round();
+            v0 ^= word;
+        }
+
+        private long finish()
+        {
+            v2 ^= 0xFF;
+            round();
+            round();
+            round();
+            round();
+            return v0 ^ v1 ^ v2 ^ v3;
+        }
+
+        private void round()
+        {
+            v0 += v1;
+            v1 = Long.rotateLeft(v1, 13);
+            v1 ^= v0;
+            v0 = Long.rotateLeft(v0, 32);
+            v2 += v3;
+            v3 = Long.rotateLeft(v3, 16);
+            v3 ^= v2;
+            v0 += v3;
+            v3 = Long.rotateLeft(v3, 21);
+            v3 ^= v0;
+            v2 += v1;
+            v1 = Long.rotateLeft(v1, 17);
+            v1 ^= v2;
+            v2 = Long.rotateLeft(v2, 32);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package hashtable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes and reads the compact binary snapshot format shared by HashTable,
+ * Set and Map. A snapshot is a 24 byte header holding a magic number, the
+ * format version, the number of elements, the capacity of the table that
+ * was written and the length in bytes of the entries that follow, then one
+ * entry per element as a length prefixed run of the bytes its codec wrote.
+ *
+ * Knowing the length of the entries lets a reader stop exactly at the end
+ * of the snapshot while still reading the channel in large blocks, so a
+ * snapshot can be followed by other data in the same stream.
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public final class Snapshot
+{
+    //"HSNP" in ASCII
+    private static final int MAGIC = 0x48534E50;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private Snapshot()
+    {
+    }
+
+    /**
+     * Writes a snapshot of the elements to the channel.
+     * @param channel where to write the snapshot, which is left open
+     * @param elements the elements, which must not change while they are written
+     * @param size the number of elements
+     * @param capacity the capacity of the table being written
+     * @param codec converts each element to bytes
+     * @param <T> the type of element written
+     * @throws IOException if the channel cannot be written
+     */
+    public static <T> void write(WritableByteChannel channel, Iterable<? extends T> elements, int size, int capacity,
+                                 Codec<? super T> codec) throws IOException
+    {
+        //measure the entries first so the header can say where they end
+        long entryBytes = 0;
+        for(T element : elements) {
+            entryBytes += Integer.BYTES + codec.sizeOf(element);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(capacity).putLong(entryBytes);
+        for(T element : elements) {
+            int length = codec.sizeOf(element);
+            if(buffer.remaining() < Integer.BYTES + length) {
+                drain(channel, buffer);
+                if(buffer.capacity() < Integer.BYTES + length) {
+                    //a single entry larger than the buffer gets one of its own
+                    buffer = ByteBuffer.allocate(Integer.BYTES + length);
+                }
+            }
+            buffer.putInt(length);
+            int start = buffer.position();
+            codec.write(element, buffer);
+            if(buffer.position() - start != length) {
+                throw new IllegalStateException("Codec wrote " + (buffer.position() - start) + " bytes for an element of " + length);
+            }
+        }
+        drain(channel, buffer);
+    }
+
+    private static void drain(WritableByteChannel channel, ByteBuffer buffer) throws IOException
+    {
+        buffer.flip();
+        while(buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Reads a snapshot from the channel into a new HashTable sized from the
+     * header, inserting each element without looking for a duplicate.
+     * @param channel where to read the snapshot from, which is left open
+     *                just past the end of the snapshot
+     * @param codec converts the bytes of each element back
+     * @param strategy computes the hash of each element
+     * @param <T> the type of element read
+     * @return a table holding the elements of the snapshot
+     * @throws IOException if the channel cannot be read or does not hold a snapshot
+     */
+    public static <T> HashTable<T> read(ReadableByteChannel channel, Codec<T> codec, HashStrategy<? super T> strategy)
+            throws IOException
+    {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        fill(channel, header, HEADER_BYTES);
+        header.flip();
+        if(header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new StreamCorruptedException("Not a hash table snapshot");
+        }
+        int size = header.getInt();
+        //the table is sized for the elements rather than the capacity written,
+        //which may have been left larger by removals
+        header.getInt();
+        long remaining = header.getLong();
+        if(size < 0 || remaining < 0) {
+            throw new StreamCorruptedException("Snapshot header is corrupt");
+        }
+        //every entry takes at least its length prefix, so a size the entries
+        //cannot hold is refused before the table is sized for it
+        if(size > remaining / Integer.BYTES) {
+            throw new StreamCorruptedException("Snapshot header claims " + size + " elements in " + remaining + " bytes");
+        }
+
+        HashTable<T> table = new HashTable<>(size, HashTableConfig.defaults(), strategy);
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(BUFFER_BYTES, Math.max(remaining, Integer.BYTES)));
+        buffer.flip();
+        for(int i = 0; i < size; i++) {
+            remaining = refill(channel, buffer, Integer.BYTES, remaining);
+            int length = buffer.getInt();
+            if(length < 0) {
+                throw new StreamCorruptedException("Snapshot entry is corrupt");
+            }
+            if(buffer.capacity() < length) {
+                //a single entry larger than the buffer gets one of its own
+                ByteBuffer larger = ByteBuffer.allocate(length);
+                larger.put(buffer).flip();
+                buffer = larger;
+            }
+            remaining = refill(channel, buffer, length, remaining);
+
+            ByteBuffer entry = buffer.duplicate();
+            entry.limit(buffer.position() + length);
+            table.addUnique(codec.read(entry));
+            buffer.position(buffer.position() + length);
+        }
+        if(remaining != 0 || buffer.hasRemaining()) {
+            throw new StreamCorruptedException("Snapshot has bytes left after its last entry");
+        }
+        return table;
+    }
+
+    //make sure the buffer holds at least the needed bytes without reading
+    //past the end of the snapshot, returning how many are left to read
+    private static long refill(ReadableByteChannel channel, ByteBuffer buffer, int needed, long remaining)
+            throws IOException
+    {
+        if(buffer.remaining() >= needed) {
+            return remaining;
+        }
+        buffer.compact();
+        int wanted = (int) Math.min(buffer.remaining(), remaining);
+        if(buffer.position() + wanted < needed) {
+            throw new StreamCorruptedException("Snapshot entry runs past the end of the snapshot");
+        }
+        fill(channel, buffer, wanted);
+        buffer.flip();
+        return remaining - wanted;
+    }
+
+    private static void fill(ReadableByteChannel channel, ByteBuffer buffer, int bytes) throws IOException
+    {
+        int limit = buffer.limit();
+        buffer.limit(buffer.position() + bytes);
+        while(buffer.hasRemaining()) {
+            if(channel.read(buffer) < 0) {
+                throw new EOFException("Snapshot ends early");
+            }
+        }
+        buffer.limit(limit);
+    }
+}
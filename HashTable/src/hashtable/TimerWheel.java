@@ -0,0 +1,209 @@
+package hashtable;
+
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel that finds timers whose deadline has passed
+ * without looking at the ones still pending. Timers are kept in circular
+ * lists of buckets, where each wheel covers a coarser span of time than the
+ * one below it: 64 buckets of about a second, 64 of about a minute, 32 of
+ * about an hour, 4 of about a day, and one bucket for anything later.
+ * Scheduling and cancelling are constant time, and advancing only visits
+ * the buckets whose span has passed, moving each timer that is not yet due
+ * down to a finer wheel, so every timer is touched a constant number of
+ * times over its life.
+ *
+ * Deadlines are nanosecond readings of the same clock passed to advance,
+ * e.g. System.nanoTime(), and are compared by subtraction so the clock may
+ * wrap around. A timer fires after its deadline, up to one bucket span late,
+ * so callers that need exact expiry also compare the deadline themselves.
+ *
+ * @param <T> the type of timer stored
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public final class TimerWheel<T extends TimerWheel.Timer>
+{
+    private static final int[] BUCKETS = {64, 64, 32, 4, 1};
+    //each bucket spans 2^shift nanoseconds, i.e. 1.07s, 1.14m, 1.22h, 0.81d and 6.5d
+    private static final int[] SHIFTS = {30, 36, 42, 46, 50};
+    private final Timer[][] wheels;
+    private long nanos;
+
+    /**
+     * Creates an empty wheel starting at the given time.
+     * @param nanos the current reading of the clock
+     */
+    public TimerWheel(long nanos)
+    {
+        this.nanos = nanos;
+        wheels = new Timer[BUCKETS.length][];
+        for(int i = 0; i < BUCKETS.length; i++) {
+            wheels[i] = new Timer[BUCKETS[i]];
+            for(int j = 0; j < BUCKETS[i]; j++) {
+                Timer sentinel = new Timer();
+                sentinel.previous = sentinel;
+                sentinel.next = sentinel;
+                wheels[i][j] = sentinel;
+            }
+        }
+    }
+
+    /**
+     * Schedules the timer to fire at the deadline, first cancelling it if it
+     * was already scheduled.
+     * @param timer the timer
+     * @param deadline the clock reading at which the timer is due
+     */
+    public void schedule(T timer, long deadline)
+    {
+        cancel(timer);
+        Timer node = timer;
+        node.deadline = deadline;
+        link(bucketFor(deadline), node);
+    }
+
+    /**
+     * Removes the timer from the wheel. A timer that is not scheduled is
+     * left alone.
+     * @param timer the timer
+     */
+    public void cancel(T timer)
+    {
+        Timer node = timer;
+        if(node.next != null) {
+            node.previous.next = node.next;
+            node.next.previous = node.previous;
+            node.previous = null;
+            node.next = null;
+        }
+    }
+
+    /**
+     * Removes every timer from the wheel.
+     */
+    public void clear()
+    {
+        for(Timer[] wheel : wheels) {
+            for(Timer sentinel : wheel) {
+                //unlink the timers so they can be scheduled again
+                for(Timer timer = sentinel.next; timer != sentinel; ) {
+                    Timer next = timer.next;
+                    timer.previous = null;
+                    timer.next = null;
+                    timer = next;
+                }
+                sentinel.previous = sentinel;
+                sentinel.next = sentinel;
+            }
+        }
+    }
+
+    /**
+     * Moves the wheel to the given time, removing the timers that are due
+     * and passing each to the consumer.
+     * @param now the current reading of the clock
+     * @param expired receives each timer whose deadline has passed
+     */
+    public void advance(long now, Consumer<? super T> expired)
+    {
+        long previous = nanos;
+        nanos = now;
+        for(int i = 0; i < SHIFTS.length; i++) {
+            long previousTicks = previous >>> SHIFTS[i];
+            long delta = (now >>> SHIFTS[i]) - previousTicks;
+            if(delta <= 0) {
+                //the coarser wheels have not moved either
+                break;
+            }
+            expire(i, previousTicks, delta, expired);
+        }
+    }
+
+    /**
+     * Returns the time the wheel was last advanced to.
+     * @return the clock reading
+     */
+    public long nanos()
+    {
+        return nanos;
+    }
+
+    //empty the buckets passed over and fire or reschedule their timers
+    @SuppressWarnings("unchecked")
+    private void expire(int index, long previousTicks, long delta, Consumer<? super T> expired)
+    {
+        Timer[] wheel = wheels[index];
+        int mask = wheel.length - 1;
+        //the bucket being left is visited as well as those passed over
+        int steps = (int) Math.min(delta + 1, wheel.length);
+        int start = (int) (previousTicks & mask);
+        for(int i = start; i < start + steps; i++) {
+            Timer sentinel = wheel[i & mask];
+            Timer timer = sentinel.next;
+            sentinel.previous = sentinel;
+            sentinel.next = sentinel;
+
+            while(timer != sentinel) {
+                Timer next = timer.next;
+                timer.previous = null;
+                timer.next = null;
+                if(timer.deadline - nanos <= 0) {
+                    expired.accept((T) timer);
+                }
+                else {
+                    link(bucketFor(timer.deadline), timer);
+                }
+                timer = next;
+            }
+        }
+    }
+
+    private Timer bucketFor(long deadline)
+    {
+        long duration = deadline - nanos;
+        for(int i = 1; i < SHIFTS.length; i++) {
+            if(duration < 1L << SHIFTS[i]) {
+                long ticks = deadline >>> SHIFTS[i - 1];
+                return wheels[i - 1][(int) (ticks & (BUCKETS[i - 1] - 1))];
+            }
+        }
+        return wheels[SHIFTS.length - 1][0];
+    }
+
+    private static void link(Timer sentinel, Timer timer)
+    {
+        timer.previous = sentinel.previous;
+        timer.next = sentinel;
+        sentinel.previous.next = timer;
+        sentinel.previous = timer;
+    }
+
+    /**
+     * A node that can be scheduled on a TimerWheel, extended by the objects
+     * that expire so the wheel allocates nothing per timer.
+     */
+    public static class Timer
+    {
+        private long deadline;
+        //both null while the timer is not scheduled
+        private Timer previous;
+        private Timer next;
+
+        /**
+         * Creates a timer that is not scheduled.
+         */
+        protected Timer()
+        {
+        }
+
+        /**
+         * Returns the deadline the timer was last scheduled for.
+         * @return the clock reading at which the timer is due
+         */
+        public final long deadline()
+        {
+            return deadline;
+        }
+    }
+}
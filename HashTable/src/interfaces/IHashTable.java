@@ -0,0 +1,182 @@
+package interfaces;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Extends the ICollection with the keyed operations a hash table can
+ * answer with a single probe of the bucket (or slot) an element hashes to.
+ * Set and Map are written against this interface so that the table
+ * engine behind them can be chosen when they are constructed.
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public interface IHashTable<T> extends ICollection<T>
+{
+    /**
+     * Returns the element stored in the table that is equal to the
+     * input parameter.
+     *
+     * @param element the element to search for
+     * @return the matching stored element, or null if there is none
+     */
+    T find(T element);
+
+    /**
+     * Adds the element to the table, or replaces the stored element
+     * that is equal to it.
+     *
+     * @param element the element to insert or replace with
+     * @return the element that was replaced, or null if the element
+     * was added
+     */
+    T put(T element);
+
+    /**
+     * Returns the stored element equal to the probe, or adds the element
+     * created by the factory when there is none. The created element must
+     * be equal to the probe, or null to add nothing.
+     *
+     * @param probe an element equal to the one to look up
+     * @param factory creates the element to add when the probe is not found
+     * @return the stored or newly added element, or null if the factory
+     * returned null
+     */
+    T computeIfAbsent(T probe, Function<? super T, ? extends T> factory);
+
+    /**
+     * Adds the element to the table, or replaces the stored element equal
+     * to it with the result of combining the two. The result must be equal
+     * to the element, or null to remove the stored element instead.
+     *
+     * @param element the element to add or combine
+     * @param remapping combines the stored element with the given element
+     * @return the element stored in the table afterwards, or null if the
+     * stored element was removed
+     */
+    T merge(T element, BinaryOperator<T> remapping);
+
+    /**
+     * Returns an iterator that keeps going through writes made to the table
+     * while it is in use instead of throwing a ConcurrentModificationException.
+     * Every element that stays in the table from the moment the iterator is
+     * created until it finishes is returned exactly once. An element added or
+     * removed in between may or may not be returned, but never twice, and an
+     * element replaced in between may be returned as either version. Each
+     * table says which threads may write while the iterator is in use.
+     *
+     * @return a weakly consistent iterator over the elements
+     */
+    Iterator<T> weaklyConsistentIterator();
+
+    /**
+     * Grows the table once so that it can hold the expected number of
+     * elements without resizing again.
+     *
+     * @param expectedSize the total number of elements the table is
+     *                     expected to hold
+     */
+    default void ensureCapacity(int expectedSize)
+    {
+    }
+
+    /**
+     * Shrinks the table to the smallest capacity that holds its current
+     * elements, releasing the memory left over from when it was larger.
+     */
+    default void trimToSize()
+    {
+    }
+
+    /**
+     * Adds every element of the input parameter to the table. When the
+     * number of elements is known the table is sized once up front.
+     *
+     * @param source the elements to add
+     */
+    default void addAll(Iterable<? extends T> source)
+    {
+        int count = sizeOf(source);
+        if(count >= 0) {
+            ensureCapacity(size() + count);
+        }
+        for(T element : source) {
+            add(element);
+        }
+    }
+
+    /**
+     * Adds every element of the array to the table, sizing the table once
+     * up front.
+     *
+     * @param source the elements to add
+     */
+    default void addAll(T[] source)
+    {
+        ensureCapacity(size() + source.length);
+        for(T element : source) {
+            add(element);
+        }
+    }
+
+    /**
+     * Removes the element from the table if it is there, rather than
+     * throwing an exception like remove does for a missing element.
+     *
+     * @param element the element to remove
+     * @return true if the element was found and removed
+     */
+    default boolean removeIfPresent(T element)
+    {
+        if(!contains(element)) {
+            return false;
+        }
+        remove(element);
+        return true;
+    }
+
+    /**
+     * Removes every element of the table that matches the filter.
+     *
+     * @param filter returns true for the elements to remove
+     * @return true if any element was removed
+     */
+    default boolean removeIf(Predicate<? super T> filter)
+    {
+        //collect the matches first so the table is not changed while iterating
+        List<T> matches = new ArrayList<>();
+        for(T element : this) {
+            if(filter.test(element)) {
+                matches.add(element);
+            }
+        }
+        for(T element : matches) {
+            remove(element);
+        }
+        return !matches.isEmpty();
+    }
+
+    /**
+     * Returns the number of elements in the input parameter when it can be
+     * known without iterating over it.
+     *
+     * @param source the elements to count
+     * @return the number of elements, or -1 if it is not known
+     */
+    static int sizeOf(Iterable<?> source)
+    {
+        if(source instanceof ICollection) {
+            return ((ICollection<?>) source).size();
+        }
+        else if(source instanceof Collection) {
+            return ((Collection<?>) source).size();
+        }
+        return -1;
+    }
+}
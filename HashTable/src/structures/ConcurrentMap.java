@@ -0,0 +1,65 @@
+package structures;
+
+import hashtable.Codec;
+import hashtable.ConcurrentHashTable;
+import helpers.KeyValuePair;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A Map that many threads can read and write at once, backed by a
+ * ConcurrentHashTable. add, remove, get, computeIfAbsent and merge are
+ * atomic for their key, so e.g. concurrent merge(key, 1, Integer::sum)
+ * calls never lose a count, and iteration never throws a
+ * ConcurrentModificationException. A snapshot written with writeTo holds
+ * the whole map at one moment even while other threads write to it.
+ *
+ * @param <K> the type of key stored
+ * @param <V> the type of value stored
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class ConcurrentMap<K, V> extends Map<K, V>
+{
+    private final ConcurrentHashTable<KeyValuePair<K, V>> table;
+
+    /**
+     * Creates a map with 16 independently locked segments.
+     */
+    public ConcurrentMap()
+    {
+        this(new ConcurrentHashTable<>());
+    }
+
+    /**
+     * Creates a map sized up front for the expected number of pairs and
+     * split into enough segments for the expected number of writing threads.
+     * @param expectedSize the number of pairs the map is expected to hold
+     * @param concurrencyLevel the number of threads expected to write at once
+     */
+    public ConcurrentMap(int expectedSize, int concurrencyLevel)
+    {
+        this(new ConcurrentHashTable<>(expectedSize, concurrencyLevel));
+    }
+
+    private ConcurrentMap(ConcurrentHashTable<KeyValuePair<K, V>> table)
+    {
+        super(table);
+        this.table = table;
+    }
+
+    /**
+     * Writes a binary snapshot of the map to the channel, which is left
+     * open. The pairs are copied at one moment before they are written.
+     * @param channel where to write the snapshot
+     * @param keyCodec converts each key to bytes
+     * @param valueCodec converts each value to bytes
+     * @throws IOException if the channel cannot be written
+     */
+    @Override
+    public void writeTo(WritableByteChannel channel, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException
+    {
+        table.writeTo(channel, Codec.pairs(keyCodec, valueCodec));
+    }
+}
@@ -0,0 +1,62 @@
+package structures;
+
+import hashtable.Codec;
+import hashtable.ConcurrentHashTable;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A Set that many threads can read and write at once, backed by a
+ * ConcurrentHashTable. Single element operations are atomic and iteration
+ * never throws a ConcurrentModificationException. The set operations that
+ * combine two sets read each element atomically but not the whole set, and
+ * they return ordinary single threaded Sets. A snapshot written with
+ * writeTo holds the whole set at one moment.
+ *
+ * @param <T> the type of element stored
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class ConcurrentSet<T> extends Set<T>
+{
+    private final ConcurrentHashTable<T> table;
+
+    /**
+     * Creates a set with 16 independently locked segments.
+     */
+    public ConcurrentSet()
+    {
+        this(new ConcurrentHashTable<>());
+    }
+
+    /**
+     * Creates a set sized up front for the expected number of elements and
+     * split into enough segments for the expected number of writing threads.
+     * @param expectedSize the number of elements the set is expected to hold
+     * @param concurrencyLevel the number of threads expected to write at once
+     */
+    public ConcurrentSet(int expectedSize, int concurrencyLevel)
+    {
+        this(new ConcurrentHashTable<>(expectedSize, concurrencyLevel));
+    }
+
+    private ConcurrentSet(ConcurrentHashTable<T> table)
+    {
+        super(table);
+        this.table = table;
+    }
+
+    /**
+     * Writes a binary snapshot of the set to the channel, which is left
+     * open. The elements are copied at one moment before they are written.
+     * @param channel where to write the snapshot
+     * @param codec converts each element to bytes
+     * @throws IOException if the channel cannot be written
+     */
+    @Override
+    public void writeTo(WritableByteChannel channel, Codec<? super T> codec) throws IOException
+    {
+        table.writeTo(channel, codec);
+    }
+}
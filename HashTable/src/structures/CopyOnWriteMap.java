@@ -0,0 +1,173 @@
+package structures;
+
+import helpers.KeyValuePair;
+import interfaces.ICollection;
+import interfaces.IMap;
+import interfaces.ISet;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * A thread safe map for data that is read constantly and rebuilt rarely,
+ * such as routing tables. It holds a FrozenMap snapshot in a volatile field:
+ * every read goes to the current snapshot without any locking, and every
+ * write builds a new snapshot and swaps it in atomically, so readers never
+ * see a half applied change.
+ *
+ * A single add or remove copies the whole map, so changes should be
+ * batched with update or replaced wholesale with publish.
+ *
+ * @param <K> the type of key stored
+ * @param <V> the type of value stored
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class CopyOnWriteMap<K, V> implements IMap<K, V>
+{
+    private volatile FrozenMap<K, V> snapshot;
+
+    /**
+     * Creates an empty map.
+     */
+    public CopyOnWriteMap()
+    {
+        this(new Map<>());
+    }
+
+    /**
+     * Creates a map holding the given key/value pairs.
+     * @param pairs the initial key/value pairs
+     */
+    public CopyOnWriteMap(Iterable<? extends KeyValuePair<K, V>> pairs)
+    {
+        snapshot = FrozenMap.copyOf(pairs);
+    }
+
+    /**
+     * Returns the current snapshot, e.g. to make several lookups against
+     * the same version of the map.
+     * @return the current frozen snapshot
+     */
+    public FrozenMap<K, V> snapshot()
+    {
+        return snapshot;
+    }
+
+    /**
+     * Replaces the whole map with the given key/value pairs. The new
+     * snapshot is built before any lock is taken, so readers and other
+     * writers are not held up while it is packed.
+     * @param pairs the key/value pairs of the new version of the map
+     */
+    public void publish(Iterable<? extends KeyValuePair<K, V>> pairs)
+    {
+        FrozenMap<K, V> frozen = FrozenMap.copyOf(pairs);
+        synchronized(this) {
+            snapshot = frozen;
+        }
+    }
+
+    /**
+     * Applies a batch of changes to a mutable copy of the map and then swaps
+     * the result in, so the whole batch costs a single copy and readers see
+     * either none or all of it.
+     * @param changes the changes to make to the copy
+     */
+    public synchronized void update(Consumer<? super Map<K, V>> changes)
+    {
+        Map<K, V> copy = new Map<>(snapshot.size());
+        copy.addAll(snapshot);
+        changes.accept(copy);
+        snapshot = copy.freeze();
+    }
+
+    /**
+     * Adds a key/value pair by copying the map. Use update to add many.
+     * @param key the key
+     * @param value the value
+     */
+    @Override
+    public void add(K key, V value)
+    {
+        update(map -> map.add(key, value));
+    }
+
+    /**
+     * Removes a key by copying the map. Use update to remove many.
+     * @param key the key
+     */
+    @Override
+    public synchronized void remove(K key)
+    {
+        //a missing key leaves the map unchanged without copying it
+        if(snapshot.keyExists(key)) {
+            update(map -> map.remove(key));
+        }
+    }
+
+    @Override
+    public synchronized void clear()
+    {
+        snapshot = new Map<K, V>().freeze();
+    }
+
+    @Override
+    public V get(K key)
+    {
+        return snapshot.get(key);
+    }
+
+    @Override
+    public boolean keyExists(K key)
+    {
+        return snapshot.keyExists(key);
+    }
+
+    @Override
+    public boolean valueExists(V value)
+    {
+        return snapshot.valueExists(value);
+    }
+
+    @Override
+    public int size()
+    {
+        return snapshot.size();
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return snapshot.isEmpty();
+    }
+
+    /**
+     * Returns an iterator over the snapshot current when it is created,
+     * which later writes do not affect.
+     * @return an iterator over the key/value pairs
+     */
+    @Override
+    public Iterator<KeyValuePair<K, V>> iterator()
+    {
+        return snapshot.iterator();
+    }
+
+    @Override
+    public ISet<K> keyset()
+    {
+        return snapshot.keyset();
+    }
+
+    @Override
+    public ICollection<V> values()
+    {
+        return snapshot.values();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CopyOnWriteMap{size=" + snapshot.size() + '}';
+    }
+}
@@ -0,0 +1,367 @@
+package structures;
+
+import hashtable.HashStrategy;
+import hashtable.HashTable;
+import hashtable.TimerWheel;
+import helpers.KeyValuePair;
+import interfaces.ICollection;
+import interfaces.IMap;
+import interfaces.ISet;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A map whose pairs expire a time to live after they were last added, e.g.
+ * a session store. Each pair is given the map's default time to live or
+ * its own, and is never returned once that time has passed.
+ *
+ * Every entry is both a HashTable element and a timer on a TimerWheel, so
+ * instead of sweeping the whole table for stale pairs, each operation
+ * advances the wheel to the current time and removes just the pairs that
+ * came due, which is constant time per expired pair. Since the wheel may
+ * fire up to a second or so late, get, keyExists and iteration also check
+ * the deadline of the pair they find, and size may count pairs that expired
+ * moments ago until the wheel reaches them. The map is not thread safe.
+ *
+ * @param <K> the type of key stored
+ * @param <V> the type of value stored
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class ExpiringMap<K, V> implements IMap<K, V>
+{
+    private static final HashStrategy<Object> KEY_STRATEGY = HashStrategy.defaultStrategy();
+    private final HashTable<Entry<K, V>> table;
+    private final TimerWheel<Entry<K, V>> wheel;
+    private final long defaultTimeToLive;
+    private final LongSupplier ticker;
+    //reused for every lookup so that reads allocate nothing
+    private final Entry<K, V> probe = new Entry<>(null, null);
+    private long expirationCount;
+    private int modCount;
+
+    /**
+     * Creates a map whose pairs expire the given time after they are added,
+     * timed with System.nanoTime().
+     * @param defaultTimeToLive how long pairs are kept by default
+     * @param unit the unit of the time to live
+     */
+    public ExpiringMap(long defaultTimeToLive, TimeUnit unit)
+    {
+        this(defaultTimeToLive, unit, System::nanoTime);
+    }
+
+    /**
+     * Creates a map whose pairs expire the given time after they are added,
+     * timed with the given clock, e.g. a fake one for tests.
+     * @param defaultTimeToLive how long pairs are kept by default
+     * @param unit the unit of the time to live
+     * @param ticker returns the current time in nanoseconds
+     */
+    public ExpiringMap(long defaultTimeToLive, TimeUnit unit, LongSupplier ticker)
+    {
+        this.defaultTimeToLive = toNanos(defaultTimeToLive, unit);
+        this.ticker = ticker;
+        this.table = new HashTable<>(entry -> KEY_STRATEGY.hash(entry.key));
+        this.wheel = new TimerWheel<>(ticker.getAsLong());
+    }
+
+    /**
+     * Adds the key/value pair with the default time to live, replacing the
+     * value and restarting the time to live of a key that already exists.
+     * @param key the key
+     * @param value the value
+     */
+    @Override
+    public void add(K key, V value)
+    {
+        add(key, value, defaultTimeToLive, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Adds the key/value pair with its own time to live, replacing the value
+     * and restarting the time to live of a key that already exists.
+     * @param key the key
+     * @param value the value
+     * @param timeToLive how long the pair is kept
+     * @param unit the unit of the time to live
+     */
+    public void add(K key, V value, long timeToLive, TimeUnit unit)
+    {
+        long nanos = toNanos(timeToLive, unit);
+        long now = expire();
+
+        probe.key = key;
+        Entry<K, V> entry = table.find(probe);
+        probe.key = null;
+        if(entry != null) {
+            entry.value = value;
+        }
+        else {
+            entry = new Entry<>(key, value);
+            table.add(entry);
+            modCount++;
+        }
+        wheel.schedule(entry, now + nanos);
+    }
+
+    /**
+     * Removes a key (and the associated value) from the map. If no key is
+     * found matching the input parameter, then no change is made to the map.
+     * @param key the key
+     */
+    @Override
+    public void remove(K key)
+    {
+        expire();
+        probe.key = key;
+        Entry<K, V> entry = table.find(probe);
+        probe.key = null;
+        if(entry != null) {
+            removeEntry(entry);
+        }
+    }
+
+    /**
+     * Returns the value associated with the key, or null if the key is not
+     * in the map or its pair has expired.
+     * @param key the key
+     * @return the value
+     */
+    @Override
+    public V get(K key)
+    {
+        Entry<K, V> entry = findLive(key);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Reports whether the key is in the map and its pair has not expired.
+     * @param key the key
+     * @return true if the key is in the map, otherwise false
+     */
+    @Override
+    public boolean keyExists(K key)
+    {
+        return findLive(key) != null;
+    }
+
+    /**
+     * Returns the time left before the key's pair expires.
+     * @param key the key
+     * @param unit the unit to return the time in
+     * @return the time left, or -1 if the key is not in the map
+     */
+    public long timeToLive(K key, TimeUnit unit)
+    {
+        Entry<K, V> entry = findLive(key);
+        if(entry == null) {
+            return -1;
+        }
+        return unit.convert(entry.deadline() - wheel.nanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public boolean valueExists(V value)
+    {
+        for(KeyValuePair<K, V> pair : this) {
+            if(Objects.equals(pair.getValue(), value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int size()
+    {
+        expire();
+        return table.size();
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    @Override
+    public void clear()
+    {
+        table.clear();
+        wheel.clear();
+        modCount++;
+    }
+
+    /**
+     * Removes the pairs that have come due on the wheel without doing
+     * anything else, e.g. from a timer when the map sits idle.
+     */
+    public void cleanUp()
+    {
+        expire();
+    }
+
+    /**
+     * Returns the number of pairs removed because they expired.
+     * @return the expiration count
+     */
+    public long expirationCount()
+    {
+        return expirationCount;
+    }
+
+    /**
+     * Returns an iterator over the pairs that have not expired.
+     * @return an iterator over the key/value pairs
+     */
+    @Override
+    public Iterator<KeyValuePair<K, V>> iterator()
+    {
+        long now = expire();
+        Iterator<Entry<K, V>> entries = table.iterator();
+        return new Iterator<KeyValuePair<K, V>>()
+        {
+            private final int currentModCount = modCount;
+            private Entry<K, V> nextEntry = advance();
+
+            //skip the pairs the wheel has not reached yet
+            private Entry<K, V> advance()
+            {
+                while(entries.hasNext()) {
+                    Entry<K, V> entry = entries.next();
+                    if(entry.deadline() - now > 0) {
+                        return entry;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext()
+            {
+                if(currentModCount != modCount) {
+                    throw new ConcurrentModificationException("Cannot modify map while iterating");
+                }
+                return nextEntry != null;
+            }
+
+            @Override
+            public KeyValuePair<K, V> next()
+            {
+                if(!hasNext()) {
+                    throw new NoSuchElementException("No pairs left in the map");
+                }
+                KeyValuePair<K, V> pair = new KeyValuePair<>(nextEntry.key, nextEntry.value);
+                nextEntry = advance();
+                return pair;
+            }
+        };
+    }
+
+    @Override
+    public ISet<K> keyset()
+    {
+        ISet<K> temp = new Set<>(table.size());
+        for(KeyValuePair<K, V> pair : this) {
+            temp.add(pair.getKey());
+        }
+        return temp;
+    }
+
+    @Override
+    public ICollection<V> values()
+    {
+        ICollection<V> temp = new Set<>(table.size());
+        for(KeyValuePair<K, V> pair : this) {
+            temp.add(pair.getValue());
+        }
+        return temp;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ExpiringMap{size=" + table.size() + ", defaultTimeToLive=" + defaultTimeToLive
+                + "ns, expirations=" + expirationCount + '}';
+    }
+
+    //advance the wheel to the current time and drop the pairs that came due
+    private long expire()
+    {
+        long now = ticker.getAsLong();
+        wheel.advance(now, this::expireEntry);
+        return now;
+    }
+
+    private void expireEntry(Entry<K, V> entry)
+    {
+        table.remove(entry);
+        expirationCount++;
+        modCount++;
+    }
+
+    private void removeEntry(Entry<K, V> entry)
+    {
+        wheel.cancel(entry);
+        table.remove(entry);
+        modCount++;
+    }
+
+    //find the entry for the key, removing it if it expired before the wheel got to it
+    private Entry<K, V> findLive(K key)
+    {
+        long now = expire();
+        probe.key = key;
+        Entry<K, V> entry = table.find(probe);
+        probe.key = null;
+        if(entry == null) {
+            return null;
+        }
+        if(entry.deadline() - now <= 0) {
+            removeEntry(entry);
+            expirationCount++;
+            return null;
+        }
+        return entry;
+    }
+
+    private static long toNanos(long timeToLive, TimeUnit unit)
+    {
+        if(timeToLive <= 0) {
+            throw new IllegalArgumentException("Time to live must be positive: " + timeToLive);
+        }
+        return unit.toNanos(timeToLive);
+    }
+
+    //a table element that is also a timer on the wheel,
+    //equal to any other entry with the same key
+    private static final class Entry<K, V> extends TimerWheel.Timer
+    {
+        private K key;
+        private V value;
+
+        private Entry(K key, V value)
+        {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            return other instanceof Entry && Objects.equals(key, ((Entry<?, ?>) other).key);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hashCode(key);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package structures;
+
+import helpers.KeyValuePair;
+import interfaces.ICollection;
+import interfaces.IMap;
+import interfaces.ISet;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * An immutable map packed into flat arrays for fast lookups from any number
+ * of threads. The keys are packed like a FrozenSet and the values are kept
+ * in a parallel array at the same positions, so a lookup never touches a
+ * node or a KeyValuePair. Nothing is written after construction, so lookups
+ * need no synchronization.
+ *
+ * Every method that would change the map throws an UnsupportedOperationException.
+ *
+ * @param <K> the type of key stored
+ * @param <V> the type of value stored
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public final class FrozenMap<K, V> implements IMap<K, V>
+{
+    private final FrozenSet<K> keys;
+    private final Object[] values;
+
+    private FrozenMap(Object[] keys, Object[] values)
+    {
+        this.keys = new FrozenSet<>(keys, values);
+        this.values = values;
+    }
+
+    /**
+     * Returns a frozen map holding the key/value pairs of the source, e.g.
+     * a Map that has just been rebuilt. When the source holds the same key
+     * more than once the last pair wins.
+     * @param source the key/value pairs to freeze
+     * @param <K> the type of key stored
+     * @param <V> the type of value stored
+     * @return a frozen map of the pairs
+     */
+    public static <K, V> FrozenMap<K, V> copyOf(Iterable<? extends KeyValuePair<K, V>> source)
+    {
+        if(source instanceof FrozenMap) {
+            @SuppressWarnings("unchecked")
+            FrozenMap<K, V> frozen = (FrozenMap<K, V>) source;
+            return frozen;
+        }
+
+        //anything but a map might hold a key more than once
+        if(!(source instanceof IMap)) {
+            Map<K, V> map = new Map<>();
+            map.addAll(source);
+            source = map;
+        }
+
+        //a concurrent source may change size while it is copied
+        int capacity = ((IMap<?, ?>) source).size();
+        Object[] keys = new Object[capacity];
+        Object[] values = new Object[capacity];
+        int count = 0;
+        for(KeyValuePair<K, V> pair : source) {
+            if(count == keys.length) {
+                keys = Arrays.copyOf(keys, count * 2 + 1);
+                values = Arrays.copyOf(values, count * 2 + 1);
+            }
+            keys[count] = pair.getKey();
+            values[count++] = pair.getValue();
+        }
+        return new FrozenMap<>(Arrays.copyOf(keys, count), Arrays.copyOf(values, count));
+    }
+
+    /**
+     * Frozen maps cannot be changed.
+     * @param key ignored
+     * @param value ignored
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void add(K key, V value)
+    {
+        throw new UnsupportedOperationException("Cannot add to a frozen map");
+    }
+
+    /**
+     * Frozen maps cannot be changed.
+     * @param key ignored
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void remove(K key)
+    {
+        throw new UnsupportedOperationException("Cannot remove from a frozen map");
+    }
+
+    /**
+     * Frozen maps cannot be changed.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void clear()
+    {
+        throw new UnsupportedOperationException("Cannot clear a frozen map");
+    }
+
+    @Override
+    public V get(K key)
+    {
+        //the value sits at the same position as its key
+        int index = keys.indexOf(key);
+        return index < 0 ? null : valueAt(index);
+    }
+
+    @Override
+    public boolean keyExists(K key)
+    {
+        return keys.indexOf(key) >= 0;
+    }
+
+    @Override
+    public boolean valueExists(V value)
+    {
+        for(Object stored : values) {
+            if(Objects.equals(stored, value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int size()
+    {
+        return values.length;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return values.length == 0;
+    }
+
+    @Override
+    public Iterator<KeyValuePair<K, V>> iterator()
+    {
+        return new Iterator<KeyValuePair<K, V>>()
+        {
+            private int currentIndex;
+
+            @Override
+            public boolean hasNext()
+            {
+                return currentIndex < values.length;
+            }
+
+            @Override
+            public KeyValuePair<K, V> next()
+            {
+                if(!hasNext()) {
+                    throw new NoSuchElementException("No pairs left in the map");
+                }
+                KeyValuePair<K, V> pair = new KeyValuePair<>(keys.elementAt(currentIndex), valueAt(currentIndex));
+                currentIndex++;
+                return pair;
+            }
+        };
+    }
+
+    /**
+     * Returns the keys of the map, which are already a frozen set.
+     * @return the frozen set of keys
+     */
+    @Override
+    public ISet<K> keyset()
+    {
+        return keys;
+    }
+
+    @Override
+    public ICollection<V> values()
+    {
+        ICollection<V> temp = new Set<>(values.length);
+        for(int i = 0; i < values.length; i++) {
+            temp.add(valueAt(i));
+        }
+        return temp;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int index)
+    {
+        return (V) values[index];
+    }
+
+    @Override
+    public String toString()
+    {
+        return "FrozenMap{size=" + values.length + '}';
+    }
+}
@@ -0,0 +1,290 @@
+package structures;
+
+import hashtable.HashStrategy;
+import hashtable.HashTable;
+import interfaces.IHashTable;
+import interfaces.ISet;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable set packed into flat arrays for fast lookups from any number
+ * of threads. The elements are stored grouped by bucket in one array with no
+ * empty slots, their hashes in a parallel int array and the start of each
+ * bucket in an offsets array, so a lookup reads two offsets and then scans a
+ * short contiguous run comparing hashes before calling equals. Nothing is
+ * written after construction, so lookups need no synchronization.
+ *
+ * Every method that would change the set throws an UnsupportedOperationException,
+ * the set operations return new ordinary Sets.
+ *
+ * @param <T> the type of element stored
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public final class FrozenSet<T> implements ISet<T>
+{
+    private static final int MAXIMUM_BUCKETS = 1 << 30;
+    private static final HashStrategy<Object> STRATEGY = HashStrategy.defaultStrategy();
+    private final Object[] elements;
+    private final int[] hashes;
+    private final int[] bucketStarts;
+    private final int mask;
+
+    /**
+     * Packs the elements into a frozen set, moving each entry of the
+     * parallel values array (if any) along with its element so FrozenMap
+     * can look values up by the index of their key.
+     * @param elements the distinct elements
+     * @param values values to keep aligned with the elements, reordered in
+     *               place, or null
+     */
+    FrozenSet(Object[] elements, Object[] values)
+    {
+        int size = elements.length;
+
+        //one bucket per element rounded up to a power of two keeps runs short
+        int buckets = 1;
+        while(buckets < size && buckets < MAXIMUM_BUCKETS) {
+            buckets *= 2;
+        }
+        mask = buckets - 1;
+
+        //count the elements of each bucket, then turn the counts into start offsets
+        int[] sourceHashes = new int[size];
+        bucketStarts = new int[buckets + 1];
+        for(int i = 0; i < size; i++) {
+            sourceHashes[i] = STRATEGY.hash(elements[i]);
+            bucketStarts[(sourceHashes[i] & mask) + 1]++;
+        }
+        for(int i = 0; i < buckets; i++) {
+            bucketStarts[i + 1] += bucketStarts[i];
+        }
+
+        //place every element at the next free position of its bucket
+        this.elements = new Object[size];
+        this.hashes = new int[size];
+        Object[] sourceValues = values != null ? values.clone() : null;
+        int[] next = new int[buckets];
+        System.arraycopy(bucketStarts, 0, next, 0, buckets);
+        for(int i = 0; i < size; i++) {
+            int index = next[sourceHashes[i] & mask]++;
+            this.elements[index] = elements[i];
+            this.hashes[index] = sourceHashes[i];
+            if(values != null) {
+                values[index] = sourceValues[i];
+            }
+        }
+    }
+
+    /**
+     * Returns a frozen set holding the elements of the source. Sets and hash
+     * tables are packed in a single pass over their elements, any other
+     * source is first collected into a HashTable to drop duplicates.
+     * @param source the elements to freeze
+     * @param <T> the type of element stored
+     * @return a frozen set of the elements
+     */
+    public static <T> FrozenSet<T> copyOf(Iterable<? extends T> source)
+    {
+        if(source instanceof FrozenSet) {
+            @SuppressWarnings("unchecked")
+            FrozenSet<T> frozen = (FrozenSet<T>) source;
+            return frozen;
+        }
+
+        //anything that might hold duplicates goes through a HashTable first
+        if(!(source instanceof ISet) && !(source instanceof IHashTable)) {
+            HashTable<T> table = new HashTable<>();
+            table.addAll(source);
+            source = table;
+        }
+
+        //a concurrent source may change size while it is copied
+        Object[] elements = new Object[IHashTable.sizeOf(source)];
+        int count = 0;
+        for(T element : source) {
+            if(count == elements.length) {
+                elements = Arrays.copyOf(elements, count * 2 + 1);
+            }
+            elements[count++] = element;
+        }
+        return new FrozenSet<>(Arrays.copyOf(elements, count), null);
+    }
+
+    //returns the position of the element in the packed array, or -1
+    int indexOf(Object element)
+    {
+        int hash = STRATEGY.hash(element);
+        int bucket = hash & mask;
+        for(int i = bucketStarts[bucket]; i < bucketStarts[bucket + 1]; i++) {
+            if(hashes[i] == hash && elements[i].equals(element)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    T elementAt(int index)
+    {
+        return (T) elements[index];
+    }
+
+    /**
+     * Frozen sets cannot be changed.
+     * @param element ignored
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void add(T element)
+    {
+        throw new UnsupportedOperationException("Cannot add to a frozen set");
+    }
+
+    /**
+     * Frozen sets cannot be changed.
+     * @param element ignored
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void remove(T element)
+    {
+        throw new UnsupportedOperationException("Cannot remove from a frozen set");
+    }
+
+    /**
+     * Frozen sets cannot be changed.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void clear()
+    {
+        throw new UnsupportedOperationException("Cannot clear a frozen set");
+    }
+
+    @Override
+    public boolean contains(T element)
+    {
+        return indexOf(element) >= 0;
+    }
+
+    @Override
+    public T get(T element)
+    {
+        //return the stored element equal to the given one, or null
+        int index = indexOf(element);
+        return index < 0 ? null : elementAt(index);
+    }
+
+    @Override
+    public int size()
+    {
+        return elements.length;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return elements.length == 0;
+    }
+
+    @Override
+    public Iterator<T> iterator()
+    {
+        return new Iterator<T>()
+        {
+            private int currentIndex;
+
+            @Override
+            public boolean hasNext()
+            {
+                return currentIndex < elements.length;
+            }
+
+            @Override
+            public T next()
+            {
+                if(!hasNext()) {
+                    throw new NoSuchElementException("No elements left in the set");
+                }
+                return elementAt(currentIndex++);
+            }
+        };
+    }
+
+    @Override
+    public ISet<T> union(ISet<T> other)
+    {
+        Set<T> temp = new Set<>(size() + other.size());
+        temp.addAll(this);
+        temp.addAll(other);
+        return temp;
+    }
+
+    @Override
+    public ISet<T> intersects(ISet<T> other)
+    {
+        //loop through the smaller set and probe the larger one for each element
+        ISet<T> smaller = size() <= other.size() ? this : other;
+        ISet<T> larger = smaller == this ? other : this;
+
+        ISet<T> temp = new Set<>(smaller.size());
+        for(T element : smaller) {
+            if(larger.contains(element)) {
+                temp.add(element);
+            }
+        }
+        return temp;
+    }
+
+    @Override
+    public ISet<T> difference(ISet<T> other)
+    {
+        ISet<T> temp = new Set<>(size());
+        for(Object element : elements) {
+            @SuppressWarnings("unchecked")
+            T typed = (T) element;
+            if(!other.contains(typed)) {
+                temp.add(typed);
+            }
+        }
+        return temp;
+    }
+
+    @Override
+    public boolean isSubset(ISet<T> other)
+    {
+        for(T element : other) {
+            if(!contains(element)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isDisjoint(ISet<T> other)
+    {
+        for(T element : other) {
+            if(contains(element)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isEmptySet()
+    {
+        return isEmpty();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "FrozenSet{size=" + elements.length + ", buckets=" + (mask + 1) + '}';
+    }
+}
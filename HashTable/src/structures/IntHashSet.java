@@ -0,0 +1,422 @@
+package structures;
+
+import hashtable.HashStrategy;
+
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * A set of int values stored unboxed in a flat open addressing array with
+ * linear probing. It offers the operations of ISet with int parameters so
+ * that adding and searching never allocate. An empty slot holds 0, and the
+ * value 0 itself is tracked by a flag outside of the array, so every int
+ * value can be stored.
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class IntHashSet implements Iterable<Integer>
+{
+    private static final int INITIAL_TABLE_SIZE = 16;
+    private static final double LOAD_FACTOR = 0.5;
+    private static final double SHRINK_THRESHOLD = 0.125;
+    private static final int MAXIMUM_TABLE_SIZE = 1 << 30;
+    private int[] elements;
+    private int mask;
+    private int assigned;
+    private boolean containsZero;
+    private int modCount;
+
+    /**
+     * Creates an empty set.
+     */
+    public IntHashSet()
+    {
+        this(0);
+    }
+
+    /**
+     * Creates an empty set sized up front so the expected number of
+     * elements can be added without any resize.
+     * @param expectedSize the number of elements the set is expected to hold
+     */
+    public IntHashSet(int expectedSize)
+    {
+        if(expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative: " + expectedSize);
+        }
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * Adds an element to the set, ignoring it if it is already in the set.
+     * @param element the element to add
+     */
+    public void add(int element)
+    {
+        if(element == 0) {
+            if(!containsZero) {
+                containsZero = true;
+                modCount++;
+            }
+            return;
+        }
+
+        resizeIfNeeded();
+        int index = probe(element);
+        if(elements[index] == 0) {
+            elements[index] = element;
+            assigned++;
+            modCount++;
+        }
+    }
+
+    /**
+     * Adds every element of the array to the set, sizing the table once
+     * up front.
+     * @param source the elements to add
+     */
+    public void addAll(int[] source)
+    {
+        ensureCapacity((long) assigned + source.length);
+        for(int element : source) {
+            add(element);
+        }
+    }
+
+    /**
+     * Finds and removes an element from the set.
+     * @param element the element to remove
+     * @throws NoSuchElementException thrown when the element is not in the set
+     */
+    public void remove(int element)
+    {
+        if(element == 0) {
+            if(!containsZero) {
+                throw new NoSuchElementException("No element " + element + " found");
+            }
+            containsZero = false;
+            modCount++;
+            return;
+        }
+
+        int index = probe(element);
+        if(elements[index] == 0) {
+            throw new NoSuchElementException("No element " + element + " found");
+        }
+
+        //shift the following elements of the run back so that every element
+        //is still reachable from its home slot without leaving a tombstone
+        int next = (index + 1) & mask;
+        while(elements[next] != 0) {
+            int home = homeSlot(elements[next]);
+            if(((next - home) & mask) >= ((next - index) & mask)) {
+                elements[index] = elements[next];
+                index = next;
+            }
+            next = (next + 1) & mask;
+        }
+        elements[index] = 0;
+
+        assigned--;
+        modCount++;
+        shrinkIfNeeded();
+    }
+
+    /**
+     * Reports whether the set contains an element.
+     * @param element the element to search for
+     * @return true if the element is found, otherwise false
+     */
+    public boolean contains(int element)
+    {
+        if(element == 0) {
+            return containsZero;
+        }
+        return elements[probe(element)] != 0;
+    }
+
+    /**
+     * Returns the number of elements in the set.
+     * @return the number of elements
+     */
+    public int size()
+    {
+        return containsZero ? assigned + 1 : assigned;
+    }
+
+    /**
+     * Reports whether the set is empty or not.
+     * @return true if the set is empty, otherwise false
+     */
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    /**
+     * Removes all elements from the set.
+     */
+    public void clear()
+    {
+        allocate(INITIAL_TABLE_SIZE);
+        assigned = 0;
+        containsZero = false;
+        modCount++;
+    }
+
+    /**
+     * Shrinks the set to the smallest table that holds its current elements.
+     */
+    public void trimToSize()
+    {
+        int length = tableSizeFor(assigned);
+        if(length < elements.length) {
+            resize(length);
+        }
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt iterator()
+    {
+        return new SlotIterator();
+    }
+
+    /**
+     * Returns a new set with the union of this set and the input parameter.
+     * @param other the other set to join with this set
+     * @return the union of two sets
+     */
+    public IntHashSet union(IntHashSet other)
+    {
+        IntHashSet temp = new IntHashSet(size() + other.size());
+        temp.addAll(this);
+        temp.addAll(other);
+        return temp;
+    }
+
+    /**
+     * Returns a new set with the intersection of this set and the input
+     * parameter. The smaller set is iterated and the larger one probed.
+     * @param other the other set to join with this set
+     * @return the intersection of two sets
+     */
+    public IntHashSet intersects(IntHashSet other)
+    {
+        IntHashSet smaller = size() <= other.size() ? this : other;
+        IntHashSet larger = smaller == this ? other : this;
+
+        IntHashSet temp = new IntHashSet(smaller.size());
+        for(PrimitiveIterator.OfInt iterator = smaller.iterator(); iterator.hasNext(); ) {
+            int element = iterator.nextInt();
+            if(larger.contains(element)) {
+                temp.add(element);
+            }
+        }
+        return temp;
+    }
+
+    /**
+     * Returns a new set with the difference between this set and the input
+     * set (i.e. this - other).
+     * @param other the other set to use in the difference operation
+     * @return the difference of two sets
+     */
+    public IntHashSet difference(IntHashSet other)
+    {
+        IntHashSet temp = new IntHashSet(size());
+        for(PrimitiveIterator.OfInt iterator = iterator(); iterator.hasNext(); ) {
+            int element = iterator.nextInt();
+            if(!other.contains(element)) {
+                temp.add(element);
+            }
+        }
+        return temp;
+    }
+
+    /**
+     * Reports whether the input set is a subset of this set.
+     * @param other the subset candidate
+     * @return true if other is a subset of this set, otherwise false
+     */
+    public boolean isSubset(IntHashSet other)
+    {
+        for(PrimitiveIterator.OfInt iterator = other.iterator(); iterator.hasNext(); ) {
+            if(!contains(iterator.nextInt())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reports whether this set and the input set are disjoint.
+     * @param other the other set to consider
+     * @return true if both sets are disjoint, otherwise false
+     */
+    public boolean isDisjoint(IntHashSet other)
+    {
+        for(PrimitiveIterator.OfInt iterator = other.iterator(); iterator.hasNext(); ) {
+            if(contains(iterator.nextInt())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reports whether this set is an empty set.
+     * @return true if this set is empty, otherwise false
+     */
+    public boolean isEmptySet()
+    {
+        return isEmpty();
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder("IntHashSet{elements=[");
+        for(PrimitiveIterator.OfInt iterator = iterator(); iterator.hasNext(); ) {
+            builder.append(iterator.nextInt());
+            if(iterator.hasNext()) {
+                builder.append(", ");
+            }
+        }
+        return builder.append("], size=").append(size()).append('}').toString();
+    }
+
+    //add every element of another set after sizing the table for all of them
+    private void addAll(IntHashSet other)
+    {
+        ensureCapacity((long) assigned + other.assigned);
+        for(PrimitiveIterator.OfInt iterator = other.iterator(); iterator.hasNext(); ) {
+            add(iterator.nextInt());
+        }
+    }
+
+    private void allocate(int length)
+    {
+        elements = new int[length];
+        mask = length - 1;
+    }
+
+    //the smallest power of two table that holds the expected number of
+    //elements without going over the load factor, shared by the primitive
+    //sets and maps so they all size their tables alike. The expected size is
+    //a long so callers can add two sizes without the sum wrapping around
+    static int tableSizeFor(long expectedSize)
+    {
+        long slots = (long) Math.ceil(Math.max(expectedSize, 0) / LOAD_FACTOR);
+        int length = INITIAL_TABLE_SIZE;
+        while(length < slots && length < MAXIMUM_TABLE_SIZE) {
+            length *= 2;
+        }
+        return length;
+    }
+
+    private int homeSlot(int element)
+    {
+        return HashStrategy.mix(element) & mask;
+    }
+
+    //returns the slot holding the element, or the empty slot that ends its run
+    private int probe(int element)
+    {
+        int index = homeSlot(element);
+        while(elements[index] != 0 && elements[index] != element) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void ensureCapacity(long expectedSize)
+    {
+        int length = tableSizeFor(expectedSize);
+        if(length > elements.length) {
+            resize(length);
+        }
+    }
+
+    private void resizeIfNeeded()
+    {
+        if(assigned + 1 > elements.length * LOAD_FACTOR) {
+            if(elements.length == MAXIMUM_TABLE_SIZE) {
+                throw new IllegalStateException("IntHashSet cannot grow past " + MAXIMUM_TABLE_SIZE + " slots");
+            }
+            resize(elements.length * 2);
+        }
+    }
+
+    private void shrinkIfNeeded()
+    {
+        if(elements.length > INITIAL_TABLE_SIZE && assigned < elements.length * SHRINK_THRESHOLD) {
+            resize(tableSizeFor(assigned * 2L));
+        }
+    }
+
+    //move every element into a new table of the given length
+    private void resize(int length)
+    {
+        int[] old = elements;
+        allocate(length);
+        for(int element : old) {
+            if(element != 0) {
+                int index = homeSlot(element);
+                while(elements[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                elements[index] = element;
+            }
+        }
+        modCount++;
+    }
+
+    private class SlotIterator implements PrimitiveIterator.OfInt
+    {
+        private int currentModCount = modCount;
+        private boolean zeroPending = containsZero;
+        private int currentIndex = -1;
+
+        public SlotIterator()
+        {
+            findNextIndex();
+        }
+
+        private void findNextIndex()
+        {
+            do {
+                currentIndex++;
+            }
+            while(currentIndex < elements.length && elements[currentIndex] == 0);
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if(currentModCount != modCount) {
+                throw new ConcurrentModificationException("Cannot modify set while iterating");
+            }
+            return zeroPending || currentIndex < elements.length;
+        }
+
+        @Override
+        public int nextInt()
+        {
+            if(!hasNext()) {
+                throw new NoSuchElementException("No elements left in the set");
+            }
+
+            //the element 0 is not in the table, so it is returned first
+            if(zeroPending) {
+                zeroPending = false;
+                return 0;
+            }
+
+            int element = elements[currentIndex];
+            findNextIndex();
+            return element;
+        }
+    }
+}
@@ -0,0 +1,425 @@
+package structures;
+
+import hashtable.HashStrategy;
+import helpers.KeyValuePair;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * A map from int keys to int values stored unboxed in flat parallel arrays
+ * with linear probing. It offers the operations of IMap with int parameters
+ * so that adding and looking up pairs never allocate. An empty slot holds
+ * the key 0, and the key 0 itself is tracked by a flag outside of the
+ * arrays, so every int value can be used as a key.
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class IntIntMap implements Iterable<KeyValuePair<Integer, Integer>>
+{
+    private static final int INITIAL_TABLE_SIZE = 16;
+    private static final double LOAD_FACTOR = 0.5;
+    private static final double SHRINK_THRESHOLD = 0.125;
+    private static final int MAXIMUM_TABLE_SIZE = 1 << 30;
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int assigned;
+    private boolean containsZeroKey;
+    private int zeroKeyValue;
+    private int modCount;
+
+    /**
+     * Creates an empty map.
+     */
+    public IntIntMap()
+    {
+        this(0);
+    }
+
+    /**
+     * Creates an empty map sized up front so the expected number of pairs
+     * can be added without any resize.
+     * @param expectedSize the number of pairs the map is expected to hold
+     */
+    public IntIntMap(int expectedSize)
+    {
+        if(expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative: " + expectedSize);
+        }
+        allocate(IntHashSet.tableSizeFor(expectedSize));
+    }
+
+    /**
+     * Adds a key/value pair to the map. If the key already exists in the
+     * map then this will update the value associated with the key.
+     * @param key the key
+     * @param value the value
+     */
+    public void add(int key, int value)
+    {
+        if(key == 0) {
+            if(!containsZeroKey) {
+                containsZeroKey = true;
+                modCount++;
+            }
+            zeroKeyValue = value;
+            return;
+        }
+
+        resizeIfNeeded();
+        int index = probe(key);
+        if(keys[index] == 0) {
+            keys[index] = key;
+            assigned++;
+            modCount++;
+        }
+        values[index] = value;
+    }
+
+    /**
+     * Adds the key/value pair when the key is not in the map, otherwise
+     * replaces the value with the result of combining the existing value
+     * and the given value (e.g. Integer::sum for counters).
+     * @param key the key
+     * @param value the value to add or combine
+     * @param remapping combines the existing value with the given value
+     * @return the value associated with the key afterwards
+     */
+    public int merge(int key, int value, IntBinaryOperator remapping)
+    {
+        if(key == 0) {
+            if(containsZeroKey) {
+                zeroKeyValue = remapping.applyAsInt(zeroKeyValue, value);
+            }
+            else {
+                add(key, value);
+            }
+            return zeroKeyValue;
+        }
+
+        resizeIfNeeded();
+        int index = probe(key);
+        if(keys[index] == 0) {
+            keys[index] = key;
+            values[index] = value;
+            assigned++;
+            modCount++;
+        }
+        else {
+            values[index] = remapping.applyAsInt(values[index], value);
+        }
+        return values[index];
+    }
+
+    /**
+     * Removes a key (and the associated value) from the map. If no key is
+     * found matching the input parameter, then no change is made to the map.
+     * @param key the key
+     */
+    public void remove(int key)
+    {
+        if(key == 0) {
+            if(containsZeroKey) {
+                containsZeroKey = false;
+                zeroKeyValue = 0;
+                modCount++;
+            }
+            return;
+        }
+
+        int index = probe(key);
+        if(keys[index] == 0) {
+            return;
+        }
+
+        //shift the following pairs of the run back so that every key is
+        //still reachable from its home slot without leaving a tombstone
+        int next = (index + 1) & mask;
+        while(keys[next] != 0) {
+            int home = homeSlot(keys[next]);
+            if(((next - home) & mask) >= ((next - index) & mask)) {
+                keys[index] = keys[next];
+                values[index] = values[next];
+                index = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[index] = 0;
+        values[index] = 0;
+
+        assigned--;
+        modCount++;
+        shrinkIfNeeded();
+    }
+
+    /**
+     * Returns the value associated with a key, or 0 when the key is not in
+     * the map. Use getOrDefault or keyExists to tell a missing key apart
+     * from a stored 0.
+     * @param key the key
+     * @return the value associated with the key
+     */
+    public int get(int key)
+    {
+        return getOrDefault(key, 0);
+    }
+
+    /**
+     * Returns the value associated with a key, or the default value when
+     * the key is not in the map.
+     * @param key the key
+     * @param defaultValue the value to return for a missing key
+     * @return the value associated with the key
+     */
+    public int getOrDefault(int key, int defaultValue)
+    {
+        if(key == 0) {
+            return containsZeroKey ? zeroKeyValue : defaultValue;
+        }
+
+        int index = probe(key);
+        return keys[index] == 0 ? defaultValue : values[index];
+    }
+
+    /**
+     * Reports whether the input key is in the map.
+     * @param key the key
+     * @return true if the key is in the map, otherwise false
+     */
+    public boolean keyExists(int key)
+    {
+        if(key == 0) {
+            return containsZeroKey;
+        }
+        return keys[probe(key)] != 0;
+    }
+
+    /**
+     * Reports whether the input value is in the map.
+     * @param value the value
+     * @return true if the value is in the map, otherwise false
+     */
+    public boolean valueExists(int value)
+    {
+        if(containsZeroKey && zeroKeyValue == value) {
+            return true;
+        }
+        for(int i = 0; i < keys.length; i++) {
+            if(keys[i] != 0 && values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of key/value pairs in the map.
+     * @return the number of pairs
+     */
+    public int size()
+    {
+        return containsZeroKey ? assigned + 1 : assigned;
+    }
+
+    /**
+     * Reports whether the map is empty or not.
+     * @return true if no key/value pairs are in the map, otherwise false
+     */
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    /**
+     * Removes all key/value pairs in the map.
+     */
+    public void clear()
+    {
+        allocate(INITIAL_TABLE_SIZE);
+        assigned = 0;
+        containsZeroKey = false;
+        zeroKeyValue = 0;
+        modCount++;
+    }
+
+    /**
+     * Shrinks the map to the smallest table that holds its current pairs.
+     */
+    public void trimToSize()
+    {
+        int length = IntHashSet.tableSizeFor(assigned);
+        if(length < keys.length) {
+            resize(length);
+        }
+    }
+
+    /**
+     * Returns an iterator over the pairs of the map. The pairs are boxed,
+     * so lookups should go through get rather than iteration.
+     * @return an iterator over the key/value pairs
+     */
+    @Override
+    public Iterator<KeyValuePair<Integer, Integer>> iterator()
+    {
+        return new SlotIterator();
+    }
+
+    /**
+     * Returns a set with the all keys in the map.
+     * @return a set of keys
+     */
+    public IntHashSet keyset()
+    {
+        IntHashSet temp = new IntHashSet(size());
+        if(containsZeroKey) {
+            temp.add(0);
+        }
+        for(int key : keys) {
+            if(key != 0) {
+                temp.add(key);
+            }
+        }
+        return temp;
+    }
+
+    /**
+     * Returns an array with all values in the map.
+     * @return the values, in the same order as the iterator returns pairs
+     */
+    public int[] values()
+    {
+        int[] temp = new int[size()];
+        int index = 0;
+        if(containsZeroKey) {
+            temp[index++] = zeroKeyValue;
+        }
+        for(int i = 0; i < keys.length; i++) {
+            if(keys[i] != 0) {
+                temp[index++] = values[i];
+            }
+        }
+        return temp;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder("IntIntMap{pairs=[");
+        for(Iterator<KeyValuePair<Integer, Integer>> iterator = iterator(); iterator.hasNext(); ) {
+            builder.append(iterator.next());
+            if(iterator.hasNext()) {
+                builder.append(", ");
+            }
+        }
+        return builder.append("], size=").append(size()).append('}').toString();
+    }
+
+    private void allocate(int length)
+    {
+        keys = new int[length];
+        values = new int[length];
+        mask = length - 1;
+    }
+
+    private int homeSlot(int key)
+    {
+        return HashStrategy.mix(key) & mask;
+    }
+
+    //returns the slot holding the key, or the empty slot that ends its run
+    private int probe(int key)
+    {
+        int index = homeSlot(key);
+        while(keys[index] != 0 && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void resizeIfNeeded()
+    {
+        if(assigned + 1 > keys.length * LOAD_FACTOR) {
+            if(keys.length == MAXIMUM_TABLE_SIZE) {
+                throw new IllegalStateException("IntIntMap cannot grow past " + MAXIMUM_TABLE_SIZE + " slots");
+            }
+            resize(keys.length * 2);
+        }
+    }
+
+    private void shrinkIfNeeded()
+    {
+        if(keys.length > INITIAL_TABLE_SIZE && assigned < keys.length * SHRINK_THRESHOLD) {
+            resize(IntHashSet.tableSizeFor(assigned * 2L));
+        }
+    }
+
+    //move every pair into new arrays of the given length
+    private void resize(int length)
+    {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(length);
+        for(int i = 0; i < oldKeys.length; i++) {
+            if(oldKeys[i] != 0) {
+                int index = homeSlot(oldKeys[i]);
+                while(keys[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+        modCount++;
+    }
+
+    private class SlotIterator implements Iterator<KeyValuePair<Integer, Integer>>
+    {
+        private int currentModCount = modCount;
+        private boolean zeroPending = containsZeroKey;
+        private int currentIndex = -1;
+
+        public SlotIterator()
+        {
+            findNextIndex();
+        }
+
+        private void findNextIndex()
+        {
+            do {
+                currentIndex++;
+            }
+            while(currentIndex < keys.length && keys[currentIndex] == 0);
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if(currentModCount != modCount) {
+                throw new ConcurrentModificationException("Cannot modify map while iterating");
+            }
+            return zeroPending || currentIndex < keys.length;
+        }
+
+        @Override
+        public KeyValuePair<Integer, Integer> next()
+        {
+            if(!hasNext()) {
+                throw new NoSuchElementException("No pairs left in the map");
+            }
+
+            //the key 0 is not in the table, so its pair is returned first
+            if(zeroPending) {
+                zeroPending = false;
+                return new KeyValuePair<>(0, zeroKeyValue);
+            }
+
+            KeyValuePair<Integer, Integer> pair = new KeyValuePair<>(keys[currentIndex], values[currentIndex]);
+            findNextIndex();
+            return pair;
+        }
+    }
+}
@@ -0,0 +1,408 @@
+package structures;
+
+import hashtable.HashStrategy;
+
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * A set of long values stored unboxed in a flat open addressing array with
+ * linear probing. It offers the operations of ISet with long parameters so
+ * that adding and searching never allocate. An empty slot holds 0, and the
+ * value 0 itself is tracked by a flag outside of the array, so every long
+ * value can be stored.
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class LongHashSet implements Iterable<Long>
+{
+    private static final int INITIAL_TABLE_SIZE = 16;
+    private static final double LOAD_FACTOR = 0.5;
+    private static final double SHRINK_THRESHOLD = 0.125;
+    private static final int MAXIMUM_TABLE_SIZE = 1 << 30;
+    private long[] elements;
+    private int mask;
+    private int assigned;
+    private boolean containsZero;
+    private int modCount;
+
+    /**
+     * Creates an empty set.
+     */
+    public LongHashSet()
+    {
+        this(0);
+    }
+
+    /**
+     * Creates an empty set sized up front so the expected number of
+     * elements can be added without any resize.
+     * @param expectedSize the number of elements the set is expected to hold
+     */
+    public LongHashSet(int expectedSize)
+    {
+        if(expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative: " + expectedSize);
+        }
+        allocate(IntHashSet.tableSizeFor(expectedSize));
+    }
+
+    /**
+     * Adds an element to the set, ignoring it if it is already in the set.
+     * @param element the element to add
+     */
+    public void add(long element)
+    {
+        if(element == 0) {
+            if(!containsZero) {
+                containsZero = true;
+                modCount++;
+            }
+            return;
+        }
+
+        resizeIfNeeded();
+        int index = probe(element);
+        if(elements[index] == 0) {
+            elements[index] = element;
+            assigned++;
+            modCount++;
+        }
+    }
+
+    /**
+     * Adds every element of the array to the set, sizing the table once
+     * up front.
+     * @param source the elements to add
+     */
+    public void addAll(long[] source)
+    {
+        ensureCapacity((long) assigned + source.length);
+        for(long element : source) {
+            add(element);
+        }
+    }
+
+    /**
+     * Finds and removes an element from the set.
+     * @param element the element to remove
+     * @throws NoSuchElementException thrown when the element is not in the set
+     */
+    public void remove(long element)
+    {
+        if(element == 0) {
+            if(!containsZero) {
+                throw new NoSuchElementException("No element " + element + " found");
+            }
+            containsZero = false;
+            modCount++;
+            return;
+        }
+
+        int index = probe(element);
+        if(elements[index] == 0) {
+            throw new NoSuchElementException("No element " + element + " found");
+        }
+
+        //shift the following elements of the run back so that every element
+        //is still reachable from its home slot without leaving a tombstone
+        int next = (index + 1) & mask;
+        while(elements[next] != 0) {
+            int home = homeSlot(elements[next]);
+            if(((next - home) & mask) >= ((next - index) & mask)) {
+                elements[index] = elements[next];
+                index = next;
+            }
+            next = (next + 1) & mask;
+        }
+        elements[index] = 0;
+
+        assigned--;
+        modCount++;
+        shrinkIfNeeded();
+    }
+
+    /**
+     * Reports whether the set contains an element.
+     * @param element the element to search for
+     * @return true if the element is found, otherwise false
+     */
+    public boolean contains(long element)
+    {
+        if(element == 0) {
+            return containsZero;
+        }
+        return elements[probe(element)] != 0;
+    }
+
+    /**
+     * Returns the number of elements in the set.
+     * @return the number of elements
+     */
+    public int size()
+    {
+        return containsZero ? assigned + 1 : assigned;
+    }
+
+    /**
+     * Reports whether the set is empty or not.
+     * @return true if the set is empty, otherwise false
+     */
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    /**
+     * Removes all elements from the set.
+     */
+    public void clear()
+    {
+        allocate(INITIAL_TABLE_SIZE);
+        assigned = 0;
+        containsZero = false;
+        modCount++;
+    }
+
+    /**
+     * Shrinks the set to the smallest table that holds its current elements.
+     */
+    public void trimToSize()
+    {
+        int length = IntHashSet.tableSizeFor(assigned);
+        if(length < elements.length) {
+            resize(length);
+        }
+    }
+
+    @Override
+    public PrimitiveIterator.OfLong iterator()
+    {
+        return new SlotIterator();
+    }
+
+    /**
+     * Returns a new set with the union of this set and the input parameter.
+     * @param other the other set to join with this set
+     * @return the union of two sets
+     */
+    public LongHashSet union(LongHashSet other)
+    {
+        LongHashSet temp = new LongHashSet(size() + other.size());
+        temp.addAll(this);
+        temp.addAll(other);
+        return temp;
+    }
+
+    /**
+     * Returns a new set with the intersection of this set and the input
+     * parameter. The smaller set is iterated and the larger one probed.
+     * @param other the other set to join with this set
+     * @return the intersection of two sets
+     */
+    public LongHashSet intersects(LongHashSet other)
+    {
+        LongHashSet smaller = size() <= other.size() ? this : other;
+        LongHashSet larger = smaller == this ? other : this;
+
+        LongHashSet temp = new LongHashSet(smaller.size());
+        for(PrimitiveIterator.OfLong iterator = smaller.iterator(); iterator.hasNext(); ) {
+            long element = iterator.nextLong();
+            if(larger.contains(element)) {
+                temp.add(element);
+            }
+        }
+        return temp;
+    }
+
+    /**
+     * Returns a new set with the difference between this set and the input
+     * set (i.e. this - other).
+     * @param other the other set to use in the difference operation
+     * @return the difference of two sets
+     */
+    public LongHashSet difference(LongHashSet other)
+    {
+        LongHashSet temp = new LongHashSet(size());
+        for(PrimitiveIterator.OfLong iterator = iterator(); iterator.hasNext(); ) {
+            long element = iterator.nextLong();
+            if(!other.contains(element)) {
+                temp.add(element);
+            }
+        }
+        return temp;
+    }
+
+    /**
+     * Reports whether the input set is a subset of this set.
+     * @param other the subset candidate
+     * @return true if other is a subset of this set, otherwise false
+     */
+    public boolean isSubset(LongHashSet other)
+    {
+        for(PrimitiveIterator.OfLong iterator = other.iterator(); iterator.hasNext(); ) {
+            if(!contains(iterator.nextLong())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reports whether this set and the input set are disjoint.
+     * @param other the other set to consider
+     * @return true if both sets are disjoint, otherwise false
+     */
+    public boolean isDisjoint(LongHashSet other)
+    {
+        for(PrimitiveIterator.OfLong iterator = other.iterator(); iterator.hasNext(); ) {
+            if(contains(iterator.nextLong())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reports whether this set is an empty set.
+     * @return true if this set is empty, otherwise false
+     */
+    public boolean isEmptySet()
+    {
+        return isEmpty();
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder("LongHashSet{elements=[");
+        for(PrimitiveIterator.OfLong iterator = iterator(); iterator.hasNext(); ) {
+            builder.append(iterator.nextLong());
+            if(iterator.hasNext()) {
+                builder.append(", ");
+            }
+        }
+        return builder.append("], size=").append(size()).append('}').toString();
+    }
+
+    //add every element of another set after sizing the table for all of them
+    private void addAll(LongHashSet other)
+    {
+        ensureCapacity((long) assigned + other.assigned);
+        for(PrimitiveIterator.OfLong iterator = other.iterator(); iterator.hasNext(); ) {
+            add(iterator.nextLong());
+        }
+    }
+
+    private void allocate(int length)
+    {
+        elements = new long[length];
+        mask = length - 1;
+    }
+
+    private int homeSlot(long element)
+    {
+        return HashStrategy.mix((int) (element ^ (element >>> 32))) & mask;
+    }
+
+    //returns the slot holding the element, or the empty slot that ends its run
+    private int probe(long element)
+    {
+        int index = homeSlot(element);
+        while(elements[index] != 0 && elements[index] != element) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void ensureCapacity(long expectedSize)
+    {
+        int length = IntHashSet.tableSizeFor(expectedSize);
+        if(length > elements.length) {
+            resize(length);
+        }
+    }
+
+    private void resizeIfNeeded()
+    {
+        if(assigned + 1 > elements.length * LOAD_FACTOR) {
+            if(elements.length == MAXIMUM_TABLE_SIZE) {
+                throw new IllegalStateException("LongHashSet cannot grow past " + MAXIMUM_TABLE_SIZE + " slots");
+            }
+            resize(elements.length * 2);
+        }
+    }
+
+    private void shrinkIfNeeded()
+    {
+        if(elements.length > INITIAL_TABLE_SIZE && assigned < elements.length * SHRINK_THRESHOLD) {
+            resize(IntHashSet.tableSizeFor(assigned * 2L));
+        }
+    }
+
+    //move every element into a new table of the given length
+    private void resize(int length)
+    {
+        long[] old = elements;
+        allocate(length);
+        for(long element : old) {
+            if(element != 0) {
+                int index = homeSlot(element);
+                while(elements[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                elements[index] = element;
+            }
+        }
+        modCount++;
+    }
+
+    private class SlotIterator implements PrimitiveIterator.OfLong
+    {
+        private int currentModCount = modCount;
+        private boolean zeroPending = containsZero;
+        private int currentIndex = -1;
+
+        public SlotIterator()
+        {
+            findNextIndex();
+        }
+
+        private void findNextIndex()
+        {
+            do {
+                currentIndex++;
+            }
+            while(currentIndex < elements.length && elements[currentIndex] == 0);
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if(currentModCount != modCount) {
+                throw new ConcurrentModificationException("Cannot modify set while iterating");
+            }
+            return zeroPending || currentIndex < elements.length;
+        }
+
+        @Override
+        public long nextLong()
+        {
+            if(!hasNext()) {
+                throw new NoSuchElementException("No elements left in the set");
+            }
+
+            //the element 0 is not in the table, so it is returned first
+            if(zeroPending) {
+                zeroPending = false;
+                return 0;
+            }
+
+            long element = elements[currentIndex];
+            findNextIndex();
+            return element;
+        }
+    }
+}
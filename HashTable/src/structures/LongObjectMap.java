@@ -0,0 +1,468 @@
+package structures;
+
+import hashtable.HashStrategy;
+import helpers.KeyValuePair;
+import interfaces.ICollection;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.LongFunction;
+
+/**
+ * A map from long keys to object values with the keys stored unboxed in a
+ * flat array and the values in a parallel array, using linear probing. It
+ * offers the operations of IMap with long keys so that adding and looking
+ * up pairs never box the key or allocate a node. An empty slot holds the
+ * key 0, and the key 0 itself is tracked by a flag outside of the arrays,
+ * so every long value can be used as a key.
+ *
+ * @param <V> the type of value stored
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class LongObjectMap<V> implements Iterable<KeyValuePair<Long, V>>
+{
+    private static final int INITIAL_TABLE_SIZE = 16;
+    private static final double LOAD_FACTOR = 0.5;
+    private static final double SHRINK_THRESHOLD = 0.125;
+    private static final int MAXIMUM_TABLE_SIZE = 1 << 30;
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int assigned;
+    private boolean containsZeroKey;
+    private V zeroKeyValue;
+    private int modCount;
+
+    /**
+     * Creates an empty map.
+     */
+    public LongObjectMap()
+    {
+        this(0);
+    }
+
+    /**
+     * Creates an empty map sized up front so the expected number of pairs
+     * can be added without any resize.
+     * @param expectedSize the number of pairs the map is expected to hold
+     */
+    public LongObjectMap(int expectedSize)
+    {
+        if(expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative: " + expectedSize);
+        }
+        allocate(IntHashSet.tableSizeFor(expectedSize));
+    }
+
+    /**
+     * Adds a key/value pair to the map. If the key already exists in the
+     * map then this will update the value associated with the key.
+     * @param key the key
+     * @param value the value
+     */
+    public void add(long key, V value)
+    {
+        if(key == 0) {
+            if(!containsZeroKey) {
+                containsZeroKey = true;
+                modCount++;
+            }
+            zeroKeyValue = value;
+            return;
+        }
+
+        resizeIfNeeded();
+        int index = probe(key);
+        if(keys[index] == 0) {
+            keys[index] = key;
+            assigned++;
+            modCount++;
+        }
+        values[index] = value;
+    }
+
+    /**
+     * Returns the value associated with the key, first adding the value
+     * computed from the key when the key is not in the map. When the
+     * computed value is null nothing is added, as in java.util.Map.
+     * @param key the key
+     * @param mapping computes the value for a missing key
+     * @return the existing or newly added value, or null if none was added
+     */
+    public V computeIfAbsent(long key, LongFunction<? extends V> mapping)
+    {
+        if(key == 0) {
+            if(!containsZeroKey) {
+                V value = mapping.apply(key);
+                if(value == null) {
+                    return null;
+                }
+                add(key, value);
+            }
+            return zeroKeyValue;
+        }
+
+        resizeIfNeeded();
+        int index = probe(key);
+        if(keys[index] == 0) {
+            V value = mapping.apply(key);
+            if(value == null) {
+                return null;
+            }
+            keys[index] = key;
+            values[index] = value;
+            assigned++;
+            modCount++;
+        }
+        return valueAt(index);
+    }
+
+    /**
+     * Adds the key/value pair when the key is not in the map, otherwise
+     * replaces the value with the result of combining the existing value
+     * and the given value. When that result is null the key is removed
+     * instead, as in java.util.Map.
+     * @param key the key
+     * @param value the value to add or combine
+     * @param remapping combines the existing value with the given value
+     * @return the value associated with the key afterwards, or null if the
+     * key was removed
+     */
+    public V merge(long key, V value, BiFunction<? super V, ? super V, ? extends V> remapping)
+    {
+        if(key == 0) {
+            if(containsZeroKey) {
+                V merged = remapping.apply(zeroKeyValue, value);
+                if(merged == null) {
+                    remove(key);
+                    return null;
+                }
+                zeroKeyValue = merged;
+            }
+            else {
+                add(key, value);
+            }
+            return zeroKeyValue;
+        }
+
+        resizeIfNeeded();
+        int index = probe(key);
+        if(keys[index] == 0) {
+            keys[index] = key;
+            values[index] = value;
+            assigned++;
+            modCount++;
+        }
+        else {
+            V merged = remapping.apply(valueAt(index), value);
+            if(merged == null) {
+                remove(key);
+                return null;
+            }
+            values[index] = merged;
+        }
+        return valueAt(index);
+    }
+
+    /**
+     * Removes a key (and the associated value) from the map. If no key is
+     * found matching the input parameter, then no change is made to the map.
+     * @param key the key
+     */
+    public void remove(long key)
+    {
+        if(key == 0) {
+            if(containsZeroKey) {
+                containsZeroKey = false;
+                zeroKeyValue = null;
+                modCount++;
+            }
+            return;
+        }
+
+        int index = probe(key);
+        if(keys[index] == 0) {
+            return;
+        }
+
+        //shift the following pairs of the run back so that every key is
+        //still reachable from its home slot without leaving a tombstone
+        int next = (index + 1) & mask;
+        while(keys[next] != 0) {
+            int home = homeSlot(keys[next]);
+            if(((next - home) & mask) >= ((next - index) & mask)) {
+                keys[index] = keys[next];
+                values[index] = values[next];
+                index = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[index] = 0;
+        values[index] = null;
+
+        assigned--;
+        modCount++;
+        shrinkIfNeeded();
+    }
+
+    /**
+     * Returns the value associated with a key.
+     * @param key the key
+     * @return the value associated with the key, or null if the key is not
+     * in the map
+     */
+    public V get(long key)
+    {
+        if(key == 0) {
+            return zeroKeyValue;
+        }
+        return valueAt(probe(key));
+    }
+
+    /**
+     * Reports whether the input key is in the map.
+     * @param key the key
+     * @return true if the key is in the map, otherwise false
+     */
+    public boolean keyExists(long key)
+    {
+        if(key == 0) {
+            return containsZeroKey;
+        }
+        return keys[probe(key)] != 0;
+    }
+
+    /**
+     * Reports whether the input value is in the map.
+     * @param value the value
+     * @return true if the value is in the map, otherwise false
+     */
+    public boolean valueExists(V value)
+    {
+        if(containsZeroKey && Objects.equals(zeroKeyValue, value)) {
+            return true;
+        }
+        for(int i = 0; i < keys.length; i++) {
+            if(keys[i] != 0 && Objects.equals(values[i], value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of key/value pairs in the map.
+     * @return the number of pairs
+     */
+    public int size()
+    {
+        return containsZeroKey ? assigned + 1 : assigned;
+    }
+
+    /**
+     * Reports whether the map is empty or not.
+     * @return true if no key/value pairs are in the map, otherwise false
+     */
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    /**
+     * Removes all key/value pairs in the map.
+     */
+    public void clear()
+    {
+        allocate(INITIAL_TABLE_SIZE);
+        assigned = 0;
+        containsZeroKey = false;
+        zeroKeyValue = null;
+        modCount++;
+    }
+
+    /**
+     * Shrinks the map to the smallest table that holds its current pairs.
+     */
+    public void trimToSize()
+    {
+        int length = IntHashSet.tableSizeFor(assigned);
+        if(length < keys.length) {
+            resize(length);
+        }
+    }
+
+    /**
+     * Returns an iterator over the pairs of the map. The keys are boxed,
+     * so lookups should go through get rather than iteration.
+     * @return an iterator over the key/value pairs
+     */
+    @Override
+    public Iterator<KeyValuePair<Long, V>> iterator()
+    {
+        return new SlotIterator();
+    }
+
+    /**
+     * Returns a set with the all keys in the map.
+     * @return a set of keys
+     */
+    public LongHashSet keyset()
+    {
+        LongHashSet temp = new LongHashSet(size());
+        if(containsZeroKey) {
+            temp.add(0);
+        }
+        for(long key : keys) {
+            if(key != 0) {
+                temp.add(key);
+            }
+        }
+        return temp;
+    }
+
+    /**
+     * Returns an ICollection<V> object with all values in the map.
+     * @return a collection of values
+     */
+    public ICollection<V> values()
+    {
+        ICollection<V> temp = new Set<>(size());
+        if(containsZeroKey) {
+            temp.add(zeroKeyValue);
+        }
+        for(int i = 0; i < keys.length; i++) {
+            if(keys[i] != 0) {
+                temp.add(valueAt(i));
+            }
+        }
+        return temp;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder("LongObjectMap{pairs=[");
+        for(Iterator<KeyValuePair<Long, V>> iterator = iterator(); iterator.hasNext(); ) {
+            builder.append(iterator.next());
+            if(iterator.hasNext()) {
+                builder.append(", ");
+            }
+        }
+        return builder.append("], size=").append(size()).append('}').toString();
+    }
+
+    private void allocate(int length)
+    {
+        keys = new long[length];
+        values = new Object[length];
+        mask = length - 1;
+    }
+
+    private int homeSlot(long key)
+    {
+        return HashStrategy.mix((int) (key ^ (key >>> 32))) & mask;
+    }
+
+    //returns the slot holding the key, or the empty slot that ends its run
+    private int probe(long key)
+    {
+        int index = homeSlot(key);
+        while(keys[index] != 0 && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int index)
+    {
+        return (V) values[index];
+    }
+
+    private void resizeIfNeeded()
+    {
+        if(assigned + 1 > keys.length * LOAD_FACTOR) {
+            if(keys.length == MAXIMUM_TABLE_SIZE) {
+                throw new IllegalStateException("LongObjectMap cannot grow past " + MAXIMUM_TABLE_SIZE + " slots");
+            }
+            resize(keys.length * 2);
+        }
+    }
+
+    private void shrinkIfNeeded()
+    {
+        if(keys.length > INITIAL_TABLE_SIZE && assigned < keys.length * SHRINK_THRESHOLD) {
+            resize(IntHashSet.tableSizeFor(assigned * 2L));
+        }
+    }
+
+    //move every pair into new arrays of the given length
+    private void resize(int length)
+    {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(length);
+        for(int i = 0; i < oldKeys.length; i++) {
+            if(oldKeys[i] != 0) {
+                int index = homeSlot(oldKeys[i]);
+                while(keys[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+        modCount++;
+    }
+
+    private class SlotIterator implements Iterator<KeyValuePair<Long, V>>
+    {
+        private int currentModCount = modCount;
+        private boolean zeroPending = containsZeroKey;
+        private int currentIndex = -1;
+
+        public SlotIterator()
+        {
+            findNextIndex();
+        }
+
+        private void findNextIndex()
+        {
+            do {
+                currentIndex++;
+            }
+            while(currentIndex < keys.length && keys[currentIndex] == 0);
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if(currentModCount != modCount) {
+                throw new ConcurrentModificationException("Cannot modify map while iterating");
+            }
+            return zeroPending || currentIndex < keys.length;
+        }
+
+        @Override
+        public KeyValuePair<Long, V> next()
+        {
+            if(!hasNext()) {
+                throw new NoSuchElementException("No pairs left in the map");
+            }
+
+            //the key 0 is not in the table, so its pair is returned first
+            if(zeroPending) {
+                zeroPending = false;
+                return new KeyValuePair<>(0L, zeroKeyValue);
+            }
+
+            KeyValuePair<Long, V> pair = new KeyValuePair<>(keys[currentIndex], valueAt(currentIndex));
+            findNextIndex();
+            return pair;
+        }
+    }
+}
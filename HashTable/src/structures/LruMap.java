@@ -0,0 +1,366 @@
+package structures;
+
+import hashtable.HashStrategy;
+import hashtable.HashTable;
+import helpers.KeyValuePair;
+import interfaces.ICollection;
+import interfaces.IMap;
+import interfaces.ISet;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * A map that works as a bounded cache, evicting the least recently used
+ * pair once it holds more than a maximum number of pairs (or a maximum
+ * total weight). Every entry is both a HashTable element and a link in a
+ * doubly linked list kept in access order, so a hit only relinks the entry
+ * at the front of the list and an eviction unlinks the entry at the back,
+ * both in constant time and without allocating.
+ *
+ * get counts as an access and moves the pair to the front, keyExists does
+ * not. Iterating goes from the most to the least recently used pair, and
+ * since get reorders the pairs it fails fast like any other change. The
+ * map is not thread safe.
+ *
+ * @param <K> the type of key stored
+ * @param <V> the type of value stored
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class LruMap<K, V> implements IMap<K, V>
+{
+    private static final HashStrategy<Object> KEY_STRATEGY = HashStrategy.defaultStrategy();
+    private final HashTable<Entry<K, V>> table;
+    private final long maximumWeight;
+    private final ToLongBiFunction<? super K, ? super V> weigher;
+    //reused for every lookup so that reads allocate nothing
+    private final Entry<K, V> probe = new Entry<>(null, null);
+    //the most recently used entry is the head, the least recently used the tail
+    private Entry<K, V> head;
+    private Entry<K, V> tail;
+    private long weight;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private int modCount;
+
+    /**
+     * Creates a cache that holds at most the given number of pairs.
+     * @param maximumSize the most pairs to hold
+     */
+    public LruMap(int maximumSize)
+    {
+        this(maximumSize, (key, value) -> 1);
+    }
+
+    /**
+     * Creates a cache whose pairs weigh at most the given total, e.g. a
+     * number of bytes.
+     * @param maximumWeight the most total weight to hold
+     * @param weigher returns the weight of a pair, which must not be negative
+     */
+    public LruMap(long maximumWeight, ToLongBiFunction<? super K, ? super V> weigher)
+    {
+        if(maximumWeight < 0) {
+            throw new IllegalArgumentException("Maximum weight cannot be negative: " + maximumWeight);
+        }
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.table = new HashTable<>(entry -> KEY_STRATEGY.hash(entry.key));
+    }
+
+    @Override
+    public void add(K key, V value)
+    {
+        long entryWeight = weigher.applyAsLong(key, value);
+        if(entryWeight < 0) {
+            throw new IllegalArgumentException("Weight cannot be negative: " + entryWeight);
+        }
+
+        probe.key = key;
+        Entry<K, V> entry = table.find(probe);
+        probe.key = null;
+        if(entry != null) {
+            //replace the value in place and count the write as an access
+            weight += entryWeight - entry.weight;
+            entry.value = value;
+            entry.weight = entryWeight;
+            moveToFront(entry);
+        }
+        else {
+            entry = new Entry<>(key, value);
+            entry.weight = entryWeight;
+            table.add(entry);
+            linkFirst(entry);
+            weight += entryWeight;
+            modCount++;
+        }
+
+        //evict from the back until the cache fits again
+        while(weight > maximumWeight) {
+            Entry<K, V> victim = tail;
+            unlink(victim);
+            table.remove(victim);
+            weight -= victim.weight;
+            evictionCount++;
+        }
+    }
+
+    /**
+     * Removes a key (and the associated value) from the map. If no key is
+     * found matching the input parameter, then no change is made to the map.
+     * @param key the key
+     */
+    @Override
+    public void remove(K key)
+    {
+        probe.key = key;
+        Entry<K, V> entry = table.find(probe);
+        probe.key = null;
+        if(entry != null) {
+            unlink(entry);
+            table.remove(entry);
+            weight -= entry.weight;
+            modCount++;
+        }
+    }
+
+    /**
+     * Returns the value associated with the key and marks the pair as the
+     * most recently used. Counts a hit or a miss.
+     * @param key the key
+     * @return the value, or null if the key is not in the map
+     */
+    @Override
+    public V get(K key)
+    {
+        probe.key = key;
+        Entry<K, V> entry = table.find(probe);
+        probe.key = null;
+        if(entry == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        moveToFront(entry);
+        return entry.value;
+    }
+
+    /**
+     * Reports whether the key is in the map without counting an access.
+     * @param key the key
+     * @return true if the key is in the map, otherwise false
+     */
+    @Override
+    public boolean keyExists(K key)
+    {
+        probe.key = key;
+        boolean found = table.contains(probe);
+        probe.key = null;
+        return found;
+    }
+
+    @Override
+    public boolean valueExists(V value)
+    {
+        for(Entry<K, V> entry = head; entry != null; entry = entry.next) {
+            if(Objects.equals(entry.value, value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int size()
+    {
+        return table.size();
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return table.isEmpty();
+    }
+
+    @Override
+    public void clear()
+    {
+        table.clear();
+        head = null;
+        tail = null;
+        weight = 0;
+        modCount++;
+    }
+
+    /**
+     * Returns the total weight of the pairs, which is their number when no
+     * weigher was given.
+     * @return the total weight
+     */
+    public long weight()
+    {
+        return weight;
+    }
+
+    /**
+     * Returns the number of calls to get that found their key.
+     * @return the hit count
+     */
+    public long hitCount()
+    {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of calls to get that did not find their key.
+     * @return the miss count
+     */
+    public long missCount()
+    {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of pairs evicted to keep the cache in bounds.
+     * @return the eviction count
+     */
+    public long evictionCount()
+    {
+        return evictionCount;
+    }
+
+    /**
+     * Returns an iterator from the most to the least recently used pair.
+     * @return an iterator over the key/value pairs
+     */
+    @Override
+    public Iterator<KeyValuePair<K, V>> iterator()
+    {
+        return new Iterator<KeyValuePair<K, V>>()
+        {
+            private final int currentModCount = modCount;
+            private Entry<K, V> nextEntry = head;
+
+            @Override
+            public boolean hasNext()
+            {
+                if(currentModCount != modCount) {
+                    throw new ConcurrentModificationException("Cannot modify map while iterating");
+                }
+                return nextEntry != null;
+            }
+
+            @Override
+            public KeyValuePair<K, V> next()
+            {
+                if(!hasNext()) {
+                    throw new NoSuchElementException("No pairs left in the map");
+                }
+                KeyValuePair<K, V> pair = new KeyValuePair<>(nextEntry.key, nextEntry.value);
+                nextEntry = nextEntry.next;
+                return pair;
+            }
+        };
+    }
+
+    @Override
+    public ISet<K> keyset()
+    {
+        ISet<K> temp = new Set<>(table.size());
+        for(Entry<K, V> entry = head; entry != null; entry = entry.next) {
+            temp.add(entry.key);
+        }
+        return temp;
+    }
+
+    @Override
+    public ICollection<V> values()
+    {
+        ICollection<V> temp = new Set<>(table.size());
+        for(Entry<K, V> entry = head; entry != null; entry = entry.next) {
+            temp.add(entry.value);
+        }
+        return temp;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "LruMap{size=" + table.size() + ", weight=" + weight + ", maximumWeight=" + maximumWeight
+                + ", hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount + '}';
+    }
+
+    private void linkFirst(Entry<K, V> entry)
+    {
+        entry.previous = null;
+        entry.next = head;
+        if(head != null) {
+            head.previous = entry;
+        }
+        else {
+            tail = entry;
+        }
+        head = entry;
+    }
+
+    private void unlink(Entry<K, V> entry)
+    {
+        if(entry.previous != null) {
+            entry.previous.next = entry.next;
+        }
+        else {
+            head = entry.next;
+        }
+        if(entry.next != null) {
+            entry.next.previous = entry.previous;
+        }
+        else {
+            tail = entry.previous;
+        }
+        entry.previous = null;
+        entry.next = null;
+    }
+
+    private void moveToFront(Entry<K, V> entry)
+    {
+        if(entry != head) {
+            unlink(entry);
+            linkFirst(entry);
+        }
+        modCount++;
+    }
+
+    //a table element that is also a link in the access order list,
+    //equal to any other entry with the same key
+    private static final class Entry<K, V>
+    {
+        private K key;
+        private V value;
+        private long weight;
+        private Entry<K, V> previous;
+        private Entry<K, V> next;
+
+        private Entry(K key, V value)
+        {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            return other instanceof Entry && Objects.equals(key, ((Entry<?, ?>) other).key);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hashCode(key);
+        }
+    }
+}
@@ -1,48 +1,166 @@
 package structures;
 
+import hashtable.Codec;
+import hashtable.HashStrategy;
 import hashtable.HashTable;
+import hashtable.HashTableConfig;
+import hashtable.Snapshot;
 import helpers.KeyValuePair;
 import interfaces.ICollection;
+import interfaces.IHashTable;
 import interfaces.IMap;
 import interfaces.ISet;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.Iterator;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 public class Map<K, V> implements IMap<K, V>
 {
-    private HashTable<KeyValuePair<K, V>> table = new HashTable<>();
-    private KeyValuePair<K, V> hashMap;
+    private IHashTable<KeyValuePair<K, V>> table;
+
+    /**
+     * Creates a map backed by a chained HashTable.
+     */
+    public Map()
+    {
+        this(new HashTable<>());
+    }
+
+    /**
+     * Creates a map backed by a chained HashTable sized up front so that
+     * the expected number of pairs can be added without any resize.
+     * @param expectedSize the number of pairs the map is expected to hold
+     */
+    public Map(int expectedSize)
+    {
+        this(new HashTable<>(expectedSize));
+    }
+
+    /**
+     * Creates a map backed by a chained HashTable that grows and shrinks
+     * as the given config describes.
+     * @param config the load factor, growth and capacity settings
+     */
+    public Map(HashTableConfig config)
+    {
+        this(new HashTable<>(config));
+    }
+
+    /**
+     * Creates a map backed by a chained HashTable that hashes keys with the
+     * given strategy, e.g. for keys with a poor hashCode().
+     * @param keyStrategy computes the hash of each key
+     */
+    public Map(HashStrategy<? super K> keyStrategy)
+    {
+        this(new HashTable<>(pair -> keyStrategy.hash(pair.getKey())));
+    }
+
+    /**
+     * Creates a map backed by the given table engine, e.g. an
+     * OpenHashTable for flat open addressing storage.
+     * @param table an empty table to store the key/value pairs in
+     */
+    public Map(IHashTable<KeyValuePair<K, V>> table)
+    {
+        this.table = table;
+    }
 
     @Override
     public void add(K key, V value)
     {
-        //create new KeyValue Object and store it in the table
-        hashMap = new KeyValuePair<>(key, value);
-        table.add(hashMap);
+        //create new KeyValue Object and store it in the table, replacing
+        //the KeyValue with the same key if there is one
+        table.put(new KeyValuePair<>(key, value));
+    }
+
+    /**
+     * Adds every key/value pair of the input parameter to the map, updating
+     * the values of keys that already exist. The table is sized once up
+     * front when the number of pairs is known.
+     * @param pairs the key/value pairs to add
+     */
+    public void addAll(Iterable<? extends KeyValuePair<K, V>> pairs)
+    {
+        int count = IHashTable.sizeOf(pairs);
+        if(count >= 0) {
+            table.ensureCapacity(table.size() + count);
+        }
+        for(KeyValuePair<K, V> pair : pairs) {
+            table.put(pair);
+        }
+    }
+
+    /**
+     * Shrinks the map's table to the smallest capacity that holds its
+     * current key/value pairs.
+     */
+    public void trimToSize()
+    {
+        table.trimToSize();
+    }
+
+    /**
+     * Returns the value associated with the key, first adding the value
+     * computed from the key when the key is not in the map. When the
+     * computed value is null nothing is added, as in java.util.Map.
+     * @param key the key
+     * @param mapping computes the value for a missing key
+     * @return the existing or newly added value, or null if none was added
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mapping)
+    {
+        //the KeyValue is only created when the key is missing
+        KeyValuePair<K, V> element = table.computeIfAbsent(new KeyValuePair<>(key, null), probe -> {
+            V value = mapping.apply(key);
+            return value == null ? null : new KeyValuePair<>(key, value);
+        });
+        return element == null ? null : element.getValue();
+    }
+
+    /**
+     * Adds the key/value pair when the key is not in the map, otherwise
+     * replaces the value with the result of combining the existing value
+     * and the given value (e.g. Integer::sum for counters). When that
+     * result is null the key is removed instead, as in java.util.Map.
+     * @param key the key
+     * @param value the value to add or combine
+     * @param remapping combines the existing value with the given value
+     * @return the value associated with the key afterwards, or null if the
+     * key was removed
+     */
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remapping)
+    {
+        KeyValuePair<K, V> element = table.merge(new KeyValuePair<>(key, value), (existing, added) -> {
+            V merged = remapping.apply(existing.getValue(), added.getValue());
+            return merged == null ? null : new KeyValuePair<>(key, merged);
+        });
+        return element == null ? null : element.getValue();
     }
 
     @Override
     public void remove(K key)
     {
-        //remove the KeyValue that matches the key
-        table.remove(new KeyValuePair<>(key, null));
+        //remove the KeyValue that matches the key, a missing key leaves the map unchanged
+        table.removeIfPresent(new KeyValuePair<>(key, null));
     }
 
     @Override
     public V get(K key)
     {
-        V value = null;
-
-        //loop through each KeyValue in the table
-        for(KeyValuePair<K, V> element : table) {
-            //if the keys match, get the value
-            if(element.getKey().equals(key)) {
-                value = element.getValue();
-                break;
-
-            }
+        //probe the table for the KeyValue that matches the key
+        KeyValuePair<K, V> element = table.find(new KeyValuePair<>(key, null));
+        if(element == null) {
+            return null;
         }
-        return value;
+        return element.getValue();
     }
 
     @Override
@@ -93,10 +211,99 @@ public class Map<K, V> implements IMap<K, V>
         return table.iterator();
     }
 
+    /**
+     * Returns an iterator over the key/value pairs that keeps going through
+     * writes made to the map while it is in use, e.g. removing pairs found
+     * by the scan. It returns every pair that stays in the map while it runs
+     * exactly once, and may or may not return pairs added or removed
+     * meanwhile. The writes must be made
+     * by the iterating thread, since this map does not safely publish its
+     * pairs to other threads; a scan that runs alongside writes from other
+     * threads, e.g. a background exporter, needs a ConcurrentMap.
+     * @return a weakly consistent iterator over the key/value pairs
+     */
+    public Iterator<KeyValuePair<K, V>> weaklyConsistentIterator()
+    {
+        return table.weaklyConsistentIterator();
+    }
+
+    /**
+     * Returns an immutable copy of the map packed for fast lookups from
+     * any number of threads.
+     * @return a frozen copy of the map
+     */
+    public FrozenMap<K, V> freeze()
+    {
+        return FrozenMap.copyOf(this);
+    }
+
+    /**
+     * Writes a binary snapshot of the map to the stream, which is left open.
+     * @param out where to write the snapshot
+     * @param keyCodec converts each key to bytes
+     * @param valueCodec converts each value to bytes
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeTo(OutputStream out, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException
+    {
+        writeTo(Channels.newChannel(out), keyCodec, valueCodec);
+    }
+
+    /**
+     * Writes a binary snapshot of the map to the channel, which is left open.
+     * @param channel where to write the snapshot
+     * @param keyCodec converts each key to bytes
+     * @param valueCodec converts each value to bytes
+     * @throws IOException if the channel cannot be written
+     */
+    public void writeTo(WritableByteChannel channel, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException
+    {
+        Codec<KeyValuePair<K, V>> codec = Codec.pairs(keyCodec, valueCodec);
+        if(table instanceof HashTable) {
+            ((HashTable<KeyValuePair<K, V>>) table).writeTo(channel, codec);
+        }
+        else {
+            Snapshot.write(channel, table, table.size(), table.size(), codec);
+        }
+    }
+
+    /**
+     * Reads a map backed by a chained HashTable from a binary snapshot,
+     * sizing the table once and adding the pairs without duplicate checks.
+     * @param in where to read the snapshot from
+     * @param keyCodec converts the bytes of each key back
+     * @param valueCodec converts the bytes of each value back
+     * @param <K> the type of key read
+     * @param <V> the type of value read
+     * @return a map holding the pairs of the snapshot
+     * @throws IOException if the stream cannot be read or does not hold a snapshot
+     */
+    public static <K, V> Map<K, V> readFrom(InputStream in, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException
+    {
+        return readFrom(Channels.newChannel(in), keyCodec, valueCodec);
+    }
+
+    /**
+     * Reads a map backed by a chained HashTable from a binary snapshot,
+     * sizing the table once and adding the pairs without duplicate checks.
+     * @param channel where to read the snapshot from
+     * @param keyCodec converts the bytes of each key back
+     * @param valueCodec converts the bytes of each value back
+     * @param <K> the type of key read
+     * @param <V> the type of value read
+     * @return a map holding the pairs of the snapshot
+     * @throws IOException if the channel cannot be read or does not hold a snapshot
+     */
+    public static <K, V> Map<K, V> readFrom(ReadableByteChannel channel, Codec<K> keyCodec, Codec<V> valueCodec)
+            throws IOException
+    {
+        return new Map<>(HashTable.readFrom(channel, Codec.pairs(keyCodec, valueCodec)));
+    }
+
     @Override
     public ISet<K> keyset()
     {
-        ISet<K> temp = new Set<>();
+        ISet<K> temp = new Set<>(table.size());
         //loop through the KeyValues in table and get each key from the table
         for(KeyValuePair<K, V> element : table) {
             temp.add(element.getKey());
@@ -107,7 +314,7 @@ public class Map<K, V> implements IMap<K, V>
     @Override
     public ICollection<V> values()
     {
-        ICollection<V> temp = new Set<>();
+        ICollection<V> temp = new Set<>(table.size());
         //loop through the KeyValues in the table and get each value from the table
         for(KeyValuePair<K, V> element : table) {
             temp.add(element.getValue());
@@ -0,0 +1,275 @@
+package structures;
+
+import hashtable.Codec;
+import hashtable.DirectMemory;
+import hashtable.MappedMemory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An OffHeapMap whose index and data region live in memory mapped files,
+ * so a map of any size is reopened in the time it takes to map the files,
+ * with no deserialization or rehashing. Lookups read the pairs straight
+ * from the page cache and updates are written in place.
+ *
+ * The map is kept in three files: the data file, which starts with a header
+ * recording the size of the map, and two index files of which the header
+ * names the current one. Resizing the index builds the new index in the
+ * other file, so the current one is never half rewritten. The header is
+ * marked dirty on the first change after a flush and clean again once
+ * flush or close has written everything out, and a file that was not
+ * closed cleanly is refused when opened, as is one whose header does not
+ * describe a valid map.
+ *
+ * There is no log of the changes made since the last flush, so after a
+ * crash the files may hold any mix of old and new pairs and cannot be
+ * repaired. The map must then be rebuilt from wherever its pairs came
+ * from: delete removes the files, after which open creates an empty map
+ * to load them into again. Callers that cannot afford a rebuild should
+ * flush after each batch of changes they need to keep.
+ *
+ * A file must only be opened by one map at a time.
+ *
+ * @param <K> the type of key stored
+ * @param <V> the type of value stored
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class MappedMap<K, V> extends OffHeapMap<K, V> implements AutoCloseable
+{
+    //"HASHMAP1" in ASCII
+    private static final long MAGIC = 0x484153484D415031L;
+    private static final int VERSION = 1;
+    private static final int CLEAN = 0;
+    private static final int DIRTY = 1;
+    private static final long INITIAL_FILE_SIZE = 1 << 12;
+    //header layout, within the first DATA_START bytes of the data file
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 8;
+    private static final int STATE_OFFSET = 12;
+    private static final int SLOTS_OFFSET = 16;
+    private static final int DATA_END_OFFSET = 24;
+    private static final int GARBAGE_OFFSET = 32;
+    private static final int SIZE_OFFSET = 40;
+    private static final int INDEX_FILE_OFFSET = 44;
+    private final FileChannel dataChannel;
+    private final FileChannel[] indexChannels;
+    private int currentIndexFile;
+    private boolean dirty;
+
+    private MappedMap(Codec<K> keyCodec, Codec<V> valueCodec, MappedMemory index, long slots, MappedMemory data,
+                      int size, long dataEnd, long garbage, FileChannel dataChannel, FileChannel[] indexChannels,
+                      int currentIndexFile)
+    {
+        super(keyCodec, valueCodec, index, slots, data, size, dataEnd, garbage);
+        this.dataChannel = dataChannel;
+        this.indexChannels = indexChannels;
+        this.currentIndexFile = currentIndexFile;
+    }
+
+    /**
+     * Opens the map stored at the given path, creating an empty one if the
+     * file does not exist. The index files are kept next to it with
+     * ".index0" and ".index1" appended to its name.
+     * @param file the data file of the map
+     * @param keyCodec converts keys, which must match the codec the map was written with
+     * @param valueCodec converts values, which must match the codec the map was written with
+     * @param <K> the type of key stored
+     * @param <V> the type of value stored
+     * @return the opened map
+     * @throws IOException if the files cannot be mapped, are not a map, are corrupt,
+     * or were not closed cleanly, in which case the map has to be deleted and rebuilt
+     */
+    public static <K, V> MappedMap<K, V> open(Path file, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException
+    {
+        FileChannel dataChannel = openChannel(file);
+        FileChannel[] indexChannels = new FileChannel[2];
+        try {
+            indexChannels[0] = openChannel(file.resolveSibling(file.getFileName() + ".index0"));
+            indexChannels[1] = openChannel(file.resolveSibling(file.getFileName() + ".index1"));
+
+            if(dataChannel.size() == 0) {
+                long slots = slotsFor(0);
+                indexChannels[0].truncate(0);
+                MappedMap<K, V> map = new MappedMap<>(keyCodec, valueCodec,
+                        new MappedMemory(indexChannels[0], slots * SLOT_BYTES), slots,
+                        new MappedMemory(dataChannel, INITIAL_FILE_SIZE), 0, DATA_START, 0,
+                        dataChannel, indexChannels, 0);
+                map.flush();
+                return map;
+            }
+
+            MappedMemory data = new MappedMemory(dataChannel, INITIAL_FILE_SIZE);
+            if(data.getLong(MAGIC_OFFSET) != MAGIC || data.getInt(VERSION_OFFSET) != VERSION) {
+                throw new IOException(file + " is not a MappedMap file");
+            }
+            if(data.getInt(STATE_OFFSET) != CLEAN) {
+                throw new IOException(file + " was not closed cleanly, delete it and rebuild the map");
+            }
+
+            //check every field before it is used to index or map anything
+            long slots = data.getLong(SLOTS_OFFSET);
+            int currentIndexFile = data.getInt(INDEX_FILE_OFFSET);
+            long dataEnd = data.getLong(DATA_END_OFFSET);
+            long garbage = data.getLong(GARBAGE_OFFSET);
+            int size = data.getInt(SIZE_OFFSET);
+            checkHeader(file, "slot count", slots, slots >= slotsFor(0) && slots <= slotsFor(Integer.MAX_VALUE)
+                    && Long.bitCount(slots) == 1);
+            checkHeader(file, "index file", currentIndexFile, currentIndexFile == 0 || currentIndexFile == 1);
+            checkHeader(file, "data end", dataEnd, dataEnd >= DATA_START && dataEnd <= dataChannel.size());
+            checkHeader(file, "garbage", garbage, garbage >= 0 && garbage <= dataEnd - DATA_START);
+            checkHeader(file, "size", size, size >= 0 && size < slots);
+            if(indexChannels[currentIndexFile].size() != slots * SLOT_BYTES) {
+                throw new IOException(file + " does not match its index file");
+            }
+            return new MappedMap<>(keyCodec, valueCodec,
+                    new MappedMemory(indexChannels[currentIndexFile], slots * SLOT_BYTES), slots,
+                    data, size, dataEnd, garbage, dataChannel, indexChannels, currentIndexFile);
+        }
+        catch(IOException | RuntimeException e) {
+            closeAll(dataChannel, indexChannels);
+            throw e;
+        }
+    }
+
+    private static void checkHeader(Path file, String field, long value, boolean valid) throws IOException
+    {
+        if(!valid) {
+            throw new IOException(file + " has a corrupt header, its " + field + " cannot be " + value);
+        }
+    }
+
+    /**
+     * Deletes the files of the map stored at the given path, e.g. one that
+     * was not closed cleanly, so that open creates an empty map there. The
+     * map must not be open.
+     * @param file the data file of the map
+     * @throws IOException if the files exist but cannot be deleted
+     */
+    public static void delete(Path file) throws IOException
+    {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".index0"));
+        Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".index1"));
+    }
+
+    private static FileChannel openChannel(Path file) throws IOException
+    {
+        return FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+    }
+
+    private static void closeAll(FileChannel dataChannel, FileChannel[] indexChannels) throws IOException
+    {
+        dataChannel.close();
+        for(FileChannel channel : indexChannels) {
+            if(channel != null) {
+                channel.close();
+            }
+        }
+    }
+
+    @Override
+    public void add(K key, V value)
+    {
+        markDirty();
+        super.add(key, value);
+    }
+
+    @Override
+    public void remove(K key)
+    {
+        markDirty();
+        super.remove(key);
+    }
+
+    @Override
+    public void clear()
+    {
+        markDirty();
+        super.clear();
+    }
+
+    /**
+     * Writes every change out to the files and marks the header clean, so
+     * the map can be reopened from them.
+     * @throws IOException if the files cannot be written
+     */
+    public void flush() throws IOException
+    {
+        ((MappedMemory) indexMemory()).force();
+        MappedMemory data = (MappedMemory) dataMemory();
+        data.force();
+
+        //the header only names the new index once everything else is on disk
+        data.putLong(MAGIC_OFFSET, MAGIC);
+        data.putInt(VERSION_OFFSET, VERSION);
+        data.putLong(SLOTS_OFFSET, slots());
+        data.putLong(DATA_END_OFFSET, dataEnd());
+        data.putLong(GARBAGE_OFFSET, garbage());
+        data.putInt(SIZE_OFFSET, size());
+        data.putInt(INDEX_FILE_OFFSET, currentIndexFile);
+        data.putInt(STATE_OFFSET, CLEAN);
+        data.force();
+        dirty = false;
+
+        //the other index file is no longer needed
+        indexChannels[currentIndexFile ^ 1].truncate(0);
+    }
+
+    /**
+     * Flushes the map and closes its files.
+     * @throws IOException if the files cannot be written
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try {
+            flush();
+        }
+        finally {
+            closeAll(dataChannel, indexChannels);
+        }
+    }
+
+    //build each new index in the index file not in use
+    @Override
+    DirectMemory newIndex(long bytes)
+    {
+        try {
+            currentIndexFile ^= 1;
+            indexChannels[currentIndexFile].truncate(0);
+            return new MappedMemory(indexChannels[currentIndexFile], bytes);
+        }
+        catch(IOException e) {
+            throw new UncheckedIOException("Cannot create index file", e);
+        }
+    }
+
+    //reuse the data file, which keeps its length
+    @Override
+    DirectMemory newData(long bytes)
+    {
+        return dataMemory();
+    }
+
+    private void markDirty()
+    {
+        if(!dirty) {
+            MappedMemory data = (MappedMemory) dataMemory();
+            data.putInt(STATE_OFFSET, DIRTY);
+            data.force();
+            dirty = true;
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "MappedMap{size=" + size() + ", offHeapBytes=" + offHeapBytes() + '}';
+    }
+}
@@ -0,0 +1,621 @@
+package structures;
+
+import hashtable.Codec;
+import hashtable.DirectMemory;
+import hashtable.HashStrategy;
+import helpers.KeyValuePair;
+import interfaces.ICollection;
+import interfaces.IMap;
+import interfaces.ISet;
+
+import java.nio.ByteBuffer;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * A map that keeps its keys and values serialized in direct memory outside
+ * of the Java heap, so that even hundreds of millions of pairs add no
+ * objects for the garbage collector to trace. Codecs turn the keys and
+ * values into bytes, and keys are hashed and compared by those bytes.
+ *
+ * The bucket array is an index of 16 byte slots, each holding the address
+ * of an entry, the hash of its key and the length of its key, probed
+ * linearly. The entries are appended to a separate data region as
+ * [key length][value length][key][value]. A value rewritten with the same
+ * length is overwritten in place; otherwise the old entry becomes garbage,
+ * and the data region is compacted in place once garbage makes up most of
+ * it.
+ *
+ * Objects are only created when a key or value is read back out. The map is
+ * not thread safe.
+ *
+ * @param <K> the type of key stored
+ * @param <V> the type of value stored
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class OffHeapMap<K, V> implements IMap<K, V>
+{
+    private static final long INITIAL_SLOTS = 16;
+    private static final double LOAD_FACTOR = 0.7;
+    private static final long MAXIMUM_SLOTS = 1L << 30;
+    static final int SLOT_BYTES = 16;
+    private static final int ENTRY_HEADER_BYTES = 8;
+    private static final long INITIAL_DATA_CAPACITY = 1 << 12;
+    private static final long COMPACTION_THRESHOLD = 1 << 20;
+    //the data region starts with room for a header, which also means
+    //address 0 can mark an empty slot
+    static final long DATA_START = 64;
+    //a key length that marks the space skipped at the end of a chunk
+    private static final int PADDING = -1;
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+    private DirectMemory index;
+    private long mask;
+    private DirectMemory data;
+    private long dataEnd;
+    private long garbage;
+    private int size;
+    private int modCount;
+    private ByteBuffer keyBuffer = ByteBuffer.allocate(64);
+    private int keyLength;
+    private int keyHash;
+
+    /**
+     * Creates an empty map that stores keys and values with the given codecs.
+     * @param keyCodec converts keys, writing equal keys as equal bytes
+     * @param valueCodec converts values
+     */
+    public OffHeapMap(Codec<K> keyCodec, Codec<V> valueCodec)
+    {
+        this(keyCodec, valueCodec, 0);
+    }
+
+    /**
+     * Creates an empty map with an index sized up front so the expected
+     * number of pairs can be added without any resize.
+     * @param keyCodec converts keys, writing equal keys as equal bytes
+     * @param valueCodec converts values
+     * @param expectedSize the number of pairs the map is expected to hold
+     */
+    public OffHeapMap(Codec<K> keyCodec, Codec<V> valueCodec, int expectedSize)
+    {
+        this(keyCodec, valueCodec, new DirectMemory(slotsFor(expectedSize) * SLOT_BYTES), slotsFor(expectedSize),
+                new DirectMemory(INITIAL_DATA_CAPACITY), 0, DATA_START, 0);
+    }
+
+    /**
+     * Creates a map over an index and data region that already hold its
+     * pairs, e.g. ones mapped from a file.
+     * @param keyCodec converts keys, writing equal keys as equal bytes
+     * @param valueCodec converts values
+     * @param index the index memory
+     * @param slots the number of slots in the index
+     * @param data the data memory
+     * @param size the number of pairs
+     * @param dataEnd the end of the last entry in the data region
+     * @param garbage the number of bytes in the data region no longer used
+     */
+    OffHeapMap(Codec<K> keyCodec, Codec<V> valueCodec, DirectMemory index, long slots, DirectMemory data,
+               int size, long dataEnd, long garbage)
+    {
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.index = index;
+        this.mask = slots - 1;
+        this.data = data;
+        this.size = size;
+        this.dataEnd = dataEnd;
+        this.garbage = garbage;
+    }
+
+    @Override
+    public void add(K key, V value)
+    {
+        encodeKey(key);
+        resizeIfNeeded();
+        long slot = probe() * SLOT_BYTES;
+        long address = index.getLong(slot);
+        int valueLength = value == null ? -1 : valueCodec.sizeOf(value);
+        //overwrite the value in place when it takes the same space
+        if(address != 0 && data.getInt(address + 4) == valueLength) {
+            writeValue(address + ENTRY_HEADER_BYTES + keyLength, value, valueLength);
+            return;
+        }
+
+        //the entry is written before the slot, so a value that cannot be
+        //written leaves the map as it was
+        long appended = append(value, valueLength);
+        if(address != 0) {
+            garbage += entryBytes(keyLength, data.getInt(address + 4));
+        }
+        else {
+            index.putInt(slot + 8, keyHash);
+            index.putInt(slot + 12, keyLength);
+            size++;
+            modCount++;
+        }
+        index.putLong(slot, appended);
+        compactIfNeeded();
+    }
+
+    /**
+     * Removes a key (and the associated value) from the map. If no key is
+     * found matching the input parameter, then no change is made to the map.
+     * @param key the key
+     */
+    @Override
+    public void remove(K key)
+    {
+        encodeKey(key);
+        long slot = probe();
+        long address = index.getLong(slot * SLOT_BYTES);
+        if(address == 0) {
+            return;
+        }
+        garbage += entryBytes(keyLength, data.getInt(address + 4));
+
+        //shift the following slots of the run back so that every key is
+        //still reachable from its home slot without leaving a tombstone
+        long next = (slot + 1) & mask;
+        while(index.getLong(next * SLOT_BYTES) != 0) {
+            long home = homeSlot(index.getInt(next * SLOT_BYTES + 8));
+            if(((next - home) & mask) >= ((next - slot) & mask)) {
+                copySlot(index, next, index, slot);
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+        index.putLong(slot * SLOT_BYTES, 0);
+
+        size--;
+        modCount++;
+        compactIfNeeded();
+    }
+
+    @Override
+    public V get(K key)
+    {
+        encodeKey(key);
+        long address = index.getLong(probe() * SLOT_BYTES);
+        if(address == 0) {
+            return null;
+        }
+        return readValue(address);
+    }
+
+    @Override
+    public boolean keyExists(K key)
+    {
+        encodeKey(key);
+        return index.getLong(probe() * SLOT_BYTES) != 0;
+    }
+
+    @Override
+    public boolean valueExists(V value)
+    {
+        for(long slot = 0; slot <= mask; slot++) {
+            long address = index.getLong(slot * SLOT_BYTES);
+            if(address != 0 && Objects.equals(readValue(address), value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    @Override
+    public void clear()
+    {
+        index = newIndex(INITIAL_SLOTS * SLOT_BYTES);
+        mask = INITIAL_SLOTS - 1;
+        data = newData(INITIAL_DATA_CAPACITY);
+        dataEnd = DATA_START;
+        garbage = 0;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Returns the number of bytes of direct memory held by the index and
+     * the data region.
+     * @return the off-heap footprint in bytes
+     */
+    public long offHeapBytes()
+    {
+        return index.capacity() + data.capacity();
+    }
+
+    /**
+     * Returns an iterator that reads each key/value pair back onto the heap
+     * as it is reached.
+     * @return an iterator over the key/value pairs
+     */
+    @Override
+    public Iterator<KeyValuePair<K, V>> iterator()
+    {
+        return new SlotIterator();
+    }
+
+    /**
+     * Returns a set with the all keys in the map, copied onto the heap.
+     * @return a set of keys
+     */
+    @Override
+    public ISet<K> keyset()
+    {
+        ISet<K> temp = new Set<>(size);
+        for(long slot = 0; slot <= mask; slot++) {
+            long address = index.getLong(slot * SLOT_BYTES);
+            if(address != 0) {
+                temp.add(readKey(address));
+            }
+        }
+        return temp;
+    }
+
+    /**
+     * Returns an ICollection<V> object with all values in the map, copied
+     * onto the heap.
+     * @return a collection of values
+     */
+    @Override
+    public ICollection<V> values()
+    {
+        ICollection<V> temp = new Set<>(size);
+        for(long slot = 0; slot <= mask; slot++) {
+            long address = index.getLong(slot * SLOT_BYTES);
+            if(address != 0) {
+                temp.add(readValue(address));
+            }
+        }
+        return temp;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "OffHeapMap{size=" + size + ", offHeapBytes=" + offHeapBytes() + '}';
+    }
+
+    /**
+     * Returns zeroed memory for a new index. The current index is still
+     * read after this is called, so it must not be reused.
+     * @param bytes the size of the index in bytes
+     * @return the memory for the index
+     */
+    DirectMemory newIndex(long bytes)
+    {
+        return new DirectMemory(bytes);
+    }
+
+    /**
+     * Returns memory for an empty data region after the map is cleared.
+     * @param bytes the initial size of the data region
+     * @return the memory for the data region
+     */
+    DirectMemory newData(long bytes)
+    {
+        return new DirectMemory(bytes);
+    }
+
+    DirectMemory indexMemory()
+    {
+        return index;
+    }
+
+    DirectMemory dataMemory()
+    {
+        return data;
+    }
+
+    long slots()
+    {
+        return mask + 1;
+    }
+
+    long dataEnd()
+    {
+        return dataEnd;
+    }
+
+    long garbage()
+    {
+        return garbage;
+    }
+
+    //the smallest power of two index that holds the expected number of
+    //pairs without going over the load factor
+    static long slotsFor(int expectedSize)
+    {
+        if(expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative: " + expectedSize);
+        }
+        long slots = INITIAL_SLOTS;
+        while(slots < expectedSize / LOAD_FACTOR && slots < MAXIMUM_SLOTS) {
+            slots *= 2;
+        }
+        return slots;
+    }
+
+    //serializes the key into the key buffer and hashes its bytes
+    private void encodeKey(K key)
+    {
+        if(key == null) {
+            throw new NullPointerException("Keys cannot be null");
+        }
+        int length = keyCodec.sizeOf(key);
+        if(keyBuffer.capacity() < length) {
+            keyBuffer = ByteBuffer.allocate(Math.max(length, keyBuffer.capacity() * 2));
+        }
+        keyBuffer.clear();
+        keyCodec.write(key, keyBuffer);
+        if(keyBuffer.position() != length) {
+            throw new IllegalStateException("Key codec wrote " + keyBuffer.position() + " bytes for a key of " + length);
+        }
+        keyBuffer.flip();
+        keyLength = length;
+        keyHash = hashBytes(keyBuffer, length);
+    }
+
+    private static int hashBytes(ByteBuffer bytes, int length)
+    {
+        //fold a long at a time, then whatever is left over
+        long hash = length;
+        int i = 0;
+        for(; i + Long.BYTES <= length; i += Long.BYTES) {
+            hash = (hash ^ bytes.getLong(i)) * 0x9E3779B97F4A7C15L;
+            hash ^= hash >>> 32;
+        }
+        for(; i < length; i++) {
+            hash = (hash ^ bytes.get(i)) * 0x9E3779B97F4A7C15L;
+        }
+        return HashStrategy.mix((int) (hash ^ (hash >>> 32)));
+    }
+
+    private long homeSlot(int hash)
+    {
+        return (hash & 0xFFFFFFFFL) & mask;
+    }
+
+    //returns the slot holding the encoded key, or the empty slot that
+    //ends its run
+    private long probe()
+    {
+        long slot = homeSlot(keyHash);
+        while(true) {
+            long base = slot * SLOT_BYTES;
+            long address = index.getLong(base);
+            //compare the hash and length in the index before touching the entry
+            if(address == 0 || (index.getInt(base + 8) == keyHash && index.getInt(base + 12) == keyLength
+                    && data.contentEquals(address + ENTRY_HEADER_BYTES, keyBuffer, keyLength))) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private static void copySlot(DirectMemory from, long fromSlot, DirectMemory to, long toSlot)
+    {
+        to.putLong(toSlot * SLOT_BYTES, from.getLong(fromSlot * SLOT_BYTES));
+        to.putLong(toSlot * SLOT_BYTES + 8, from.getLong(fromSlot * SLOT_BYTES + 8));
+    }
+
+    //entries are padded to 8 bytes so their headers stay aligned
+    private static long entryBytes(int keyLength, int valueLength)
+    {
+        return (ENTRY_HEADER_BYTES + (long) keyLength + Math.max(valueLength, 0) + 7) & ~7L;
+    }
+
+    //writes a new entry for the encoded key and returns its address
+    private long append(V value, int valueLength)
+    {
+        long length = entryBytes(keyLength, valueLength);
+        if(length > 1 << DirectMemory.MAXIMUM_CHUNK_BITS) {
+            throw new IllegalArgumentException("Entry of " + length + " bytes is too large to store");
+        }
+        long address = reserve((int) length);
+        //the header goes first, so an entry whose value fails to write can
+        //be skipped as garbage like any other dead entry
+        data.putInt(address, keyLength);
+        data.putInt(address + 4, valueLength);
+        try {
+            data.write(address + ENTRY_HEADER_BYTES, keyBuffer, keyLength);
+            writeValue(address + ENTRY_HEADER_BYTES + keyLength, value, valueLength);
+        }
+        catch(RuntimeException ex) {
+            garbage += length;
+            throw ex;
+        }
+        return address;
+    }
+
+    //claims space at the end of the data region that stays within a chunk
+    private long reserve(int length)
+    {
+        while(true) {
+            data.grow(dataEnd + length);
+            long chunkEnd = data.chunkEnd(dataEnd);
+            if(dataEnd + length <= chunkEnd) {
+                long address = dataEnd;
+                dataEnd += length;
+                return address;
+            }
+            //the entry would straddle two chunks, so pad out this one and
+            //skip to the next
+            data.putInt(dataEnd, PADDING);
+            data.putInt(dataEnd + 4, (int) (chunkEnd - dataEnd));
+            garbage += chunkEnd - dataEnd;
+            dataEnd = chunkEnd;
+        }
+    }
+
+    private void writeValue(long address, V value, int valueLength)
+    {
+        if(valueLength <= 0) {
+            return;
+        }
+        ByteBuffer target = data.slice(address, valueLength);
+        valueCodec.write(value, target);
+        if(target.hasRemaining()) {
+            throw new IllegalStateException("Value codec wrote fewer bytes than the " + valueLength + " it sized");
+        }
+    }
+
+    private K readKey(long address)
+    {
+        return keyCodec.read(data.slice(address + ENTRY_HEADER_BYTES, data.getInt(address)));
+    }
+
+    private V readValue(long address)
+    {
+        int keyBytes = data.getInt(address);
+        int valueLength = data.getInt(address + 4);
+        if(valueLength < 0) {
+            return null;
+        }
+        return valueCodec.read(data.slice(address + ENTRY_HEADER_BYTES + keyBytes, valueLength));
+    }
+
+    private void resizeIfNeeded()
+    {
+        long slots = mask + 1;
+        if(size + 1 > slots * LOAD_FACTOR) {
+            if(slots == MAXIMUM_SLOTS) {
+                throw new IllegalStateException("OffHeapMap cannot grow past " + MAXIMUM_SLOTS + " slots");
+            }
+            resize(slots * 2);
+        }
+    }
+
+    //move every slot into a new index of the given size; the entries stay
+    //where they are since each slot carries the hash of its key
+    private void resize(long slots)
+    {
+        DirectMemory oldIndex = index;
+        long oldSlots = mask + 1;
+        index = newIndex(slots * SLOT_BYTES);
+        mask = slots - 1;
+        for(long oldSlot = 0; oldSlot < oldSlots; oldSlot++) {
+            if(oldIndex.getLong(oldSlot * SLOT_BYTES) != 0) {
+                long slot = homeSlot(oldIndex.getInt(oldSlot * SLOT_BYTES + 8));
+                while(index.getLong(slot * SLOT_BYTES) != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                copySlot(oldIndex, oldSlot, index, slot);
+            }
+        }
+        modCount++;
+    }
+
+    private void compactIfNeeded()
+    {
+        if(garbage > COMPACTION_THRESHOLD && garbage > (dataEnd - DATA_START) / 2) {
+            compact();
+        }
+    }
+
+    //slide the live entries down over the garbage in address order, so
+    //every entry moves to a lower address and no second region is needed
+    private void compact()
+    {
+        //tag each live entry with its slot in place of its key length,
+        //which the slot also holds
+        for(long slot = 0; slot <= mask; slot++) {
+            long address = index.getLong(slot * SLOT_BYTES);
+            if(address != 0) {
+                data.putInt(address, (int) (-2 - slot));
+            }
+        }
+
+        long end = dataEnd;
+        long read = DATA_START;
+        dataEnd = DATA_START;
+        garbage = 0;
+        byte[] buffer = new byte[8192];
+        while(read < end) {
+            int tag = data.getInt(read);
+            int valueLength = data.getInt(read + 4);
+            if(tag == PADDING) {
+                read += valueLength;
+                continue;
+            }
+            if(tag >= 0) {
+                //an untagged entry is garbage
+                read += entryBytes(tag, valueLength);
+                continue;
+            }
+
+            long slot = -2 - (long) tag;
+            int keyBytes = index.getInt(slot * SLOT_BYTES + 12);
+            int length = (int) entryBytes(keyBytes, valueLength);
+            long moved = reserve(length);
+            if(moved != read) {
+                //copy forwards a piece at a time, which is safe since the
+                //entry only ever moves down
+                for(int copied = 0; copied < length; copied += buffer.length) {
+                    int piece = Math.min(buffer.length, length - copied);
+                    data.slice(read + copied, piece).get(buffer, 0, piece);
+                    data.slice(moved + copied, piece).put(buffer, 0, piece);
+                }
+            }
+            data.putInt(moved, keyBytes);
+            index.putLong(slot * SLOT_BYTES, moved);
+            read += length;
+        }
+    }
+
+    private class SlotIterator implements Iterator<KeyValuePair<K, V>>
+    {
+        private int currentModCount = modCount;
+        private long currentSlot = -1;
+
+        public SlotIterator()
+        {
+            findNextSlot();
+        }
+
+        private void findNextSlot()
+        {
+            do {
+                currentSlot++;
+            }
+            while(currentSlot <= mask && index.getLong(currentSlot * SLOT_BYTES) == 0);
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if(currentModCount != modCount) {
+                throw new ConcurrentModificationException("Cannot modify map while iterating");
+            }
+            return currentSlot <= mask;
+        }
+
+        @Override
+        public KeyValuePair<K, V> next()
+        {
+            if(!hasNext()) {
+                throw new NoSuchElementException("No pairs left in the map");
+            }
+
+            long address = index.getLong(currentSlot * SLOT_BYTES);
+            KeyValuePair<K, V> pair = new KeyValuePair<>(readKey(address), readValue(address));
+            findNextSlot();
+            return pair;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package structures;
+
+import hashtable.HashStrategy;
+import hashtable.HashTable;
+import hashtable.PerfectHash;
+import interfaces.IHashTable;
+import interfaces.ISet;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable set for static data, such as dictionaries of country codes,
+ * built on a minimal perfect hash function. Every element sits at the index
+ * the function computes from its hash, so a lookup is one computation and
+ * one equals call with no buckets or probing, and the index costs about
+ * three bits per element on top of the element array itself.
+ *
+ * Elements whose hash code repeats one already taken cannot be told apart by
+ * the function and are kept in a small FrozenSet instead, which is only
+ * consulted when the element at the computed index does not match.
+ *
+ * Every method that would change the set throws an UnsupportedOperationException,
+ * the set operations return new ordinary Sets.
+ *
+ * @param <T> the type of element stored
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public final class PerfectHashSet<T> implements ISet<T>
+{
+    private static final HashStrategy<Object> STRATEGY = HashStrategy.defaultStrategy();
+    private final Object[] elements;
+    private final PerfectHash perfectHash;
+    private final FrozenSet<Object> overflow;
+
+    /**
+     * Places the elements at their perfect hash indexes, moving each entry
+     * of the parallel values array (if any) along with its element so
+     * PerfectHashMap can look values up by the index of their key.
+     * @param elements the distinct elements
+     * @param values values to keep aligned with the elements, reordered in
+     *               place, or null
+     */
+    PerfectHashSet(Object[] elements, Object[] values)
+    {
+        int size = elements.length;
+
+        //the first element with each hash code goes to the perfect hash
+        int[] hashes = new int[size];
+        int[] primaryHashes = new int[size];
+        boolean[] primary = new boolean[size];
+        int primaryCount = 0;
+        IntHashSet seen = new IntHashSet(size);
+        for(int i = 0; i < size; i++) {
+            hashes[i] = STRATEGY.hash(elements[i]);
+            if(!seen.contains(hashes[i])) {
+                seen.add(hashes[i]);
+                primary[i] = true;
+                primaryHashes[primaryCount++] = hashes[i];
+            }
+        }
+        perfectHash = new PerfectHash(Arrays.copyOf(primaryHashes, primaryCount));
+
+        //place the primary elements at their indexes and collect the rest
+        this.elements = new Object[size];
+        Object[] sourceValues = values != null ? values.clone() : null;
+        Object[] overflowElements = new Object[size - primaryCount];
+        Object[] overflowValues = new Object[size - primaryCount];
+        int overflowCount = 0;
+        for(int i = 0; i < size; i++) {
+            if(primary[i]) {
+                int index = perfectHash.indexOf(hashes[i]);
+                this.elements[index] = elements[i];
+                if(values != null) {
+                    values[index] = sourceValues[i];
+                }
+            }
+            else {
+                overflowElements[overflowCount] = elements[i];
+                overflowValues[overflowCount++] = values != null ? sourceValues[i] : null;
+            }
+        }
+
+        //the overflow elements follow in the order of their own frozen set
+        if(overflowCount == 0) {
+            overflow = null;
+            return;
+        }
+        overflow = new FrozenSet<>(overflowElements, overflowValues);
+        for(int i = 0; i < overflowCount; i++) {
+            this.elements[primaryCount + i] = overflow.elementAt(i);
+            if(values != null) {
+                values[primaryCount + i] = overflowValues[i];
+            }
+        }
+    }
+
+    /**
+     * Returns a perfect hash set holding the elements of the source, e.g. a
+     * finished Set. Any source other than a set or hash table is first
+     * collected into a HashTable to drop duplicates.
+     * @param source the elements to copy
+     * @param <T> the type of element stored
+     * @return a perfect hash set of the elements
+     */
+    public static <T> PerfectHashSet<T> copyOf(Iterable<? extends T> source)
+    {
+        if(source instanceof PerfectHashSet) {
+            @SuppressWarnings("unchecked")
+            PerfectHashSet<T> perfect = (PerfectHashSet<T>) source;
+            return perfect;
+        }
+
+        //anything that might hold duplicates goes through a HashTable first
+        if(!(source instanceof ISet) && !(source instanceof IHashTable)) {
+            HashTable<T> table = new HashTable<>();
+            table.addAll(source);
+            source = table;
+        }
+
+        //a concurrent source may change size while it is copied
+        Object[] elements = new Object[IHashTable.sizeOf(source)];
+        int count = 0;
+        for(T element : source) {
+            if(count == elements.length) {
+                elements = Arrays.copyOf(elements, count * 2 + 1);
+            }
+            elements[count++] = element;
+        }
+        return new PerfectHashSet<>(Arrays.copyOf(elements, count), null);
+    }
+
+    //returns the position of the element, or -1
+    int indexOf(Object element)
+    {
+        int index = perfectHash.indexOf(STRATEGY.hash(element));
+        if(index < perfectHash.size() && elements[index].equals(element)) {
+            return index;
+        }
+        if(overflow != null) {
+            int overflowIndex = overflow.indexOf(element);
+            if(overflowIndex >= 0) {
+                return perfectHash.size() + overflowIndex;
+            }
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    T elementAt(int index)
+    {
+        return (T) elements[index];
+    }
+
+    /**
+     * Returns the average number of bits of index stored per element, not
+     * counting the element array itself.
+     * @return the bits per element
+     */
+    public double bitsPerKey()
+    {
+        return perfectHash.bitsPerKey();
+    }
+
+    /**
+     * Perfect hash sets cannot be changed.
+     * @param element ignored
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void add(T element)
+    {
+        throw new UnsupportedOperationException("Cannot add to a perfect hash set");
+    }
+
+    /**
+     * Perfect hash sets cannot be changed.
+     * @param element ignored
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void remove(T element)
+    {
+        throw new UnsupportedOperationException("Cannot remove from a perfect hash set");
+    }
+
+    /**
+     * Perfect hash sets cannot be changed.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void clear()
+    {
+        throw new UnsupportedOperationException("Cannot clear a perfect hash set");
+    }
+
+    @Override
+    public boolean contains(T element)
+    {
+        return indexOf(element) >= 0;
+    }
+
+    @Override
+    public T get(T element)
+    {
+        //return the stored element equal to the given one, or null
+        int index = indexOf(element);
+        return index < 0 ? null : elementAt(index);
+    }
+
+    @Override
+    public int size()
+    {
+        return elements.length;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return elements.length == 0;
+    }
+
+    @Override
+    public Iterator<T> iterator()
+    {
+        return new Iterator<T>()
+        {
+            private int currentIndex;
+
+            @Override
+            public boolean hasNext()
+            {
+                return currentIndex < elements.length;
+            }
+
+            @Override
+            public T next()
+            {
+                if(!hasNext()) {
+                    throw new NoSuchElementException("No elements left in the set");
+                }
+                return elementAt(currentIndex++);
+            }
+        };
+    }
+
+    @Override
+    public ISet<T> union(ISet<T> other)
+    {
+        Set<T> temp = new Set<>(size() + other.size());
+        temp.addAll(this);
+        temp.addAll(other);
+        return temp;
+    }
+
+    @Override
+    public ISet<T> intersects(ISet<T> other)
+    {
+        //loop through the smaller set and probe the larger one for each element
+        ISet<T> smaller = size() <= other.size() ? this : other;
+        ISet<T> larger = smaller == this ? other : this;
+
+        ISet<T> temp = new Set<>(smaller.size());
+        for(T element : smaller) {
+            if(larger.contains(element)) {
+                temp.add(element);
+            }
+        }
+        return temp;
+    }
+
+    @Override
+    public ISet<T> difference(ISet<T> other)
+    {
+        ISet<T> temp = new Set<>(size());
+        for(T element : this) {
+            if(!other.contains(element)) {
+                temp.add(element);
+            }
+        }
+        return temp;
+    }
+
+    @Override
+    public boolean isSubset(ISet<T> other)
+    {
+        for(T element : other) {
+            if(!contains(element)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isDisjoint(ISet<T> other)
+    {
+        for(T element : other) {
+            if(contains(element)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isEmptySet()
+    {
+        return isEmpty();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PerfectHashSet{size=" + elements.length + ", bitsPerKey=" + String.format("%.2f", bitsPerKey()) + '}';
+    }
+}
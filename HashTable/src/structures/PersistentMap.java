@@ -0,0 +1,169 @@
+package structures;
+
+import hashtable.HashTrie;
+import helpers.KeyValuePair;
+import interfaces.ICollection;
+import interfaces.IMap;
+import interfaces.ISet;
+
+import java.util.Iterator;
+import java.util.Objects;
+
+/**
+ * A map whose versions share structure. The key/value pairs are held in an
+ * immutable HashTrie, so add and remove replace the trie with a new version
+ * that copies only the path to the changed key, and snapshot hands out the
+ * current version in constant time. Old versions are never changed, which
+ * makes them safe to keep for undo or rollback and to read from other threads.
+ *
+ * @param <K> the type of key stored
+ * @param <V> the type of value stored
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class PersistentMap<K, V> implements IMap<K, V>
+{
+    private HashTrie<KeyValuePair<K, V>> trie;
+
+    /**
+     * Creates an empty map.
+     */
+    public PersistentMap()
+    {
+        this(HashTrie.empty());
+    }
+
+    private PersistentMap(HashTrie<KeyValuePair<K, V>> trie)
+    {
+        this.trie = trie;
+    }
+
+    /**
+     * Returns the current version of the map in constant time. Later changes
+     * to either map do not affect the other.
+     * @return a map sharing this map's current pairs
+     */
+    public PersistentMap<K, V> snapshot()
+    {
+        return new PersistentMap<>(trie);
+    }
+
+    /**
+     * Returns a new version of the map with the key/value pair, leaving this
+     * map unchanged.
+     * @param key the key
+     * @param value the value
+     * @return the new version
+     */
+    public PersistentMap<K, V> with(K key, V value)
+    {
+        return new PersistentMap<>(trie.put(new KeyValuePair<>(key, value)));
+    }
+
+    /**
+     * Returns a new version of the map without the key, leaving this map
+     * unchanged.
+     * @param key the key
+     * @return the new version
+     */
+    public PersistentMap<K, V> without(K key)
+    {
+        return new PersistentMap<>(trie.without(new KeyValuePair<>(key, null)));
+    }
+
+    @Override
+    public void add(K key, V value)
+    {
+        //replace the KeyValue with the same key if there is one
+        trie = trie.put(new KeyValuePair<>(key, value));
+    }
+
+    @Override
+    public void remove(K key)
+    {
+        //a missing key leaves the map unchanged
+        trie = trie.without(new KeyValuePair<>(key, null));
+    }
+
+    @Override
+    public V get(K key)
+    {
+        KeyValuePair<K, V> element = trie.find(new KeyValuePair<>(key, null));
+        if(element == null) {
+            return null;
+        }
+        return element.getValue();
+    }
+
+    @Override
+    public boolean keyExists(K key)
+    {
+        return trie.contains(new KeyValuePair<>(key, null));
+    }
+
+    @Override
+    public boolean valueExists(V value)
+    {
+        for(KeyValuePair<K, V> element : trie) {
+            if(Objects.equals(element.getValue(), value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int size()
+    {
+        return trie.size();
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return trie.isEmpty();
+    }
+
+    @Override
+    public void clear()
+    {
+        trie = trie.cleared();
+    }
+
+    /**
+     * Returns an iterator over the version of the map current when it is
+     * created, which later changes do not affect.
+     * @return an iterator over the key/value pairs
+     */
+    @Override
+    public Iterator<KeyValuePair<K, V>> iterator()
+    {
+        return trie.iterator();
+    }
+
+    @Override
+    public ISet<K> keyset()
+    {
+        PersistentSet<K> temp = new PersistentSet<>();
+        for(KeyValuePair<K, V> element : trie) {
+            temp.add(element.getKey());
+        }
+        return temp;
+    }
+
+    @Override
+    public ICollection<V> values()
+    {
+        ICollection<V> temp = new Set<>(trie.size());
+        for(KeyValuePair<K, V> element : trie) {
+            temp.add(element.getValue());
+        }
+        return temp;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PersistentMap{size=" + trie.size() + '}';
+    }
+}
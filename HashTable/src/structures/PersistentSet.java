@@ -0,0 +1,214 @@
+package structures;
+
+import hashtable.HashStrategy;
+import hashtable.HashTrie;
+import interfaces.ISet;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A set whose versions share structure. It holds an immutable HashTrie, so
+ * add and remove replace the trie with a new version that copies only the
+ * path to the changed element, and snapshot hands out the current version
+ * in constant time. Old versions are never changed, which makes them safe
+ * to keep for undo or rollback and to read from other threads.
+ *
+ * @param <T> the type of element stored
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class PersistentSet<T> implements ISet<T>
+{
+    private HashTrie<T> trie;
+
+    /**
+     * Creates an empty set.
+     */
+    public PersistentSet()
+    {
+        this(HashTrie.empty());
+    }
+
+    /**
+     * Creates an empty set that hashes elements with the given strategy.
+     * @param strategy computes the hash of each element
+     */
+    public PersistentSet(HashStrategy<? super T> strategy)
+    {
+        this(HashTrie.empty(strategy));
+    }
+
+    private PersistentSet(HashTrie<T> trie)
+    {
+        this.trie = trie;
+    }
+
+    /**
+     * Returns the current version of the set in constant time. Later changes
+     * to either set do not affect the other.
+     * @return a set sharing this set's current elements
+     */
+    public PersistentSet<T> snapshot()
+    {
+        return new PersistentSet<>(trie);
+    }
+
+    /**
+     * Returns a new version of the set that also holds the element, leaving
+     * this set unchanged.
+     * @param element the element to add
+     * @return the new version
+     */
+    public PersistentSet<T> with(T element)
+    {
+        return new PersistentSet<>(trie.with(element));
+    }
+
+    /**
+     * Returns a new version of the set without the element, leaving this
+     * set unchanged.
+     * @param element the element to remove
+     * @return the new version
+     */
+    public PersistentSet<T> without(T element)
+    {
+        return new PersistentSet<>(trie.without(element));
+    }
+
+    @Override
+    public void add(T element)
+    {
+        trie = trie.with(element);
+    }
+
+    @Override
+    public void remove(T element)
+    {
+        HashTrie<T> smaller = trie.without(element);
+        if(smaller == trie) {
+            //throw an exception when trying to remove an element that does not exist
+            throw new NoSuchElementException("No element " + element + " found");
+        }
+        trie = smaller;
+    }
+
+    @Override
+    public boolean contains(T element)
+    {
+        return trie.contains(element);
+    }
+
+    @Override
+    public int size()
+    {
+        return trie.size();
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return trie.isEmpty();
+    }
+
+    @Override
+    public void clear()
+    {
+        trie = trie.cleared();
+    }
+
+    @Override
+    public T get(T element)
+    {
+        return trie.find(element);
+    }
+
+    /**
+     * Returns an iterator over the version of the set current when it is
+     * created, which later changes do not affect.
+     * @return an iterator over the elements
+     */
+    @Override
+    public Iterator<T> iterator()
+    {
+        return trie.iterator();
+    }
+
+    @Override
+    public ISet<T> union(ISet<T> other)
+    {
+        //start from this version and add the other elements, sharing the rest
+        HashTrie<T> result = trie;
+        for(T element : other) {
+            result = result.with(element);
+        }
+        return new PersistentSet<>(result);
+    }
+
+    @Override
+    public ISet<T> intersects(ISet<T> other)
+    {
+        //remove the elements the other set lacks from this version
+        HashTrie<T> result = trie;
+        for(T element : trie) {
+            if(!other.contains(element)) {
+                result = result.without(element);
+            }
+        }
+        return new PersistentSet<>(result);
+    }
+
+    @Override
+    public ISet<T> difference(ISet<T> other)
+    {
+        //probe whichever side means fewer lookups
+        HashTrie<T> result = trie;
+        if(other.size() < trie.size()) {
+            for(T element : other) {
+                result = result.without(element);
+            }
+        }
+        else {
+            for(T element : trie) {
+                if(other.contains(element)) {
+                    result = result.without(element);
+                }
+            }
+        }
+        return new PersistentSet<>(result);
+    }
+
+    @Override
+    public boolean isSubset(ISet<T> other)
+    {
+        for(T element : other) {
+            if(!trie.contains(element)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isDisjoint(ISet<T> other)
+    {
+        for(T element : other) {
+            if(trie.contains(element)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isEmptySet()
+    {
+        return trie.isEmpty();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PersistentSet{size=" + trie.size() + '}';
+    }
+}
@@ -1,13 +1,72 @@
 package structures;
 
+import hashtable.Codec;
+import hashtable.HashStrategy;
 import hashtable.HashTable;
+import hashtable.HashTableConfig;
+import hashtable.Snapshot;
+import interfaces.IHashTable;
 import interfaces.ISet;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.Iterator;
 
 public class Set<T> implements ISet<T>
 {
-    private HashTable<T> table = new HashTable<>();
+    private IHashTable<T> table;
+
+    /**
+     * Creates a set backed by a chained HashTable.
+     */
+    public Set()
+    {
+        this(new HashTable<>());
+    }
+
+    /**
+     * Creates a set backed by a chained HashTable sized up front so that
+     * the expected number of elements can be added without any resize.
+     * @param expectedSize the number of elements the set is expected to hold
+     */
+    public Set(int expectedSize)
+    {
+        this(new HashTable<>(expectedSize));
+    }
+
+    /**
+     * Creates a set backed by a chained HashTable that grows and shrinks
+     * as the given config describes.
+     * @param config the load factor, growth and capacity settings
+     */
+    public Set(HashTableConfig config)
+    {
+        this(new HashTable<>(config));
+    }
+
+    /**
+     * Creates a set backed by a chained HashTable that hashes elements with
+     * the given strategy, e.g. for elements with a poor hashCode().
+     * @param strategy computes the hash of each element
+     */
+    public Set(HashStrategy<? super T> strategy)
+    {
+        this(new HashTable<>(strategy));
+    }
+
+    /**
+     * Creates a set backed by the given table engine, e.g. an
+     * OpenHashTable for flat open addressing storage.
+     * @param table an empty table to store the elements in
+     */
+    public Set(IHashTable<T> table)
+    {
+        this.table = table;
+    }
 
     @Override
     public void add(T element)
@@ -16,6 +75,35 @@ public class Set<T> implements ISet<T>
         table.add(element);
     }
 
+    /**
+     * Adds every element of the input parameter to the set, sizing the
+     * table once up front when the number of elements is known.
+     * @param source the elements to add
+     */
+    public void addAll(Iterable<? extends T> source)
+    {
+        table.addAll(source);
+    }
+
+    /**
+     * Adds every element of the array to the set, sizing the table once
+     * up front.
+     * @param source the elements to add
+     */
+    public void addAll(T[] source)
+    {
+        table.addAll(source);
+    }
+
+    /**
+     * Shrinks the set's table to the smallest capacity that holds its
+     * current elements.
+     */
+    public void trimToSize()
+    {
+        table.trimToSize();
+    }
+
     @Override
     public void remove(T element)
     {
@@ -65,33 +153,106 @@ public class Set<T> implements ISet<T>
         return table.iterator();
     }
 
-    @Override
-    public ISet<T> union(ISet<T> other)
+    /**
+     * Returns an iterator that keeps going through writes made to the set
+     * while it is in use. It returns every element that stays in the set
+     * while it runs exactly once, and may or may not return elements added
+     * or removed meanwhile. The writes must
+     * be made by the iterating thread; a scan that runs alongside writes
+     * from other threads needs a ConcurrentSet.
+     * @return a weakly consistent iterator over the elements
+     */
+    public Iterator<T> weaklyConsistentIterator()
     {
-        ISet<T> temp = new Set<>();
-        //add each element from original table to the ISet object
-        for(T element : table) {
-            temp.add(element);
-        }
+        return table.weaklyConsistentIterator();
+    }
 
-        //add each element from the other table to the ISet object
-        for(T element : other) {
-            temp.add(element);
+    /**
+     * Returns an immutable copy of the set packed for fast lookups from
+     * any number of threads.
+     * @return a frozen copy of the set
+     */
+    public FrozenSet<T> freeze()
+    {
+        return FrozenSet.copyOf(this);
+    }
+
+    /**
+     * Writes a binary snapshot of the set to the stream, which is left open.
+     * @param out where to write the snapshot
+     * @param codec converts each element to bytes
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeTo(OutputStream out, Codec<? super T> codec) throws IOException
+    {
+        writeTo(Channels.newChannel(out), codec);
+    }
+
+    /**
+     * Writes a binary snapshot of the set to the channel, which is left open.
+     * @param channel where to write the snapshot
+     * @param codec converts each element to bytes
+     * @throws IOException if the channel cannot be written
+     */
+    public void writeTo(WritableByteChannel channel, Codec<? super T> codec) throws IOException
+    {
+        if(table instanceof HashTable) {
+            ((HashTable<T>) table).writeTo(channel, codec);
+        }
+        else {
+            Snapshot.write(channel, table, table.size(), table.size(), codec);
         }
+    }
+
+    /**
+     * Reads a set backed by a chained HashTable from a binary snapshot,
+     * sizing the table once and adding the elements without duplicate checks.
+     * @param in where to read the snapshot from
+     * @param codec converts the bytes of each element back
+     * @param <T> the type of element read
+     * @return a set holding the elements of the snapshot
+     * @throws IOException if the stream cannot be read or does not hold a snapshot
+     */
+    public static <T> Set<T> readFrom(InputStream in, Codec<T> codec) throws IOException
+    {
+        return readFrom(Channels.newChannel(in), codec);
+    }
+
+    /**
+     * Reads a set backed by a chained HashTable from a binary snapshot,
+     * sizing the table once and adding the elements without duplicate checks.
+     * @param channel where to read the snapshot from
+     * @param codec converts the bytes of each element back
+     * @param <T> the type of element read
+     * @return a set holding the elements of the snapshot
+     * @throws IOException if the channel cannot be read or does not hold a snapshot
+     */
+    public static <T> Set<T> readFrom(ReadableByteChannel channel, Codec<T> codec) throws IOException
+    {
+        return new Set<>(HashTable.readFrom(channel, codec));
+    }
+
+    @Override
+    public ISet<T> union(ISet<T> other)
+    {
+        //size the new set once for both sides, duplicates only leave it a little roomy
+        Set<T> temp = new Set<>(size() + other.size());
+        temp.addAll(table);
+        temp.addAll(other);
         return temp;
     }
 
     @Override
     public ISet<T> intersects(ISet<T> other)
     {
-        ISet<T> temp = new Set<>();
-        //loop through the table and add each element that is contained in
-        //both original and other table
-        for(T element : table) {
-            for(T otherElement : other) {
-                if(element.equals(otherElement)) {
-                    temp.add(element);
-                }
+        //loop through the smaller set and probe the larger one for each element
+        ISet<T> smaller = size() <= other.size() ? this : other;
+        ISet<T> larger = smaller == this ? other : this;
+
+        ISet<T> temp = new Set<>(smaller.size());
+        for(T element : smaller) {
+            if(larger.contains(element)) {
+                temp.add(element);
             }
         }
         return temp;
@@ -100,23 +261,47 @@ public class Set<T> implements ISet<T>
     @Override
     public ISet<T> difference(ISet<T> other)
     {
-        ISet<T> temp = new Set<>();
-        //add each element in original table to ISet object
-        for(T element : table) {
-            temp.add(element);
-        }
-
-        //remove each element from ISet that matches the element in other table
+        //add each element of the original table that the other set does not contain
+        ISet<T> temp = new Set<>(size());
         for(T element : table) {
-            for(T otherElement : other) {
-                if(element.equals(otherElement)) {
-                    temp.remove(element);
-                }
+            if(!other.contains(element)) {
+                temp.add(element);
             }
         }
         return temp;
     }
 
+    /**
+     * Removes every element of this set that is not in the input set,
+     * leaving this set holding the intersection of the two.
+     * @param other the set of elements to keep
+     * @return true if this set changed
+     */
+    public boolean retainAll(ISet<T> other)
+    {
+        return table.removeIf(element -> !other.contains(element));
+    }
+
+    /**
+     * Removes every element of the input set from this set, leaving this
+     * set holding the difference of the two (i.e. this - other).
+     * @param other the set of elements to remove
+     * @return true if this set changed
+     */
+    public boolean removeAll(ISet<T> other)
+    {
+        //probe whichever side means fewer lookups
+        if(other.size() >= size()) {
+            return table.removeIf(other::contains);
+        }
+
+        boolean changed = false;
+        for(T element : other) {
+            changed |= table.removeIfPresent(element);
+        }
+        return changed;
+    }
+
     @Override
     public boolean isSubset(ISet<T> other)
     {
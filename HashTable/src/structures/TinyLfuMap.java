@@ -0,0 +1,411 @@
+package structures;
+
+import hashtable.FrequencySketch;
+import hashtable.HashStrategy;
+import hashtable.HashTable;
+import helpers.KeyValuePair;
+import interfaces.ICollection;
+import interfaces.IMap;
+import interfaces.ISet;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * A map that works as a bounded cache using the W-TinyLFU policy, which
+ * keeps frequently used pairs even through scans of keys that are used only
+ * once. New pairs enter a small window kept in least recently used order,
+ * and a pair pushed out of the window only joins the main region if a
+ * FrequencySketch estimates its key has been used more often than the key
+ * it would evict from there. The main region is split into a probation
+ * segment for pairs used once since joining and a protected segment, about
+ * 80% of it, for pairs used again, so one burst of traffic cannot push out
+ * pairs that stay popular.
+ *
+ * Every entry is both a HashTable element and a link in the list of its
+ * region, so hits and evictions relink entries in constant time without
+ * allocating. get and add count as uses of the key, hit or miss, and
+ * keyExists does not. The order of iteration is unspecified. The map is
+ * not thread safe.
+ *
+ * @param <K> the type of key stored
+ * @param <V> the type of value stored
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class TinyLfuMap<K, V> implements IMap<K, V>
+{
+    private static final HashStrategy<Object> KEY_STRATEGY = HashStrategy.defaultStrategy();
+    private static final double WINDOW_SHARE = 0.01;
+    private static final double PROTECTED_SHARE = 0.8;
+    private static final byte WINDOW = 0;
+    private static final byte PROBATION = 1;
+    private static final byte PROTECTED = 2;
+    private final HashTable<Entry<K, V>> table;
+    private final FrequencySketch sketch;
+    private final int maximumSize;
+    private final int maximumWindow;
+    private final int maximumProtected;
+    private final AccessOrder<K, V> window = new AccessOrder<>();
+    private final AccessOrder<K, V> probation = new AccessOrder<>();
+    private final AccessOrder<K, V> protectedSegment = new AccessOrder<>();
+    //reused for every lookup so that reads allocate nothing
+    private final Entry<K, V> probe = new Entry<>(null, null);
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private int modCount;
+
+    /**
+     * Creates a cache that holds at most the given number of pairs.
+     * @param maximumSize the most pairs to hold
+     */
+    public TinyLfuMap(int maximumSize)
+    {
+        if(maximumSize < 0) {
+            throw new IllegalArgumentException("Maximum size cannot be negative: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.maximumWindow = Math.min(maximumSize, Math.max(1, (int) (maximumSize * WINDOW_SHARE)));
+        this.maximumProtected = (int) ((maximumSize - maximumWindow) * PROTECTED_SHARE);
+        this.sketch = new FrequencySketch(maximumSize);
+        this.table = new HashTable<>(maximumSize, entry -> KEY_STRATEGY.hash(entry.key), false);
+    }
+
+    @Override
+    public void add(K key, V value)
+    {
+        sketch.increment(KEY_STRATEGY.hash(key));
+        probe.key = key;
+        Entry<K, V> entry = table.find(probe);
+        probe.key = null;
+        if(entry != null) {
+            entry.value = value;
+            onHit(entry);
+            return;
+        }
+
+        entry = new Entry<>(key, value);
+        table.add(entry);
+        window.linkLast(entry);
+        modCount++;
+        if(window.size > maximumWindow) {
+            //the window's least recently used pair becomes a candidate for the main region
+            Entry<K, V> candidate = window.head;
+            window.unlink(candidate);
+            candidate.region = PROBATION;
+            probation.linkLast(candidate);
+            if(table.size() > maximumSize) {
+                evict(candidate);
+            }
+        }
+    }
+
+    /**
+     * Removes a key (and the associated value) from the map. If no key is
+     * found matching the input parameter, then no change is made to the map.
+     * @param key the key
+     */
+    @Override
+    public void remove(K key)
+    {
+        probe.key = key;
+        Entry<K, V> entry = table.find(probe);
+        probe.key = null;
+        if(entry != null) {
+            regionOf(entry).unlink(entry);
+            table.remove(entry);
+            modCount++;
+        }
+    }
+
+    /**
+     * Returns the value associated with the key, counting a use of the key
+     * and a hit or a miss.
+     * @param key the key
+     * @return the value, or null if the key is not in the map
+     */
+    @Override
+    public V get(K key)
+    {
+        sketch.increment(KEY_STRATEGY.hash(key));
+        probe.key = key;
+        Entry<K, V> entry = table.find(probe);
+        probe.key = null;
+        if(entry == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        onHit(entry);
+        return entry.value;
+    }
+
+    /**
+     * Reports whether the key is in the map without counting a use.
+     * @param key the key
+     * @return true if the key is in the map, otherwise false
+     */
+    @Override
+    public boolean keyExists(K key)
+    {
+        probe.key = key;
+        boolean found = table.contains(probe);
+        probe.key = null;
+        return found;
+    }
+
+    @Override
+    public boolean valueExists(V value)
+    {
+        for(Entry<K, V> entry : table) {
+            if(Objects.equals(entry.value, value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int size()
+    {
+        return table.size();
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return table.isEmpty();
+    }
+
+    @Override
+    public void clear()
+    {
+        table.clear();
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+        sketch.clear();
+        modCount++;
+    }
+
+    /**
+     * Returns the number of calls to get that found their key.
+     * @return the hit count
+     */
+    public long hitCount()
+    {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of calls to get that did not find their key.
+     * @return the miss count
+     */
+    public long missCount()
+    {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of pairs evicted to keep the cache in bounds,
+     * including candidates turned away from the main region.
+     * @return the eviction count
+     */
+    public long evictionCount()
+    {
+        return evictionCount;
+    }
+
+    @Override
+    public Iterator<KeyValuePair<K, V>> iterator()
+    {
+        Iterator<Entry<K, V>> entries = table.iterator();
+        return new Iterator<KeyValuePair<K, V>>()
+        {
+            private final int currentModCount = modCount;
+
+            @Override
+            public boolean hasNext()
+            {
+                if(currentModCount != modCount) {
+                    throw new ConcurrentModificationException("Cannot modify map while iterating");
+                }
+                return entries.hasNext();
+            }
+
+            @Override
+            public KeyValuePair<K, V> next()
+            {
+                if(!hasNext()) {
+                    throw new NoSuchElementException("No pairs left in the map");
+                }
+                Entry<K, V> entry = entries.next();
+                return new KeyValuePair<>(entry.key, entry.value);
+            }
+        };
+    }
+
+    @Override
+    public ISet<K> keyset()
+    {
+        ISet<K> temp = new Set<>(table.size());
+        for(Entry<K, V> entry : table) {
+            temp.add(entry.key);
+        }
+        return temp;
+    }
+
+    @Override
+    public ICollection<V> values()
+    {
+        ICollection<V> temp = new Set<>(table.size());
+        for(Entry<K, V> entry : table) {
+            temp.add(entry.value);
+        }
+        return temp;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "TinyLfuMap{size=" + table.size() + ", maximumSize=" + maximumSize + ", window=" + window.size
+                + ", probation=" + probation.size + ", protected=" + protectedSegment.size
+                + ", hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount + '}';
+    }
+
+    //a used pair moves to the back of its list, and a pair used again
+    //while on probation is promoted to the protected segment
+    private void onHit(Entry<K, V> entry)
+    {
+        if(entry.region == WINDOW) {
+            window.moveToBack(entry);
+        }
+        else if(entry.region == PROTECTED) {
+            protectedSegment.moveToBack(entry);
+        }
+        else {
+            probation.unlink(entry);
+            entry.region = PROTECTED;
+            protectedSegment.linkLast(entry);
+            if(protectedSegment.size > maximumProtected) {
+                //the protected segment's least recently used pair goes back on probation
+                Entry<K, V> demoted = protectedSegment.head;
+                protectedSegment.unlink(demoted);
+                demoted.region = PROBATION;
+                probation.linkLast(demoted);
+            }
+        }
+    }
+
+    //the candidate and the main region's least recently used pair compete,
+    //and the one whose key was used less often is evicted
+    private void evict(Entry<K, V> candidate)
+    {
+        //the candidate was linked last, so it is the head only when probation held nothing else
+        Entry<K, V> victim = probation.head != candidate ? probation.head : protectedSegment.head;
+        if(victim == null || sketch.frequency(KEY_STRATEGY.hash(candidate.key))
+                <= sketch.frequency(KEY_STRATEGY.hash(victim.key))) {
+            victim = candidate;
+        }
+        regionOf(victim).unlink(victim);
+        table.remove(victim);
+        evictionCount++;
+    }
+
+    private AccessOrder<K, V> regionOf(Entry<K, V> entry)
+    {
+        if(entry.region == WINDOW) {
+            return window;
+        }
+        return entry.region == PROBATION ? probation : protectedSegment;
+    }
+
+    //a table element that is also a link in the list of its region,
+    //equal to any other entry with the same key
+    private static final class Entry<K, V>
+    {
+        private K key;
+        private V value;
+        private byte region = WINDOW;
+        private Entry<K, V> previous;
+        private Entry<K, V> next;
+
+        private Entry(K key, V value)
+        {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            return other instanceof Entry && Objects.equals(key, ((Entry<?, ?>) other).key);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hashCode(key);
+        }
+    }
+
+    //a doubly linked list from the least recently used entry at the head
+    //to the most recently used entry at the tail
+    private static final class AccessOrder<K, V>
+    {
+        private Entry<K, V> head;
+        private Entry<K, V> tail;
+        private int size;
+
+        private void linkLast(Entry<K, V> entry)
+        {
+            entry.previous = tail;
+            entry.next = null;
+            if(tail != null) {
+                tail.next = entry;
+            }
+            else {
+                head = entry;
+            }
+            tail = entry;
+            size++;
+        }
+
+        private void unlink(Entry<K, V> entry)
+        {
+            if(entry.previous != null) {
+                entry.previous.next = entry.next;
+            }
+            else {
+                head = entry.next;
+            }
+            if(entry.next != null) {
+                entry.next.previous = entry.previous;
+            }
+            else {
+                tail = entry.previous;
+            }
+            entry.previous = null;
+            entry.next = null;
+            size--;
+        }
+
+        private void moveToBack(Entry<K, V> entry)
+        {
+            if(entry != tail) {
+                unlink(entry);
+                linkLast(entry);
+            }
+        }
+
+        private void clear()
+        {
+            head = null;
+            tail = null;
+            size = 0;
+        }
+    }
+}
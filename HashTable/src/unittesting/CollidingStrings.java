@@ -0,0 +1,50 @@
+package unittesting;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds strings that share one hashCode, the keys an attacker would send to
+ * flood a table. "Aa" and "BB" have the same hashCode, so every string made
+ * of the same number of blocks of them, after the same prefix, does as well.
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+final class CollidingStrings
+{
+    private CollidingStrings()
+    {
+    }
+
+    /**
+     * Returns every string of the given number of "Aa" and "BB" blocks.
+     * @param blocks the number of blocks in each string
+     * @return 2^blocks strings with the same hashCode
+     */
+    static List<String> of(int blocks)
+    {
+        return of("", blocks);
+    }
+
+    /**
+     * Returns every string of the given number of "Aa" and "BB" blocks after
+     * the prefix. Prefixes of the same length with different hash codes give
+     * groups with different hash codes.
+     * @param prefix the start of every string
+     * @param blocks the number of blocks in each string
+     * @return 2^blocks strings with the same hashCode
+     */
+    static List<String> of(String prefix, int blocks)
+    {
+        List<String> strings = new ArrayList<>();
+        for(int bits = 0; bits < 1 << blocks; bits++) {
+            StringBuilder builder = new StringBuilder(prefix);
+            for(int i = 0; i < blocks; i++) {
+                builder.append((bits >>> i & 1) == 0 ? "Aa" : "BB");
+            }
+            strings.add(builder.toString());
+        }
+        return strings;
+    }
+}
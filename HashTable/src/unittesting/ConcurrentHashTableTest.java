@@ -0,0 +1,305 @@
+package unittesting;
+
+import hashtable.ConcurrentHashTable;
+import hashtable.ReadMostlyHashTable;
+import org.junit.*;
+import structures.ConcurrentMap;
+import structures.ConcurrentSet;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provides a series of tests that verifies the ConcurrentHashTable, the
+ * ReadMostlyHashTable and the concurrent Set and Map keep every write when
+ * many threads use them at once
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class ConcurrentHashTableTest
+{
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 20000;
+
+    private ExecutorService executor;
+
+    /**
+     * Create a thread pool before each test
+     */
+    @Before
+    public void createExecutor()
+    {
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    /**
+     * Shut the thread pool down after each test
+     */
+    @After
+    public void shutdownExecutor() throws InterruptedException
+    {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    //run the task on every thread at once and rethrow the first failure
+    private void runConcurrently(Task task) throws Exception
+    {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for(int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run(thread);
+                return null;
+            }));
+        }
+        start.countDown();
+        for(Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private interface Task
+    {
+        void run(int thread) throws Exception;
+    }
+
+    /**
+     * Test that concurrent adds and removes of disjoint ranges are all kept
+     */
+    @Test
+    public void testConcurrentAddRemove() throws Exception
+    {
+        ConcurrentHashTable<Integer> table = new ConcurrentHashTable<>();
+        runConcurrently(thread -> {
+            int base = thread * PER_THREAD;
+            for(int i = base; i < base + PER_THREAD; i++) {
+                table.add(i);
+            }
+            for(int i = base; i < base + PER_THREAD; i += 2) {
+                table.remove(i);
+            }
+        });
+
+        Assert.assertEquals("Size should count every odd element", THREADS * PER_THREAD / 2, table.size());
+        for(int i = 0; i < THREADS * PER_THREAD; i++) {
+            Assert.assertEquals("Only the odd elements should remain", i % 2 == 1, table.contains(i));
+        }
+
+        int count = 0;
+        for(Integer ignored : table) {
+            count++;
+        }
+        Assert.assertEquals("The iterator should return every element", table.size(), count);
+    }
+
+    /**
+     * Test that merges of the same keys from every thread never lose a count
+     */
+    @Test
+    public void testConcurrentMerge() throws Exception
+    {
+        ConcurrentMap<Integer, Integer> counts = new ConcurrentMap<>();
+        runConcurrently(thread -> {
+            for(int i = 0; i < PER_THREAD; i++) {
+                counts.merge(i % 100, 1, Integer::sum);
+            }
+        });
+
+        Assert.assertEquals("There should be 100 keys", 100, counts.size());
+        for(int key = 0; key < 100; key++) {
+            Assert.assertEquals("Count for " + key + " should include every thread",
+                    THREADS * PER_THREAD / 100, (int) counts.get(key));
+        }
+    }
+
+    /**
+     * Test that iterating while other threads write never throws and that
+     * removing a key that another thread already removed is not an error
+     */
+    @Test
+    public void testIterateWhileWriting() throws Exception
+    {
+        ConcurrentSet<Integer> set = new ConcurrentSet<>();
+        ConcurrentMap<Integer, String> map = new ConcurrentMap<>(PER_THREAD, THREADS);
+        runConcurrently(thread -> {
+            Random random = new Random(thread);
+            for(int i = 0; i < PER_THREAD; i++) {
+                int element = random.nextInt(1000);
+                if(thread % 2 == 0) {
+                    set.add(element);
+                    map.add(element, "v" + element);
+                    map.remove(random.nextInt(1000));
+                }
+                else if(i % 500 == 0) {
+                    for(Integer stored : set) {
+                        Assert.assertNotNull("Iteration should only return stored elements", stored);
+                    }
+                    Assert.assertTrue("keyset should never be larger than the key range", map.keyset().size() <= 1000);
+                }
+            }
+        });
+
+        Assert.assertTrue("Elements should be stored", set.size() > 0 && set.size() <= 1000);
+        for(int i = 0; i < 1000; i++) {
+            if(map.keyExists(i)) {
+                Assert.assertEquals("Stored value should match its key", "v" + i, map.get(i));
+            }
+        }
+    }
+
+    /**
+     * Test that an iterator running while another thread grows and shrinks
+     * the set returns every element that stays in it exactly once, and no
+     * element twice
+     */
+    @Test
+    public void testIteratorReturnsStableElementsOnce() throws Exception
+    {
+        ConcurrentSet<Integer> set = new ConcurrentSet<>(0, 4);
+        for(int i = 0; i < 5000; i++) {
+            set.add(i);
+        }
+        Thread writer = new Thread(() -> {
+            for(int round = 0; round < 20; round++) {
+                for(int i = 5000; i < 50000; i++) {
+                    set.add(i);
+                }
+                for(int i = 5000; i < 50000; i++) {
+                    set.remove(i);
+                }
+            }
+        });
+        writer.start();
+        try {
+            for(int round = 0; round < 20; round++) {
+                java.util.Set<Integer> seen = new HashSet<>();
+                for(Integer element : set) {
+                    Assert.assertTrue("No element should be returned twice: " + element, seen.add(element));
+                }
+                for(int i = 0; i < 5000; i++) {
+                    Assert.assertTrue("Element " + i + " stays in the set and should be returned", seen.contains(i));
+                }
+            }
+        }
+        finally {
+            writer.join();
+        }
+    }
+
+    /**
+     * Test that optimistic readers always find the elements no writer touches,
+     * even while writers keep growing and shrinking the table underneath them
+     */
+    @Test
+    public void testReadMostlyReadsDuringWrites() throws Exception
+    {
+        ReadMostlyHashTable<Integer> table = new ReadMostlyHashTable<>();
+        for(int i = 0; i < PER_THREAD; i += 2) {
+            table.add(i);
+        }
+
+        runConcurrently(thread -> {
+            Random random = new Random(thread);
+            for(int i = 0; i < PER_THREAD; i++) {
+                if(thread == 0) {
+                    //the writer adds and removes odd elements, resizing the table as it goes
+                    int element = 2 * random.nextInt(PER_THREAD * 4) + 1;
+                    if(!table.removeIfPresent(element)) {
+                        table.add(element);
+                    }
+                }
+                else {
+                    int element = 2 * random.nextInt(PER_THREAD / 2);
+                    Assert.assertEquals("An untouched element should always be found", element, (int) table.find(element));
+                }
+            }
+        });
+
+        for(int i = 0; i < PER_THREAD; i += 2) {
+            Assert.assertTrue("Even element " + i + " should still be found", table.contains(i));
+        }
+        int count = 0;
+        for(Integer ignored : table) {
+            count++;
+        }
+        Assert.assertEquals("The iterator should return every element", table.size(), count);
+    }
+
+    /**
+     * Test that lock-free readers find keys that all share one hashCode,
+     * and so live in a bucket turned into a tree, while a writer rotates
+     * that tree by adding and removing other colliding keys
+     */
+    @Test
+    public void testReadMostlyReadsCollidingKeysDuringWrites() throws Exception
+    {
+        List<String> colliding = CollidingStrings.of(10);
+        ReadMostlyHashTable<String> table = new ReadMostlyHashTable<>();
+        for(int i = 0; i < colliding.size(); i += 2) {
+            table.add(colliding.get(i));
+        }
+
+        runConcurrently(thread -> {
+            Random random = new Random(thread);
+            for(int i = 0; i < PER_THREAD; i++) {
+                if(thread == 0) {
+                    //the writer adds and removes the odd keys, rebalancing the tree as it goes
+                    String element = colliding.get(2 * random.nextInt(colliding.size() / 2) + 1);
+                    if(!table.removeIfPresent(element)) {
+                        table.add(element);
+                    }
+                }
+                else {
+                    String element = colliding.get(2 * random.nextInt(colliding.size() / 2));
+                    Assert.assertEquals("An untouched key should always be found", element, table.find(element));
+                }
+            }
+        });
+
+        for(int i = 0; i < colliding.size(); i += 2) {
+            Assert.assertTrue("Even key " + i + " should still be found", table.contains(colliding.get(i)));
+        }
+    }
+
+    /**
+     * Test that missing elements and invalid settings are rejected
+     */
+    @Test
+    public void testErrors()
+    {
+        ConcurrentHashTable<Integer> table = new ConcurrentHashTable<>(100, 5);
+        Assert.assertEquals("Concurrency level should round up to a power of two", 8, table.segments());
+        Assert.assertFalse("removeIfPresent should report a missing element", table.removeIfPresent(1));
+
+        try {
+            table.remove(1);
+
+            //should not get here
+            Assert.fail("Did not throw an exception when removing an element that does not exist");
+        }
+        catch(NoSuchElementException ex) {}
+
+        try {
+            new ConcurrentHashTable<Integer>(0, 0);
+
+            //should not get here
+            Assert.fail("Did not throw an exception for a concurrency level of 0");
+        }
+        catch(IllegalArgumentException ex) {}
+
+        //a single segment still works
+        ConcurrentHashTable<Integer> single = new ConcurrentHashTable<>(0, 1);
+        for(int i = 0; i < 100; i++) {
+            single.add(i);
+        }
+        Assert.assertEquals("A single segment table should hold every element", 100, single.size());
+    }
+}
@@ -0,0 +1,211 @@
+package unittesting;
+
+import hashtable.CuckooHashTable;
+import helpers.KeyValuePair;
+import org.junit.*;
+import structures.Map;
+import structures.Set;
+
+import java.util.*;
+
+/**
+ * Provides a series of tests that verifies the functionality of the
+ * CuckooHashTable, including with keys chosen to collide
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class CuckooHashTableTest
+{
+    /**
+     * Test that random adds and removes leave the table holding exactly
+     * what java.util.HashSet holds, through growing and shrinking
+     */
+    @Test
+    public void testMatchesHashSet()
+    {
+        CuckooHashTable<Integer> table = new CuckooHashTable<>();
+        java.util.Set<Integer> expected = new HashSet<>();
+        Random random = new Random(11);
+        for(int i = 0; i < 200000; i++) {
+            int element = random.nextInt(50000);
+            if(random.nextInt(3) == 0) {
+                Assert.assertEquals("Removing " + element + " should match HashSet",
+                        expected.remove(element), table.removeIfPresent(element));
+            }
+            else {
+                expected.add(element);
+                table.add(element);
+            }
+        }
+        Assert.assertEquals("Size should match HashSet", expected.size(), table.size());
+        for(int i = 0; i < 50000; i++) {
+            Assert.assertEquals("Contains " + i + " should match HashSet", expected.contains(i), table.contains(i));
+        }
+
+        int iterated = 0;
+        for(Integer element : table) {
+            Assert.assertTrue("Iteration should only return stored elements", expected.contains(element));
+            iterated++;
+        }
+        Assert.assertEquals("Iteration should visit every element once", expected.size(), iterated);
+
+        for(Integer element : expected) {
+            table.remove(element);
+        }
+        Assert.assertTrue("The table should be empty after removing everything", table.isEmpty());
+    }
+
+    /**
+     * Test that sets and maps work on top of the table
+     */
+    @Test
+    public void testSetAndMap()
+    {
+        Set<String> set = new Set<>(new CuckooHashTable<>());
+        Map<String, Integer> map = new Map<>(new CuckooHashTable<KeyValuePair<String, Integer>>());
+        for(int i = 0; i < 10000; i++) {
+            set.add("element-" + i);
+            map.add("key-" + i, i);
+            map.add("key-" + i, i * 2);
+        }
+        Assert.assertEquals("The set should hold every element", 10000, set.size());
+        Assert.assertEquals("Adding a key twice should replace its value", 10000, map.size());
+        for(int i = 0; i < 10000; i++) {
+            Assert.assertTrue("The set should contain element-" + i, set.contains("element-" + i));
+            Assert.assertEquals("The map should hold the latest value", i * 2, (int) map.get("key-" + i));
+        }
+    }
+
+    /**
+     * Test that keys whose hash codes only differ in their high bits, which
+     * would all land in one slot of a table that masks hash codes directly,
+     * are spread out by the seeded hash functions
+     */
+    @Test
+    public void testKeysCollidingInLowBits()
+    {
+        CuckooHashTable<Integer> table = new CuckooHashTable<>(element -> element);
+        for(int i = 0; i < 100000; i++) {
+            table.add(i << 12);
+        }
+        Assert.assertEquals("Every key should be added", 100000, table.size());
+        for(int i = 0; i < 100000; i++) {
+            Assert.assertTrue("Key " + (i << 12) + " should be found", table.contains(i << 12));
+        }
+        Assert.assertTrue("The stash should never be over full", table.stashSize() <= 8);
+    }
+
+    /**
+     * Test that when both hashes are given as hashCode(), strings with the
+     * same hashCode fill both of their buckets and the stash, and that the
+     * rest go to the overflow, where they can still be found, iterated over
+     * and removed
+     */
+    @Test
+    public void testKeysWithTheSameHash()
+    {
+        List<String> colliding = CollidingStrings.of(7);
+        CuckooHashTable<String> table = new CuckooHashTable<>(0, String::hashCode, String::hashCode);
+        for(int i = 0; i < 100; i++) {
+            table.add(colliding.get(i));
+        }
+        for(int i = 0; i < 1000; i++) {
+            table.add("filler-" + i);
+        }
+        Assert.assertEquals("Every string should be added", 1100, table.size());
+        Assert.assertTrue("No more than sixteen strings with the same hash fit outside the overflow",
+                table.overflowSize() >= 84);
+        for(int i = 0; i < 100; i++) {
+            Assert.assertTrue("Colliding string " + i + " should be found", table.contains(colliding.get(i)));
+        }
+        for(int i = 0; i < 1000; i++) {
+            Assert.assertTrue("filler-" + i + " should be found", table.contains("filler-" + i));
+        }
+
+        java.util.Set<String> iterated = new HashSet<>();
+        for(String element : table) {
+            iterated.add(element);
+        }
+        Assert.assertEquals("Iteration should visit every element once", 1100, iterated.size());
+        Assert.assertTrue("Iteration should visit the overflow", iterated.containsAll(colliding.subList(0, 100)));
+
+        table.add(colliding.get(50));
+        Assert.assertEquals("Adding an overflowing string again should not add it twice", 1100, table.size());
+        for(int i = 0; i < 100; i++) {
+            table.remove(colliding.get(i));
+        }
+        Assert.assertEquals("Only the filler should be left", 1000, table.size());
+        Assert.assertEquals("The overflow should be empty", 0, table.overflowSize());
+        Assert.assertFalse("A removed string should not be found", table.contains(colliding.get(50)));
+    }
+
+    /**
+     * Test that by default longs whose hashCode is 0, because their halves
+     * are equal, are spread out like any others
+     */
+    @Test
+    public void testCollidingLongsByDefault()
+    {
+        Set<Long> set = new Set<>(new CuckooHashTable<>());
+        CuckooHashTable<Long> table = new CuckooHashTable<>();
+        for(long i = 0; i < 10000; i++) {
+            set.add(i << 32 | i);
+            table.add(i << 32 | i);
+        }
+        Assert.assertEquals("The set should hold every colliding long", 10000, set.size());
+        Assert.assertEquals("The overflow should stay empty", 0, table.overflowSize());
+        for(long i = 0; i < 10000; i++) {
+            Assert.assertTrue("The set should contain " + (i << 32 | i), set.contains(i << 32 | i));
+        }
+    }
+
+    /**
+     * Test that the default second hash spreads out many groups of strings
+     * that each share a hashCode, in the table and in sets and maps on it
+     */
+    @Test
+    public void testManyCollidingGroupsByDefault()
+    {
+        List<String> colliding = new ArrayList<>();
+        for(int group = 0; group < 50; group++) {
+            colliding.addAll(CollidingStrings.of("group" + (char) ('A' + group), 5));
+        }
+        CuckooHashTable<String> table = new CuckooHashTable<>();
+        Set<String> set = new Set<>(new CuckooHashTable<>());
+        Map<String, Integer> map = new Map<>(new CuckooHashTable<KeyValuePair<String, Integer>>());
+        for(int i = 0; i < colliding.size(); i++) {
+            table.add(colliding.get(i));
+            set.add(colliding.get(i));
+            map.add(colliding.get(i), i);
+        }
+
+        Assert.assertEquals("Every colliding string should be added", colliding.size(), table.size());
+        Assert.assertEquals("The set should hold every colliding string", colliding.size(), set.size());
+        Assert.assertEquals("The map should hold every colliding key", colliding.size(), map.size());
+        for(int i = 0; i < colliding.size(); i++) {
+            Assert.assertTrue(colliding.get(i) + " should be found", table.contains(colliding.get(i)));
+            Assert.assertTrue("The set should contain " + colliding.get(i), set.contains(colliding.get(i)));
+            Assert.assertEquals("The map should return the value of " + colliding.get(i), i, (int) map.get(colliding.get(i)));
+        }
+    }
+
+    /**
+     * Test that an independent second hash lets any number of strings with
+     * the same hashCode be stored
+     */
+    @Test
+    public void testIndependentSecondHash()
+    {
+        List<String> colliding = CollidingStrings.of(10);
+        CuckooHashTable<String> table = new CuckooHashTable<>(0, String::hashCode,
+                element -> new StringBuilder(element).reverse().toString().hashCode());
+        for(String element : colliding) {
+            table.add(element);
+        }
+        Assert.assertEquals("Every colliding string should be added", colliding.size(), table.size());
+        for(String element : colliding) {
+            Assert.assertTrue(element + " should be found", table.contains(element));
+        }
+    }
+}
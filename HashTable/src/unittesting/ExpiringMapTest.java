@@ -0,0 +1,110 @@
+package unittesting;
+
+import helpers.KeyValuePair;
+import org.junit.*;
+import structures.ExpiringMap;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provides a series of tests that verifies ExpiringMap stops returning pairs
+ * once their time to live has passed and that its timer wheel removes them
+ * without being asked for them, using a fake clock
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class ExpiringMapTest
+{
+    private long now = 1000;
+
+    /**
+     * Test that a pair cannot be read once its time to live has passed, even
+     * before the wheel gets to it, and that adding a key again restarts it
+     */
+    @Test
+    public void testExpiresOnRead()
+    {
+        ExpiringMap<String, Integer> map = new ExpiringMap<>(10, TimeUnit.SECONDS, () -> now);
+        map.add("a", 1);
+        map.add("b", 2);
+        map.add("c", 3, 1, TimeUnit.HOURS);
+
+        now += TimeUnit.SECONDS.toNanos(5);
+        map.add("b", 20);
+        Assert.assertEquals("a should have 5 seconds left", 5, map.timeToLive("a", TimeUnit.SECONDS));
+
+        now += TimeUnit.SECONDS.toNanos(5);
+        Assert.assertNull("a should expire right at its deadline", map.get("a"));
+        Assert.assertEquals("Adding b again should restart its time to live", 20, (int) map.get("b"));
+        Assert.assertTrue("c has its own longer time to live", map.keyExists("c"));
+
+        now += TimeUnit.SECONDS.toNanos(5);
+        Assert.assertFalse("b should expire 10 seconds after it was added again", map.keyExists("b"));
+        int count = 0;
+        for(KeyValuePair<String, Integer> pair : map) {
+            Assert.assertEquals("Only c should be left", "c", pair.getKey());
+            count++;
+        }
+        Assert.assertEquals("Only c should be iterated", 1, count);
+    }
+
+    /**
+     * Test that advancing the clock removes every expired pair without any of
+     * them being read, while the pairs still alive are kept
+     */
+    @Test
+    public void testWheelRemovesExpiredPairs()
+    {
+        ExpiringMap<Integer, Integer> map = new ExpiringMap<>(1, TimeUnit.MINUTES, () -> now);
+        for(int i = 0; i < 10000; i++) {
+            map.add(i, i);
+            now += TimeUnit.MILLISECONDS.toNanos(3);
+        }
+        for(int i = 10000; i < 10100; i++) {
+            map.add(i, i, 1, TimeUnit.DAYS);
+        }
+
+        now += TimeUnit.MINUTES.toNanos(2);
+        map.cleanUp();
+        Assert.assertEquals("Every short lived pair should be removed", 10000, map.expirationCount());
+        Assert.assertEquals("The long lived pairs should be kept", 100, map.size());
+
+        //the long lived pairs cascade down from the coarser wheels before they fire
+        now += TimeUnit.HOURS.toNanos(23);
+        map.cleanUp();
+        Assert.assertEquals("A day has not passed yet", 100, map.size());
+        now += TimeUnit.HOURS.toNanos(2);
+        map.cleanUp();
+        Assert.assertEquals("Every pair should have expired", 10100, map.expirationCount());
+        Assert.assertTrue("The map should be empty", map.isEmpty());
+    }
+
+    /**
+     * Test that removed and cleared pairs are taken off the wheel so they do
+     * not count as expirations later
+     */
+    @Test
+    public void testRemoveCancelsTimers()
+    {
+        ExpiringMap<Integer, String> map = new ExpiringMap<>(30, TimeUnit.SECONDS, () -> now);
+        for(int i = 0; i < 100; i++) {
+            map.add(i, "value-" + i);
+        }
+        for(int i = 0; i < 50; i++) {
+            map.remove(i);
+        }
+        Assert.assertEquals("Half of the pairs should be left", 50, map.size());
+        Assert.assertTrue("A live value should be found", map.valueExists("value-75"));
+
+        now += TimeUnit.MINUTES.toNanos(1);
+        map.cleanUp();
+        Assert.assertEquals("Only the pairs still in the map should expire", 50, map.expirationCount());
+
+        map.add(1, "one");
+        map.clear();
+        now += TimeUnit.MINUTES.toNanos(1);
+        map.cleanUp();
+        Assert.assertEquals("Cleared pairs should not expire", 50, map.expirationCount());
+    }
+}
@@ -0,0 +1,157 @@
+package unittesting;
+
+import helpers.KeyValuePair;
+import org.junit.*;
+import structures.CopyOnWriteMap;
+import structures.FrozenMap;
+import structures.FrozenSet;
+import structures.Map;
+import structures.Set;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Provides a series of tests that verifies the frozen Set and Map and the
+ * copy-on-write map built on them
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class FrozenCollectionsTest
+{
+    /**
+     * Test that a frozen set holds exactly the elements it was built from
+     * and cannot be changed
+     */
+    @Test
+    public void testFrozenSet()
+    {
+        Set<Integer> set = new Set<>();
+        for(int i = 0; i < 10000; i++) {
+            set.add(i * 3);
+        }
+        FrozenSet<Integer> frozen = set.freeze();
+
+        Assert.assertEquals("Size should match the source", 10000, frozen.size());
+        for(int i = 0; i < 30000; i++) {
+            Assert.assertEquals("Membership of " + i + " should match the source", i % 3 == 0, frozen.contains(i));
+        }
+        int count = 0;
+        for(Integer element : frozen) {
+            Assert.assertTrue("The iterator should only return stored elements", set.contains(element));
+            count++;
+        }
+        Assert.assertEquals("The iterator should return every element", 10000, count);
+
+        //duplicates in a plain iterable are dropped
+        FrozenSet<String> words = FrozenSet.copyOf(Arrays.asList("a", "b", "a", "c"));
+        Assert.assertEquals("Duplicates should be dropped", 3, words.size());
+        Set<String> other = new Set<>();
+        other.add("b");
+        other.add("z");
+        Assert.assertEquals("Intersection with a Set should hold the shared element", 1, words.intersects(other).size());
+        Assert.assertTrue("An empty frozen set should be empty", FrozenSet.copyOf(new Set<String>()).isEmptySet());
+
+        try {
+            frozen.add(1);
+
+            //should not get here
+            Assert.fail("Did not throw an exception when adding to a frozen set");
+        }
+        catch(UnsupportedOperationException ex) {}
+    }
+
+    /**
+     * Test that a frozen map returns the value of every key it was built from
+     */
+    @Test
+    public void testFrozenMap()
+    {
+        Map<String, Integer> map = new Map<>();
+        for(int i = 0; i < 5000; i++) {
+            map.add("key" + i, i);
+        }
+        map.add("null", null);
+        FrozenMap<String, Integer> frozen = map.freeze();
+
+        Assert.assertEquals("Size should match the source", 5001, frozen.size());
+        for(int i = 0; i < 5000; i++) {
+            Assert.assertEquals("Value of key" + i + " should match the source", i, (int) frozen.get("key" + i));
+        }
+        Assert.assertNull("A missing key should return null", frozen.get("missing"));
+        Assert.assertTrue("A key with a null value should exist", frozen.keyExists("null"));
+        Assert.assertTrue("A null value should exist", frozen.valueExists(null));
+        Assert.assertEquals("keyset should hold every key", 5001, frozen.keyset().size());
+
+        //the last pair wins when a key repeats
+        FrozenMap<String, Integer> repeated = FrozenMap.copyOf(Arrays.asList(
+                new KeyValuePair<>("a", 1), new KeyValuePair<>("a", 2)));
+        Assert.assertEquals("The last value for a key should be kept", 2, (int) repeated.get("a"));
+
+        try {
+            frozen.remove("key1");
+
+            //should not get here
+            Assert.fail("Did not throw an exception when removing from a frozen map");
+        }
+        catch(UnsupportedOperationException ex) {}
+    }
+
+    /**
+     * Test that readers of a copy-on-write map always see a whole version of
+     * the map while another thread publishes new versions
+     */
+    @Test
+    public void testCopyOnWriteMap() throws InterruptedException
+    {
+        CopyOnWriteMap<Integer, Integer> routes = new CopyOnWriteMap<>();
+        routes.add(1, 10);
+        routes.update(map -> {
+            map.add(2, 20);
+            map.remove(1);
+        });
+        Assert.assertEquals("update should apply every change", 1, routes.size());
+        Assert.assertEquals("update should add the new key", 20, (int) routes.get(2));
+        routes.remove(99);
+
+        //every version maps all 100 keys to the same version number
+        routes.publish(versionOf(-1));
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while(!stop.get()) {
+                FrozenMap<Integer, Integer> snapshot = routes.snapshot();
+                Integer version = snapshot.get(0);
+                for(int key = 0; key < 100; key++) {
+                    if(!Objects.equals(version, snapshot.get(key))) {
+                        failure.set("Key " + key + " came from a different version");
+                    }
+                }
+            }
+        });
+        reader.start();
+
+        for(int version = 0; version < 200; version++) {
+            routes.publish(versionOf(version));
+        }
+        stop.set(true);
+        reader.join();
+
+        Assert.assertNull(failure.get(), failure.get());
+        Assert.assertEquals("The last published version should be current", 199, (int) routes.get(50));
+        routes.clear();
+        Assert.assertTrue("Map should be empty after clear", routes.isEmpty());
+    }
+
+    //a version of the routes mapping all 100 keys to the version number
+    private static Map<Integer, Integer> versionOf(int version)
+    {
+        Map<Integer, Integer> routes = new Map<>(100);
+        for(int key = 0; key < 100; key++) {
+            routes.add(key, version);
+        }
+        return routes;
+    }
+}
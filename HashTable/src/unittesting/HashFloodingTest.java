@@ -0,0 +1,185 @@
+package unittesting;
+
+import hashtable.HashTable;
+import hashtable.HashTableConfig;
+import org.junit.*;
+import structures.Map;
+import structures.Set;
+
+import java.util.*;
+
+/**
+ * Provides a series of tests that verifies HashTable keeps working, and
+ * keeps lookups logarithmic, when every key has the same hash code
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class HashFloodingTest
+{
+    /**
+     * Test that random adds and removes of strings sharing one hashCode,
+     * which turn buckets into trees and back, match java.util.HashSet
+     */
+    @Test
+    public void testCollidingStringsMatchHashSet()
+    {
+        List<String> colliding = CollidingStrings.of(12);
+        for(boolean incremental : new boolean[] {false, true}) {
+            Set<String> set = new Set<>(new HashTable<>(incremental));
+            java.util.Set<String> expected = new HashSet<>();
+            Random random = new Random(3);
+            for(int i = 0; i < 50000; i++) {
+                String element = colliding.get(random.nextInt(colliding.size()));
+                if(random.nextInt(3) == 0) {
+                    if(expected.remove(element)) {
+                        set.remove(element);
+                    }
+                }
+                else {
+                    expected.add(element);
+                    set.add(element);
+                }
+            }
+
+            Assert.assertEquals("Size should match HashSet", expected.size(), set.size());
+            for(String element : colliding) {
+                Assert.assertEquals("Contains " + element + " should match HashSet",
+                        expected.contains(element), set.contains(element));
+            }
+            int iterated = 0;
+            for(String element : set) {
+                Assert.assertTrue("Iteration should only return stored elements", expected.contains(element));
+                iterated++;
+            }
+            Assert.assertEquals("Iteration should visit every element once", expected.size(), iterated);
+
+            //removing down to a few elements turns the tree back into a chain
+            for(String element : expected) {
+                set.remove(element);
+            }
+            Assert.assertTrue("The set should be empty after removing everything", set.isEmpty());
+        }
+    }
+
+    /**
+     * Test that the chain length that turns a bucket into a tree is long
+     * enough that random hashes practically never reach it
+     */
+    @Test
+    public void testTreeifyThresholdFollowsLoadFactor()
+    {
+        Assert.assertEquals("The default load factor of 2.5 should treeify at 15",
+                15, HashTableConfig.defaults().treeifyThreshold());
+        Assert.assertEquals("Low load factors should treeify at 8",
+                8, HashTableConfig.defaults().withLoadFactor(0.5).treeifyThreshold());
+    }
+
+    /**
+     * Test that a lookup among thousands of colliding Comparable keys only
+     * calls equals a logarithmic number of times, in sets and in maps
+     */
+    @Test
+    public void testLookupsStayLogarithmic()
+    {
+        Set<CountingKey> set = new Set<>();
+        Map<CountingKey, Integer> map = new Map<>();
+        for(int i = 0; i < 10000; i++) {
+            set.add(new CountingKey(i));
+            map.add(new CountingKey(i), i);
+        }
+
+        CountingKey.equalsCalls = 0;
+        for(int i = 0; i < 10000; i++) {
+            Assert.assertTrue("Key " + i + " should be found", set.contains(new CountingKey(i)));
+            Assert.assertEquals("Key " + i + " should map to its value", i, (int) map.get(new CountingKey(i)));
+        }
+        Assert.assertFalse("A missing key should not be found", set.contains(new CountingKey(-1)));
+        Assert.assertTrue("Lookups should average under 40 equals calls but took " + CountingKey.equalsCalls / 20000,
+                CountingKey.equalsCalls < 20000 * 40);
+    }
+
+    /**
+     * Test that colliding elements that are not Comparable are still found
+     * and removed
+     */
+    @Test
+    public void testCollidingElementsThatAreNotComparable()
+    {
+        HashTable<List<Integer>> table = new HashTable<>(list -> 0);
+        for(int i = 0; i < 2000; i++) {
+            table.add(Arrays.asList(i, i));
+        }
+        for(int i = 0; i < 2000; i += 2) {
+            table.remove(Arrays.asList(i, i));
+        }
+        Assert.assertEquals("Half of the elements should be left", 1000, table.size());
+        for(int i = 0; i < 2000; i++) {
+            Assert.assertEquals("List " + i + " should be found only if it was kept",
+                    i % 2 == 1, table.contains(Arrays.asList(i, i)));
+        }
+    }
+
+    /**
+     * Test that a weakly consistent iterator returns every element that stays
+     * in a tree bucket exactly once while other elements are added and removed
+     */
+    @Test
+    public void testWeakIterationOverTrees()
+    {
+        List<String> colliding = CollidingStrings.of(10);
+        HashTable<String> table = new HashTable<>(HashTableConfig.defaults().withWeaklyConsistentIteration(true));
+        for(int i = 0; i < 512; i++) {
+            table.add(colliding.get(i));
+        }
+
+        java.util.Set<String> seen = new HashSet<>();
+        int step = 0;
+        for(String element : table) {
+            Assert.assertTrue(element + " should only be returned once", seen.add(element));
+            //remove from the first half and add to the second half while iterating
+            if(step < 256) {
+                table.removeIfPresent(colliding.get(step));
+                table.add(colliding.get(512 + step));
+            }
+            step++;
+        }
+        for(int i = 256; i < 512; i++) {
+            Assert.assertTrue("Element " + i + " was never removed and should be returned",
+                    seen.contains(colliding.get(i)));
+        }
+        Assert.assertEquals("Half of the elements should have been swapped", 512, table.size());
+    }
+
+    //a Comparable key whose hash codes all collide and that counts how
+    //often it is compared for equality
+    private static final class CountingKey implements Comparable<CountingKey>
+    {
+        private static long equalsCalls;
+        private final int value;
+
+        private CountingKey(int value)
+        {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            equalsCalls++;
+            return other instanceof CountingKey && ((CountingKey) other).value == value;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 42;
+        }
+
+        @Override
+        public int compareTo(CountingKey other)
+        {
+            return Integer.compare(value, other.value);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package unittesting;
+
+import helpers.KeyValuePair;
+import org.junit.*;
+import structures.LruMap;
+
+import java.util.*;
+
+/**
+ * Provides a series of tests that verifies LruMap evicts the least recently
+ * used pairs to stay within its size or weight and counts its hits, misses
+ * and evictions
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class LruMapTest
+{
+    /**
+     * Test that the least recently used pair is evicted first and that get
+     * counts as a use
+     */
+    @Test
+    public void testEvictsLeastRecentlyUsed()
+    {
+        LruMap<Integer, String> cache = new LruMap<>(3);
+        cache.add(1, "one");
+        cache.add(2, "two");
+        cache.add(3, "three");
+        Assert.assertEquals("Getting 1 should hit", "one", cache.get(1));
+        cache.add(4, "four");
+
+        Assert.assertEquals("The cache should stay at its maximum size", 3, cache.size());
+        Assert.assertFalse("2 was the least recently used and should be evicted", cache.keyExists(2));
+        Assert.assertTrue("1 was used recently and should be kept", cache.keyExists(1));
+        Assert.assertNull("An evicted key should miss", cache.get(2));
+
+        List<Integer> order = new ArrayList<>();
+        for(KeyValuePair<Integer, String> pair : cache) {
+            order.add(pair.getKey());
+        }
+        Assert.assertEquals("Iteration should go from most to least recently used", Arrays.asList(4, 1, 3), order);
+
+        Assert.assertEquals("One get should have hit", 1, cache.hitCount());
+        Assert.assertEquals("One get should have missed", 1, cache.missCount());
+        Assert.assertEquals("One pair should have been evicted", 1, cache.evictionCount());
+    }
+
+    /**
+     * Test that replacing a value keeps a single pair and updates the weight,
+     * and that a weighted cache evicts until its total weight fits
+     */
+    @Test
+    public void testMaximumWeight()
+    {
+        LruMap<String, String> cache = new LruMap<>(10, (key, value) -> value.length());
+        cache.add("a", "aaaa");
+        cache.add("b", "bbbb");
+        Assert.assertEquals("The weights should add up", 8, cache.weight());
+
+        cache.add("a", "aa");
+        Assert.assertEquals("Replacing a value should not add a pair", 2, cache.size());
+        Assert.assertEquals("Replacing a value should update the weight", 6, cache.weight());
+
+        //"b" is now the least recently used, and evicting it alone is enough
+        cache.add("c", "cccccc");
+        Assert.assertFalse("b should be evicted", cache.keyExists("b"));
+        Assert.assertEquals("The weight should be back within the maximum", 8, cache.weight());
+
+        cache.add("d", "ddddddddddd");
+        Assert.assertTrue("A pair heavier than the maximum should not be kept", cache.isEmpty());
+        Assert.assertEquals("Nothing should be left to weigh", 0, cache.weight());
+        Assert.assertEquals("Every pair should have been evicted", 4, cache.evictionCount());
+    }
+
+    /**
+     * Test that remove and clear unlink pairs so later evictions still work,
+     * and that iterating fails fast once the order changes
+     */
+    @Test
+    public void testRemoveAndFailFast()
+    {
+        LruMap<Integer, Integer> cache = new LruMap<>(100);
+        for(int i = 1; i <= 1000; i++) {
+            cache.add(i, i);
+            if(i % 3 == 0) {
+                cache.remove(i);
+            }
+        }
+        Assert.assertEquals("The cache should stay at its maximum size", 100, cache.size());
+        for(int i = 900; i <= 1000; i++) {
+            Assert.assertEquals("Only the newest keys should be kept", i % 3 != 0, cache.keyExists(i));
+        }
+
+        Iterator<KeyValuePair<Integer, Integer>> iterator = cache.iterator();
+        iterator.next();
+        cache.get(997);
+        try {
+            iterator.next();
+            Assert.fail("Reordering the cache should invalidate the iterator");
+        }
+        catch(ConcurrentModificationException ex) {}
+
+        cache.clear();
+        Assert.assertTrue("The cache should be empty after clearing", cache.isEmpty());
+        cache.add(1, 1);
+        Assert.assertEquals("The cache should work after clearing", 1, (int) cache.get(1));
+    }
+}
@@ -0,0 +1,155 @@
+package unittesting;
+
+import hashtable.Codec;
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+import structures.MappedMap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Provides a series of tests that verifies the memory mapped Map keeps its
+ * pairs across being closed and reopened
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class MappedMapTest
+{
+    private static final int PAIRS = 20000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Test that pairs added and removed through index resizes are all there
+     * after the map is closed and reopened, and that a reopened map can keep
+     * changing
+     */
+    @Test
+    public void testReopen() throws IOException
+    {
+        Path file = folder.getRoot().toPath().resolve("pairs.map");
+        java.util.Map<Long, String> expected = new HashMap<>();
+        try(MappedMap<Long, String> map = MappedMap.open(file, Codec.longs(), Codec.strings())) {
+            for(long key = 0; key < PAIRS; key++) {
+                map.add(key, "value-" + key);
+                expected.put(key, "value-" + key);
+            }
+            for(long key = 0; key < PAIRS; key += 3) {
+                map.remove(key);
+                expected.remove(key);
+            }
+        }
+
+        try(MappedMap<Long, String> map = MappedMap.open(file, Codec.longs(), Codec.strings())) {
+            assertMatches(expected, map);
+            for(long key = PAIRS; key < PAIRS * 2; key++) {
+                map.add(key, "more-" + key);
+                expected.put(key, "more-" + key);
+            }
+        }
+
+        try(MappedMap<Long, String> map = MappedMap.open(file, Codec.longs(), Codec.strings())) {
+            assertMatches(expected, map);
+            map.clear();
+            map.add(-1L, "after clear");
+        }
+
+        try(MappedMap<Long, String> map = MappedMap.open(file, Codec.longs(), Codec.strings())) {
+            Assert.assertEquals("Only the pair added after clear should remain", 1, map.size());
+            Assert.assertEquals("The pair added after clear should be kept", "after clear", map.get(-1L));
+        }
+    }
+
+    /**
+     * Test that a map changed without being flushed or closed is refused
+     * when opened again
+     */
+    @Test
+    public void testUncleanFileIsRefused() throws IOException
+    {
+        Path file = folder.getRoot().toPath().resolve("unclean.map");
+        try(MappedMap<Integer, Integer> map = MappedMap.open(file, Codec.integers(), Codec.integers())) {
+            map.add(1, 1);
+            try {
+                MappedMap.open(file, Codec.integers(), Codec.integers());
+                Assert.fail("A map with unflushed changes should not open");
+            }
+            catch(IOException ex) {}
+
+            map.flush();
+            try(MappedMap<Integer, Integer> reopened = MappedMap.open(file, Codec.integers(), Codec.integers())) {
+                Assert.assertEquals("A flushed map should open with its pairs", 1, (int) reopened.get(1));
+            }
+        }
+    }
+
+    /**
+     * Test that a map left dirty by a crash can be deleted and rebuilt
+     */
+    @Test
+    public void testRebuildAfterCrash() throws IOException
+    {
+        Path file = folder.getRoot().toPath().resolve("crashed.map");
+        MappedMap<Integer, Integer> crashed = MappedMap.open(file, Codec.integers(), Codec.integers());
+        crashed.add(1, 1);
+        //the map is never closed, as if the process died here
+        try {
+            MappedMap.open(file, Codec.integers(), Codec.integers());
+            Assert.fail("A crashed map should not open");
+        }
+        catch(IOException ex) {
+            Assert.assertTrue("The error should say the map needs rebuilding", ex.getMessage().contains("rebuild"));
+        }
+
+        MappedMap.delete(file);
+        try(MappedMap<Integer, Integer> rebuilt = MappedMap.open(file, Codec.integers(), Codec.integers())) {
+            Assert.assertTrue("A deleted map should open empty", rebuilt.isEmpty());
+            rebuilt.add(2, 2);
+        }
+        try(MappedMap<Integer, Integer> reopened = MappedMap.open(file, Codec.integers(), Codec.integers())) {
+            Assert.assertEquals("The rebuilt map should keep its pairs", 2, (int) reopened.get(2));
+        }
+        //release the crashed map's files, which are no longer on disk
+        crashed.close();
+    }
+
+    /**
+     * Test that a header whose fields are out of range is refused with an
+     * error naming the field instead of being used
+     */
+    @Test
+    public void testCorruptHeaderIsRefused() throws IOException
+    {
+        Path file = folder.getRoot().toPath().resolve("corrupt.map");
+        try(MappedMap<Integer, Integer> map = MappedMap.open(file, Codec.integers(), Codec.integers())) {
+            map.add(1, 1);
+        }
+
+        //the index file field of the header, at byte 44
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 7}), 44);
+        }
+        try {
+            MappedMap.open(file, Codec.integers(), Codec.integers());
+            Assert.fail("A map naming a third index file should not open");
+        }
+        catch(IOException ex) {
+            Assert.assertTrue("The error should name the bad field", ex.getMessage().contains("index file"));
+        }
+    }
+
+    private static void assertMatches(java.util.Map<Long, String> expected, MappedMap<Long, String> map)
+    {
+        Assert.assertEquals("Size should match java.util.HashMap", expected.size(), map.size());
+        for(long key = 0; key < PAIRS * 2; key++) {
+            Assert.assertEquals("Value for " + key + " should match java.util.HashMap", expected.get(key), map.get(key));
+        }
+    }
+}
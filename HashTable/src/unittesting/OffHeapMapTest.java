@@ -0,0 +1,213 @@
+package unittesting;
+
+import hashtable.Codec;
+import helpers.KeyValuePair;
+import org.junit.*;
+import structures.OffHeapMap;
+
+import java.util.*;
+
+/**
+ * Provides a series of tests that verifies the off-heap Map stores, updates
+ * and removes serialized pairs like java.util.HashMap
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class OffHeapMapTest
+{
+    private static final int OPERATIONS = 50000;
+
+    /**
+     * Test that random adds and removes of string pairs with changing value
+     * lengths match java.util.HashMap, through index resizes and compactions
+     */
+    @Test
+    public void testRandomOperations()
+    {
+        OffHeapMap<String, String> map = new OffHeapMap<>(Codec.strings(), Codec.strings());
+        java.util.Map<String, String> expected = new HashMap<>();
+        Random random = new Random(5);
+
+        for(int i = 0; i < OPERATIONS; i++) {
+            String key = "key-" + random.nextInt(4000);
+            if(random.nextInt(4) == 0) {
+                map.remove(key);
+                expected.remove(key);
+            }
+            else {
+                //values of varying length force some updates out of place
+                char[] value = new char[random.nextInt(40)];
+                Arrays.fill(value, (char) ('a' + random.nextInt(26)));
+                map.add(key, new String(value));
+                expected.put(key, new String(value));
+            }
+        }
+
+        Assert.assertEquals("Size should match java.util.HashMap", expected.size(), map.size());
+        for(int key = 0; key < 4000; key++) {
+            Assert.assertEquals("Value for key-" + key + " should match java.util.HashMap",
+                    expected.get("key-" + key), map.get("key-" + key));
+            Assert.assertEquals("keyExists for key-" + key + " should match java.util.HashMap",
+                    expected.containsKey("key-" + key), map.keyExists("key-" + key));
+        }
+
+        java.util.Map<String, String> iterated = new HashMap<>();
+        for(KeyValuePair<String, String> pair : map) {
+            iterated.put(pair.getKey(), pair.getValue());
+        }
+        Assert.assertEquals("Iteration should visit every pair once", expected, iterated);
+    }
+
+    /**
+     * Test that long keys with byte array values round trip, including
+     * values rewritten in place and null values
+     */
+    @Test
+    public void testLongKeysAndByteValues()
+    {
+        OffHeapMap<Long, byte[]> map = new OffHeapMap<>(Codec.longs(), Codec.bytes(), 1000);
+        for(long key = 0; key < 1000; key++) {
+            map.add(key * 7919, new byte[]{(byte) key, 1, 2});
+        }
+
+        //same length values are overwritten in place
+        map.add(7919L, new byte[]{9, 9, 9});
+        Assert.assertArrayEquals("The value should be overwritten", new byte[]{9, 9, 9}, map.get(7919L));
+        map.add(0L, null);
+        Assert.assertNull("A null value should be stored", map.get(0L));
+        Assert.assertTrue("A key with a null value should exist", map.keyExists(0L));
+        Assert.assertEquals("Size should not change when values are replaced", 1000, map.size());
+        Assert.assertArrayEquals("Other values should be unchanged", new byte[]{(byte) 999, 1, 2}, map.get(999L * 7919));
+        Assert.assertNull("A missing key should have no value", map.get(1L));
+
+        map.remove(1L);
+        Assert.assertEquals("Removing a missing key should change nothing", 1000, map.size());
+        map.clear();
+        Assert.assertTrue("The map should be empty after clear", map.isEmpty());
+        Assert.assertFalse("No keys should exist after clear", map.keyExists(7919L));
+    }
+
+    /**
+     * Test that rewriting values with new lengths compacts the data region
+     * instead of letting it grow without bound
+     */
+    @Test
+    public void testGarbageIsCompacted()
+    {
+        OffHeapMap<Integer, byte[]> map = new OffHeapMap<>(Codec.integers(), Codec.bytes());
+        for(int i = 0; i < 100; i++) {
+            map.add(i, new byte[100]);
+        }
+        //without compaction the rewrites below leave over 20MB of garbage
+        for(int round = 0; round < 2000; round++) {
+            for(int i = 0; i < 100; i++) {
+                map.add(i, new byte[100 + round % 2]);
+            }
+        }
+
+        Assert.assertTrue("Compaction should keep the footprint bounded but was " + map.offHeapBytes(),
+                map.offHeapBytes() <= 4 << 20);
+        for(int i = 0; i < 100; i++) {
+            Assert.assertEquals("Every value should survive compaction", 101, map.get(i).length);
+        }
+    }
+
+    /**
+     * Test that strings with unpaired surrogates, which UTF-8 cannot encode,
+     * are stored and read back unchanged as keys and values
+     */
+    @Test
+    public void testUnpairedSurrogates()
+    {
+        OffHeapMap<String, String> map = new OffHeapMap<>(Codec.strings(), Codec.strings());
+        String[] keys = {"a\uD800b", "\uDC00", "\uD800", "x\uDBFF", "\uD83D\uDE00", "\uDE00\uD83D", "plain"};
+        for(int i = 0; i < keys.length; i++) {
+            map.add(keys[i], keys[keys.length - 1 - i]);
+        }
+
+        Assert.assertEquals("Every string should be a distinct key", keys.length, map.size());
+        for(int i = 0; i < keys.length; i++) {
+            Assert.assertEquals("The value of key " + i + " should read back unchanged",
+                    keys[keys.length - 1 - i], map.get(keys[i]));
+        }
+        for(KeyValuePair<String, String> pair : map) {
+            Assert.assertTrue("Iterated keys should read back unchanged", Arrays.asList(keys).contains(pair.getKey()));
+        }
+        Assert.assertFalse("A '?' should not match the key it replaced", map.keyExists("a?b"));
+    }
+
+    /**
+     * Test that an add whose value codec fails leaves the map as it was,
+     * for a new key and for one whose value changes length
+     */
+    @Test
+    public void testFailedAddChangesNothing()
+    {
+        Codec<String> strings = Codec.strings();
+        Codec<String> failing = new Codec<String>()
+        {
+            @Override
+            public int sizeOf(String value)
+            {
+                return strings.sizeOf(value);
+            }
+
+            @Override
+            public void write(String value, java.nio.ByteBuffer target)
+            {
+                if(value.startsWith("bad")) {
+                    throw new IllegalArgumentException("Cannot write " + value);
+                }
+                strings.write(value, target);
+            }
+
+            @Override
+            public String read(java.nio.ByteBuffer source)
+            {
+                return strings.read(source);
+            }
+        };
+        OffHeapMap<String, String> map = new OffHeapMap<>(Codec.strings(), failing);
+        map.add("kept", "value");
+        for(String key : new String[] {"new", "kept"}) {
+            try {
+                map.add(key, "bad value");
+                Assert.fail("The failing codec should make add throw");
+            }
+            catch(IllegalArgumentException ex) {}
+        }
+
+        Assert.assertEquals("A failed add should not change the size", 1, map.size());
+        Assert.assertFalse("A failed add should not add the key", map.keyExists("new"));
+        Assert.assertEquals("A failed add should keep the old value", "value", map.get("kept"));
+        int iterated = 0;
+        for(KeyValuePair<String, String> pair : map) {
+            Assert.assertEquals("Only the kept pair should be iterated", "kept", pair.getKey());
+            iterated++;
+        }
+        Assert.assertEquals("Iteration should match the size", 1, iterated);
+
+        //the space of the failed entries is reclaimed by later compactions
+        for(int round = 0; round < 20000; round++) {
+            map.add("kept", round % 2 == 0 ? "value" : "value!");
+        }
+        Assert.assertTrue("Failed entries should not keep the footprint growing", map.offHeapBytes() <= 4 << 20);
+        Assert.assertEquals("The pair should survive compaction", "value!", map.get("kept"));
+    }
+
+    /**
+     * Test that adding a key while iterating fails fast
+     */
+    @Test(expected = ConcurrentModificationException.class)
+    public void testIteratorFailsFast()
+    {
+        OffHeapMap<Integer, Integer> map = new OffHeapMap<>(Codec.integers(), Codec.integers());
+        for(int i = 0; i < 10; i++) {
+            map.add(i, i);
+        }
+        for(KeyValuePair<Integer, Integer> pair : map) {
+            map.add(pair.getKey() + 100, 0);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package unittesting;
+
+import hashtable.OpenHashTable;
+import helpers.KeyValuePair;
+import org.junit.*;
+import structures.Map;
+import structures.Set;
+
+import java.util.*;
+
+/**
+ * Provides a series of tests that verifies the functionality of
+ * the OpenHashTable
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class OpenHashTableTest
+{
+    private OpenHashTable<Integer> table;
+
+    /**
+     * Create a table before each test
+     */
+    @Before
+    public void createTable()
+    {
+        table = new OpenHashTable<>();
+    }
+
+    /**
+     * Test that elements are added once, found again after the table grows
+     * and that duplicates are not counted
+     */
+    @Test
+    public void testAdd()
+    {
+        for(int i = 0; i < 500; i++) {
+            table.add(i);
+            table.add(i);
+        }
+
+        Assert.assertEquals("The size of the table is incorrect after adding 500 elements twice",
+                500, table.size());
+        for(int i = 0; i < 500; i++) {
+            Assert.assertTrue("Element " + i + " should be found after adding it", table.contains(i));
+        }
+        Assert.assertFalse("Element 500 should not be found", table.contains(500));
+    }
+
+    /**
+     * Test that removing elements from the middle of probe runs keeps every
+     * other element reachable, comparing against java.util.HashSet
+     */
+    @Test
+    public void testRemoveKeepsRunsIntact()
+    {
+        java.util.Set<Integer> expected = new HashSet<>();
+        Random random = new Random(7);
+
+        //multiples of 1024 share their low bits, making long probe runs likely
+        for(int i = 0; i < 20000; i++) {
+            int element = random.nextInt(300) * 1024;
+            if(random.nextBoolean() && expected.contains(element)) {
+                table.remove(element);
+                expected.remove(element);
+            }
+            else {
+                table.add(element);
+                expected.add(element);
+            }
+        }
+
+        Assert.assertEquals("Size should match java.util.HashSet after random adds and removes",
+                expected.size(), table.size());
+        for(int i = 0; i < 300; i++) {
+            Assert.assertEquals("Membership of " + i * 1024 + " should match java.util.HashSet",
+                    expected.contains(i * 1024), table.contains(i * 1024));
+        }
+
+        //remove an element that does not exist
+        try {
+            table.remove(-1);
+
+            //should not get here
+            Assert.fail("Did not throw an exception when removing an element that does not exist");
+        }
+        catch(NoSuchElementException ex) {}
+    }
+
+    /**
+     * Test that the iterator returns every element once and fails when the
+     * table is modified while iterating
+     */
+    @Test
+    public void testIterator()
+    {
+        for(int i = 0; i < 25; i++) {
+            table.add(i);
+        }
+        List<Integer> list = new ArrayList<>();
+        for(Integer element : table) {
+            list.add(element);
+        }
+        Collections.sort(list);
+
+        for(int i = 0; i < 25; i++) {
+            Assert.assertEquals("The iterator provided the wrong element", i, (int)list.get(i));
+        }
+
+        try {
+            for(Integer element : table) {
+                table.add(element + 100);
+            }
+
+            //should not get here
+            Assert.fail("Did not throw an exception when modifying the table while iterating");
+        }
+        catch(ConcurrentModificationException ex) {}
+    }
+
+    /**
+     * Test that the slot array shrinks after mass removal and with trimToSize
+     */
+    @Test
+    public void testShrink()
+    {
+        for(int i = 0; i < 50000; i++) {
+            table.add(i);
+        }
+        int peak = table.capacity();
+        for(int i = 10; i < 50000; i++) {
+            table.remove(i);
+        }
+        Assert.assertTrue("The table should shrink after most elements are removed", table.capacity() < peak / 100);
+
+        table.trimToSize();
+        Assert.assertEquals("trimToSize should shrink to the smallest slot array", 32, table.capacity());
+        for(int i = 0; i < 10; i++) {
+            Assert.assertTrue("Element " + i + " should be found after shrinking", table.contains(i));
+        }
+    }
+
+    /**
+     * Test that a weakly consistent iterator returns the elements the table
+     * held when it was created while the table keeps changing
+     */
+    @Test
+    public void testWeaklyConsistentIterator()
+    {
+        for(int i = 0; i < 100; i++) {
+            table.add(i);
+        }
+
+        java.util.Set<Integer> seen = new HashSet<>();
+        int step = 0;
+        for(Iterator<Integer> iterator = table.weaklyConsistentIterator(); iterator.hasNext(); step++) {
+            seen.add(iterator.next());
+            table.remove(step);
+            table.add(1000 + step);
+        }
+
+        Assert.assertEquals("The iterator should return the 100 original elements", 100, seen.size());
+        for(int i = 0; i < 100; i++) {
+            Assert.assertTrue("Element " + i + " should be returned", seen.contains(i));
+        }
+    }
+
+    /**
+     * Test that Set and Map work the same when backed by an OpenHashTable
+     */
+    @Test
+    public void testSetAndMapEngine()
+    {
+        Set<String> set = new Set<>(new OpenHashTable<>());
+        set.add("a");
+        set.add("b");
+        set.remove("a");
+        Assert.assertFalse("Set should not contain a removed element", set.contains("a"));
+        Assert.assertTrue("Set should contain an added element", set.contains("b"));
+
+        Map<String, Integer> map = new Map<>(new OpenHashTable<KeyValuePair<String, Integer>>());
+        map.add("a", 1);
+        map.add("a", 2);
+        map.merge("b", 5, Integer::sum);
+        map.merge("b", 5, Integer::sum);
+        Assert.assertEquals("Map.add should update an existing key", 2, (int)map.get("a"));
+        Assert.assertEquals("Map.merge should combine values", 10, (int)map.get("b"));
+        Assert.assertEquals("Map should hold two keys", 2, map.size());
+    }
+}
@@ -0,0 +1,122 @@
+package unittesting;
+
+import hashtable.PerfectHash;
+import org.junit.*;
+import structures.Map;
+import structures.PerfectHashMap;
+import structures.PerfectHashSet;
+import structures.Set;
+
+import java.util.*;
+
+/**
+ * Provides a series of tests that verifies the minimal perfect hash gives
+ * every key its own index and that the sets and maps built on it answer
+ * like the collections they were copied from
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class PerfectHashTest
+{
+    private static final int KEYS = 100000;
+
+    /**
+     * Test that the hash codes map to every index in [0, n) exactly once
+     * using under four bits each
+     */
+    @Test
+    public void testMinimalAndPerfect()
+    {
+        Random random = new Random(17);
+        java.util.Set<Integer> distinct = new HashSet<>();
+        while(distinct.size() < KEYS) {
+            distinct.add(random.nextInt());
+        }
+        int[] hashes = new int[KEYS];
+        int count = 0;
+        for(int hash : distinct) {
+            hashes[count++] = hash;
+        }
+
+        PerfectHash perfectHash = new PerfectHash(hashes);
+        boolean[] used = new boolean[KEYS];
+        for(int hash : hashes) {
+            int index = perfectHash.indexOf(hash);
+            Assert.assertTrue("Index " + index + " should be in range", index >= 0 && index < KEYS);
+            Assert.assertFalse("Index " + index + " should only be given out once", used[index]);
+            used[index] = true;
+        }
+        Assert.assertTrue("The function should take under four bits per key but took " + perfectHash.bitsPerKey(),
+                perfectHash.bitsPerKey() < 4);
+    }
+
+    /**
+     * Test that a perfect hash set holds exactly the elements of the set it
+     * was copied from, including elements whose hash codes collide
+     */
+    @Test
+    public void testPerfectHashSet()
+    {
+        Set<String> source = new Set<>();
+        for(int i = 0; i < KEYS; i++) {
+            source.add("sku-" + i);
+        }
+        //"Aa" and "BB" have the same hashCode, so so does every string built from them
+        String[] colliding = {"AaAa", "AaBB", "BBAa", "BBBB"};
+        for(String element : colliding) {
+            source.add(element);
+        }
+
+        PerfectHashSet<String> set = PerfectHashSet.copyOf(source);
+        Assert.assertEquals("Size should match the source", source.size(), set.size());
+        for(String element : source) {
+            Assert.assertTrue("The set should contain " + element, set.contains(element));
+        }
+        for(String element : colliding) {
+            Assert.assertEquals("Colliding elements should be found", element, set.get(element));
+        }
+        for(int i = KEYS; i < KEYS * 2; i++) {
+            Assert.assertFalse("The set should not contain sku-" + i, set.contains("sku-" + i));
+        }
+        Assert.assertFalse("The set should not contain a colliding string it was not given", set.contains("AaAaAa"));
+
+        int iterated = 0;
+        for(String element : set) {
+            Assert.assertTrue("Iteration should only return elements of the source", source.contains(element));
+            iterated++;
+        }
+        Assert.assertEquals("Iteration should visit every element once", source.size(), iterated);
+    }
+
+    /**
+     * Test that a perfect hash map answers like the map it was copied from
+     * and cannot be changed
+     */
+    @Test
+    public void testPerfectHashMap()
+    {
+        Map<String, Integer> source = new Map<>();
+        for(int i = 0; i < KEYS; i++) {
+            source.add("country-" + i, i);
+        }
+        source.add("Aa", -1);
+        source.add("BB", -2);
+
+        PerfectHashMap<String, Integer> map = PerfectHashMap.copyOf(source);
+        Assert.assertEquals("Size should match the source", source.size(), map.size());
+        for(int i = 0; i < KEYS; i++) {
+            Assert.assertEquals("Value for country-" + i + " should match", i, (int) map.get("country-" + i));
+        }
+        Assert.assertEquals("Colliding keys should keep their values", -1, (int) map.get("Aa"));
+        Assert.assertEquals("Colliding keys should keep their values", -2, (int) map.get("BB"));
+        Assert.assertNull("Missing keys should have no value", map.get("country-" + KEYS));
+        Assert.assertFalse("Missing keys should not exist", map.keyExists("CC"));
+
+        try {
+            map.add("new", 0);
+            Assert.fail("A perfect hash map should not be changed");
+        }
+        catch(UnsupportedOperationException ex) {}
+    }
+}
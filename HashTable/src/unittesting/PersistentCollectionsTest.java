@@ -0,0 +1,137 @@
+package unittesting;
+
+import org.junit.*;
+import structures.PersistentMap;
+import structures.PersistentSet;
+
+import java.util.*;
+
+/**
+ * Provides a series of tests that verifies the persistent Set and Map keep
+ * every old version intact while new versions are made
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class PersistentCollectionsTest
+{
+    private static final int OPERATIONS = 20000;
+
+    /**
+     * Test that random writes match java.util.HashMap and that snapshots
+     * taken along the way still hold the pairs they had when taken
+     */
+    @Test
+    public void testPersistentMapVersions()
+    {
+        PersistentMap<Integer, Integer> map = new PersistentMap<>();
+        java.util.Map<Integer, Integer> expected = new HashMap<>();
+        List<PersistentMap<Integer, Integer>> snapshots = new ArrayList<>();
+        List<java.util.Map<Integer, Integer>> expectedSnapshots = new ArrayList<>();
+        Random random = new Random(11);
+
+        for(int i = 0; i < OPERATIONS; i++) {
+            int key = random.nextInt(3000);
+            if(random.nextInt(3) == 0) {
+                map.remove(key);
+                expected.remove(key);
+            }
+            else {
+                map.add(key, i);
+                expected.put(key, i);
+            }
+
+            if(i % 1000 == 0) {
+                snapshots.add(map.snapshot());
+                expectedSnapshots.add(new HashMap<>(expected));
+            }
+        }
+
+        assertMatches(expected, map);
+        for(int i = 0; i < snapshots.size(); i++) {
+            assertMatches(expectedSnapshots.get(i), snapshots.get(i));
+        }
+
+        //with and without leave the receiver unchanged
+        PersistentMap<Integer, Integer> added = map.with(-1, -1);
+        PersistentMap<Integer, Integer> removed = added.without(-1);
+        Assert.assertFalse("with should not change the original map", map.keyExists(-1));
+        Assert.assertEquals("with should add the key to the new version", -1, (int) added.get(-1));
+        Assert.assertEquals("without should remove the key from the new version", map.size(), removed.size());
+    }
+
+    private static void assertMatches(java.util.Map<Integer, Integer> expected, PersistentMap<Integer, Integer> map)
+    {
+        Assert.assertEquals("Size should match java.util.HashMap", expected.size(), map.size());
+        for(int key = 0; key < 3000; key++) {
+            Assert.assertEquals("Value for " + key + " should match java.util.HashMap", expected.get(key), map.get(key));
+        }
+
+        int count = 0;
+        for(Iterator<helpers.KeyValuePair<Integer, Integer>> iterator = map.iterator(); iterator.hasNext(); iterator.next()) {
+            count++;
+        }
+        Assert.assertEquals("The iterator should return every pair", expected.size(), count);
+    }
+
+    /**
+     * Test elements whose whole hashes collide, which share a collision node
+     */
+    @Test
+    public void testPersistentSetCollisions()
+    {
+        //only 8 distinct hashes, so most elements share a hash with others
+        PersistentSet<Integer> set = new PersistentSet<>(element -> element % 8);
+        for(int i = 0; i < 200; i++) {
+            set.add(i);
+        }
+        PersistentSet<Integer> full = set.snapshot();
+
+        for(int i = 0; i < 200; i += 2) {
+            set.remove(i);
+        }
+        Assert.assertEquals("Size should be 100 after removing the even elements", 100, set.size());
+        Assert.assertEquals("The snapshot should still hold every element", 200, full.size());
+        for(int i = 0; i < 200; i++) {
+            Assert.assertEquals("Only odd elements should remain", i % 2 == 1, set.contains(i));
+            Assert.assertTrue("The snapshot should hold " + i, full.contains(i));
+        }
+
+        java.util.Set<Integer> seen = new HashSet<>();
+        for(Integer element : set) {
+            Assert.assertTrue("The iterator returned an element twice", seen.add(element));
+        }
+        Assert.assertEquals("The iterator should return every element", 100, seen.size());
+
+        try {
+            set.remove(0);
+
+            //should not get here
+            Assert.fail("Did not throw an exception when removing an element that does not exist");
+        }
+        catch(NoSuchElementException ex) {}
+    }
+
+    /**
+     * Test the set operations of the persistent set
+     */
+    @Test
+    public void testPersistentSetOperations()
+    {
+        PersistentSet<Integer> first = new PersistentSet<>();
+        PersistentSet<Integer> second = new PersistentSet<>();
+        for(int i = 0; i < 1000; i++) {
+            first.add(i);
+            second.add(i + 500);
+        }
+
+        Assert.assertEquals("Union should hold 1500 elements", 1500, first.union(second).size());
+        Assert.assertEquals("Intersection should hold 500 elements", 500, first.intersects(second).size());
+        Assert.assertEquals("Difference should hold 500 elements", 500, first.difference(second).size());
+        Assert.assertTrue("The difference should be disjoint from second", second.isDisjoint(first.difference(second)));
+        Assert.assertEquals("First should be unchanged", 1000, first.size());
+
+        first.clear();
+        Assert.assertTrue("Set should be empty after clear", first.isEmptySet());
+    }
+}
@@ -0,0 +1,191 @@
+package unittesting;
+
+import org.junit.*;
+import structures.IntHashSet;
+import structures.IntIntMap;
+import structures.LongHashSet;
+import structures.LongObjectMap;
+
+import java.util.*;
+
+/**
+ * Provides a series of tests that verifies the functionality of the
+ * primitive sets and maps against the java.util collections
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class PrimitiveCollectionsTest
+{
+    private static final int OPERATIONS = 50000;
+
+    /**
+     * Test that an IntHashSet matches java.util.HashSet through random adds and
+     * removes, including the element 0 that marks empty slots
+     */
+    @Test
+    public void testIntHashSet()
+    {
+        IntHashSet set = new IntHashSet();
+        java.util.Set<Integer> expected = new HashSet<>();
+        Random random = new Random(3);
+
+        for(int i = 0; i < OPERATIONS; i++) {
+            int element = random.nextInt(2000) - 1000;
+            if(random.nextBoolean() && expected.contains(element)) {
+                set.remove(element);
+                expected.remove(element);
+            }
+            else {
+                set.add(element);
+                expected.add(element);
+            }
+        }
+
+        Assert.assertEquals("Size should match java.util.HashSet", expected.size(), set.size());
+        for(int i = -1000; i < 1000; i++) {
+            Assert.assertEquals("Membership of " + i + " should match java.util.HashSet",
+                    expected.contains(i), set.contains(i));
+        }
+
+        java.util.Set<Integer> seen = new HashSet<>();
+        for(PrimitiveIterator.OfInt iterator = set.iterator(); iterator.hasNext(); ) {
+            Assert.assertTrue("The iterator returned an element twice", seen.add(iterator.nextInt()));
+        }
+        Assert.assertEquals("The iterator should return every element", expected, seen);
+
+        //0 and the extreme values are ordinary elements
+        IntHashSet extremes = new IntHashSet();
+        extremes.add(0);
+        extremes.add(Integer.MIN_VALUE);
+        extremes.add(Integer.MAX_VALUE);
+        Assert.assertEquals("0 and the extreme values should all be stored", 3, extremes.size());
+        extremes.remove(0);
+        Assert.assertFalse("0 should not be found after removing it", extremes.contains(0));
+
+        try {
+            extremes.remove(0);
+
+            //should not get here
+            Assert.fail("Did not throw an exception when removing an element that does not exist");
+        }
+        catch(NoSuchElementException ex) {}
+    }
+
+    /**
+     * Test the set operations of IntHashSet
+     */
+    @Test
+    public void testIntHashSetOperations()
+    {
+        IntHashSet first = new IntHashSet();
+        IntHashSet second = new IntHashSet();
+        first.addAll(new int[] {0, 1, 2, 3});
+        second.addAll(new int[] {2, 3, 4});
+
+        Assert.assertEquals("Union should hold 5 elements", 5, first.union(second).size());
+        IntHashSet intersection = first.intersects(second);
+        Assert.assertEquals("Intersection should hold 2 elements", 2, intersection.size());
+        Assert.assertTrue("Intersection should hold 2 and 3", intersection.contains(2) && intersection.contains(3));
+        IntHashSet difference = first.difference(second);
+        Assert.assertEquals("Difference should hold 2 elements", 2, difference.size());
+        Assert.assertTrue("Difference should hold 0", difference.contains(0));
+        Assert.assertTrue("First should be a superset of the intersection", first.isSubset(intersection));
+        Assert.assertTrue("The difference and second should be disjoint", second.isDisjoint(difference));
+    }
+
+    /**
+     * Test that a LongHashSet stores values that differ only in their high bits
+     */
+    @Test
+    public void testLongHashSet()
+    {
+        LongHashSet set = new LongHashSet();
+        for(long i = 0; i < 1000; i++) {
+            set.add(i << 32);
+            set.add(i);
+        }
+        Assert.assertEquals("Size should count values that share their low bits", 1999, set.size());
+
+        for(long i = 1; i < 1000; i++) {
+            set.remove(i << 32);
+        }
+        for(long i = 1; i < 1000; i++) {
+            Assert.assertFalse("Removed value should not be found", set.contains(i << 32));
+            Assert.assertTrue("Value sharing low bits with a removed value should be found", set.contains(i));
+        }
+        Assert.assertTrue("0 should still be found", set.contains(0));
+    }
+
+    /**
+     * Test that an IntIntMap matches java.util.HashMap through random writes
+     */
+    @Test
+    public void testIntIntMap()
+    {
+        IntIntMap map = new IntIntMap();
+        java.util.Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(5);
+
+        for(int i = 0; i < OPERATIONS; i++) {
+            int key = random.nextInt(2000) - 1000;
+            int operation = random.nextInt(3);
+            if(operation == 0) {
+                map.remove(key);
+                expected.remove(key);
+            }
+            else if(operation == 1) {
+                map.add(key, i);
+                expected.put(key, i);
+            }
+            else {
+                map.merge(key, 1, Integer::sum);
+                expected.merge(key, 1, Integer::sum);
+            }
+        }
+
+        Assert.assertEquals("Size should match java.util.HashMap", expected.size(), map.size());
+        for(int key = -1000; key < 1000; key++) {
+            Assert.assertEquals("Key " + key + " should match java.util.HashMap",
+                    expected.containsKey(key), map.keyExists(key));
+            Assert.assertEquals("Value for " + key + " should match java.util.HashMap",
+                    (int)expected.getOrDefault(key, -1), map.getOrDefault(key, -1));
+        }
+        Assert.assertEquals("keyset should hold every key", expected.size(), map.keyset().size());
+        Assert.assertEquals("values should hold every value", expected.size(), map.values().length);
+    }
+
+    /**
+     * Test that a LongObjectMap stores, updates and removes values by long key
+     */
+    @Test
+    public void testLongObjectMap()
+    {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        for(long key = -500; key < 500; key++) {
+            map.add(key * 1_000_000_007L, "v" + key);
+        }
+        map.add(0, "zero");
+        map.remove(7 * 1_000_000_007L);
+
+        Assert.assertEquals("Size should be 999 after adding 1000 keys and removing one", 999, map.size());
+        Assert.assertEquals("Updated value should be returned", "zero", map.get(0));
+        Assert.assertNull("Removed key should return null", map.get(7 * 1_000_000_007L));
+        Assert.assertEquals("Stored value should be returned", "v-3", map.get(-3 * 1_000_000_007L));
+        Assert.assertTrue("Stored value should exist", map.valueExists("v499"));
+        Assert.assertEquals("computeIfAbsent should keep an existing value", "v1",
+                map.computeIfAbsent(1_000_000_007L, key -> "new"));
+        Assert.assertEquals("computeIfAbsent should add a missing value", "new",
+                map.computeIfAbsent(42, key -> "new"));
+
+        //null results add nothing or remove the key, as in java.util.Map
+        for(long key : new long[] {0, 43}) {
+            Assert.assertNull("A null mapping should add nothing", map.computeIfAbsent(key + 1, k -> null));
+            Assert.assertFalse("A key mapped to null should not be added", map.keyExists(key + 1));
+            map.add(key, "merged");
+            Assert.assertNull("A merge to null should return null", map.merge(key, "x", (a, b) -> null));
+            Assert.assertFalse("A key merged to null should be removed", map.keyExists(key));
+        }
+        Assert.assertEquals("Removing the zero key should leave 999 keys", 999, map.size());
+    }
+}
@@ -0,0 +1,128 @@
+package unittesting;
+
+import hashtable.HashStrategy;
+import hashtable.HashTable;
+import hashtable.SipHash;
+import org.junit.*;
+import structures.Map;
+import structures.Set;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Provides a series of tests that verifies the seeded and SipHash strategies
+ * hash correctly, differ from table to table, and work in sets and maps
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class SeededHashTest
+{
+    /**
+     * Test that SipHash matches the reference implementation's test vector
+     * for the key 00..0f and the fifteen byte message 00..0e
+     */
+    @Test
+    public void testSipHashReferenceVector()
+    {
+        SipHash sipHash = new SipHash(0x0706050403020100L, 0x0F0E0D0C0B0A0908L);
+        byte[] message = new byte[15];
+        for(int i = 0; i < message.length; i++) {
+            message[i] = (byte) i;
+        }
+        Assert.assertEquals("The hash should match the reference vector",
+                0xA129CA6149BE45E5L, sipHash.hash(message));
+        Assert.assertEquals("The empty message should match the reference vector",
+                0x726FDB47DD0E0E31L, sipHash.hash(new byte[0]));
+    }
+
+    /**
+     * Test that a string hashes the same as its UTF-16LE bytes, for every
+     * length of the last word
+     */
+    @Test
+    public void testStringMatchesUtf16Bytes()
+    {
+        SipHash sipHash = new SipHash(42, 17);
+        String text = "";
+        for(int i = 0; i < 12; i++) {
+            Assert.assertEquals("A string of length " + i + " should hash as its bytes",
+                    sipHash.hash(text.getBytes(StandardCharsets.UTF_16LE)), sipHash.hash(text));
+            text += (char) ('a' + i * 1000);
+        }
+    }
+
+    /**
+     * Test that strings sharing one hashCode get different hashes from the
+     * SipHash strategy, and that each strategy has its own key
+     */
+    @Test
+    public void testCollidingStringsAreSpread()
+    {
+        HashStrategy<String> strategy = HashStrategy.sipHash();
+        Assert.assertEquals("The strings should share a hashCode", "Aa".hashCode(), "BB".hashCode());
+        Assert.assertNotEquals("Colliding strings should hash differently",
+                strategy.hash("Aa"), strategy.hash("BB"));
+        Assert.assertEquals("The same string should always hash the same",
+                strategy.hash("Aa"), strategy.hash(new String("Aa")));
+
+        HashStrategy<String> other = HashStrategy.sipHash();
+        int same = 0;
+        for(int i = 0; i < 100; i++) {
+            if(strategy.hash("key" + i) == other.hash("key" + i)) {
+                same++;
+            }
+        }
+        Assert.assertTrue("Strategies should not share a key", same < 5);
+    }
+
+    /**
+     * Test that seeded strategies place the same elements differently
+     */
+    @Test
+    public void testSeededStrategiesDiffer()
+    {
+        HashStrategy<Integer> first = HashStrategy.seeded();
+        HashStrategy<Integer> second = HashStrategy.seeded();
+        int same = 0;
+        for(int i = 0; i < 100; i++) {
+            Assert.assertEquals("The same element should always hash the same",
+                    first.hash(i), first.hash(Integer.valueOf(i)));
+            if((first.hash(i) & 1023) == (second.hash(i) & 1023)) {
+                same++;
+            }
+        }
+        Assert.assertTrue("Strategies should not share a seed", same < 5);
+    }
+
+    /**
+     * Test that sets, maps and tables built with the new strategies store
+     * and find their elements
+     */
+    @Test
+    public void testStructuresWithStrategies()
+    {
+        Set<String> set = new Set<>(HashStrategy.sipHash());
+        Map<String, Integer> map = new Map<>(HashStrategy.sipHash());
+        HashTable<Integer> table = new HashTable<>(HashStrategy.seeded());
+        for(int i = 0; i < 1000; i++) {
+            set.add("element" + i);
+            map.add("key" + i, i);
+            table.add(i);
+        }
+        set.remove("element0");
+        map.remove("key0");
+        table.remove(0);
+
+        Assert.assertEquals("The set should hold the remaining elements", 999, set.size());
+        Assert.assertEquals("The map should hold the remaining pairs", 999, map.size());
+        Assert.assertEquals("The table should hold the remaining elements", 999, table.size());
+        for(int i = 1; i < 1000; i++) {
+            Assert.assertTrue("The set should contain element" + i, set.contains("element" + i));
+            Assert.assertEquals("The map should return the value of key" + i, Integer.valueOf(i), map.get("key" + i));
+            Assert.assertTrue("The table should contain " + i, table.contains(i));
+        }
+        Assert.assertFalse("Removed elements should be gone", set.contains("element0"));
+        Assert.assertFalse("Removed keys should be gone", map.keyExists("key0"));
+    }
+}
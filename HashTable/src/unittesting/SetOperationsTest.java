@@ -0,0 +1,120 @@
+package unittesting;
+
+import hashtable.OpenHashTable;
+import interfaces.ISet;
+import org.junit.*;
+import structures.Set;
+
+/**
+ * Provides a series of tests that verifies the set algebra of Set,
+ * both the operations that return a new set and the ones that change
+ * the set in place
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class SetOperationsTest
+{
+    private static final int LARGE_SIZE = 100000;
+
+    private Set<Integer> first;
+    private Set<Integer> second;
+
+    /**
+     * Create {0..9} and {5..14} before each test
+     */
+    @Before
+    public void createSets()
+    {
+        first = new Set<>();
+        second = new Set<>(new OpenHashTable<>());
+        for(int i = 0; i < 10; i++) {
+            first.add(i);
+            second.add(i + 5);
+        }
+    }
+
+    /**
+     * Test that the operations returning a new set leave both inputs unchanged
+     */
+    @Test
+    public void testNewSetOperations()
+    {
+        ISet<Integer> union = first.union(second);
+        ISet<Integer> intersection = first.intersects(second);
+        ISet<Integer> difference = first.difference(second);
+
+        Assert.assertEquals("Union should hold 15 elements", 15, union.size());
+        Assert.assertEquals("Intersection should hold 5 elements", 5, intersection.size());
+        Assert.assertEquals("Intersection should be the same from either side",
+                5, second.intersects(first).size());
+        Assert.assertEquals("Difference should hold 5 elements", 5, difference.size());
+        for(int i = 0; i < 15; i++) {
+            Assert.assertEquals("Intersection membership of " + i, i >= 5 && i < 10, intersection.contains(i));
+            Assert.assertEquals("Difference membership of " + i, i < 5, difference.contains(i));
+        }
+        Assert.assertEquals("First should be unchanged", 10, first.size());
+        Assert.assertEquals("Second should be unchanged", 10, second.size());
+    }
+
+    /**
+     * Test that retainAll, removeAll and addAll change the receiver in place
+     */
+    @Test
+    public void testInPlaceOperations()
+    {
+        Set<Integer> copy = new Set<>();
+        copy.addAll(first);
+
+        Assert.assertTrue("retainAll should report a change", copy.retainAll(second));
+        Assert.assertEquals("retainAll should leave the intersection", 5, copy.size());
+        Assert.assertFalse("retainAll should report no change the second time", copy.retainAll(second));
+
+        copy.addAll(first);
+        Assert.assertEquals("addAll should leave the union", 10, copy.size());
+
+        Assert.assertTrue("removeAll should report a change", copy.removeAll(second));
+        Assert.assertEquals("removeAll should leave the difference", 5, copy.size());
+        for(int i = 0; i < 5; i++) {
+            Assert.assertTrue("Element " + i + " should remain after removeAll", copy.contains(i));
+        }
+
+        //removing a larger set probes the smaller receiver instead
+        Set<Integer> small = new Set<>();
+        small.add(7);
+        small.add(20);
+        Assert.assertTrue("removeAll should remove the shared element", small.removeAll(second));
+        Assert.assertFalse("Shared element should be removed", small.contains(7));
+        Assert.assertTrue("Element not in the other set should remain", small.contains(20));
+
+        Assert.assertTrue("removeAll of itself should empty the set", first.removeAll(first));
+        Assert.assertTrue("Set should be empty after removing itself", first.isEmpty());
+    }
+
+    /**
+     * Test the operations on large sets, which the nested loops used to make
+     * take billions of comparisons
+     */
+    @Test(timeout = 10000)
+    public void testLargeSets()
+    {
+        Set<Integer> evens = new Set<>(LARGE_SIZE);
+        Set<Integer> all = new Set<>(LARGE_SIZE);
+        for(int i = 0; i < LARGE_SIZE; i++) {
+            all.add(i);
+            if(i % 2 == 0) {
+                evens.add(i);
+            }
+        }
+
+        Assert.assertEquals("Intersection should hold the even elements",
+                LARGE_SIZE / 2, all.intersects(evens).size());
+        Assert.assertEquals("Difference should hold the odd elements",
+                LARGE_SIZE / 2, all.difference(evens).size());
+        Assert.assertEquals("Union should hold every element", LARGE_SIZE, evens.union(all).size());
+
+        all.removeAll(evens);
+        Assert.assertEquals("removeAll should leave the odd elements", LARGE_SIZE / 2, all.size());
+        Assert.assertTrue("The odd and even elements should be disjoint", all.isDisjoint(evens));
+    }
+}
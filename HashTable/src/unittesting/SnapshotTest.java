@@ -0,0 +1,196 @@
+package unittesting;
+
+import hashtable.Codec;
+import hashtable.HashTable;
+import hashtable.OpenHashTable;
+import helpers.KeyValuePair;
+import org.junit.*;
+import structures.ConcurrentSet;
+import structures.Map;
+import structures.Set;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Provides a series of tests that verifies HashTable, Set and Map snapshots
+ * read back exactly what was written
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class SnapshotTest
+{
+    private static final int ELEMENTS = 10000;
+
+    /**
+     * Test that a set and a map written one after the other to the same
+     * stream both read back whole, with the reader stopping at the end of
+     * each snapshot
+     */
+    @Test
+    public void testRoundTrip() throws IOException
+    {
+        Set<String> set = new Set<>(new OpenHashTable<>());
+        Map<Long, String> map = new Map<>();
+        for(int i = 0; i < ELEMENTS; i++) {
+            set.add("element-" + i);
+            map.add((long) i, i % 10 == 0 ? null : "value-" + i);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        set.writeTo(out, Codec.strings());
+        map.writeTo(out, Codec.longs(), Codec.strings());
+        out.write(42);
+
+        InputStream in = new ByteArrayInputStream(out.toByteArray());
+        Set<String> readSet = Set.readFrom(in, Codec.strings());
+        Map<Long, String> readMap = Map.readFrom(in, Codec.longs(), Codec.strings());
+        Assert.assertEquals("The data after the snapshots should be left unread", 42, in.read());
+
+        Assert.assertEquals("The set should keep its size", ELEMENTS, readSet.size());
+        Assert.assertEquals("The map should keep its size", ELEMENTS, readMap.size());
+        for(int i = 0; i < ELEMENTS; i++) {
+            Assert.assertTrue("The set should hold element-" + i, readSet.contains("element-" + i));
+            Assert.assertEquals("The map should map " + i + " as before", map.get((long) i), readMap.get((long) i));
+            Assert.assertTrue("The map should hold the key " + i, readMap.keyExists((long) i));
+        }
+    }
+
+    /**
+     * Test that strings with unpaired surrogates read back unchanged
+     */
+    @Test
+    public void testUnpairedSurrogates() throws IOException
+    {
+        Set<String> set = new Set<>();
+        String[] elements = {"a\uD800b", "\uDC00", "x\uDBFF", "\uD83D\uDE00", "\uDE00\uD83D"};
+        for(String element : elements) {
+            set.add(element);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        set.writeTo(out, Codec.strings());
+        Set<String> read = Set.readFrom(new ByteArrayInputStream(out.toByteArray()), Codec.strings());
+        Assert.assertEquals("The set should keep its size", elements.length, read.size());
+        for(String element : elements) {
+            Assert.assertTrue("The set should hold " + element, read.contains(element));
+        }
+    }
+
+    /**
+     * Test that elements larger than the copy buffer read back intact
+     */
+    @Test
+    public void testLargeElements() throws IOException
+    {
+        HashTable<KeyValuePair<Integer, byte[]>> table = new HashTable<>();
+        for(int i = 0; i < 4; i++) {
+            byte[] value = new byte[100000 * (i + 1)];
+            Arrays.fill(value, (byte) i);
+            table.add(new KeyValuePair<>(i, value));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        table.writeTo(out, Codec.pairs(Codec.integers(), Codec.bytes()));
+        HashTable<KeyValuePair<Integer, byte[]>> read = HashTable.readFrom(new ByteArrayInputStream(out.toByteArray()),
+                Codec.pairs(Codec.integers(), Codec.bytes()));
+
+        Assert.assertEquals("Every element should be read", 4, read.size());
+        for(int i = 0; i < 4; i++) {
+            byte[] value = read.find(new KeyValuePair<>(i, null)).getValue();
+            Assert.assertEquals("The value should keep its length", 100000 * (i + 1), value.length);
+            Assert.assertEquals("The value should keep its bytes", (byte) i, value[value.length - 1]);
+        }
+    }
+
+    /**
+     * Test that a stream that is not a snapshot, or is cut short, is refused
+     */
+    @Test
+    public void testCorruptSnapshots() throws IOException
+    {
+        try {
+            Set.readFrom(new ByteArrayInputStream(new byte[64]), Codec.strings());
+            Assert.fail("Bytes that are not a snapshot should not be read");
+        }
+        catch(StreamCorruptedException ex) {}
+
+        Set<String> set = new Set<>();
+        set.add("a");
+        set.add("b");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        set.writeTo(out, Codec.strings());
+        byte[] truncated = Arrays.copyOf(out.toByteArray(), out.size() - 1);
+        try {
+            Set.readFrom(new ByteArrayInputStream(truncated), Codec.strings());
+            Assert.fail("A snapshot cut short should not be read");
+        }
+        catch(IOException ex) {}
+    }
+
+    /**
+     * Test that a header whose counts disagree with the entries is refused
+     * before the table is sized from it
+     */
+    @Test
+    public void testHeaderDisagreesWithEntries() throws IOException
+    {
+        ByteBuffer header = ByteBuffer.allocate(24);
+        header.putInt(0x48534E50).putInt(1).putInt(Integer.MAX_VALUE).putInt(16).putLong(0);
+        try {
+            Set.readFrom(new ByteArrayInputStream(header.array()), Codec.strings());
+            Assert.fail("A header claiming more elements than its entries can hold should not be read");
+        }
+        catch(StreamCorruptedException ex) {}
+
+        Set<String> set = new Set<>();
+        set.add("a");
+        set.add("b");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        set.writeTo(out, Codec.strings());
+        byte[] bytes = out.toByteArray();
+        ByteBuffer.wrap(bytes).putInt(8, 1);
+        try {
+            Set.readFrom(new ByteArrayInputStream(bytes), Codec.strings());
+            Assert.fail("A header claiming fewer elements than its entries should not be read");
+        }
+        catch(StreamCorruptedException ex) {}
+    }
+
+    /**
+     * Test that a concurrent set written while another thread adds to it
+     * reads back as the set at one moment, which for ascending adds is
+     * every number below some bound
+     */
+    @Test
+    public void testConcurrentSetWrittenDuringAdds() throws Exception
+    {
+        ConcurrentSet<String> set = new ConcurrentSet<>();
+        Thread writer = new Thread(() -> {
+            for(int i = 0; i < 200000; i++) {
+                set.add(Integer.toString(i));
+            }
+        });
+        writer.start();
+        try {
+            for(int round = 0; round < 20; round++) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                set.writeTo(out, Codec.strings());
+                Set<String> read = Set.readFrom(new ByteArrayInputStream(out.toByteArray()), Codec.strings());
+                for(int i = 0; i < read.size(); i++) {
+                    Assert.assertTrue("The snapshot should hold every number added before the last one it holds",
+                            read.contains(Integer.toString(i)));
+                }
+            }
+        }
+        finally {
+            writer.join();
+        }
+    }
+}
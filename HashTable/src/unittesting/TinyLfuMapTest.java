@@ -0,0 +1,124 @@
+package unittesting;
+
+import hashtable.FrequencySketch;
+import interfaces.IMap;
+import org.junit.*;
+import structures.LruMap;
+import structures.TinyLfuMap;
+
+/**
+ * Provides a series of tests that verifies the frequency sketch estimates
+ * recent use and that TinyLfuMap keeps its popular pairs through scans of
+ * keys used only once
+ *
+ * @author Brandon Skar
+ * @version 1.0
+ */
+public class TinyLfuMapTest
+{
+    /**
+     * Test that the sketch counts each hash code, stops at 15, and halves
+     * its counts once enough have been made
+     */
+    @Test
+    public void testFrequencySketch()
+    {
+        FrequencySketch sketch = new FrequencySketch(1000);
+        for(int i = 0; i < 5; i++) {
+            sketch.increment(7);
+        }
+        for(int i = 0; i < 100; i++) {
+            sketch.increment(42);
+        }
+        Assert.assertEquals("A hash code counted five times should estimate five", 5, sketch.frequency(7));
+        Assert.assertEquals("Counts should stop at 15", 15, sketch.frequency(42));
+        Assert.assertEquals("A hash code never counted should estimate zero", 0, sketch.frequency(123456));
+
+        //counting many other hash codes triggers the halving
+        for(int i = 0; i < 10000; i++) {
+            sketch.increment(1000000 + i);
+        }
+        Assert.assertTrue("Old counts should have been halved but were " + sketch.frequency(42),
+                sketch.frequency(42) <= 8);
+    }
+
+    /**
+     * Test that popular keys survive a long scan of keys used only once,
+     * which flushes them out of a plain LRU cache of the same size since
+     * each popular key is used again only after a thousand scan keys
+     */
+    @Test
+    public void testScanResistance()
+    {
+        TinyLfuMap<String, String> tinyLfu = new TinyLfuMap<>(1000);
+        LruMap<String, String> lru = new LruMap<>(1000);
+        for(int round = 0; round < 10; round++) {
+            for(int i = 0; i < 200; i++) {
+                request(tinyLfu, "hot-" + i);
+                request(lru, "hot-" + i);
+            }
+        }
+        long tinyLfuHits = tinyLfu.hitCount();
+        long lruHits = lru.hitCount();
+
+        //the popular keys stay in use while the scan goes on
+        for(int i = 0; i < 100000; i++) {
+            request(tinyLfu, "scan-" + i);
+            request(lru, "scan-" + i);
+            if(i % 5 == 0) {
+                request(tinyLfu, "hot-" + (i / 5) % 200);
+                request(lru, "hot-" + (i / 5) % 200);
+            }
+        }
+
+        int tinyLfuKept = 0;
+        for(int i = 0; i < 200; i++) {
+            tinyLfuKept += tinyLfu.keyExists("hot-" + i) ? 1 : 0;
+        }
+        Assert.assertEquals("Every popular key should survive the scan", 200, tinyLfuKept);
+        Assert.assertTrue("The scan should flush most popular keys from the LRU cache before they are used again",
+                lru.hitCount() - lruHits < 1000);
+        Assert.assertEquals("The cache should stay at its maximum size", 1000, tinyLfu.size());
+        Assert.assertEquals("Every popular request during the scan should hit", 100000 / 5,
+                tinyLfu.hitCount() - tinyLfuHits);
+    }
+
+    /**
+     * Test that removing pairs from every region keeps the cache consistent
+     */
+    @Test
+    public void testRemoveAndClear()
+    {
+        TinyLfuMap<Integer, Integer> cache = new TinyLfuMap<>(100);
+        for(int round = 0; round < 3; round++) {
+            for(int i = 0; i < 200; i++) {
+                request(cache, i);
+            }
+        }
+        Assert.assertEquals("The cache should stay at its maximum size", 100, cache.size());
+        for(int i = 0; i < 200; i += 2) {
+            cache.remove(i);
+        }
+        int count = 0;
+        for(Object pair : cache) {
+            count++;
+        }
+        Assert.assertEquals("Iteration should see every remaining pair", cache.size(), count);
+        for(int i = 1000; i < 2000; i++) {
+            request(cache, i);
+        }
+        Assert.assertEquals("The cache should fill back up to its maximum size", 100, cache.size());
+
+        cache.clear();
+        Assert.assertTrue("The cache should be empty after clearing", cache.isEmpty());
+        request(cache, 5);
+        Assert.assertEquals("The cache should work after clearing", 5, (int) cache.get(5));
+    }
+
+    private static <K> void request(IMap<K, K> cache, K key)
+    {
+        if(cache.get(key) == null) {
+            cache.add(key, key);
+        }
+    }
+}
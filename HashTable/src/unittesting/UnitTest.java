@@ -1,7 +1,12 @@
 package unittesting;
 
+import hashtable.CuckooHashTable;
 import hashtable.HashTable;
+import hashtable.HashTableConfig;
+import hashtable.OpenHashTable;
 import org.junit.*;
+import structures.ConcurrentMap;
+import structures.Map;
 
 import java.util.*;
 
@@ -237,6 +242,388 @@ public class UnitTest
         Assert.assertEquals("Get method should return 1 when get(1) is called", 1, (int)table.get(1), 0);
     }
 
+    /**
+     * Test that the find method returns the instance stored in the table rather
+     * than the element used to search for it, and null for missing elements
+     */
+    @Test
+    public void testFind()
+    {
+        HashTable<String> strings = new HashTable<>();
+        String stored = new String("hash");
+        strings.add(stored);
+
+        //an equal but different instance should locate the stored instance
+        Assert.assertSame("Find should return the instance stored in the table",
+                stored, strings.find(new String("hash")));
+
+        //missing elements should not be found
+        Assert.assertNull("Find should return null for an element not in the table", strings.find("table"));
+    }
+
+    /**
+     * Test that put replaces the stored element in place and reports the
+     * element it replaced, and that merge and computeIfAbsent only add
+     * missing elements
+     */
+    @Test
+    public void testUpsert()
+    {
+        HashTable<String> strings = new HashTable<>();
+        String first = new String("hash");
+        String second = new String("hash");
+
+        //putting a new element adds it
+        Assert.assertNull("Put should return null when adding a new element", strings.put(first));
+
+        //putting an equal element swaps the stored instance
+        Assert.assertSame("Put should return the replaced element", first, strings.put(second));
+        Assert.assertSame("Put should store the new instance", second, strings.find("hash"));
+        Assert.assertEquals("Put should not change the size when replacing", 1, strings.size());
+
+        //computeIfAbsent should not call the factory for an existing element
+        Assert.assertSame("computeIfAbsent should return the stored element", second,
+                strings.computeIfAbsent("hash", probe -> {
+                    throw new AssertionError("Factory called for an existing element");
+                }));
+        Assert.assertEquals("computeIfAbsent should add a missing element", "table",
+                strings.computeIfAbsent("table", probe -> probe));
+
+        //merge should combine with the stored element
+        Assert.assertSame("merge should store the combined element", first,
+                strings.merge(first, (existing, added) -> added));
+        Assert.assertEquals("Size should be 2 after upserting two distinct elements", 2, strings.size());
+    }
+
+    /**
+     * Test that a merge whose remapping returns null removes the key, as
+     * java.util.Map.merge does, on every table a map can be built on
+     */
+    @Test
+    public void testMergeToNullRemoves()
+    {
+        List<Map<String, Integer>> maps = Arrays.asList(new Map<>(), new Map<>(new OpenHashTable<>()),
+                new Map<>(new CuckooHashTable<>()), new ConcurrentMap<>());
+        for(Map<String, Integer> map : maps) {
+            map.add("kept", 1);
+            map.add("dropped", 2);
+            Assert.assertNull("merge should return null when the key is removed",
+                    map.merge("dropped", 5, (existing, added) -> null));
+            Assert.assertFalse("A key merged to null should be removed", map.keyExists("dropped"));
+            Assert.assertEquals("Removing by merge should shrink the map", 1, map.size());
+            Assert.assertFalse("No null value should be left behind", map.valueExists(null));
+            Assert.assertTrue("Other values should still be found", map.valueExists(1));
+
+            //a missing key is added with the given value without calling the remapping
+            Assert.assertEquals("merge should add a missing key", 5, (int) map.merge("dropped", 5, (existing, added) -> null));
+            Assert.assertEquals("The added key should be found", 5, (int) map.get("dropped"));
+        }
+    }
+
+    /**
+     * Test that a computeIfAbsent whose mapping returns null adds nothing,
+     * as java.util.Map.computeIfAbsent does, on every table a map can be
+     * built on
+     */
+    @Test
+    public void testComputeIfAbsentNullAddsNothing()
+    {
+        List<Map<String, Integer>> maps = Arrays.asList(new Map<>(), new Map<>(new OpenHashTable<>()),
+                new Map<>(new CuckooHashTable<>()), new ConcurrentMap<>());
+        for(Map<String, Integer> map : maps) {
+            map.add("kept", 1);
+            Assert.assertNull("computeIfAbsent should return null when nothing is added",
+                    map.computeIfAbsent("missing", key -> null));
+            Assert.assertFalse("A key mapped to null should not be added", map.keyExists("missing"));
+            Assert.assertEquals("The size should not change", 1, map.size());
+            Assert.assertFalse("No null value should be stored", map.valueExists(null));
+            Assert.assertEquals("A later mapping should still add the key", 7,
+                    (int) map.computeIfAbsent("missing", key -> 7));
+        }
+    }
+
+    /**
+     * Test that a table resizing incrementally finds, removes and iterates over
+     * every element while buckets are split between the old and new arrays
+     */
+    @Test
+    public void testIncrementalResize()
+    {
+        HashTable<Integer> incremental = new HashTable<>(true);
+        java.util.Set<Integer> expected = new HashSet<>();
+        Random random = new Random(11);
+
+        for(int i = 0; i < 20000; i++) {
+            int element = random.nextInt(5000);
+            if(random.nextInt(3) == 0 && expected.contains(element)) {
+                incremental.remove(element);
+                expected.remove(element);
+            }
+            else {
+                incremental.put(element);
+                expected.add(element);
+            }
+
+            //check the table part way through the run while a migration may be in progress
+            if(i % 101 == 0) {
+                java.util.Set<Integer> seen = new HashSet<>();
+                for(Integer stored : incremental) {
+                    Assert.assertTrue("The iterator returned " + stored + " twice", seen.add(stored));
+                }
+                Assert.assertEquals("The iterator should return every element in the table", expected, seen);
+            }
+        }
+
+        Assert.assertEquals("Size should match java.util.HashSet after random writes",
+                expected.size(), incremental.size());
+        for(int i = 0; i < 5000; i++) {
+            Assert.assertEquals("Membership of " + i + " should match java.util.HashSet",
+                    expected.contains(i), incremental.contains(i));
+        }
+    }
+
+    /**
+     * Test that elements are placed with a supplied hash strategy, that every
+     * element still works when the strategy sends them all to one bucket and
+     * that extreme hash codes map to valid buckets
+     */
+    @Test
+    public void testHashStrategy()
+    {
+        HashTable<Integer> colliding = new HashTable<>(element -> 42);
+        for(int i = 0; i < 100; i++) {
+            colliding.add(i);
+        }
+        colliding.remove(50);
+
+        Assert.assertEquals("Size should be 99 after adding 100 colliding elements and removing one",
+                99, colliding.size());
+        Assert.assertFalse("A removed colliding element should not be found", colliding.contains(50));
+        Assert.assertTrue("A colliding element should be found", colliding.contains(99));
+
+        //Integer.MIN_VALUE has a negative hash code that cannot be made positive
+        HashTable<Integer> extremes = new HashTable<>(element -> element);
+        extremes.add(Integer.MIN_VALUE);
+        extremes.add(Integer.MAX_VALUE);
+        extremes.add(-1);
+        Assert.assertTrue("Integer.MIN_VALUE should be found", extremes.contains(Integer.MIN_VALUE));
+        Assert.assertTrue("Integer.MAX_VALUE should be found", extremes.contains(Integer.MAX_VALUE));
+        Assert.assertTrue("-1 should be found", extremes.contains(-1));
+    }
+
+    /**
+     * Test that a presized table and the bulk addAll methods add every element
+     * once, skipping duplicates in the input and elements already in the table
+     */
+    @Test
+    public void testBulkAdd()
+    {
+        HashTable<Integer> presized = new HashTable<>(1000);
+        presized.add(0);
+
+        List<Integer> list = new ArrayList<>();
+        for(int i = 0; i < 1000; i++) {
+            list.add(i);
+            list.add(i);
+        }
+        presized.addAll(list);
+        Assert.assertEquals("Size should be 1000 after bulk adding 1000 elements twice",
+                1000, presized.size());
+
+        Integer[] array = {999, 1000, 1001, 1001};
+        presized.addAll(array);
+        Assert.assertEquals("Size should be 1002 after bulk adding an array with two new elements",
+                1002, presized.size());
+        for(int i = 0; i <= 1001; i++) {
+            Assert.assertTrue("Element " + i + " should be found after bulk adding", presized.contains(i));
+        }
+
+        //an iterable of unknown size is still added in full
+        HashTable<Integer> copy = new HashTable<>();
+        copy.addAll(() -> list.iterator());
+        Assert.assertEquals("Size should be 1000 after adding from an iterable", 1000, copy.size());
+
+        try {
+            new HashTable<Integer>(-1);
+
+            //should not get here
+            Assert.fail("Did not throw an exception for a negative expected size");
+        }
+        catch(IllegalArgumentException ex) {}
+    }
+
+    /**
+     * Test that a table grows exactly when the configured load factor would be
+     * exceeded, by the configured growth factor, and shrinks below the
+     * configured shrink threshold
+     */
+    @Test
+    public void testConfig()
+    {
+        HashTableConfig config = HashTableConfig.defaults()
+                .withLoadFactor(1.0)
+                .withGrowthFactor(4)
+                .withCapacities(16, 1024)
+                .withShrinkThreshold(0.2);
+        HashTable<Integer> configured = new HashTable<>(config);
+
+        //16 elements fit in 16 buckets at a load factor of 1
+        for(int i = 0; i < 16; i++) {
+            configured.add(i);
+        }
+        Assert.assertEquals("The table should not grow before reaching the load factor", 16, configured.capacity());
+
+        //the 17th element grows the table by the growth factor
+        configured.add(16);
+        Assert.assertEquals("The table should grow 4 times when passing the load factor", 64, configured.capacity());
+
+        //removing elements until fewer than 64 * 0.2 remain shrinks the table,
+        //leaving room for the 11 elements left to double
+        for(int i = 16; i >= 11; i--) {
+            configured.remove(i);
+        }
+        Assert.assertEquals("The table should shrink after dropping under the shrink threshold",
+                32, configured.capacity());
+        for(int i = 0; i < 11; i++) {
+            Assert.assertTrue("Element " + i + " should be found after shrinking", configured.contains(i));
+        }
+
+        //the table never grows past the maximum capacity
+        for(int i = 0; i < 5000; i++) {
+            configured.add(i);
+        }
+        Assert.assertEquals("The table should not grow past the maximum capacity", 1024, configured.capacity());
+
+        //a shrink threshold that would undo a growth right away is rejected
+        try {
+            HashTableConfig.defaults().withLoadFactor(1.0).withShrinkThreshold(0.5);
+
+            //should not get here
+            Assert.fail("Did not throw an exception for a shrink threshold of half the load factor");
+        }
+        catch(IllegalArgumentException ex) {}
+    }
+
+    /**
+     * Test that a table drained after a peak shrinks on its own, that
+     * trimToSize shrinks it to fit and that every element survives both
+     */
+    @Test
+    public void testShrink()
+    {
+        HashTable<Integer> draining = new HashTable<>();
+        for(int i = 0; i < 100000; i++) {
+            draining.add(i);
+        }
+        int peak = draining.capacity();
+
+        for(int i = 100; i < 100000; i++) {
+            draining.remove(i);
+        }
+        Assert.assertTrue("The table should shrink after most elements are removed",
+                draining.capacity() < peak / 100);
+
+        draining.trimToSize();
+        Assert.assertEquals("trimToSize should shrink to the smallest capacity that holds 100 elements",
+                HashTableConfig.defaults().capacityFor(100), draining.capacity());
+        Assert.assertEquals("The size should be 100 after shrinking", 100, draining.size());
+        for(int i = 0; i < 100; i++) {
+            Assert.assertTrue("Element " + i + " should be found after shrinking", draining.contains(i));
+        }
+
+        //a table that never shrinks keeps its peak capacity
+        HashTable<Integer> fixed = new HashTable<>(HashTableConfig.defaults().withShrinkThreshold(0));
+        for(int i = 0; i < 1000; i++) {
+            fixed.add(i);
+        }
+        int capacity = fixed.capacity();
+        for(int i = 0; i < 1000; i++) {
+            fixed.remove(i);
+        }
+        Assert.assertEquals("A table with no shrink threshold should keep its capacity", capacity, fixed.capacity());
+    }
+
+    /**
+     * Test that a weakly consistent iterator keeps going while the table
+     * grows, shrinks and is written to, returning every element that was
+     * never removed exactly once
+     */
+    @Test
+    public void testWeaklyConsistentIterator()
+    {
+        for(boolean incremental : new boolean[] {false, true}) {
+            HashTable<Integer> table = new HashTable<>(incremental);
+            for(int i = 0; i < 1000; i++) {
+                table.add(i);
+            }
+
+            java.util.Set<Integer> seen = new HashSet<>();
+            int step = 0;
+            for(Iterator<Integer> iterator = table.weaklyConsistentIterator(); iterator.hasNext(); step++) {
+                Assert.assertTrue("The iterator returned an element twice", seen.add(iterator.next()));
+
+                //grow the table with new elements, then remove the odd original elements
+                if(step < 500) {
+                    table.add(1000 + step * 7);
+                }
+                else if(step < 1000) {
+                    table.remove((step - 500) * 2 + 1);
+                }
+            }
+
+            for(int i = 0; i < 1000; i += 2) {
+                Assert.assertTrue("Element " + i + " was never removed and should be returned", seen.contains(i));
+            }
+        }
+
+        //the config makes the table's own iterator weakly consistent
+        HashTable<Integer> table = new HashTable<>(HashTableConfig.defaults().withWeaklyConsistentIteration(true));
+        for(int i = 0; i < 100; i++) {
+            table.add(i);
+        }
+        int count = 0;
+        for(Integer element : table) {
+            table.add(element + 100);
+            count++;
+        }
+        Assert.assertTrue("Every original element should be returned", count >= 100);
+        Assert.assertEquals("Size should count the elements added while iterating", 200, table.size());
+
+        try {
+            Iterator<Integer> iterator = new HashTable<Integer>().weaklyConsistentIterator();
+            iterator.next();
+
+            //should not get here
+            Assert.fail("Did not throw an exception when iterating past the end");
+        }
+        catch(NoSuchElementException ex) {}
+    }
+
+    /**
+     * Test that removeIf unlinks every matching element in one pass,
+     * including from a table in the middle of an incremental resize
+     */
+    @Test
+    public void testRemoveIf()
+    {
+        HashTable<Integer> incremental = new HashTable<>(true);
+        for(int i = 0; i < 1000; i++) {
+            incremental.add(i);
+        }
+
+        Assert.assertTrue("removeIf should report that elements were removed",
+                incremental.removeIf(element -> element % 3 == 0));
+        Assert.assertEquals("Size should be 666 after removing the multiples of 3", 666, incremental.size());
+        for(int i = 0; i < 1000; i++) {
+            Assert.assertEquals("Only the multiples of 3 should be removed", i % 3 != 0, incremental.contains(i));
+        }
+
+        Assert.assertFalse("removeIf should report no change when nothing matches",
+                incremental.removeIf(element -> element < 0));
+        Assert.assertTrue("removeIf should remove every element", incremental.removeIf(element -> true));
+        Assert.assertTrue("Table should be empty after removing every element", incremental.isEmpty());
+    }
+
     /**
      * Test that the iterator created is not null and that it properly iterates through the table
      * after adding elements to it.